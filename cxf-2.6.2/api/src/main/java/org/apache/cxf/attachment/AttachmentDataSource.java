@@ -36,6 +36,7 @@ public class AttachmentDataSource implements DataSource {
     private InputStream ins;
     private DelegatingInputStream delegate;
     private String name;
+    private boolean skipped;
     
     public AttachmentDataSource(String ctParam, InputStream inParam) throws IOException {
         this.ct = ctParam;        
@@ -45,6 +46,9 @@ public class AttachmentDataSource implements DataSource {
     public boolean isCached() {
         return cache != null;
     }
+    public boolean isSkipped() {
+        return skipped;
+    }
     public void cache(Message message) throws IOException {
         if (cache == null) {
             cache = new CachedOutputStream();
@@ -58,6 +62,30 @@ public class AttachmentDataSource implements DataSource {
             }
         }
     }
+    /**
+     * Reads and drops the part content which has not been consumed yet, 
+     * the content can not be read afterwards. 
+     */
+    public void discard() throws IOException {
+        if (cache == null && !skipped) {
+            IOUtils.consume(ins);
+            ins.close();
+            ins = createSkippedStream();
+            if (delegate != null) {
+                delegate.setInputStream(ins);
+            }
+            skipped = true;
+        }
+    }
+    
+    static InputStream createSkippedStream() {
+        return new InputStream() {
+            public int read() throws IOException {
+                throw new IOException("The attachment content has been skipped while streaming");
+            }
+        };
+    }
+    
     public void hold(Message message) throws IOException {
         cache(message);
         cache.holdTempFile();
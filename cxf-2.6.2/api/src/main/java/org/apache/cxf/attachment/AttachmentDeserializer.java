@@ -58,6 +58,13 @@ public class AttachmentDeserializer {
     public static final String ATTACHMENT_MAX_HEADER_SIZE = "attachment-max-header-size";
     public static final int DEFAULT_MAX_HEADER_SIZE = 300;
 
+    /**
+     * If set to true then the mime parts which have not been read by the time the next
+     * part is requested are discarded instead of being cached, so that large messages 
+     * can be processed part by part. The default is false.
+     */
+    public static final String ATTACHMENT_STREAMING = "attachment-streaming";
+
     public static final int THRESHOLD = 1024 * 100; //100K (byte unit)
 
     private static final Pattern CONTENT_TYPE_BOUNDARY_PATTERN = Pattern.compile("boundary=\"?([^\";]*)");
@@ -68,6 +75,7 @@ public class AttachmentDeserializer {
     private static final Logger LOG = LogUtils.getL7dLogger(AttachmentDeserializer.class);
 
     private boolean lazyLoading = true;
+    private boolean streaming;
 
     private int pbAmount = 2048;
     private PushbackInputStream stream;
@@ -101,6 +109,7 @@ public class AttachmentDeserializer {
         // Get the maximum Header length from configuration
         maxHeaderLength = MessageUtils.getContextualInteger(message, ATTACHMENT_MAX_HEADER_SIZE,
                                                             DEFAULT_MAX_HEADER_SIZE);
+        streaming = MessageUtils.isTrue(message.getContextualProperty(ATTACHMENT_STREAMING));
     }
 
     public void initializeAttachments() throws IOException {
@@ -219,7 +228,9 @@ public class AttachmentDeserializer {
             DataSource s = a.getDataHandler().getDataSource();
             if (s instanceof AttachmentDataSource) {
                 AttachmentDataSource ads = (AttachmentDataSource)s;
-                if (!ads.isCached()) {
+                if (streaming) {
+                    ads.discard();
+                } else if (!ads.isCached()) {
                     ads.cache(message);
                 }
             } else if (s.getInputStream() instanceof DelegatingInputStream) {
@@ -236,6 +247,12 @@ public class AttachmentDeserializer {
         }
         loaded.add(input);
         InputStream origIn = input.getInputStream();
+        if (streaming) {
+            IOUtils.consume(origIn);
+            input.setInputStream(AttachmentDataSource.createSkippedStream());
+            origIn.close();
+            return;
+        }
         CachedOutputStream out = new CachedOutputStream();
         try {
 
@@ -312,6 +329,14 @@ public class AttachmentDeserializer {
         this.lazyLoading = lazyLoading;
     }
 
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
     public void markClosed(DelegatingInputStream delegatingInputStream) throws IOException {
         closedCount++;
         if (closedCount == createCount && !attachments.hasNext(false)) {
@@ -20,6 +20,7 @@
 package org.apache.cxf.common.util;
 
 import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.GenericArrayType;
@@ -111,6 +112,7 @@ public class ASMHelper {
         public static int ACC_FINAL = 0;
         public static int ACC_SUPER = 0;
         public static int ACC_PRIVATE = 0;
+        public static int ACC_STATIC = 0;
         public static int V1_5 = 0;
         public static int ACC_ABSTRACT = 0;
         public static int ACC_INTERFACE = 0;
@@ -380,6 +382,34 @@ public class ASMHelper {
         }
     }
     
+    /**
+     * Combines the given labels into a single Label whose value is the 
+     * underlying ASM Label[], as required by visitTableSwitchInsn. 
+     */
+    public Label createLabelArray(Label ... labels) {
+        try {
+            final Class<?> cls = ClassLoaderUtils.loadClass(cwClass.getPackage().getName() + ".Label",
+                                                      cwClass);
+            final Object array = Array.newInstance(cls, labels.length);
+            for (int x = 0; x < labels.length; x++) {
+                Method m = labels[x].getClass().getMethod("getValue");
+                Array.set(array, x, ReflectionUtil.setAccessible(m).invoke(labels[x]));
+            }
+            @SuppressWarnings("unused")
+            Label l = new Label() {
+                public Object getValue() {
+                    return array;
+                }
+                public Class<?> realType() {
+                    return array.getClass();
+                }
+            };
+            return l;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+    
     public interface ClassWriter {
         @WrapReturn(AnnotationVisitor.class)
         AnnotationVisitor visitAnnotation(String cls, boolean t);
@@ -429,6 +459,9 @@ public class ASMHelper {
         void visitFieldInsn(int getfield, String periodToSlashes,
                             String string, String string2);
         void visitJumpInsn(int ifnonnull, @UnwrapParam(typeMethodName = "realType") Label nonNullLabel);
+        void visitTableSwitchInsn(int min, int max,
+                                  @UnwrapParam(typeMethodName = "realType") Label dflt,
+                                  @UnwrapParam(typeMethodName = "realType") Label labelArray);
     }
     public interface AnnotationVisitor {
         void visit(String arg0, @UnwrapParam(typeMethodName = "realType") ASMType arg1);
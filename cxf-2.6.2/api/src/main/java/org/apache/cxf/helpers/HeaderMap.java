@@ -0,0 +1,428 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.helpers;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A case-insensitive map of protocol header names to header values.
+ * <p>
+ * Lookups hash the header name without case folding it into a new String,
+ * so {@link #get(Object)}, {@link #containsKey(Object)} and {@link #remove(Object)}
+ * are O(1) rather than O(log n) as with a <code>TreeMap</code> using
+ * <code>String.CASE_INSENSITIVE_ORDER</code>. Entries are iterated in insertion
+ * order and, as with the <code>TreeMap</code>, keep the spelling of the name they
+ * were first added with. Names of well-known HTTP headers are replaced with
+ * shared constants so that per-request copies are not retained.
+ * <p>
+ * Values added with {@link #add(String, Object)} or {@link #putSingle(String, Object)}
+ * are held inline until a second value is added or the value list is requested,
+ * so single-valued headers which are never read do not allocate a list.
+ * <p>
+ * This class is not thread safe.
+ */
+public class HeaderMap<V> extends AbstractMap<String, List<V>> {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    private static final Map<String, String> KNOWN_NAMES = new HashMap<String, String>();
+
+    static {
+        String[] names = {
+            "Accept", "Accept-Charset", "Accept-Encoding", "Accept-Language", "Allow",
+            "Authorization", "Cache-Control", "Connection", "Content-Disposition",
+            "Content-Encoding", "Content-ID", "Content-Language", "Content-Length",
+            "Content-Location", "Content-Transfer-Encoding", "Content-Type", "Cookie",
+            "Date", "ETag", "Expect", "Expires", "Host", "If-Match", "If-Modified-Since",
+            "If-None-Match", "If-Unmodified-Since", "Keep-Alive", "Last-Modified", "Location",
+            "Pragma", "Proxy-Authorization", "Referer", "Server", "Set-Cookie", "SOAPAction",
+            "Transfer-Encoding", "User-Agent", "Vary", "WWW-Authenticate"
+        };
+        for (String name : names) {
+            KNOWN_NAMES.put(name, name);
+            String lower = name.toLowerCase();
+            KNOWN_NAMES.put(lower, lower);
+        }
+    }
+
+    private Node<V>[] table;
+    private Node<V> head;
+    private Node<V> tail;
+    private int size;
+    private int threshold;
+    private int modCount;
+    private Set<Map.Entry<String, List<V>>> entrySet;
+
+    public HeaderMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public HeaderMap(int expectedSize) {
+        int capacity = 1;
+        while (capacity < MAXIMUM_CAPACITY && capacity * 3 < expectedSize * 4) {
+            capacity <<= 1;
+        }
+        table = newTable(capacity);
+        threshold = capacity * 3 / 4;
+    }
+
+    public HeaderMap(Map<String, ? extends List<V>> map) {
+        this(map.size());
+        putAll(map);
+    }
+
+    /**
+     * Appends a value to the values of the given header, adding the header
+     * if it is not yet present.
+     */
+    public void add(String name, V value) {
+        Node<V> node = getNode(name);
+        if (node == null) {
+            addNode(name).setSingle(value);
+        } else {
+            node.add(value);
+        }
+    }
+
+    /**
+     * Replaces the values of the given header with a single value.
+     */
+    public void putSingle(String name, V value) {
+        Node<V> node = getNode(name);
+        if (node == null) {
+            node = addNode(name);
+        }
+        node.setSingle(value);
+    }
+
+    /**
+     * Returns the first value of the given header, or null if the header
+     * is not present or has no values.
+     */
+    public V getFirst(String name) {
+        Node<V> node = getNode(name);
+        return node == null ? null : node.getFirst();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return getNode(key) != null;
+    }
+
+    @Override
+    public List<V> get(Object key) {
+        Node<V> node = getNode(key);
+        return node == null ? null : node.getValue();
+    }
+
+    @Override
+    public List<V> put(String key, List<V> value) {
+        Node<V> node = getNode(key);
+        if (node == null) {
+            addNode(key).setValue(value);
+            return null;
+        }
+        return node.setValue(value);
+    }
+
+    @Override
+    public List<V> remove(Object key) {
+        Node<V> node = getNode(key);
+        if (node == null) {
+            return null;
+        }
+        List<V> old = node.getValue();
+        removeNode(node);
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        if (size > 0) {
+            for (int i = 0; i < table.length; i++) {
+                table[i] = null;
+            }
+            head = null;
+            tail = null;
+            size = 0;
+            modCount++;
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<String, List<V>>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    static int hash(String name) {
+        int h = 0;
+        for (int i = 0; i < name.length(); i++) {
+            h = 31 * h + fold(name.charAt(i));
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static char fold(char c) {
+        if (c < 128) {
+            return c >= 'A' && c <= 'Z' ? (char)(c + ('a' - 'A')) : c;
+        }
+        // same folding as String.equalsIgnoreCase
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private Node<V> getNode(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        String name = (String)key;
+        int h = hash(name);
+        for (Node<V> n = table[h & (table.length - 1)]; n != null; n = n.next) {
+            if (n.hash == h && (n.key == name || n.key.equalsIgnoreCase(name))) {
+                return n;
+            }
+        }
+        return null;
+    }
+
+    private Node<V> addNode(String name) {
+        if (name == null) {
+            throw new NullPointerException("Header name is null");
+        }
+        String known = KNOWN_NAMES.get(name);
+        Node<V> node = new Node<V>(hash(name), known == null ? name : known);
+        if (size >= threshold) {
+            resize();
+        }
+        int idx = node.hash & (table.length - 1);
+        node.next = table[idx];
+        table[idx] = node;
+        if (tail == null) {
+            head = node;
+        } else {
+            tail.after = node;
+            node.before = tail;
+        }
+        tail = node;
+        size++;
+        modCount++;
+        return node;
+    }
+
+    private void removeNode(Node<V> node) {
+        int idx = node.hash & (table.length - 1);
+        Node<V> prev = null;
+        for (Node<V> n = table[idx]; n != null; prev = n, n = n.next) {
+            if (n == node) {
+                if (prev == null) {
+                    table[idx] = n.next;
+                } else {
+                    prev.next = n.next;
+                }
+                break;
+            }
+        }
+        if (node.before == null) {
+            head = node.after;
+        } else {
+            node.before.after = node.after;
+        }
+        if (node.after == null) {
+            tail = node.before;
+        } else {
+            node.after.before = node.before;
+        }
+        size--;
+        modCount++;
+    }
+
+    private void resize() {
+        if (table.length >= MAXIMUM_CAPACITY) {
+            threshold = Integer.MAX_VALUE;
+            return;
+        }
+        Node<V>[] newTable = newTable(table.length << 1);
+        for (Node<V> n = head; n != null; n = n.after) {
+            int idx = n.hash & (newTable.length - 1);
+            n.next = newTable[idx];
+            newTable[idx] = n;
+        }
+        table = newTable;
+        threshold = newTable.length * 3 / 4;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> Node<V>[] newTable(int capacity) {
+        return new Node[capacity];
+    }
+
+    private static final class Node<V> implements Map.Entry<String, List<V>> {
+        final int hash;
+        final String key;
+        Node<V> next;
+        Node<V> before;
+        Node<V> after;
+        List<V> values;
+        V single;
+        boolean hasSingle;
+
+        Node(int hash, String key) {
+            this.hash = hash;
+            this.key = key;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public List<V> getValue() {
+            if (hasSingle) {
+                // the caller may modify the returned list, so it has to be a real one
+                values = new ArrayList<V>(2);
+                values.add(single);
+                single = null;
+                hasSingle = false;
+            }
+            return values;
+        }
+
+        public List<V> setValue(List<V> value) {
+            List<V> old = getValue();
+            values = value;
+            return old;
+        }
+
+        void setSingle(V value) {
+            values = null;
+            single = value;
+            hasSingle = true;
+        }
+
+        void add(V value) {
+            List<V> list = getValue();
+            if (list == null) {
+                setSingle(value);
+            } else {
+                list.add(value);
+            }
+        }
+
+        V getFirst() {
+            if (hasSingle) {
+                return single;
+            }
+            return values == null || values.isEmpty() ? null : values.get(0);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>)o;
+            Object v = getValue();
+            return key.equals(e.getKey())
+                && (v == null ? e.getValue() == null : v.equals(e.getValue()));
+        }
+
+        @Override
+        public int hashCode() {
+            Object v = getValue();
+            return key.hashCode() ^ (v == null ? 0 : v.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<String, List<V>>> {
+        @Override
+        public Iterator<Map.Entry<String, List<V>>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            HeaderMap.this.clear();
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Map.Entry<String, List<V>>> {
+        private Node<V> nextNode = head;
+        private Node<V> current;
+        private int expectedModCount = modCount;
+
+        public boolean hasNext() {
+            return nextNode != null;
+        }
+
+        public Map.Entry<String, List<V>> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (nextNode == null) {
+                throw new NoSuchElementException();
+            }
+            current = nextNode;
+            nextNode = nextNode.after;
+            return current;
+        }
+
+        public void remove() {
+            if (current == null) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeNode(current);
+            current = null;
+            expectedModCount = modCount;
+        }
+    }
+}
@@ -0,0 +1,361 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.helpers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.cxf.common.util.SystemPropertyAction;
+
+/**
+ * ByteArrayOutputStream which keeps its content in a list of segments rather than 
+ * in a single array, so that growing does not copy the data written so far. The first 
+ * segment is allocated with the initial size, the next ones are fixed size chunks 
+ * taken from a pool shared by all the streams.
+ * 
+ * The content can be read back with {@link #createInputStream()} or written to a 
+ * stream or a channel without copying it. The chunks go back to the pool on 
+ * {@link #reset()} or {@link #release()}, unless an InputStream was created, in which 
+ * case they are left to the garbage collector as the InputStream may still use them.
+ */
+public class SegmentedByteArrayOutputStream extends ByteArrayOutputStream {
+    
+    private static final Queue<byte[]> POOL = new ConcurrentLinkedQueue<byte[]>();
+    private static final AtomicInteger POOLED = new AtomicInteger();
+    private static final AtomicInteger PEAK_POOLED = new AtomicInteger();
+    private static final AtomicLong ALLOCATED = new AtomicLong();
+    private static final AtomicLong REUSED = new AtomicLong();
+    private static int chunkSize;
+    private static int maxPooledChunks;
+    
+    static {
+        setChunkSize(-1);
+        setMaxPooledChunks(-1);
+    }
+    
+    private final List<byte[]> segments = new ArrayList<byte[]>();
+    private byte[] current;
+    private int pos;
+    private long size;
+    private boolean shared;
+    
+    public SegmentedByteArrayOutputStream() {
+        this(1024);
+    }
+    public SegmentedByteArrayOutputStream(int initialSize) {
+        super(0);
+        current = new byte[initialSize > 0 ? initialSize : 1];
+        segments.add(current);
+    }
+    
+    public static void setChunkSize(int i) {
+        if (i == -1) {
+            String s = SystemPropertyAction.getProperty(
+                "org.apache.cxf.helpers.SegmentedByteArrayOutputStream.ChunkSize", "-1");
+            i = Integer.parseInt(s);
+            if (i <= 0) {
+                i = 8 * 1024;
+            }
+        }
+        if (i != chunkSize) {
+            POOL.clear();
+            POOLED.set(0);
+        }
+        chunkSize = i;
+    }
+    
+    /**
+     * Sets the maximum number of idle chunks kept in the pool.
+     */
+    public static void setMaxPooledChunks(int i) {
+        if (i == -1) {
+            String s = SystemPropertyAction.getProperty(
+                "org.apache.cxf.helpers.SegmentedByteArrayOutputStream.MaxPooledChunks", "-1");
+            i = Integer.parseInt(s);
+            if (i < 0) {
+                i = 256;
+            }
+        }
+        maxPooledChunks = i;
+    }
+    
+    /**
+     * @return the number of idle chunks in the pool
+     */
+    public static int getPooledChunks() {
+        return POOLED.get();
+    }
+    
+    /**
+     * @return the highest number of idle chunks the pool has held
+     */
+    public static int getPeakPooledChunks() {
+        return PEAK_POOLED.get();
+    }
+    
+    /**
+     * @return the number of chunks which had to be allocated 
+     */
+    public static long getAllocatedChunks() {
+        return ALLOCATED.get();
+    }
+    
+    /**
+     * @return the number of chunks which were taken from the pool 
+     */
+    public static long getReusedChunks() {
+        return REUSED.get();
+    }
+    
+    @Override
+    public void write(int b) {
+        if (pos == current.length) {
+            nextSegment();
+        }
+        current[pos++] = (byte)b;
+        size++;
+    }
+    
+    @Override
+    public void write(byte[] b, int off, int len) {
+        if (off < 0 || len < 0 || off + len > b.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        while (len > 0) {
+            if (pos == current.length) {
+                nextSegment();
+            }
+            int n = Math.min(len, current.length - pos);
+            System.arraycopy(b, off, current, pos, n);
+            pos += n;
+            off += n;
+            len -= n;
+            size += n;
+        }
+    }
+    
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        for (int i = 0; i < segments.size(); i++) {
+            byte[] segment = segments.get(i);
+            out.write(segment, 0, segment == current ? pos : segment.length);
+        }
+    }
+    
+    /**
+     * Writes the content to the channel, wrapping the segments rather than copying them. 
+     */
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        for (int i = 0; i < segments.size(); i++) {
+            byte[] segment = segments.get(i);
+            ByteBuffer buffer = ByteBuffer.wrap(segment, 0, segment == current ? pos : segment.length);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+    
+    /**
+     * @return a stream reading the content straight from the segments, the output 
+     * stream should no longer be written to once it has been created  
+     */
+    public InputStream createInputStream() {
+        shared = true;
+        return new SegmentInputStream(new ArrayList<byte[]>(segments), current, pos);
+    }
+    
+    @Override
+    public byte[] toByteArray() {
+        byte[] bytes = new byte[(int)size];
+        int off = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            byte[] segment = segments.get(i);
+            int len = segment == current ? pos : segment.length;
+            System.arraycopy(segment, 0, bytes, off, len);
+            off += len;
+        }
+        return bytes;
+    }
+    
+    @Override
+    public int size() {
+        return (int)size;
+    }
+    
+    @Override
+    public void reset() {
+        release();
+    }
+    
+    /**
+     * Discards the content and returns the chunks to the pool. 
+     */
+    public void release() {
+        byte[] first = segments.get(0);
+        if (!shared) {
+            for (int i = 1; i < segments.size(); i++) {
+                byte[] segment = segments.get(i);
+                if (segment.length == chunkSize && POOLED.get() < maxPooledChunks) {
+                    int pooled = POOLED.incrementAndGet();
+                    int peak = PEAK_POOLED.get();
+                    while (pooled > peak && !PEAK_POOLED.compareAndSet(peak, pooled)) {
+                        peak = PEAK_POOLED.get();
+                    }
+                    POOL.offer(segment);
+                }
+            }
+        } else {
+            // the first segment may be in use too
+            first = new byte[first.length];
+        }
+        segments.clear();
+        segments.add(first);
+        current = first;
+        pos = 0;
+        size = 0;
+        shared = false;
+    }
+    
+    @Override
+    public String toString() {
+        return IOUtils.newStringFromBytes(toByteArray());
+    }
+    
+    @Override
+    public String toString(String charsetName) throws UnsupportedEncodingException {
+        return new String(toByteArray(), charsetName);
+    }
+    
+    private void nextSegment() {
+        byte[] segment = POOL.poll();
+        if (segment != null) {
+            POOLED.decrementAndGet();
+            REUSED.incrementAndGet();
+        } else {
+            segment = new byte[chunkSize];
+            ALLOCATED.incrementAndGet();
+        }
+        segments.add(segment);
+        current = segment;
+        pos = 0;
+    }
+    
+    private static class SegmentInputStream extends InputStream {
+        private final List<byte[]> segments;
+        private final byte[] last;
+        private final int lastLength;
+        private int index;
+        private byte[] segment;
+        private int segmentLength;
+        private int pos;
+        private int markIndex;
+        private int markPos;
+        
+        SegmentInputStream(List<byte[]> segments, byte[] last, int lastLength) {
+            this.segments = segments;
+            this.last = last;
+            this.lastLength = lastLength;
+            nextSegment();
+        }
+        
+        public int read() {
+            if (!hasRemaining()) {
+                return -1;
+            }
+            return segment[pos++] & 0xff;
+        }
+        
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, segmentLength - pos);
+            System.arraycopy(segment, pos, b, off, n);
+            pos += n;
+            return n;
+        }
+        
+        public long skip(long n) {
+            long skipped = 0;
+            while (skipped < n && hasRemaining()) {
+                int count = (int)Math.min(n - skipped, segmentLength - pos);
+                pos += count;
+                skipped += count;
+            }
+            return skipped;
+        }
+        
+        public int available() {
+            return segment == null ? 0 : segmentLength - pos;
+        }
+        
+        public boolean markSupported() {
+            return true;
+        }
+        
+        public void mark(int readlimit) {
+            if (hasRemaining()) {
+                markIndex = index - 1;
+                markPos = pos;
+            } else {
+                markIndex = segments.size();
+                markPos = 0;
+            }
+        }
+        
+        public void reset() {
+            index = markIndex;
+            nextSegment();
+            pos = markPos;
+        }
+        
+        private boolean hasRemaining() {
+            while (segment != null && pos == segmentLength) {
+                nextSegment();
+            }
+            return segment != null;
+        }
+        
+        private void nextSegment() {
+            if (index < segments.size()) {
+                segment = segments.get(index++);
+                segmentLength = segment == last ? lastLength : segment.length;
+            } else {
+                segment = null;
+                segmentLength = 0;
+            }
+            pos = 0;
+        }
+    }
+}
@@ -27,7 +27,10 @@ import java.util.StringTokenizer;
 import javax.xml.namespace.QName;
 
 import org.apache.cxf.annotations.SchemaValidation.SchemaValidationType;
+import org.apache.cxf.message.Exchange;
 import org.apache.cxf.message.Message;
+import org.apache.cxf.service.model.BindingOperationInfo;
+import org.apache.cxf.service.model.OperationInfo;
 
 public final class ServiceUtils {
     
@@ -52,6 +55,9 @@ public final class ServiceUtils {
     /**
      * Determines the appropriate SchemaValidationType to return based on either
      * a Boolean (for backwards compatibility) or the selected Schema Validation Type.
+     * A value set on the message itself takes precedence, followed by a value set
+     * on the operation of the exchange (if already known) and the contextual
+     * (endpoint, service, bus) value.
      * 
      * Package private as the isSchemaValidationEnabled method should be used instead.  Only
      * visible for easier testing
@@ -59,7 +65,13 @@ public final class ServiceUtils {
      * @param message
      */
     static SchemaValidationType getSchemaValidationType(Message message) {
-        Object obj = message.getContextualProperty(Message.SCHEMA_VALIDATION_ENABLED);
+        Object obj = message.get(Message.SCHEMA_VALIDATION_ENABLED);
+        if (obj == null) {
+            obj = getOperationSchemaValidation(message.getExchange());
+        }
+        if (obj == null) {
+            obj = message.getContextualProperty(Message.SCHEMA_VALIDATION_ENABLED);
+        }
         if (obj instanceof SchemaValidationType) {
             return (SchemaValidationType)obj;
         } else if (obj != null) { 
@@ -77,6 +89,20 @@ public final class ServiceUtils {
         return SchemaValidationType.NONE;
     }
     
+    private static Object getOperationSchemaValidation(Exchange exchange) {
+        BindingOperationInfo bop = exchange == null ? null : exchange.getBindingOperationInfo();
+        if (bop == null) {
+            return null;
+        }
+        OperationInfo op = bop.getOperationInfo();
+        Object obj = op.getProperty(Message.SCHEMA_VALIDATION_ENABLED);
+        if (obj == null && bop.isUnwrapped()) {
+            obj = bop.getWrappedOperation().getOperationInfo()
+                .getProperty(Message.SCHEMA_VALIDATION_ENABLED);
+        }
+        return obj;
+    }
+    
     /**
      * Generates a suitable service name from a given class. The returned name
      * is the simple name of the class, i.e. without the package name.
@@ -67,7 +67,6 @@ public class DocLiteralInInterceptor extends AbstractInDatabindingInterceptor {
         }
 
         DepthXMLStreamReader xmlReader = getXMLStreamReader(message);
-        DataReader<XMLStreamReader> dr = getDataReader(message);
         MessageContentsList parameters = new MessageContentsList();
 
         Exchange exchange = message.getExchange();
@@ -93,6 +92,8 @@ public class DocLiteralInInterceptor extends AbstractInDatabindingInterceptor {
                 : xmlReader.getName();
             bop = getBindingOperationInfo(exchange, startQName, client);
         }
+        // created once the operation is known so per operation schema validation applies
+        DataReader<XMLStreamReader> dr = getDataReader(message);
 
         try {
             if (bop != null && bop.isUnwrappedCapable()) {
@@ -26,6 +26,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -34,14 +35,18 @@ import java.io.PipedOutputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.cxf.common.util.SystemPropertyAction;
 import org.apache.cxf.helpers.FileUtils;
 import org.apache.cxf.helpers.IOUtils;
 import org.apache.cxf.helpers.LoadingByteArrayOutputStream;
+import org.apache.cxf.helpers.SegmentedByteArrayOutputStream;
 
 public class CachedOutputStream extends OutputStream {
     private static final File DEFAULT_TEMP_DIR;
+    private static final AtomicLong OFF_HEAP_SPILLS = new AtomicLong();
+    private static final AtomicLong TEMP_FILE_SPILLS = new AtomicLong();
     private static int defaultThreshold;
     private static long defaultMaxSize;
     static {
@@ -87,13 +92,13 @@ public class CachedOutputStream extends OutputStream {
     }
 
     public CachedOutputStream() {
-        currentStream = new LoadingByteArrayOutputStream(2048);
+        currentStream = new SegmentedByteArrayOutputStream(2048);
         inmem = true;
     }
 
     public CachedOutputStream(long threshold) {
         this.threshold = threshold; 
-        currentStream = new LoadingByteArrayOutputStream(2048);
+        currentStream = new SegmentedByteArrayOutputStream(2048);
         inmem = true;
     }
 
@@ -224,6 +229,7 @@ public class CachedOutputStream extends OutputStream {
                     if (copyOldContent && byteOut.size() > 0) {
                         byteOut.writeTo(out);
                     }
+                    releaseSegments(byteOut);
                 } else if (currentStream instanceof PipedOutputStream) {
                     PipedOutputStream pipeOut = (PipedOutputStream) currentStream;
                     IOUtils.copyAndCloseInput(new PipedInputStream(pipeOut), out);
@@ -231,14 +237,13 @@ public class CachedOutputStream extends OutputStream {
                     throw new IOException("Unknown format of currentStream");
                 }
             } else {
-                // read the file
+                // read the file or the off-heap buffers
                 currentStream.close();
                 if (copyOldContent) {
-                    FileInputStream fin = new FileInputStream(tempFile);
-                    IOUtils.copyAndCloseInput(fin, out);
+                    IOUtils.copyAndCloseInput(openCache(), out);
                 }
                 streamList.remove(currentStream);
-                deleteTempFile();
+                deleteCache();
                 inmem = true;
             }
         }
@@ -262,6 +267,8 @@ public class CachedOutputStream extends OutputStream {
             } else {
                 throw new IOException("Unknown format of currentStream");
             }
+        } else if (currentStream instanceof DirectBufferOutputStream) {
+            return ((DirectBufferOutputStream)currentStream).toByteArray();
         } else {
             // read the file
             FileInputStream fin = new FileInputStream(tempFile);
@@ -277,6 +284,8 @@ public class CachedOutputStream extends OutputStream {
             } else {
                 throw new IOException("Unknown format of currentStream");
             }
+        } else if (currentStream instanceof DirectBufferOutputStream) {
+            ((DirectBufferOutputStream)currentStream).writeTo(out);
         } else {
             // read the file
             FileInputStream fin = new FileInputStream(tempFile);
@@ -305,8 +314,8 @@ public class CachedOutputStream extends OutputStream {
                 throw new IOException("Unknown format of currentStream");
             }
         } else {
-            // read the file
-            FileInputStream fin = new FileInputStream(tempFile);
+            // read the file or the off-heap buffers
+            InputStream fin = openCache();
             byte bytes[] = new byte[1024];
             long x = fin.read(bytes);
             while (x != -1) {
@@ -340,8 +349,8 @@ public class CachedOutputStream extends OutputStream {
                 throw new IOException("Unknown format of currentStream");
             }
         } else {
-            // read the file
-            FileInputStream fin = new FileInputStream(tempFile);
+            // read the file or the off-heap buffers
+            InputStream fin = openCache();
             byte bytes[] = new byte[1024];
             int x = fin.read(bytes);
             while (x != -1) {
@@ -385,8 +394,14 @@ public class CachedOutputStream extends OutputStream {
             throw new CacheSizeExceededException();
         }
         if (inmem && totalLength > threshold && currentStream instanceof ByteArrayOutputStream) {
+            if (!createDirectBufferOutputStream()) {
+                createFileOutputStream();
+            }
+        } else if (currentStream instanceof DirectBufferOutputStream
+            && !((DirectBufferOutputStream)currentStream).ensureCapacity(totalLength, tempFileFailed)) {
+            // the off-heap budget is exhausted
             createFileOutputStream();
-        }       
+        }
     }
 
     public void write(byte[] b, int off, int len) throws IOException {
@@ -416,11 +431,29 @@ public class CachedOutputStream extends OutputStream {
         }
     }
 
+    private boolean createDirectBufferOutputStream() throws IOException {
+        if (!DirectBufferOutputStream.isEnabled()) {
+            return false;
+        }
+        DirectBufferOutputStream dout = new DirectBufferOutputStream();
+        if (!dout.ensureCapacity(totalLength, false)) {
+            dout.release();
+            return false;
+        }
+        ((ByteArrayOutputStream)currentStream).writeTo(dout);
+        releaseSegments(currentStream);
+        currentStream = dout;
+        inmem = false;
+        streamList.add(currentStream);
+        OFF_HEAP_SPILLS.incrementAndGet();
+        return true;
+    }
+
     private void createFileOutputStream() throws IOException {
         if (tempFileFailed) {
             return;
         }
-        ByteArrayOutputStream bout = (ByteArrayOutputStream)currentStream;
+        OutputStream bout = currentStream;
         try {
             if (outputDir == null) {
                 tempFile = FileUtils.createTempFile("cos", "tmp");
@@ -429,9 +462,17 @@ public class CachedOutputStream extends OutputStream {
             }
             
             currentStream = new BufferedOutputStream(new FileOutputStream(tempFile));
-            bout.writeTo(currentStream);
+            if (bout instanceof DirectBufferOutputStream) {
+                ((DirectBufferOutputStream)bout).writeTo(currentStream);
+                streamList.remove(bout);
+                ((DirectBufferOutputStream)bout).release();
+            } else {
+                ((ByteArrayOutputStream)bout).writeTo(currentStream);
+                releaseSegments(bout);
+            }
             inmem = false;
             streamList.add(currentStream);
+            TEMP_FILE_SPILLS.incrementAndGet();
         } catch (Exception ex) {
             //Could be IOException or SecurityException or other issues.
             //Don't care what, just keep it in memory.
@@ -440,7 +481,7 @@ public class CachedOutputStream extends OutputStream {
                 currentStream.close();
             }
             deleteTempFile();
-            inmem = true;
+            inmem = !(bout instanceof DirectBufferOutputStream);
             currentStream = bout;
         }
     }
@@ -452,7 +493,9 @@ public class CachedOutputStream extends OutputStream {
     public InputStream getInputStream() throws IOException {
         flush();
         if (inmem) {
-            if (currentStream instanceof LoadingByteArrayOutputStream) {
+            if (currentStream instanceof SegmentedByteArrayOutputStream) {
+                return ((SegmentedByteArrayOutputStream) currentStream).createInputStream();
+            } else if (currentStream instanceof LoadingByteArrayOutputStream) {
                 return ((LoadingByteArrayOutputStream) currentStream).createInputStream();
             } else if (currentStream instanceof ByteArrayOutputStream) {
                 return new ByteArrayInputStream(((ByteArrayOutputStream) currentStream).toByteArray());
@@ -461,6 +504,20 @@ public class CachedOutputStream extends OutputStream {
             } else {
                 return null;
             }
+        } else if (currentStream instanceof DirectBufferOutputStream) {
+            InputStream in = ((DirectBufferOutputStream)currentStream).createInputStream();
+            InputStream bufferInputStream = new FilterInputStream(in) {
+                boolean closed;
+                public void close() throws IOException {
+                    if (!closed) {
+                        super.close();
+                        maybeDeleteTempFile(this);
+                    }
+                    closed = true;
+                }
+            };
+            streamList.add(bufferInputStream);
+            return bufferInputStream;
         } else {
             try {
                 FileInputStream fileInputStream = new FileInputStream(tempFile) {
@@ -488,9 +545,28 @@ public class CachedOutputStream extends OutputStream {
             FileUtils.delete(file);
         }
     }
+    private static void releaseSegments(OutputStream out) {
+        if (out instanceof SegmentedByteArrayOutputStream) {
+            // the chunks go back to the pool unless an InputStream still uses them
+            ((SegmentedByteArrayOutputStream)out).release();
+        }
+    }
+    private void deleteCache() {
+        if (currentStream instanceof DirectBufferOutputStream) {
+            ((DirectBufferOutputStream)currentStream).release();
+        }
+        deleteTempFile();
+    }
+    private InputStream openCache() throws IOException {
+        if (currentStream instanceof DirectBufferOutputStream) {
+            return ((DirectBufferOutputStream)currentStream).createInputStream();
+        }
+        return new FileInputStream(tempFile);
+    }
     private void maybeDeleteTempFile(Object stream) {
         streamList.remove(stream);
-        if (!inmem && tempFile != null && streamList.isEmpty() && allowDeleteOfFile) {
+        if (!inmem && (tempFile != null || currentStream instanceof DirectBufferOutputStream)
+            && streamList.isEmpty() && allowDeleteOfFile) {
             if (currentStream != null) {
                 try {
                     currentStream.close();
@@ -499,8 +575,8 @@ public class CachedOutputStream extends OutputStream {
                     //ignore
                 }
             }
-            deleteTempFile();
-            currentStream = new LoadingByteArrayOutputStream(1024);
+            deleteCache();
+            currentStream = new SegmentedByteArrayOutputStream(1024);
             inmem = true;
         }
     }
@@ -524,6 +600,40 @@ public class CachedOutputStream extends OutputStream {
         }
         defaultMaxSize = l;
     }
+    
+    /**
+     * Sets the number of bytes of direct memory the streams going over their threshold
+     * may use before spilling to temporary files, 0 disables the off-heap tier. 
+     * If -1, the org.apache.cxf.io.CachedOutputStream.OffHeapBudget system property
+     * is used, off-heap caching is disabled by default.
+     */
+    public static void setOffHeapBudget(long l) {
+        DirectBufferOutputStream.setBudget(l);
+    }
+    public static long getOffHeapBudget() {
+        return DirectBufferOutputStream.getBudget();
+    }
+    /**
+     * @return the number of bytes of direct memory currently used by the streams
+     */
+    public static long getOffHeapUsage() {
+        return DirectBufferOutputStream.getInUse();
+    }
+    public static long getPeakOffHeapUsage() {
+        return DirectBufferOutputStream.getPeakInUse();
+    }
+    /**
+     * @return the number of streams which went over their threshold and were kept off-heap 
+     */
+    public static long getOffHeapSpillCount() {
+        return OFF_HEAP_SPILLS.get();
+    }
+    /**
+     * @return the number of streams which were written to a temporary file 
+     */
+    public static long getTempFileSpillCount() {
+        return TEMP_FILE_SPILLS.get();
+    }
     public static void setDefaultThreshold(int i) {
         if (i == -1) {
             String s = SystemPropertyAction.getProperty("org.apache.cxf.io.CachedOutputStream.Threshold",
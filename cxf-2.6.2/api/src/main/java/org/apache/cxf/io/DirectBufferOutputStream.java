@@ -0,0 +1,293 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.cxf.common.util.SystemPropertyAction;
+
+/**
+ * Keeps the content of a {@link CachedOutputStream} which went over its threshold in 
+ * fixed size direct buffers, so that growing the cache does not copy the data. The 
+ * buffers are taken from a pool shared by all the streams and bounded by a global 
+ * budget, the streams which can not get more buffers spill to a temporary file.
+ */
+final class DirectBufferOutputStream extends OutputStream {
+    
+    static final String BUDGET_PROPERTY = "org.apache.cxf.io.CachedOutputStream.OffHeapBudget";
+    static final String CHUNK_SIZE_PROPERTY = "org.apache.cxf.io.CachedOutputStream.OffHeapChunkSize";
+    
+    private static final Queue<ByteBuffer> POOL = new ConcurrentLinkedQueue<ByteBuffer>();
+    private static final AtomicLong ALLOCATED = new AtomicLong();
+    private static final AtomicLong IN_USE = new AtomicLong();
+    private static final AtomicLong PEAK_IN_USE = new AtomicLong();
+    private static volatile long budget;
+    private static volatile int chunkSize;
+    
+    static {
+        setBudget(-1);
+        setChunkSize(-1);
+    }
+    
+    private final List<ByteBuffer> chunks = new ArrayList<ByteBuffer>();
+    private int current;
+    private long capacity;
+    private long size;
+    
+    DirectBufferOutputStream() {
+    }
+    
+    static boolean isEnabled() {
+        return budget > 0;
+    }
+    
+    static void setBudget(long l) {
+        if (l == -1) {
+            String s = SystemPropertyAction.getProperty(BUDGET_PROPERTY, "0");
+            l = Long.parseLong(s);
+        }
+        budget = l;
+    }
+    
+    static long getBudget() {
+        return budget;
+    }
+    
+    static void setChunkSize(int i) {
+        if (i == -1) {
+            String s = SystemPropertyAction.getProperty(CHUNK_SIZE_PROPERTY, "-1");
+            i = Integer.parseInt(s);
+            if (i <= 0) {
+                i = 64 * 1024;
+            }
+        }
+        chunkSize = i;
+    }
+    
+    /**
+     * @return the number of bytes of the direct buffers held by the streams
+     */
+    static long getInUse() {
+        return IN_USE.get();
+    }
+    
+    static long getPeakInUse() {
+        return PEAK_IN_USE.get();
+    }
+    
+    /**
+     * @return the number of bytes of the direct buffers allocated so far, 
+     * including the ones kept in the pool 
+     */
+    static long getAllocated() {
+        return ALLOCATED.get();
+    }
+    
+    /**
+     * Makes sure the stream can hold the given number of bytes without taking any
+     * more buffers.
+     * 
+     * @param required the number of bytes 
+     * @param allowHeap if the heap should be used once the budget is exhausted
+     * @return false if the budget is exhausted and allowHeap is false
+     */
+    boolean ensureCapacity(long required, boolean allowHeap) {
+        while (capacity < required) {
+            ByteBuffer buffer = acquire();
+            if (buffer == null) {
+                if (!allowHeap) {
+                    return false;
+                }
+                buffer = ByteBuffer.allocate(chunkSize);
+            }
+            chunks.add(buffer);
+            capacity += buffer.capacity();
+        }
+        return true;
+    }
+    
+    long size() {
+        return size;
+    }
+    
+    public void write(int b) throws IOException {
+        ensureCapacity(size + 1, true);
+        ByteBuffer buffer = chunks.get(current);
+        if (!buffer.hasRemaining()) {
+            buffer = chunks.get(++current);
+        }
+        buffer.put((byte)b);
+        size++;
+    }
+    
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureCapacity(size + len, true);
+        while (len > 0) {
+            ByteBuffer buffer = chunks.get(current);
+            if (!buffer.hasRemaining()) {
+                buffer = chunks.get(++current);
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.put(b, off, n);
+            off += n;
+            len -= n;
+            size += n;
+        }
+    }
+    
+    public void writeTo(OutputStream out) throws IOException {
+        byte[] bytes = null;
+        for (int i = 0; i <= current && i < chunks.size(); i++) {
+            ByteBuffer buffer = readableCopy(chunks.get(i));
+            if (buffer.hasArray()) {
+                out.write(buffer.array(), buffer.arrayOffset(), buffer.remaining());
+            } else {
+                if (bytes == null) {
+                    bytes = new byte[Math.min(buffer.remaining(), 8192)];
+                }
+                while (buffer.hasRemaining()) {
+                    int n = Math.min(bytes.length, buffer.remaining());
+                    buffer.get(bytes, 0, n);
+                    out.write(bytes, 0, n);
+                }
+            }
+        }
+    }
+    
+    public byte[] toByteArray() {
+        byte[] bytes = new byte[(int)size];
+        int off = 0;
+        for (int i = 0; i <= current && i < chunks.size(); i++) {
+            ByteBuffer buffer = readableCopy(chunks.get(i));
+            int n = buffer.remaining();
+            buffer.get(bytes, off, n);
+            off += n;
+        }
+        return bytes;
+    }
+    
+    /**
+     * @return a stream reading the content written so far straight from the buffers
+     */
+    public InputStream createInputStream() {
+        return new BufferInputStream();
+    }
+    
+    /**
+     * Returns the buffers to the pool, the content is no longer available afterwards.
+     */
+    public synchronized void release() {
+        for (ByteBuffer buffer : chunks) {
+            if (buffer.isDirect()) {
+                IN_USE.addAndGet(-buffer.capacity());
+                if (ALLOCATED.get() > budget) {
+                    // the budget was lowered, let the buffer go
+                    ALLOCATED.addAndGet(-buffer.capacity());
+                } else {
+                    POOL.offer(buffer);
+                }
+            }
+        }
+        chunks.clear();
+        current = 0;
+        capacity = 0;
+        size = 0;
+    }
+    
+    protected void finalize() throws Throwable {
+        release();
+        super.finalize();
+    }
+    
+    private static ByteBuffer acquire() {
+        ByteBuffer buffer = POOL.poll();
+        if (buffer == null) {
+            int length = chunkSize;
+            long allocated;
+            do {
+                allocated = ALLOCATED.get();
+                if (allocated + length > budget) {
+                    return null;
+                }
+            } while (!ALLOCATED.compareAndSet(allocated, allocated + length));
+            buffer = ByteBuffer.allocateDirect(length);
+        } else {
+            buffer.clear();
+        }
+        long inUse = IN_USE.addAndGet(buffer.capacity());
+        long peak = PEAK_IN_USE.get();
+        while (inUse > peak && !PEAK_IN_USE.compareAndSet(peak, inUse)) {
+            peak = PEAK_IN_USE.get();
+        }
+        return buffer;
+    }
+    
+    private static ByteBuffer readableCopy(ByteBuffer buffer) {
+        ByteBuffer copy = buffer.duplicate();
+        copy.flip();
+        return copy;
+    }
+    
+    private class BufferInputStream extends InputStream {
+        private int index;
+        private ByteBuffer buffer;
+        
+        public int read() throws IOException {
+            if (!next()) {
+                return -1;
+            }
+            return buffer.get() & 0xff;
+        }
+        
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!next()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+        
+        public int available() throws IOException {
+            return buffer == null ? 0 : buffer.remaining();
+        }
+        
+        private boolean next() {
+            while (buffer == null || !buffer.hasRemaining()) {
+                if (index >= chunks.size() || index > current) {
+                    return false;
+                }
+                buffer = readableCopy(chunks.get(index++));
+            }
+            return true;
+        }
+    }
+}
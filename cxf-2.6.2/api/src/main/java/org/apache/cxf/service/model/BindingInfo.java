@@ -41,6 +41,8 @@ public class BindingInfo extends AbstractDescriptionElement implements NamedItem
     Map<QName, BindingOperationInfo> operations 
         = new ConcurrentHashMap<QName, BindingOperationInfo>(4, 0.75f, 2);
     
+    private volatile BindingOperationIndex operationIndex;
+    
     public BindingInfo(ServiceInfo service, String bindingId) {
         this.service = service;
         this.bindingId = bindingId;
@@ -111,6 +113,7 @@ public class BindingInfo extends AbstractDescriptionElement implements NamedItem
         }
         
         operations.put(operation.getName(), operation);
+        operationIndex = null;
     }
     
     /**
@@ -125,6 +128,7 @@ public class BindingInfo extends AbstractDescriptionElement implements NamedItem
         } 
         
         operations.remove(operation.getName());
+        operationIndex = null;
     }
 
     /**
@@ -147,6 +151,11 @@ public class BindingInfo extends AbstractDescriptionElement implements NamedItem
     }
 
     public BindingOperationInfo getOperation(OperationInfo oi) {
+        BindingOperationInfo boi = getOperationIndex().getOperation(oi);
+        if (boi != null) {
+            return boi;
+        }
+        //the operation may have been unwrapped after the index was built
         for (BindingOperationInfo b : operations.values()) {
             if (b.getOperationInfo() == oi) {
                 return b;
@@ -158,6 +167,34 @@ public class BindingInfo extends AbstractDescriptionElement implements NamedItem
         return null;
     }
     
+    /**
+     * Returns the dispatch index for the current set of operations.
+     */
+    public BindingOperationIndex getOperationIndex() {
+        BindingOperationIndex index = operationIndex;
+        if (index == null) {
+            index = new BindingOperationIndex(this);
+            operationIndex = index;
+        }
+        return index;
+    }
+    
+    /**
+     * Discards the dispatch index so it is rebuilt on the next lookup.  Called when
+     * the operations themselves are changed, such as when they are unwrapped.
+     */
+    public void resetOperationIndex() {
+        operationIndex = null;
+    }
+    
+    /**
+     * Returns the binding specific action (such as the SOAPAction) used to select
+     * the given operation, or null if the binding has no such concept.
+     */
+    protected String getDispatchAction(BindingOperationInfo operation) {
+        return null;
+    }
+    
     @Override
     public String toString() {
         return "[BindingInfo " + getBindingId() + "]";
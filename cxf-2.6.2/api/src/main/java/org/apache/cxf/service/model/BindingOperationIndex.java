@@ -0,0 +1,190 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.service.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.xml.namespace.QName;
+
+import org.apache.cxf.common.logging.LogUtils;
+import org.apache.cxf.ws.addressing.JAXWSAConstants;
+
+/**
+ * An immutable set of lookup tables used to dispatch incoming messages to the
+ * operations of a {@link BindingInfo}.  The index is built the first time it is
+ * requested from {@link BindingInfo#getOperationIndex()} and is discarded when
+ * operations are added to or removed from the binding.
+ */
+public final class BindingOperationIndex {
+    
+    private static final Logger LOG = LogUtils.getL7dLogger(BindingOperationIndex.class);
+
+    private final BindingInfo binding;
+    private final Map<String, BindingOperationInfo> localNames;
+    private final Map<QName, BindingOperationInfo> inputElements;
+    private final Map<QName, BindingOperationInfo> outputElements;
+    private final Map<OperationInfo, BindingOperationInfo> operations;
+    private final Map<String, List<BindingOperationInfo>> actions;
+    private final AtomicLong misses = new AtomicLong();
+    
+    BindingOperationIndex(BindingInfo binding) {
+        this.binding = binding;
+        
+        Map<String, BindingOperationInfo> names = new HashMap<String, BindingOperationInfo>();
+        Map<QName, BindingOperationInfo> in = new HashMap<QName, BindingOperationInfo>();
+        Map<QName, BindingOperationInfo> out = new HashMap<QName, BindingOperationInfo>();
+        Map<OperationInfo, BindingOperationInfo> ops
+            = new IdentityHashMap<OperationInfo, BindingOperationInfo>();
+        Map<String, List<BindingOperationInfo>> acts 
+            = new LinkedHashMap<String, List<BindingOperationInfo>>();
+        
+        for (BindingOperationInfo boi : binding.getOperations()) {
+            String local = boi.getName().getLocalPart();
+            if (!names.containsKey(local)) {
+                names.put(local, boi);
+            }
+            ops.put(boi.getOperationInfo(), boi);
+            if (boi.isUnwrappedCapable() && boi.getUnwrappedOperation() != null
+                && !ops.containsKey(boi.getUnwrappedOperation().getOperationInfo())) {
+                ops.put(boi.getUnwrappedOperation().getOperationInfo(), boi.getUnwrappedOperation());
+            }
+            mapElement(in, boi, boi.getInput());
+            mapElement(out, boi, boi.getOutput());
+            
+            addAction(acts, binding.getDispatchAction(boi), boi);
+            if (boi.getOperationInfo().getInput() != null) {
+                MessageInfo input = boi.getOperationInfo().getInput();
+                Object o = input.getExtensionAttribute(JAXWSAConstants.WSAM_ACTION_QNAME);
+                if (o == null) {
+                    o = input.getExtensionAttribute(JAXWSAConstants.WSAW_ACTION_QNAME);
+                }
+                if (o != null) {
+                    addAction(acts, o.toString(), boi);
+                }
+            }
+        }
+        for (Map.Entry<String, List<BindingOperationInfo>> ent : acts.entrySet()) {
+            ent.setValue(Collections.unmodifiableList(ent.getValue()));
+        }
+        
+        localNames = names;
+        inputElements = in;
+        outputElements = out;
+        operations = ops;
+        actions = acts;
+    }
+    
+    private static void mapElement(Map<QName, BindingOperationInfo> map,
+                                   BindingOperationInfo boi,
+                                   BindingMessageInfo info) {
+        if (info == null || info.getMessageParts().isEmpty()) {
+            return;
+        }
+        if (boi.isUnwrappedCapable() || info.getMessageParts().size() == 1) {
+            //the wrapper element, or the single part of a bare operation
+            map.put(info.getMessageParts().get(0).getConcreteName(), boi);
+        }
+    }
+    
+    private static void addAction(Map<String, List<BindingOperationInfo>> acts,
+                                  String action,
+                                  BindingOperationInfo boi) {
+        if (action == null || action.length() == 0) {
+            return;
+        }
+        List<BindingOperationInfo> candidates = acts.get(action);
+        if (candidates == null) {
+            candidates = new ArrayList<BindingOperationInfo>(1);
+            acts.put(action, candidates);
+        }
+        if (!candidates.contains(boi)) {
+            candidates.add(boi);
+        }
+    }
+    
+    public BindingInfo getBinding() {
+        return binding;
+    }
+    
+    /**
+     * Returns the first operation with the given local name.
+     */
+    public BindingOperationInfo getOperation(String localName) {
+        return hit(localNames.get(localName), "operation name", localName);
+    }
+
+    /**
+     * Returns the binding operation for the given interface operation, which may
+     * be the unwrapped form of one of the binding's operations.
+     */
+    public BindingOperationInfo getOperation(OperationInfo op) {
+        return operations.get(op);
+    }
+    
+    /**
+     * Returns the operation whose first message part is the given element.
+     * 
+     * @param name the element name
+     * @param output true to match against the output messages, false for the inputs
+     */
+    public BindingOperationInfo getOperationForWrapperElement(QName name, boolean output) {
+        return hit(output ? outputElements.get(name) : inputElements.get(name), "element", name);
+    }
+    
+    /**
+     * Returns all the operations that declare the given action, either through the
+     * binding (such as a SOAPAction) or through WS-Addressing metadata.
+     */
+    public List<BindingOperationInfo> getOperationsForAction(String action) {
+        List<BindingOperationInfo> candidates = actions.get(action);
+        if (candidates == null) {
+            hit(null, "action", action);
+            return Collections.emptyList();
+        }
+        return candidates;
+    }
+    
+    /**
+     * The number of lookups that did not resolve to an operation since the index was built.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+    
+    private BindingOperationInfo hit(BindingOperationInfo boi, String kind, Object key) {
+        if (boi == null) {
+            long count = misses.incrementAndGet();
+            if (LOG.isLoggable(Level.FINE)) {
+                LOG.fine("No operation on " + binding.getName() + " for " + kind + " " + key
+                         + " (" + count + " misses)");
+            }
+        }
+        return boi;
+    }
+}
@@ -81,6 +81,9 @@ public class BindingOperationInfo extends AbstractPropertiesHolder {
         if (opInfo.isUnwrappedCapable()
             && opHolder == null) {
             opHolder = new BindingOperationInfo(bindingInfo, opInfo.getUnwrappedOperation(), this);
+            if (bindingInfo != null) {
+                bindingInfo.resetOperationIndex();
+            }
         }        
     }
     
@@ -125,6 +128,9 @@ public class BindingOperationInfo extends AbstractPropertiesHolder {
     }
     public void setUnwrappedOperation(BindingOperationInfo op) {
         opHolder = op;
+        if (bindingInfo != null) {
+            bindingInfo.resetOperationIndex();
+        }
     }
     public boolean isUnwrapped() {
         return opInfo.isUnwrapped();
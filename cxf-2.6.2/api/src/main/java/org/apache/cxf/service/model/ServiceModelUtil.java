@@ -21,14 +21,11 @@ package org.apache.cxf.service.model;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import javax.xml.namespace.QName;
 
 import org.apache.cxf.endpoint.Endpoint;
-import org.apache.cxf.helpers.CastUtils;
 import org.apache.cxf.message.Exchange;
 import org.apache.cxf.service.Service;
 import org.apache.ws.commons.schema.XmlSchemaAnnotated;
@@ -53,13 +50,7 @@ public final class ServiceModelUtil {
     public static BindingOperationInfo getOperation(Exchange exchange, String opName) {
         Endpoint ep = exchange.get(Endpoint.class);
         BindingInfo service = ep.getEndpointInfo().getBinding();
-
-        for (BindingOperationInfo b : service.getOperations()) {
-            if (b.getName().getLocalPart().equals(opName)) {
-                return b;
-            }
-        }
-        return null;
+        return service.getOperationIndex().getOperation(opName);
     }
 
     public static BindingOperationInfo getOperation(Exchange exchange, QName opName) {
@@ -79,39 +70,7 @@ public final class ServiceModelUtil {
             return null;
         }
         BindingInfo service = ep.getEndpointInfo().getBinding();
-        Map<QName, BindingOperationInfo> wrapperMap =
-            CastUtils.cast(service.getProperty("ServiceModel.WRAPPER.MAP"
-                                               + (output ? "" : "_OUT"), Map.class));
-
-
-        if (wrapperMap == null) {
-            wrapperMap = new HashMap<QName, BindingOperationInfo>();
-            for (BindingOperationInfo b : service.getOperations()) {
-                if (b.isUnwrappedCapable()) {
-                    MessagePartInfo part = null;
-                    if (output && b.getOutput() != null
-                        && !b.getOutput().getMessageParts().isEmpty()) {
-                        part = b.getOutput().getMessageParts().get(0);
-                    } else if (!output
-                        && !b.getInput().getMessageParts().isEmpty()) {
-                        part = b.getInput().getMessageParts().get(0);
-                    }
-                    if (part != null) {
-                        wrapperMap.put(part.getConcreteName(), b);
-                    }
-                } else {
-                    //check for single bare elements
-                    BindingMessageInfo info = output ? b.getOutput() : b.getInput();
-                    if (info != null && info.getMessageParts().size() == 1) {
-                        wrapperMap.put(info.getMessageParts().get(0).getConcreteName(),
-                                       b);
-                    }
-                }
-            }
-            service.setProperty("ServiceModel.WRAPPER.MAP"
-                                + (output ? "" : "_OUT"), wrapperMap);
-        }
-        return wrapperMap.get(opName);
+        return service.getOperationIndex().getOperationForWrapperElement(opName, output);
     }
     public static SchemaInfo getSchema(ServiceInfo serviceInfo, MessagePartInfo messagePartInfo) {
         SchemaInfo schemaInfo = null;
@@ -0,0 +1,584 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.staxutils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.DocumentFragment;
+import org.w3c.dom.Element;
+
+import org.apache.cxf.helpers.DOMUtils;
+
+/**
+ * A compact, replayable recording of one element (and its subtree) read from 
+ * an XMLStreamReader.  Events are kept as a few parallel int arrays indexing 
+ * into a single String table, which is considerably smaller than the 
+ * equivalent DOM and can be replayed any number of times through 
+ * {@link #getXMLStreamReader()} or materialized on demand with 
+ * {@link #toElement(Document)}.
+ * 
+ * Namespace declarations made by ancestors of the recorded element are not 
+ * part of the stream, so they can be passed in and are then visible through 
+ * the NamespaceContext of the replaying readers.
+ */
+public final class XMLStreamEventBuffer {
+    private static final Location LOCATION = new Location() {
+        public int getCharacterOffset() {
+            return -1;
+        }
+        public int getColumnNumber() {
+            return -1;
+        }
+        public int getLineNumber() {
+            return -1;
+        }
+        public String getPublicId() {
+            return null;
+        }
+        public String getSystemId() {
+            return null;
+        }
+    };
+
+    private final Map<String, String> parentNamespaces;
+    private int size;
+    private int[] types = new int[16];
+    private int[] offsets = new int[16];
+    private int[] nsCounts = new int[16];
+    private int[] attCounts = new int[16];
+    private int stringCount;
+    private String[] strings = new String[64];
+    
+    /**
+     * Record the element the reader is positioned on.  On return the reader is
+     * positioned on the matching END_ELEMENT.
+     * 
+     * @param reader the reader, positioned on a START_ELEMENT
+     * @param parentNamespaces the prefix to namespace bindings in scope at the 
+     *  element, may be null
+     */
+    public XMLStreamEventBuffer(XMLStreamReader reader, Map<String, String> parentNamespaces) 
+        throws XMLStreamException {
+        if (reader.getEventType() != XMLStreamConstants.START_ELEMENT) {
+            throw new XMLStreamException("Reader is not positioned on a START_ELEMENT");
+        }
+        this.parentNamespaces = parentNamespaces == null 
+            ? Collections.<String, String>emptyMap() : parentNamespaces;
+        int[] open = new int[8];
+        int depth = 0;
+        int event = reader.getEventType();
+        while (true) {
+            switch (event) {
+            case XMLStreamConstants.START_ELEMENT:
+                if (depth == open.length) {
+                    int[] tmp = new int[depth * 2];
+                    System.arraycopy(open, 0, tmp, 0, depth);
+                    open = tmp;
+                }
+                open[depth++] = size;
+                addStartElement(reader);
+                break;
+            case XMLStreamConstants.END_ELEMENT:
+                int start = open[--depth];
+                addEvent(event, offsets[start], nsCounts[start], 0);
+                if (depth == 0) {
+                    trim();
+                    return;
+                }
+                break;
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.CDATA:
+            case XMLStreamConstants.SPACE:
+            case XMLStreamConstants.COMMENT:
+                addEvent(event, stringCount, 0, 0);
+                addString(reader.getText());
+                break;
+            case XMLStreamConstants.ENTITY_REFERENCE:
+                addEvent(XMLStreamConstants.CHARACTERS, stringCount, 0, 0);
+                addString(reader.getText());
+                break;
+            case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                addEvent(event, stringCount, 0, 0);
+                addString(reader.getPITarget());
+                addString(reader.getPIData());
+                break;
+            default:
+                break;
+            }
+            if (!reader.hasNext()) {
+                throw new XMLStreamException("Unexpected end of stream");
+            }
+            event = reader.next();
+        }
+    }
+    
+    /**
+     * @return the name of the recorded element
+     */
+    public QName getName() {
+        return new QName(strings[0], strings[1], strings[2]);
+    }
+    
+    /**
+     * Look up an attribute of the recorded element without replaying it.
+     * 
+     * @return the attribute value or null
+     */
+    public String getAttributeValue(String namespace, String localName) {
+        return getAttributeValue(0, namespace, localName);
+    }
+    
+    /**
+     * @return the number of events recorded
+     */
+    public int getEventCount() {
+        return size;
+    }
+    
+    /**
+     * @return a new reader positioned on the START_ELEMENT of the recorded 
+     *  element, which reports END_DOCUMENT after its END_ELEMENT
+     */
+    public XMLStreamReader getXMLStreamReader() {
+        return new Reader();
+    }
+    
+    /**
+     * Materialize the recorded element as DOM.
+     * 
+     * @param doc the owner document of the new element
+     * @return the new, unattached, element
+     */
+    public Element toElement(Document doc) throws XMLStreamException {
+        DocumentFragment frag = doc.createDocumentFragment();
+        StaxUtils.readDocElements(doc, frag, getXMLStreamReader(), false, false);
+        Element el = DOMUtils.getFirstElement(frag);
+        frag.removeChild(el);
+        return el;
+    }
+    
+    private void addStartElement(XMLStreamReader reader) {
+        int nsCount = reader.getNamespaceCount();
+        int attCount = reader.getAttributeCount();
+        addEvent(XMLStreamConstants.START_ELEMENT, stringCount, nsCount, attCount);
+        addString(emptyIfNull(reader.getNamespaceURI()));
+        addString(reader.getLocalName());
+        addString(emptyIfNull(reader.getPrefix()));
+        for (int i = 0; i < nsCount; i++) {
+            addString(emptyIfNull(reader.getNamespacePrefix(i)));
+            addString(emptyIfNull(reader.getNamespaceURI(i)));
+        }
+        for (int i = 0; i < attCount; i++) {
+            addString(emptyIfNull(reader.getAttributeNamespace(i)));
+            addString(reader.getAttributeLocalName(i));
+            addString(emptyIfNull(reader.getAttributePrefix(i)));
+            addString(reader.getAttributeValue(i));
+        }
+    }
+    
+    private void addEvent(int type, int offset, int nsCount, int attCount) {
+        if (size == types.length) {
+            int len = size * 2;
+            types = grow(types, len);
+            offsets = grow(offsets, len);
+            nsCounts = grow(nsCounts, len);
+            attCounts = grow(attCounts, len);
+        }
+        types[size] = type;
+        offsets[size] = offset;
+        nsCounts[size] = nsCount;
+        attCounts[size] = attCount;
+        size++;
+    }
+    
+    private void addString(String s) {
+        if (stringCount == strings.length) {
+            String[] tmp = new String[stringCount * 2];
+            System.arraycopy(strings, 0, tmp, 0, stringCount);
+            strings = tmp;
+        }
+        strings[stringCount++] = s;
+    }
+    
+    private void trim() {
+        types = grow(types, size);
+        offsets = grow(offsets, size);
+        nsCounts = grow(nsCounts, size);
+        attCounts = grow(attCounts, size);
+        String[] tmp = new String[stringCount];
+        System.arraycopy(strings, 0, tmp, 0, stringCount);
+        strings = tmp;
+    }
+    
+    private static int[] grow(int[] a, int len) {
+        int[] tmp = new int[len];
+        System.arraycopy(a, 0, tmp, 0, Math.min(a.length, len));
+        return tmp;
+    }
+    
+    private static String emptyIfNull(String s) {
+        return s == null ? "" : s;
+    }
+    
+    private int attributeOffset(int event, int index) {
+        return offsets[event] + 3 + nsCounts[event] * 2 + index * 4;
+    }
+    
+    private String getAttributeValue(int event, String namespace, String localName) {
+        for (int i = 0; i < attCounts[event]; i++) {
+            int off = attributeOffset(event, i);
+            if (strings[off + 1].equals(localName)
+                && (namespace == null || namespace.equals(strings[off]))) {
+                return strings[off + 3];
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Replays the buffer.  Open elements are tracked by their event index so 
+     * namespace lookups can walk the recorded declarations.
+     */
+    private final class Reader implements XMLStreamReader, NamespaceContext {
+        private int pos;
+        private int[] open = new int[8];
+        private int depth;
+        
+        Reader() {
+            open[depth++] = 0;
+        }
+        
+        public int getEventType() {
+            return pos < size ? types[pos] : XMLStreamConstants.END_DOCUMENT;
+        }
+        
+        public boolean hasNext() {
+            return pos < size;
+        }
+        
+        public int next() throws XMLStreamException {
+            if (pos >= size) {
+                throw new XMLStreamException("No more events");
+            }
+            if (types[pos] == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+            pos++;
+            if (pos < size && types[pos] == XMLStreamConstants.START_ELEMENT) {
+                if (depth == open.length) {
+                    int[] tmp = new int[depth * 2];
+                    System.arraycopy(open, 0, tmp, 0, depth);
+                    open = tmp;
+                }
+                open[depth++] = pos;
+            }
+            return getEventType();
+        }
+        
+        public int nextTag() throws XMLStreamException {
+            int event = next();
+            while ((event == XMLStreamConstants.CHARACTERS && isWhiteSpace())
+                || (event == XMLStreamConstants.CDATA && isWhiteSpace())
+                || event == XMLStreamConstants.SPACE
+                || event == XMLStreamConstants.PROCESSING_INSTRUCTION
+                || event == XMLStreamConstants.COMMENT) {
+                event = next();
+            }
+            if (event != XMLStreamConstants.START_ELEMENT && event != XMLStreamConstants.END_ELEMENT) {
+                throw new XMLStreamException("Expected start or end tag");
+            }
+            return event;
+        }
+        
+        public String getElementText() throws XMLStreamException {
+            if (getEventType() != XMLStreamConstants.START_ELEMENT) {
+                throw new XMLStreamException("Not positioned on a START_ELEMENT");
+            }
+            StringBuilder buf = new StringBuilder();
+            int event = next();
+            while (event != XMLStreamConstants.END_ELEMENT) {
+                if (event == XMLStreamConstants.CHARACTERS
+                    || event == XMLStreamConstants.CDATA
+                    || event == XMLStreamConstants.SPACE) {
+                    buf.append(getText());
+                } else if (event != XMLStreamConstants.COMMENT
+                    && event != XMLStreamConstants.PROCESSING_INSTRUCTION) {
+                    throw new XMLStreamException("Unexpected event in element text");
+                }
+                event = next();
+            }
+            return buf.toString();
+        }
+        
+        public void require(int type, String namespaceURI, String localName) throws XMLStreamException {
+            if (type != getEventType()
+                || (namespaceURI != null && !namespaceURI.equals(getNamespaceURI()))
+                || (localName != null && !localName.equals(getLocalName()))) {
+                throw new XMLStreamException("Required event " + type + " not found");
+            }
+        }
+        
+        public void close() {
+            //nothing to release
+        }
+        
+        public Object getProperty(String name) {
+            return null;
+        }
+        
+        public boolean isStartElement() {
+            return getEventType() == XMLStreamConstants.START_ELEMENT;
+        }
+        
+        public boolean isEndElement() {
+            return getEventType() == XMLStreamConstants.END_ELEMENT;
+        }
+        
+        public boolean isCharacters() {
+            return getEventType() == XMLStreamConstants.CHARACTERS;
+        }
+        
+        public boolean isWhiteSpace() {
+            if (!hasText()) {
+                return false;
+            }
+            String text = getText();
+            for (int i = 0; i < text.length(); i++) {
+                if (!Character.isWhitespace(text.charAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        public boolean hasName() {
+            int event = getEventType();
+            return event == XMLStreamConstants.START_ELEMENT || event == XMLStreamConstants.END_ELEMENT;
+        }
+        
+        public boolean hasText() {
+            switch (getEventType()) {
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.CDATA:
+            case XMLStreamConstants.SPACE:
+            case XMLStreamConstants.COMMENT:
+                return true;
+            default:
+                return false;
+            }
+        }
+        
+        public QName getName() {
+            return hasName() 
+                ? new QName(strings[offsets[pos]], strings[offsets[pos] + 1], strings[offsets[pos] + 2])
+                : null;
+        }
+        
+        public String getLocalName() {
+            return hasName() ? strings[offsets[pos] + 1] : null;
+        }
+        
+        public String getNamespaceURI() {
+            return hasName() ? strings[offsets[pos]] : null;
+        }
+        
+        public String getPrefix() {
+            return hasName() ? strings[offsets[pos] + 2] : null;
+        }
+        
+        public int getAttributeCount() {
+            return isStartElement() ? attCounts[pos] : 0;
+        }
+        
+        public QName getAttributeName(int index) {
+            int off = attributeOffset(pos, index);
+            return new QName(strings[off], strings[off + 1], strings[off + 2]);
+        }
+        
+        public String getAttributeNamespace(int index) {
+            return strings[attributeOffset(pos, index)];
+        }
+        
+        public String getAttributeLocalName(int index) {
+            return strings[attributeOffset(pos, index) + 1];
+        }
+        
+        public String getAttributePrefix(int index) {
+            return strings[attributeOffset(pos, index) + 2];
+        }
+        
+        public String getAttributeValue(int index) {
+            return strings[attributeOffset(pos, index) + 3];
+        }
+        
+        public String getAttributeType(int index) {
+            return "CDATA";
+        }
+        
+        public boolean isAttributeSpecified(int index) {
+            return true;
+        }
+        
+        public String getAttributeValue(String namespaceURI, String localName) {
+            return isStartElement() 
+                ? XMLStreamEventBuffer.this.getAttributeValue(pos, namespaceURI, localName) : null;
+        }
+        
+        public int getNamespaceCount() {
+            return hasName() ? nsCounts[pos] : 0;
+        }
+        
+        public String getNamespacePrefix(int index) {
+            return strings[offsets[pos] + 3 + index * 2];
+        }
+        
+        public String getNamespaceURI(int index) {
+            return strings[offsets[pos] + 4 + index * 2];
+        }
+        
+        public NamespaceContext getNamespaceContext() {
+            return this;
+        }
+        
+        public String getNamespaceURI(String prefix) {
+            if (prefix == null) {
+                throw new IllegalArgumentException("Prefix must not be null");
+            }
+            for (int d = depth - 1; d >= 0; d--) {
+                int event = open[d];
+                int off = offsets[event] + 3;
+                for (int i = 0; i < nsCounts[event]; i++) {
+                    if (prefix.equals(strings[off + i * 2])) {
+                        return strings[off + i * 2 + 1];
+                    }
+                }
+            }
+            String uri = parentNamespaces.get(prefix);
+            if (uri == null) {
+                if (XMLConstants.XML_NS_PREFIX.equals(prefix)) {
+                    uri = XMLConstants.XML_NS_URI;
+                } else if (XMLConstants.XMLNS_ATTRIBUTE.equals(prefix)) {
+                    uri = XMLConstants.XMLNS_ATTRIBUTE_NS_URI;
+                }
+            }
+            return uri;
+        }
+        
+        public String getPrefix(String namespaceURI) {
+            Iterator<String> it = getPrefixes(namespaceURI);
+            return it.hasNext() ? it.next() : null;
+        }
+        
+        public Iterator<String> getPrefixes(String namespaceURI) {
+            List<String> prefixes = new ArrayList<String>();
+            for (int d = depth - 1; d >= 0; d--) {
+                int event = open[d];
+                int off = offsets[event] + 3;
+                for (int i = 0; i < nsCounts[event]; i++) {
+                    String pfx = strings[off + i * 2];
+                    if (namespaceURI.equals(strings[off + i * 2 + 1]) && !prefixes.contains(pfx)
+                        && namespaceURI.equals(getNamespaceURI(pfx))) {
+                        prefixes.add(pfx);
+                    }
+                }
+            }
+            for (Map.Entry<String, String> entry : parentNamespaces.entrySet()) {
+                String pfx = entry.getKey();
+                if (namespaceURI.equals(entry.getValue()) && !prefixes.contains(pfx)
+                    && namespaceURI.equals(getNamespaceURI(pfx))) {
+                    prefixes.add(pfx);
+                }
+            }
+            return prefixes.iterator();
+        }
+        
+        public String getText() {
+            return hasText() ? strings[offsets[pos]] : null;
+        }
+        
+        public char[] getTextCharacters() {
+            String text = getText();
+            return text == null ? null : text.toCharArray();
+        }
+        
+        public int getTextCharacters(int sourceStart, char[] target, int targetStart, int length) {
+            String text = getText();
+            int len = Math.min(length, text.length() - sourceStart);
+            text.getChars(sourceStart, sourceStart + len, target, targetStart);
+            return len;
+        }
+        
+        public int getTextStart() {
+            return 0;
+        }
+        
+        public int getTextLength() {
+            String text = getText();
+            return text == null ? 0 : text.length();
+        }
+        
+        public String getPITarget() {
+            return getEventType() == XMLStreamConstants.PROCESSING_INSTRUCTION 
+                ? strings[offsets[pos]] : null;
+        }
+        
+        public String getPIData() {
+            return getEventType() == XMLStreamConstants.PROCESSING_INSTRUCTION 
+                ? strings[offsets[pos] + 1] : null;
+        }
+        
+        public Location getLocation() {
+            return LOCATION;
+        }
+        
+        public String getEncoding() {
+            return null;
+        }
+        
+        public String getVersion() {
+            return null;
+        }
+        
+        public boolean isStandalone() {
+            return false;
+        }
+        
+        public boolean standaloneSet() {
+            return false;
+        }
+        
+        public String getCharacterEncodingScheme() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.transports.http;
+
+import java.io.OutputStream;
+import java.util.Map;
+
+import org.apache.cxf.service.model.EndpointInfo;
+
+/**
+ * A QueryHandler which can take the HTTP request headers into account, 
+ * for example to answer conditional requests or to compress the response.
+ */
+public interface ConditionalQueryHandler extends QueryHandler {
+    
+    /**
+     * Write query response to output stream
+     * @param fullQueryString the target full query string (with params) of the request
+     * @param ctx the context that was set for this invokation
+     * @param endpoint the current endpoint for this context (e.g. the endpoint this
+     * Destination was activated for). Null if no current endpoint.
+     * @param requestHeaders the HTTP request headers, the lookups are case insensitive
+     * @param responseHeaders the HTTP headers to be set on the response
+     * @return the HTTP response status, nothing is written if it is 304 (Not Modified)
+     */ 
+    int writeResponse(String fullQueryString, String ctx, EndpointInfo endpoint, 
+                      Map<String, String> requestHeaders, Map<String, String> responseHeaders,
+                      OutputStream os);
+}
@@ -0,0 +1,119 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.workqueue;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock free histogram of durations with power of two microsecond buckets.
+ * Bucket <code>i</code> counts the durations below 2<sup>i</sup> microseconds
+ * (and at least 2<sup>i-1</sup>), the last bucket counts everything longer.
+ * Recording is a couple of atomic increments so it can be used on every task.
+ */
+public class LatencyHistogram {
+    static final int BUCKETS = 32;
+    
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+    
+    /**
+     * Records a duration.
+     * @param nanos the duration in nanoseconds
+     */
+    public void record(long nanos) {
+        long micros = nanos < 0 ? 0 : nanos / 1000;
+        int idx = 64 - Long.numberOfLeadingZeros(micros);
+        buckets.incrementAndGet(idx < BUCKETS ? idx : BUCKETS - 1);
+        count.incrementAndGet();
+        total.addAndGet(micros);
+        long m = max.get();
+        while (micros > m && !max.compareAndSet(m, micros)) {
+            m = max.get();
+        }
+    }
+    
+    public long getCount() {
+        return count.get();
+    }
+    
+    /**
+     * @return the mean duration in microseconds
+     */
+    public long getMean() {
+        long c = count.get();
+        return c == 0 ? 0 : total.get() / c;
+    }
+    
+    /**
+     * @return the longest recorded duration in microseconds
+     */
+    public long getMax() {
+        return max.get();
+    }
+    
+    /**
+     * Returns an upper bound of the given percentile.
+     * @param percentile between 0 and 100
+     * @return the upper bound of the bucket holding the percentile, in microseconds
+     */
+    public long getPercentile(double percentile) {
+        long c = count.get();
+        if (c == 0) {
+            return 0;
+        }
+        long target = (long)Math.ceil(c * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS - 1; i++) {
+            seen += buckets.get(i);
+            if (seen >= target) {
+                return Math.min(1L << i, max.get());
+            }
+        }
+        return max.get();
+    }
+    
+    /**
+     * @return a copy of the bucket counts
+     */
+    public long[] getBuckets() {
+        long[] b = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            b[i] = buckets.get(i);
+        }
+        return b;
+    }
+    
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        total.set(0);
+        max.set(0);
+    }
+    
+    public String toString() {
+        return "[count: " + getCount() + ", mean: " + getMean() + "us, 99%: " 
+            + getPercentile(99) + "us, max: " + getMax() + "us]";
+    }
+}
@@ -0,0 +1,372 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.workqueue;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.cxf.common.classloader.ClassLoaderUtils;
+import org.apache.cxf.common.classloader.ClassLoaderUtils.ClassLoaderHolder;
+import org.apache.cxf.common.injection.NoJSR250Annotations;
+import org.apache.cxf.common.logging.LogUtils;
+
+/**
+ * An {@link AutomaticWorkQueue} backed by a work stealing 
+ * <code>java.util.concurrent.ForkJoinPool</code> or, if configured and supported
+ * by the JVM, by a virtual thread per task.  Unlike {@link AutomaticWorkQueueImpl}
+ * it does not serialize submissions on a lock: the optional bound on the number
+ * of waiting tasks is a semaphore, scheduled tasks are handed to a shared timer
+ * thread and the queue and execution times of all tasks are recorded in lock
+ * free histograms.
+ * <p>
+ * The executors are looked up reflectively so the class can be loaded on any
+ * supported JVM; if the requested one is not available a fixed size thread pool
+ * with the same parallelism is used instead.
+ */
+@NoJSR250Annotations
+public class WorkStealingWorkQueue implements AutomaticWorkQueue {
+    public static final String MODE_FORK_JOIN = "forkjoin";
+    public static final String MODE_VIRTUAL = "virtual";
+    
+    private static final Logger LOG = LogUtils.getL7dLogger(WorkStealingWorkQueue.class);
+    
+    String name = "default";
+    String mode = MODE_FORK_JOIN;
+    int parallelism = Runtime.getRuntime().availableProcessors();
+    int maxQueueSize = -1;
+    
+    private final AtomicReference<ExecutorService> executor = new AtomicReference<ExecutorService>();
+    private final AtomicReference<ScheduledExecutorService> scheduler 
+        = new AtomicReference<ScheduledExecutorService>();
+    private volatile Semaphore permits;
+    private volatile boolean shutdown;
+    
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final LatencyHistogram queueTime = new LatencyHistogram();
+    private final LatencyHistogram executionTime = new LatencyHistogram();
+    
+    public WorkStealingWorkQueue() {
+    }
+    public WorkStealingWorkQueue(String name) {
+        this.name = name;
+    }
+    public WorkStealingWorkQueue(String name, String mode, int parallelism, int maxQueueSize) {
+        this.name = name;
+        setMode(mode);
+        setParallelism(parallelism);
+        setQueueSize(maxQueueSize);
+    }
+    
+    public String getName() {
+        return name;
+    }
+    public void setName(String s) {
+        name = s;
+    }
+    
+    /**
+     * @return either {@link #MODE_FORK_JOIN} or {@link #MODE_VIRTUAL}
+     */
+    public String getMode() {
+        return mode;
+    }
+    public void setMode(String m) {
+        mode = m == null ? MODE_FORK_JOIN : m;
+    }
+    
+    public int getParallelism() {
+        return parallelism;
+    }
+    /**
+     * Sets the target number of worker threads of the fork join pool.  Not used
+     * for virtual threads.
+     */
+    public void setParallelism(int p) {
+        parallelism = p <= 0 ? Runtime.getRuntime().availableProcessors() : p;
+    }
+    
+    /**
+     * Gets the maximum number of tasks that may wait for a thread, or -1 if unbounded.
+     */
+    public long getMaxSize() {
+        return maxQueueSize;
+    }
+    public void setQueueSize(int size) {
+        maxQueueSize = size <= 0 ? -1 : size;
+        permits = maxQueueSize == -1 ? null : new Semaphore(maxQueueSize);
+    }
+    
+    protected ExecutorService getExecutor() {
+        ExecutorService ex = executor.get();
+        if (ex == null) {
+            ExecutorService created = createExecutor();
+            if (executor.compareAndSet(null, created)) {
+                ex = created;
+            } else {
+                created.shutdown();
+                ex = executor.get();
+            }
+        }
+        return ex;
+    }
+    
+    private ExecutorService createExecutor() {
+        if (MODE_VIRTUAL.equals(mode)) {
+            try {
+                Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (ExecutorService)m.invoke(null);
+            } catch (Throwable t) {
+                LOG.log(Level.WARNING, "EXECUTOR_NOT_AVAILABLE_MSG", new Object[] {name, mode});
+            }
+        }
+        try {
+            Class<?> cls = Class.forName("java.util.concurrent.ForkJoinPool");
+            Class<?> factoryCls 
+                = Class.forName("java.util.concurrent.ForkJoinPool$ForkJoinWorkerThreadFactory");
+            Field f = cls.getField("defaultForkJoinWorkerThreadFactory");
+            Constructor<?> c = cls.getConstructor(Integer.TYPE, factoryCls, 
+                                                  Thread.UncaughtExceptionHandler.class, Boolean.TYPE);
+            // async mode: FIFO processing of tasks that are never joined
+            return (ExecutorService)c.newInstance(parallelism, f.get(null), null, Boolean.TRUE);
+        } catch (Throwable t) {
+            LOG.log(Level.WARNING, "EXECUTOR_NOT_AVAILABLE_MSG", new Object[] {name, MODE_FORK_JOIN});
+        }
+        return Executors.newFixedThreadPool(parallelism, new DaemonThreadFactory(name + "-workqueue-"));
+    }
+    
+    private ScheduledExecutorService getScheduler() {
+        ScheduledExecutorService s = scheduler.get();
+        if (s == null) {
+            ScheduledThreadPoolExecutor created 
+                = new ScheduledThreadPoolExecutor(1, new DaemonThreadFactory(name + "-workqueue-timer-"));
+            if (scheduler.compareAndSet(null, created)) {
+                s = created;
+            } else {
+                created.shutdown();
+                s = scheduler.get();
+            }
+        }
+        return s;
+    }
+    
+    public void execute(Runnable command) {
+        Semaphore p = permits;
+        if (p != null && !p.tryAcquire()) {
+            rejected.incrementAndGet();
+            throw new RejectedExecutionException("Work queue " + name + " is full");
+        }
+        submit(command, p);
+    }
+    
+    public void execute(Runnable work, long timeout) {
+        Semaphore p = permits;
+        try {
+            if (p != null && !p.tryAcquire(timeout, TimeUnit.MILLISECONDS)) {
+                rejected.incrementAndGet();
+                throw new RejectedExecutionException("Work queue " + name + " is full");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejected.incrementAndGet();
+            throw new RejectedExecutionException(e);
+        }
+        submit(work, p);
+    }
+    
+    private void submit(Runnable command, Semaphore p) {
+        if (command == null) {
+            if (p != null) {
+                p.release();
+            }
+            throw new NullPointerException();
+        }
+        try {
+            getExecutor().execute(new Task(command, p));
+            submitted.incrementAndGet();
+        } catch (RejectedExecutionException ex) {
+            if (p != null) {
+                p.release();
+            }
+            rejected.incrementAndGet();
+            throw ex;
+        }
+    }
+    
+    public void schedule(final Runnable work, long delay) {
+        if (shutdown) {
+            rejected.incrementAndGet();
+            throw new RejectedExecutionException("Work queue " + name + " is shut down");
+        }
+        getScheduler().schedule(new Runnable() {
+            public void run() {
+                try {
+                    execute(work);
+                } catch (RejectedExecutionException ex) {
+                    LOG.warning("Executing the scheduled task with exception: " + ex);
+                }
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+    
+    public void shutdown(boolean processRemainingWorkItems) {
+        shutdown = true;
+        ScheduledExecutorService s = scheduler.get();
+        if (s != null) {
+            s.shutdownNow();
+        }
+        ExecutorService ex = executor.get();
+        if (ex != null) {
+            if (processRemainingWorkItems) {
+                ex.shutdown();
+            } else {
+                ex.shutdownNow();
+            }
+        }
+    }
+    
+    public boolean isShutdown() {
+        return shutdown;
+    }
+    
+    /**
+     * @return the number of tasks accepted but not yet started
+     */
+    public long getSize() {
+        long s = submitted.get() - completed.get() - active.get();
+        return s < 0 ? 0 : s;
+    }
+    public boolean isEmpty() {
+        return getSize() == 0;
+    }
+    public boolean isFull() {
+        Semaphore p = permits;
+        return p != null && p.availablePermits() == 0;
+    }
+    public int getActiveCount() {
+        return active.get();
+    }
+    public long getSubmittedCount() {
+        return submitted.get();
+    }
+    public long getCompletedCount() {
+        return completed.get();
+    }
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+    /**
+     * @return the time tasks waited between submission and start
+     */
+    public LatencyHistogram getQueueTimeHistogram() {
+        return queueTime;
+    }
+    /**
+     * @return the time tasks took to run
+     */
+    public LatencyHistogram getExecutionTimeHistogram() {
+        return executionTime;
+    }
+    
+    public String toString() {
+        StringBuilder buf = new StringBuilder();
+        buf.append(super.toString());
+        buf.append(" [mode: ").append(mode);
+        buf.append(", parallelism: ").append(parallelism);
+        buf.append(", queue size: ").append(getSize());
+        buf.append(", max size: ").append(maxQueueSize);
+        buf.append(", active: ").append(getActiveCount());
+        buf.append(", rejected: ").append(getRejectedCount());
+        buf.append(", queue time: ").append(queueTime);
+        buf.append(", execution time: ").append(executionTime);
+        buf.append("]");
+        return buf.toString();
+    }
+    
+    class Task implements Runnable {
+        final Runnable work;
+        final Semaphore permit;
+        final ClassLoader loader;
+        final long created;
+        
+        Task(Runnable work, Semaphore permit) {
+            this.work = work;
+            this.permit = permit;
+            //make sure we use the context classloader of the submitting thread
+            this.loader = Thread.currentThread().getContextClassLoader();
+            this.created = System.nanoTime();
+        }
+        
+        public void run() {
+            long start = System.nanoTime();
+            queueTime.record(start - created);
+            if (permit != null) {
+                permit.release();
+            }
+            active.incrementAndGet();
+            ClassLoaderHolder orig = ClassLoaderUtils.setThreadContextClassloader(loader);
+            try {
+                work.run();
+            } finally {
+                if (orig != null) {
+                    orig.reset();
+                }
+                active.decrementAndGet();
+                completed.incrementAndGet();
+                executionTime.record(System.nanoTime() - start);
+            }
+        }
+    }
+    
+    static class DaemonThreadFactory implements ThreadFactory {
+        final AtomicInteger threadNumber = new AtomicInteger(1);
+        final String prefix;
+        final ClassLoader loader;
+        
+        DaemonThreadFactory(String prefix) {
+            this.prefix = prefix;
+            //force the loader to be the loader of CXF, not the application loader
+            loader = WorkStealingWorkQueue.class.getClassLoader();
+        }
+        
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, prefix + threadNumber.getAndIncrement());
+            t.setContextClassLoader(loader);
+            t.setDaemon(true);
+            return t;
+        }
+    }
+}
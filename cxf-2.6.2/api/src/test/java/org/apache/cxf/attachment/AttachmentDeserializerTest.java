@@ -828,5 +828,44 @@ public class AttachmentDeserializerTest extends Assert {
         assertEquals(1249, count);
         assertEquals(-1, ins.read(new byte[1000], 100, 600));
     }
-}
 
+    @Test
+    public void testStreamingSkipsUnreadParts() throws Exception {
+        String contentType = "multipart/related; type=\"application/xop+xml\"; "
+            + "boundary=\"uuid:906fa67b-85f9-4ef5-8e3d-52416022d463\"; "
+            + "start=\"<root.message@cxf.apache.org>\"; start-info=\"text/xml\"";
+
+        Message message = new MessageImpl();
+        message.put(Message.CONTENT_TYPE, contentType);
+        message.setContent(InputStream.class, getClass().getResourceAsStream("cxf3582.data"));
+        message.put(AttachmentDeserializer.ATTACHMENT_STREAMING, "true");
+
+        AttachmentDeserializer ad 
+            = new AttachmentDeserializer(message, 
+                                         Collections.singletonList("multipart/related"));
+        assertTrue(ad.isStreaming());
+        ad.initializeAttachments();
+        
+        Iterator<Attachment> it = message.getAttachments().iterator();
+        assertTrue(it.hasNext());
+        Attachment first = it.next();
+        assertEquals("1a66bb35-67fc-4e89-9f33-48af417bf9fe-1@apache.org", first.getId());
+        
+        // moving to the next part discards the unread first one rather than caching it
+        assertTrue(it.hasNext());
+        Attachment second = it.next();
+        AttachmentDataSource ds = (AttachmentDataSource)first.getDataHandler().getDataSource();
+        assertTrue(ds.isSkipped());
+        assertFalse(ds.isCached());
+        try {
+            ds.getInputStream().read();
+            fail("IOException expected");
+        } catch (IOException ex) {
+            // expected
+        }
+        
+        InputStream ins = second.getDataHandler().getInputStream();
+        assertEquals(1249, IOUtils.readBytesFromStream(ins).length);
+        assertFalse(it.hasNext());
+    }
+}
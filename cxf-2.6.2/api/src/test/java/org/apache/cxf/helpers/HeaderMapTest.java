@@ -0,0 +1,111 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.helpers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HeaderMapTest extends Assert {
+
+    @Test
+    public void testCaseInsensitiveLookup() {
+        HeaderMap<String> headers = new HeaderMap<String>();
+        headers.put("Content-Type", new ArrayList<String>(Arrays.asList("text/xml")));
+        assertTrue(headers.containsKey("content-type"));
+        assertTrue(headers.containsKey("CONTENT-TYPE"));
+        assertEquals(Arrays.asList("text/xml"), headers.get("content-TYPE"));
+        assertNull(headers.get("Content-Length"));
+        assertNull(headers.get(null));
+
+        headers.put("content-type", Arrays.asList("application/json"));
+        assertEquals(1, headers.size());
+        assertEquals("Content-Type", headers.keySet().iterator().next());
+        assertEquals(Arrays.asList("application/json"), headers.get("Content-Type"));
+
+        assertEquals(Arrays.asList("application/json"), headers.remove("CONTENT-type"));
+        assertTrue(headers.isEmpty());
+    }
+
+    @Test
+    public void testInlineSingleValue() {
+        HeaderMap<String> headers = new HeaderMap<String>();
+        headers.add("Accept", "text/xml");
+        assertEquals("text/xml", headers.getFirst("accept"));
+        headers.add("accept", "application/json");
+        assertEquals(Arrays.asList("text/xml", "application/json"), headers.get("Accept"));
+
+        headers.putSingle("ACCEPT", "*/*");
+        List<String> values = headers.get("Accept");
+        assertEquals(Arrays.asList("*/*"), values);
+        values.add("text/plain");
+        assertEquals(Arrays.asList("*/*", "text/plain"), headers.get("accept"));
+    }
+
+    @Test
+    public void testWellKnownNamesAreShared() {
+        HeaderMap<String> headers = new HeaderMap<String>();
+        headers.add(new StringBuilder("SOAP").append("Action").toString(), "\"\"");
+        headers.add("x-custom", "1");
+        Iterator<String> names = headers.keySet().iterator();
+        assertSame("SOAPAction", names.next());
+        assertEquals("x-custom", names.next());
+    }
+
+    @Test
+    public void testInsertionOrderAndResize() {
+        HeaderMap<String> headers = new HeaderMap<String>(2);
+        for (int i = 0; i < 100; i++) {
+            headers.add("X-Header-" + i, Integer.toString(i));
+        }
+        assertEquals(100, headers.size());
+        int i = 0;
+        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+            assertEquals("X-Header-" + i, entry.getKey());
+            assertEquals(Arrays.asList(Integer.toString(i)), entry.getValue());
+            i++;
+        }
+        for (Iterator<String> it = headers.keySet().iterator(); it.hasNext();) {
+            if (it.next().endsWith("0")) {
+                it.remove();
+            }
+        }
+        assertEquals(90, headers.size());
+        assertFalse(headers.containsKey("x-header-10"));
+        assertEquals("11", headers.getFirst("x-header-11"));
+    }
+
+    @Test
+    public void testEqualsTreeMap() {
+        Map<String, List<String>> tree = new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+        tree.put("Accept", Arrays.asList("*/*"));
+        tree.put("Host", Arrays.asList("localhost"));
+        HeaderMap<String> headers = new HeaderMap<String>(tree);
+        assertEquals(tree, headers);
+        assertEquals(headers, tree);
+        assertEquals(tree.hashCode(), headers.hashCode());
+    }
+}
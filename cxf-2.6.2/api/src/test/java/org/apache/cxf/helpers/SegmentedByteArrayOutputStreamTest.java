@@ -0,0 +1,117 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.helpers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SegmentedByteArrayOutputStreamTest extends Assert {
+    
+    @Test
+    public void testWriteAndRead() throws Exception {
+        byte[] data = createData(50000);
+        SegmentedByteArrayOutputStream out = new SegmentedByteArrayOutputStream(100);
+        out.write(data, 0, 10);
+        for (int i = 10; i < 20; i++) {
+            out.write(data[i]);
+        }
+        out.write(data, 20, data.length - 20);
+        assertEquals(data.length, out.size());
+        assertArrayEquals(data, out.toByteArray());
+        assertArrayEquals(data, IOUtils.readBytesFromStream(out.createInputStream()));
+        
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        out.writeTo(bos);
+        assertArrayEquals(data, bos.toByteArray());
+        
+        bos.reset();
+        out.writeTo(Channels.newChannel(bos));
+        assertArrayEquals(data, bos.toByteArray());
+    }
+    
+    @Test
+    public void testToByteArrayReturnsCopy() throws Exception {
+        byte[] data = createData(100);
+        SegmentedByteArrayOutputStream out = new SegmentedByteArrayOutputStream(100);
+        out.write(data);
+        byte[] bytes = out.toByteArray();
+        assertArrayEquals(data, bytes);
+        bytes[0] = (byte)(bytes[0] + 1);
+        assertArrayEquals(data, out.toByteArray());
+        assertArrayEquals(data, IOUtils.readBytesFromStream(out.createInputStream()));
+    }
+    
+    @Test
+    public void testMarkAndReset() throws Exception {
+        byte[] data = createData(20000);
+        SegmentedByteArrayOutputStream out = new SegmentedByteArrayOutputStream(100);
+        out.write(data);
+        InputStream is = out.createInputStream();
+        assertTrue(is.markSupported());
+        assertEquals(9000, is.skip(9000));
+        is.mark(0);
+        assertEquals(11000, IOUtils.readBytesFromStream(is).length);
+        is.reset();
+        assertEquals(data[9000], (byte)is.read());
+    }
+    
+    @Test
+    public void testChunksAreReused() throws Exception {
+        byte[] data = createData(50000);
+        SegmentedByteArrayOutputStream out = new SegmentedByteArrayOutputStream(100);
+        out.write(data);
+        long allocated = SegmentedByteArrayOutputStream.getAllocatedChunks();
+        out.release();
+        assertEquals(0, out.size());
+        assertTrue(SegmentedByteArrayOutputStream.getPooledChunks() > 0);
+        
+        SegmentedByteArrayOutputStream out2 = new SegmentedByteArrayOutputStream(100);
+        out2.write(data);
+        assertEquals(allocated, SegmentedByteArrayOutputStream.getAllocatedChunks());
+        assertArrayEquals(data, out2.toByteArray());
+        out2.release();
+    }
+    
+    @Test
+    public void testChunksInUseAreNotReused() throws Exception {
+        byte[] data = createData(50000);
+        SegmentedByteArrayOutputStream out = new SegmentedByteArrayOutputStream(100);
+        out.write(data);
+        InputStream is = out.createInputStream();
+        out.release();
+        
+        SegmentedByteArrayOutputStream out2 = new SegmentedByteArrayOutputStream(100);
+        out2.write(new byte[data.length]);
+        assertArrayEquals(data, IOUtils.readBytesFromStream(is));
+        out2.release();
+    }
+    
+    private static byte[] createData(int size) {
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte)i;
+        }
+        return data;
+    }
+}
@@ -20,6 +20,18 @@
 
 package org.apache.cxf.helpers;
 
+import javax.xml.namespace.QName;
+
+import org.apache.cxf.annotations.SchemaValidation.SchemaValidationType;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.service.model.BindingInfo;
+import org.apache.cxf.service.model.BindingOperationInfo;
+import org.apache.cxf.service.model.InterfaceInfo;
+import org.apache.cxf.service.model.OperationInfo;
+import org.apache.cxf.service.model.ServiceInfo;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -29,4 +41,30 @@ public class ServiceUtilsTest {
         String tns = ServiceUtils.makeNamespaceFromClassName("com.example.ws.Test", "http");
         Assert.assertEquals("http://ws.example.com/", tns);
     }
+    
+    @Test
+    public void testOperationSchemaValidation() throws Exception {
+        ServiceInfo si = new ServiceInfo();
+        InterfaceInfo ii = new InterfaceInfo(si, new QName("urn:test", "Port"));
+        OperationInfo op = ii.addOperation(new QName("urn:test", "echo"));
+        BindingOperationInfo bop = new BindingOperationInfo(new BindingInfo(si, "binding"), op);
+        
+        Message message = new MessageImpl();
+        Exchange exchange = new ExchangeImpl();
+        message.setExchange(exchange);
+        exchange.put(Message.SCHEMA_VALIDATION_ENABLED, Boolean.TRUE);
+        Assert.assertTrue(ServiceUtils.isSchemaValidationEnabled(SchemaValidationType.IN, message));
+        Assert.assertTrue(ServiceUtils.isSchemaValidationEnabled(SchemaValidationType.OUT, message));
+        
+        // the operation overrides the endpoint
+        op.setProperty(Message.SCHEMA_VALIDATION_ENABLED, SchemaValidationType.OUT);
+        exchange.put(BindingOperationInfo.class, bop);
+        Assert.assertFalse(ServiceUtils.isSchemaValidationEnabled(SchemaValidationType.IN, message));
+        Assert.assertTrue(ServiceUtils.isSchemaValidationEnabled(SchemaValidationType.OUT, message));
+        
+        // and the message overrides the operation
+        message.put(Message.SCHEMA_VALIDATION_ENABLED, "in");
+        Assert.assertTrue(ServiceUtils.isSchemaValidationEnabled(SchemaValidationType.IN, message));
+        Assert.assertFalse(ServiceUtils.isSchemaValidationEnabled(SchemaValidationType.OUT, message));
+    }
 }
@@ -22,6 +22,8 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 
+import org.apache.cxf.helpers.IOUtils;
+
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -54,6 +56,46 @@ public class CachedOutputStreamTest extends Assert {
         assertFalse(tempFile.exists());
     }
     
+    @Test
+    public void testOffHeapCache() throws IOException {
+        CachedOutputStream.setOffHeapBudget(256 * 1024);
+        try {
+            CachedOutputStream cos = new CachedOutputStream();        
+            String result = initTestData(65);
+            cos.write(result.getBytes());
+            //assert the data is kept off-heap rather than in a tmp file
+            assertNull(cos.getTempFile());
+            assertTrue(CachedOutputStream.getOffHeapUsage() > 0);
+            assertEquals(result, new String(cos.getBytes()));
+            assertEquals(result, IOUtils.toString(cos.getInputStream()));
+            cos.close();
+            assertEquals(0, CachedOutputStream.getOffHeapUsage());
+        } finally {
+            CachedOutputStream.setOffHeapBudget(0);
+        }
+    }
+    
+    @Test
+    public void testOffHeapBudgetExceeded() throws IOException {
+        CachedOutputStream.setOffHeapBudget(128 * 1024);
+        try {
+            CachedOutputStream cos = new CachedOutputStream();        
+            String result = initTestData(65);
+            cos.write(result.getBytes());
+            assertNull(cos.getTempFile());
+            //the second write does not fit into the budget
+            cos.write(result.getBytes());
+            File tempFile = cos.getTempFile();
+            assertNotNull(tempFile);
+            assertEquals(0, CachedOutputStream.getOffHeapUsage());
+            assertEquals(result + result, new String(cos.getBytes()));
+            cos.close();
+            assertFalse(tempFile.exists());
+        } finally {
+            CachedOutputStream.setOffHeapBudget(0);
+        }
+    }
+    
     String initTestData(int packetSize) {
         String temp = "abcdefghijklmnopqrstuvwxyz0123456789!@#$%^&*()_+?><[]/0123456789";
         String result = new String();
@@ -0,0 +1,113 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.service.model;
+
+import javax.xml.namespace.QName;
+
+import org.apache.cxf.ws.addressing.JAXWSAConstants;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BindingOperationIndexTest extends Assert {
+    private static final String TEST_NS = "urn:test:ns";
+    
+    private InterfaceInfo interfaceInfo;
+    private BindingInfo bindingInfo;
+    
+    @Before
+    public void setUp() throws Exception {
+        ServiceInfo serviceInfo = new ServiceInfo();
+        interfaceInfo = new InterfaceInfo(serviceInfo, new QName(TEST_NS, "interfaceTest"));
+        serviceInfo.setInterface(interfaceInfo);
+        bindingInfo = new BindingInfo(serviceInfo, "http://schemas.xmlsoap.org/wsdl/soap/");
+        bindingInfo.setName(new QName(TEST_NS, "bindingTest"));
+    }
+    
+    private BindingOperationInfo addOperation(String name, String... elements) {
+        OperationInfo op = interfaceInfo.addOperation(new QName(TEST_NS, name));
+        MessageInfo input = op.createMessage(new QName(TEST_NS, name + "Request"), 
+                                             MessageInfo.Type.INPUT);
+        for (String el : elements) {
+            input.addMessagePart(el).setElementQName(new QName(TEST_NS, el));
+        }
+        op.setInput(name + "Request", input);
+        BindingOperationInfo boi = new BindingOperationInfo(bindingInfo, op);
+        bindingInfo.addOperation(boi);
+        return boi;
+    }
+    
+    @Test
+    public void testLookups() throws Exception {
+        BindingOperationInfo greetMe = addOperation("greetMe", "greetMeElement");
+        BindingOperationInfo sayHi = addOperation("sayHi", "first", "second");
+        
+        BindingOperationIndex index = bindingInfo.getOperationIndex();
+        assertSame(index, bindingInfo.getOperationIndex());
+        
+        assertSame(greetMe, index.getOperation("greetMe"));
+        assertSame(sayHi, index.getOperation("sayHi"));
+        assertSame(sayHi, index.getOperation(sayHi.getOperationInfo()));
+        assertSame(sayHi, bindingInfo.getOperation(sayHi.getOperationInfo()));
+        assertEquals(0, index.getMissCount());
+        
+        assertSame(greetMe, 
+                   index.getOperationForWrapperElement(new QName(TEST_NS, "greetMeElement"), false));
+        //multi part bare operations can't be identified by their first element
+        assertNull(index.getOperationForWrapperElement(new QName(TEST_NS, "first"), false));
+        assertNull(index.getOperationForWrapperElement(new QName(TEST_NS, "greetMeElement"), true));
+        assertNull(index.getOperation("noSuchOperation"));
+        assertEquals(3, index.getMissCount());
+    }
+    
+    @Test
+    public void testActions() throws Exception {
+        BindingOperationInfo greetMe = addOperation("greetMe", "greetMeElement");
+        BindingOperationInfo sayHi = addOperation("sayHi", "sayHiElement");
+        BindingOperationInfo ping = addOperation("ping", "pingElement");
+        greetMe.getOperationInfo().getInput()
+            .addExtensionAttribute(JAXWSAConstants.WSAM_ACTION_QNAME, "urn:greet");
+        sayHi.getOperationInfo().getInput()
+            .addExtensionAttribute(JAXWSAConstants.WSAW_ACTION_QNAME, "urn:hello");
+        ping.getOperationInfo().getInput()
+            .addExtensionAttribute(JAXWSAConstants.WSAM_ACTION_QNAME, "urn:hello");
+        
+        BindingOperationIndex index = bindingInfo.getOperationIndex();
+        assertEquals(1, index.getOperationsForAction("urn:greet").size());
+        assertSame(greetMe, index.getOperationsForAction("urn:greet").get(0));
+        assertEquals(2, index.getOperationsForAction("urn:hello").size());
+        assertTrue(index.getOperationsForAction("urn:unknown").isEmpty());
+        assertEquals(1, index.getMissCount());
+    }
+    
+    @Test
+    public void testRebuiltWhenOperationsChange() throws Exception {
+        BindingOperationInfo greetMe = addOperation("greetMe", "greetMeElement");
+        BindingOperationIndex index = bindingInfo.getOperationIndex();
+        assertNull(index.getOperation("sayHi"));
+        
+        BindingOperationInfo sayHi = addOperation("sayHi", "sayHiElement");
+        assertNotSame(index, bindingInfo.getOperationIndex());
+        assertSame(sayHi, bindingInfo.getOperationIndex().getOperation("sayHi"));
+        
+        bindingInfo.removeOperation(greetMe);
+        assertNull(bindingInfo.getOperationIndex().getOperation("greetMe"));
+    }
+}
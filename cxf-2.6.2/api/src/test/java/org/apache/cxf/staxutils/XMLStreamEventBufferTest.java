@@ -0,0 +1,99 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.staxutils;
+
+import java.io.StringReader;
+import java.util.Collections;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import org.apache.cxf.helpers.DOMUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class XMLStreamEventBufferTest extends Assert {
+    private static final String HEADER = 
+        "<ns:Header xmlns:ns=\"urn:outer\" xmlns:t=\"urn:types\">"
+        + "<ns:first/>"
+        + "<a:Security xmlns:a=\"urn:sec\" ns:mustUnderstand=\"1\" id=\"s1\">"
+        + "<!-- comment --><a:Token type=\"t:Name\">abc<![CDATA[<def>]]></a:Token>"
+        + "<Plain xmlns=\"urn:default\"><Inner>x</Inner></Plain>"
+        + "</a:Security>"
+        + "<ns:last/>"
+        + "</ns:Header>";
+    
+    @Test
+    public void testRecordAndReplay() throws Exception {
+        XMLStreamReader reader = StaxUtils.createXMLStreamReader(new StringReader(HEADER));
+        reader.nextTag();
+        reader.nextTag();
+        reader.nextTag();
+        reader.nextTag();
+        assertEquals("Security", reader.getLocalName());
+        
+        XMLStreamEventBuffer buffer = 
+            new XMLStreamEventBuffer(reader, Collections.singletonMap("t", "urn:types"));
+        // the source reader is left on the end of the recorded element
+        assertEquals(XMLStreamConstants.END_ELEMENT, reader.getEventType());
+        assertEquals("Security", reader.getLocalName());
+        reader.nextTag();
+        assertEquals("last", reader.getLocalName());
+        
+        assertEquals(new QName("urn:sec", "Security"), buffer.getName());
+        assertEquals("1", buffer.getAttributeValue("urn:outer", "mustUnderstand"));
+        assertEquals("s1", buffer.getAttributeValue("", "id"));
+        assertNull(buffer.getAttributeValue("urn:sec", "id"));
+        
+        XMLStreamReader replay = buffer.getXMLStreamReader();
+        assertEquals(XMLStreamConstants.START_ELEMENT, replay.getEventType());
+        assertEquals("a", replay.getPrefix());
+        assertEquals(1, replay.getNamespaceCount());
+        assertEquals(2, replay.getAttributeCount());
+        assertEquals(XMLStreamConstants.COMMENT, replay.next());
+        assertEquals(XMLStreamConstants.START_ELEMENT, replay.nextTag());
+        assertEquals("Token", replay.getLocalName());
+        assertEquals("urn:types", replay.getNamespaceContext().getNamespaceURI("t"));
+        assertEquals("urn:sec", replay.getNamespaceURI("a"));
+        assertEquals("abc<def>", replay.getElementText());
+        assertEquals(XMLStreamConstants.START_ELEMENT, replay.nextTag());
+        assertEquals("urn:default", replay.getNamespaceURI(""));
+        assertEquals("x", StaxUtils.read(replay).getDocumentElement().getTextContent());
+        
+        // materialize twice, from the same buffer
+        Document doc = DOMUtils.createDocument();
+        for (int i = 0; i < 2; i++) {
+            Element el = buffer.toElement(doc);
+            assertNull(el.getParentNode());
+            assertEquals("s1", el.getAttribute("id"));
+            assertEquals("1", el.getAttributeNS("urn:outer", "mustUnderstand"));
+            Element token = DOMUtils.getFirstElement(el);
+            assertEquals("t:Name", token.getAttribute("type"));
+            assertEquals("abc<def>", token.getTextContent());
+            Element plain = DOMUtils.getNextElement(token);
+            assertEquals("urn:default", plain.getNamespaceURI());
+            assertEquals("urn:default", DOMUtils.getFirstElement(plain).getNamespaceURI());
+        }
+    }
+}
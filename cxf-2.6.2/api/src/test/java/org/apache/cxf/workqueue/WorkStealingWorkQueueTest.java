@@ -0,0 +1,157 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.workqueue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WorkStealingWorkQueueTest extends Assert {
+    
+    WorkStealingWorkQueue workqueue;
+    volatile boolean release;
+    
+    @After
+    public void tearDown() throws Exception {
+        release = true;
+        if (workqueue != null) {
+            workqueue.shutdown(false);
+            workqueue = null;
+        }
+    }
+    
+    @Test
+    public void testExecute() throws Exception {
+        workqueue = new WorkStealingWorkQueue("test");
+        final CountDownLatch latch = new CountDownLatch(20);
+        for (int i = 0; i < 20; i++) {
+            workqueue.execute(new Runnable() {
+                public void run() {
+                    latch.countDown();
+                }
+            });
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(20, workqueue.getSubmittedCount());
+        assertEquals(0, workqueue.getRejectedCount());
+        assertEquals(20, workqueue.getQueueTimeHistogram().getCount());
+    }
+    
+    @Test
+    public void testContextClassLoader() throws Exception {
+        workqueue = new WorkStealingWorkQueue("test");
+        final ClassLoader loader = new ClassLoader() { };
+        final ClassLoader[] seen = new ClassLoader[1];
+        final CountDownLatch latch = new CountDownLatch(1);
+        ClassLoader orig = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(loader);
+        try {
+            workqueue.execute(new Runnable() {
+                public void run() {
+                    seen[0] = Thread.currentThread().getContextClassLoader();
+                    latch.countDown();
+                }
+            });
+        } finally {
+            Thread.currentThread().setContextClassLoader(orig);
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertSame(loader, seen[0]);
+    }
+    
+    @Test
+    public void testBoundedQueueRejects() throws Exception {
+        workqueue = new WorkStealingWorkQueue("test", WorkStealingWorkQueue.MODE_FORK_JOIN, 1, 1);
+        final CountDownLatch started = new CountDownLatch(1);
+        workqueue.execute(new Runnable() {
+            public void run() {
+                started.countDown();
+                while (!release) {
+                    Thread.yield();
+                }
+            }
+        });
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        
+        // the only worker is busy, so this one waits and fills the queue
+        workqueue.execute(new Runnable() {
+            public void run() {
+            }
+        });
+        assertTrue(workqueue.isFull());
+        try {
+            workqueue.execute(new Runnable() {
+                public void run() {
+                }
+            }, 50);
+            fail("Expected RejectedExecutionException");
+        } catch (RejectedExecutionException ex) {
+            // expected
+        }
+        assertEquals(1, workqueue.getRejectedCount());
+        release = true;
+    }
+    
+    @Test
+    public void testSchedule() throws Exception {
+        workqueue = new WorkStealingWorkQueue("test");
+        final CountDownLatch latch = new CountDownLatch(1);
+        long start = System.currentTimeMillis();
+        workqueue.schedule(new Runnable() {
+            public void run() {
+                latch.countDown();
+            }
+        }, 100);
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertTrue(System.currentTimeMillis() - start >= 90);
+        
+        workqueue.shutdown(true);
+        assertTrue(workqueue.isShutdown());
+        try {
+            workqueue.schedule(new Runnable() {
+                public void run() {
+                }
+            }, 100);
+            fail("Expected RejectedExecutionException");
+        } catch (RejectedExecutionException ex) {
+            // expected
+        }
+    }
+    
+    @Test
+    public void testHistogram() {
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0, h.getPercentile(99));
+        for (int i = 0; i < 99; i++) {
+            h.record(3000);
+        }
+        h.record(1000000);
+        assertEquals(100, h.getCount());
+        assertEquals(4, h.getPercentile(50));
+        assertEquals(1000, h.getMax());
+        assertEquals(1000, h.getPercentile(100));
+        h.reset();
+        assertEquals(0, h.getCount());
+    }
+}
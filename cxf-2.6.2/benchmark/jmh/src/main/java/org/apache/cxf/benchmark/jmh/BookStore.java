@@ -0,0 +1,85 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.benchmark.jmh;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.DELETE;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.PUT;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+
+/**
+ * JAX-RS root resource with a typical mix of sub-paths, templates and 
+ * media types, used to exercise resource and method selection.
+ */
+@Path("/bookstore")
+public class BookStore {
+    
+    @GET
+    @Path("/books")
+    @Produces("application/xml")
+    public String getBooks(@QueryParam("start") int start, @QueryParam("size") int size) {
+        return "<books/>";
+    }
+    
+    @GET
+    @Path("/books/{id}")
+    @Produces({"application/xml", "application/json" })
+    public String getBook(@PathParam("id") long id) {
+        return "<book/>";
+    }
+    
+    @GET
+    @Path("/books/{id}/chapters/{chapter}")
+    @Produces("text/plain")
+    public String getChapter(@PathParam("id") long id, @PathParam("chapter") int chapter) {
+        return "chapter";
+    }
+    
+    @POST
+    @Path("/books")
+    @Consumes("application/xml")
+    public String addBook(String book) {
+        return book;
+    }
+    
+    @PUT
+    @Path("/books/{id}")
+    @Consumes("application/xml")
+    public String updateBook(@PathParam("id") long id, String book) {
+        return book;
+    }
+    
+    @DELETE
+    @Path("/books/{id}")
+    public void deleteBook(@PathParam("id") long id) {
+        // benchmark resource, never invoked
+    }
+    
+    @GET
+    @Path("/authors/{name}")
+    @Produces("application/xml")
+    public String getAuthor(@PathParam("name") String name) {
+        return "<author/>";
+    }
+}
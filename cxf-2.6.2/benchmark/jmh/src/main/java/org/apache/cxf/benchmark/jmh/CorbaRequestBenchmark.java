@@ -0,0 +1,153 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.benchmark.jmh;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.namespace.QName;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.BusFactory;
+import org.apache.cxf.binding.corba.CorbaConduit;
+import org.apache.cxf.binding.corba.CorbaMessage;
+import org.apache.cxf.binding.corba.CorbaOperationTypeCodes;
+import org.apache.cxf.binding.corba.CorbaStreamable;
+import org.apache.cxf.binding.corba.CorbaTypeMap;
+import org.apache.cxf.binding.corba.TypeMapCache;
+import org.apache.cxf.binding.corba.types.CorbaPrimitiveHandler;
+import org.apache.cxf.binding.corba.utils.CorbaBindingHelper;
+import org.apache.cxf.binding.corba.utils.OrbConfig;
+import org.apache.cxf.binding.corba.wsdl.CorbaConstants;
+import org.apache.cxf.binding.corba.wsdl.OperationType;
+import org.apache.cxf.binding.corba.wsdl.RaisesType;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.service.Service;
+import org.apache.cxf.service.model.BindingOperationInfo;
+import org.apache.cxf.service.model.EndpointInfo;
+import org.apache.cxf.service.model.ServiceInfo;
+import org.apache.cxf.wsdl11.WSDLServiceFactory;
+import org.omg.CORBA.Context;
+import org.omg.CORBA.ExceptionList;
+import org.omg.CORBA.NVList;
+import org.omg.CORBA.NamedValue;
+import org.omg.CORBA.ORB;
+import org.omg.CORBA.Request;
+import org.omg.CORBA.TCKind;
+import org.omg.CORBA.TypeCode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Setup of the DII request <code>CorbaConduit</code> sends for an operation with a 
+ * string argument and a user exception, against an object reference of the 
+ * in-process default ORB.  The request is created but not invoked, so no server 
+ * is needed.  <code>cached</code> is the current per-call work, <code>uncached</code> 
+ * resolves the exception TypeCodes and creates the exception and context lists on 
+ * every call as the conduit used to.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CorbaRequestBenchmark {
+    
+    private static final String NS = "http://schemas.apache.org/idl/except";
+    
+    private Bus bus;
+    private ORB orb;
+    private CorbaConduit conduit;
+    private CorbaTypeMap typeMap;
+    private OperationType opType;
+    private CorbaMessage message;
+    
+    @Setup
+    public void setUp() throws Exception {
+        bus = BusFactory.newInstance().createBus();
+        WSDLServiceFactory factory = new WSDLServiceFactory(bus, 
+            getClass().getResource("/corba-exceptions.wsdl").toString(), 
+            new QName(NS, "ExceptionTestCORBAService"));
+        Service service = factory.create();
+        ServiceInfo serviceInfo = service.getServiceInfos().get(0);
+        EndpointInfo ei = serviceInfo.getEndpoint(new QName(NS, "ExceptionTestCORBAPort"));
+        BindingOperationInfo boi = ei.getBinding().getOperation(new QName(NS, "review_data"));
+        opType = boi.getExtensor(OperationType.class);
+        typeMap = TypeMapCache.get(serviceInfo);
+        
+        OrbConfig orbConfig = new OrbConfig();
+        orb = CorbaBindingHelper.getDefaultORB(orbConfig);
+        conduit = new CorbaConduit(ei, null, orbConfig);
+        
+        message = new CorbaMessage(new MessageImpl());
+        message.put(CorbaConstants.CORBA_ENDPOINT_OBJECT, 
+                    orb.string_to_object("corbaloc::localhost:40000/except"));
+        QName argName = new QName("data");
+        CorbaPrimitiveHandler arg = new CorbaPrimitiveHandler(argName, CorbaConstants.NT_CORBA_STRING, 
+                                                              orb.get_primitive_tc(TCKind.tk_string), 
+                                                              null);
+        arg.setValue("some data to review");
+        CorbaStreamable streamable = message.createStreamableObject(arg, argName);
+        streamable.setMode(org.omg.CORBA.ARG_IN.value);
+        message.addStreamableArgument(streamable);
+    }
+    
+    @TearDown
+    public void tearDown() {
+        bus.shutdown(true);
+    }
+    
+    @Benchmark
+    public Request cached() throws Exception {
+        CorbaOperationTypeCodes typeCodes = conduit.getOperationTypeCodes(opType);
+        NVList nvlist = conduit.getArguments(message);
+        NamedValue ret = conduit.getReturn(message);
+        ExceptionList exList = conduit.getExceptionList(typeCodes, opType);
+        return conduit.getRequest(message, opType.getName(), nvlist, ret, exList);
+    }
+    
+    @Benchmark
+    public Request uncached() throws Exception {
+        NVList nvlist = conduit.getArguments(message);
+        NamedValue ret = conduit.getReturn(message);
+        Map<TypeCode, RaisesType> exceptions = conduit.getOperationExceptions(opType, typeMap);
+        ExceptionList exList = conduit.getExceptionList(exceptions, message, opType);
+        Context ctx = null;
+        try {
+            ctx = orb.get_default_context();
+        } catch (Exception ex) {
+            // not supported by every ORB
+        }
+        org.omg.CORBA.Object target = 
+            (org.omg.CORBA.Object)message.get(CorbaConstants.CORBA_ENDPOINT_OBJECT);
+        return target._create_request(ctx, opType.getName(), nvlist, ret, exList, 
+                                      orb.create_context_list());
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.benchmark.jmh;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.apache.cxf.aegis.AegisContext;
+import org.apache.cxf.aegis.AegisReader;
+import org.apache.cxf.aegis.AegisWriter;
+import org.apache.cxf.aegis.type.AegisType;
+import org.apache.cxf.benchmark.jmh.model.Order;
+import org.apache.cxf.staxutils.StaxUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JAXB and Aegis (un)marshalling of a doc/literal order document through 
+ * StAX, the way the databindings are driven by the interceptors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataBindingBenchmark {
+    private static final QName ORDER_QNAME = new QName(Payloads.NS, "order");
+    
+    @Param({"1", "50" })
+    private int lines;
+    
+    private Order order;
+    
+    private JAXBContext jaxbContext;
+    private byte[] jaxbPayload;
+    
+    private AegisContext aegisContext;
+    private AegisType aegisType;
+    private byte[] aegisPayload;
+    
+    @Setup
+    public void setUp() throws Exception {
+        order = Order.create(lines);
+        
+        jaxbContext = JAXBContext.newInstance(Order.class);
+        jaxbPayload = jaxbMarshal().toByteArray();
+        
+        aegisContext = new AegisContext();
+        Set<java.lang.reflect.Type> rootClasses = new HashSet<java.lang.reflect.Type>();
+        rootClasses.add(Order.class);
+        aegisContext.setRootClasses(rootClasses);
+        aegisContext.initialize();
+        aegisType = aegisContext.getRootType(Order.class);
+        aegisPayload = aegisWrite().toByteArray();
+    }
+    
+    @Benchmark
+    public ByteArrayOutputStream jaxbMarshal() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+        XMLStreamWriter writer = StaxUtils.createXMLStreamWriter(out);
+        Marshaller marshaller = jaxbContext.createMarshaller();
+        marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+        marshaller.marshal(order, writer);
+        writer.flush();
+        StaxUtils.close(writer);
+        return out;
+    }
+    
+    @Benchmark
+    public Object jaxbUnmarshal() throws Exception {
+        XMLStreamReader reader = StaxUtils.createXMLStreamReader(new ByteArrayInputStream(jaxbPayload));
+        Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
+        Object o = unmarshaller.unmarshal(reader);
+        StaxUtils.close(reader);
+        return o;
+    }
+    
+    @Benchmark
+    public ByteArrayOutputStream aegisWrite() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+        XMLStreamWriter writer = StaxUtils.createXMLStreamWriter(out);
+        AegisWriter<XMLStreamWriter> aegisWriter = aegisContext.createXMLStreamWriter();
+        aegisWriter.write(order, ORDER_QNAME, false, writer, aegisType);
+        writer.flush();
+        StaxUtils.close(writer);
+        return out;
+    }
+    
+    @Benchmark
+    public Object aegisRead() throws Exception {
+        XMLStreamReader reader = StaxUtils.createXMLStreamReader(new ByteArrayInputStream(aegisPayload));
+        AegisReader<XMLStreamReader> aegisReader = aegisContext.createXMLStreamReader();
+        Object o = aegisReader.read(reader, aegisType);
+        StaxUtils.close(reader);
+        return o;
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.benchmark.jmh;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cxf.helpers.HeaderMap;
+import org.apache.cxf.jaxrs.impl.MetadataMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Copying a typical set of HTTP request headers into the protocol header map
+ * and reading a few of them back, the way <code>AbstractHTTPDestination</code>
+ * and the SOAP and JAX-RS interceptors do for every request.  <code>treeMap</code>
+ * is the <code>TreeMap</code> with <code>String.CASE_INSENSITIVE_ORDER</code> used
+ * before, <code>headerMap</code> is <code>HeaderMap</code>.  Run with 
+ * <code>-prof gc</code> to compare the allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeaderMapBenchmark {
+    
+    private static final String[][] REQUEST_HEADERS = {
+        {"host", "localhost:9000"},
+        {"user-agent", "Apache CXF 2.6.2"},
+        {"accept", "*/*"},
+        {"accept-encoding", "gzip, deflate"},
+        {"connection", "keep-alive"},
+        {"content-type", "text/xml; charset=UTF-8"},
+        {"content-length", "512"},
+        {"soapaction", "\"\""},
+        {"cache-control", "no-cache"},
+        {"pragma", "no-cache"},
+        {"cookie", "JSESSIONID=0123456789"},
+        {"x-request-id", "6f1c2b1e-4f57-4c43-a6c8-0c0c5f2f1a1d"}
+    };
+    
+    private String[] names;
+    private String[] values;
+    
+    @Setup
+    public void setUp() {
+        // servlet containers hand out new name instances for every request
+        names = new String[REQUEST_HEADERS.length];
+        values = new String[REQUEST_HEADERS.length];
+        for (int i = 0; i < REQUEST_HEADERS.length; i++) {
+            names[i] = new StringBuilder(REQUEST_HEADERS[i][0]).toString();
+            values[i] = REQUEST_HEADERS[i][1];
+        }
+    }
+    
+    @Benchmark
+    public Object treeMap() {
+        Map<String, List<String>> headers 
+            = new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+        for (int i = 0; i < names.length; i++) {
+            List<String> list = new ArrayList<String>();
+            list.add(values[i]);
+            headers.put(names[i], list);
+        }
+        return read(headers);
+    }
+    
+    @Benchmark
+    public Object headerMap() {
+        HeaderMap<String> headers = new HeaderMap<String>();
+        for (int i = 0; i < names.length; i++) {
+            headers.add(names[i], values[i]);
+        }
+        return read(headers);
+    }
+    
+    @Benchmark
+    public Object metadataMap() {
+        MetadataMap<String, String> headers = new MetadataMap<String, String>(false, true);
+        for (int i = 0; i < names.length; i++) {
+            headers.add(names[i], values[i]);
+        }
+        return headers.getFirst("Content-Type") + headers.getFirst("Accept")
+            + headers.getFirst("SOAPAction");
+    }
+    
+    private static Object read(Map<String, List<String>> headers) {
+        return headers.get("Content-Type").get(0) + headers.get("Accept").get(0)
+            + headers.get("SOAPAction").get(0);
+    }
+}
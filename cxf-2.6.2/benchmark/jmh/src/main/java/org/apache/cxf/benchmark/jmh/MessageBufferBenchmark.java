@@ -0,0 +1,127 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.benchmark.jmh;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cxf.helpers.LoadingByteArrayOutputStream;
+import org.apache.cxf.helpers.SegmentedByteArrayOutputStream;
+import org.apache.cxf.io.CachedOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Buffering of a message written in 4K blocks and read back as an InputStream,
+ * with a LoadingByteArrayOutputStream, a SegmentedByteArrayOutputStream and
+ * a CachedOutputStream kept under its threshold. Run with "-prof gc" to 
+ * compare the allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageBufferBenchmark {
+    
+    private static final OutputStream DISCARD = new OutputStream() {
+        public void write(int b) {
+        }
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+    
+    @Param({"10", "100", "500" })
+    private int sizeKb;
+    
+    private byte[] block;
+    private byte[] readBuffer;
+    
+    @Setup
+    public void setUp() {
+        block = new byte[4096];
+        for (int i = 0; i < block.length; i++) {
+            block[i] = (byte)('a' + i % 26);
+        }
+        readBuffer = new byte[4096];
+    }
+    
+    @Benchmark
+    public long loadingByteArrayOutputStream() throws Exception {
+        LoadingByteArrayOutputStream out = new LoadingByteArrayOutputStream(2048);
+        write(out);
+        return read(out.createInputStream());
+    }
+    
+    @Benchmark
+    public long segmentedByteArrayOutputStream() throws Exception {
+        SegmentedByteArrayOutputStream out = new SegmentedByteArrayOutputStream(2048);
+        write(out);
+        return read(out.createInputStream());
+    }
+    
+    /**
+     * The content is written out and the chunks go back to the pool 
+     */
+    @Benchmark
+    public long segmentedByteArrayOutputStreamReleased() throws Exception {
+        SegmentedByteArrayOutputStream out = new SegmentedByteArrayOutputStream(2048);
+        write(out);
+        long count = out.size();
+        out.writeTo(DISCARD);
+        out.release();
+        return count;
+    }
+    
+    @Benchmark
+    public long cachedOutputStream() throws Exception {
+        CachedOutputStream out = new CachedOutputStream(Long.MAX_VALUE);
+        write(out);
+        long count = read(out.getInputStream());
+        out.close();
+        return count;
+    }
+    
+    private void write(OutputStream out) throws Exception {
+        for (int i = 0; i < sizeKb / 4 + 1; i++) {
+            out.write(block);
+        }
+    }
+    
+    private long read(InputStream in) throws Exception {
+        long count = 0;
+        for (int n = in.read(readBuffer); n != -1; n = in.read(readBuffer)) {
+            count += n;
+        }
+        in.close();
+        return count;
+    }
+}
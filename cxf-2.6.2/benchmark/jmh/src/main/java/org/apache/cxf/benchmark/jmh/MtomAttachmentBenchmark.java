@@ -0,0 +1,102 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.benchmark.jmh;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cxf.attachment.AttachmentDeserializer;
+import org.apache.cxf.message.Attachment;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing of an MTOM (multipart/related) message by the 
+ * {@link AttachmentDeserializer}, including draining the binary part.  The 
+ * larger size crosses the default in-memory threshold and so includes the 
+ * temporary file handling.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MtomAttachmentBenchmark {
+    
+    @Param({"4096", "262144" })
+    private int size;
+    
+    private byte[] mimeMessage;
+    private String contentType;
+    private byte[] buffer;
+    
+    @Setup
+    public void setUp() {
+        byte[] attachment = new byte[size];
+        new Random(size).nextBytes(attachment);
+        mimeMessage = Payloads.bytes(Payloads.mtomMessage(attachment));
+        contentType = Payloads.mtomContentType();
+        buffer = new byte[8192];
+    }
+    
+    @Benchmark
+    public long parse() throws Exception {
+        Message message = new MessageImpl();
+        Exchange exchange = new ExchangeImpl();
+        exchange.setInMessage(message);
+        message.put(Message.CONTENT_TYPE, contentType);
+        message.setContent(InputStream.class, new ByteArrayInputStream(mimeMessage));
+        
+        AttachmentDeserializer deserializer = new AttachmentDeserializer(message);
+        deserializer.initializeAttachments();
+        
+        long total = drain(message.getContent(InputStream.class));
+        for (Attachment a : message.getAttachments()) {
+            total += drain(a.getDataHandler().getInputStream());
+        }
+        return total;
+    }
+    
+    private long drain(InputStream in) throws Exception {
+        long total = 0;
+        int n = in.read(buffer);
+        while (n != -1) {
+            total += n;
+            n = in.read(buffer);
+        }
+        in.close();
+        return total;
+    }
+}
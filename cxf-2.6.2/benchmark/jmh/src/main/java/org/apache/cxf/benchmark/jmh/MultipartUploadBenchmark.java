@@ -0,0 +1,144 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.benchmark.jmh;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.BusFactory;
+import org.apache.cxf.endpoint.Server;
+import org.apache.cxf.helpers.IOUtils;
+import org.apache.cxf.jaxrs.JAXRSServerFactoryBean;
+import org.apache.cxf.jaxrs.provider.MultipartProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Multipart uploads of a manifest and a large file part through the Jetty 
+ * transport, with and without multipart streaming. The body is generated while 
+ * it is sent so only the server side buffering shows up; run it with 
+ * "-prof gc" and a larger "sizeMb" (for example -p sizeMb=4096) to compare 
+ * the memory and temporary file usage for multi-gigabyte bodies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MultipartUploadBenchmark {
+    
+    private static final String BOUNDARY = "cxf-benchmark-boundary";
+    
+    @Param({"64" })
+    private long sizeMb;
+    
+    @Param({"false", "true" })
+    private boolean streaming;
+    
+    private Bus bus;
+    private Server server;
+    private String address;
+    
+    @Setup
+    public void setUp() throws Exception {
+        bus = BusFactory.newInstance().createBus();
+        address = "http://localhost:" + findFreePort() + "/multipart";
+        MultipartProvider provider = new MultipartProvider();
+        provider.setAttachmentStreaming(streaming);
+        
+        JAXRSServerFactoryBean sf = new JAXRSServerFactoryBean();
+        sf.setBus(bus);
+        sf.setResourceClasses(UploadService.class);
+        sf.setProviders(Collections.singletonList(provider));
+        sf.setAddress(address);
+        server = sf.create();
+    }
+    
+    @TearDown
+    public void tearDown() {
+        server.destroy();
+        bus.shutdown(true);
+    }
+    
+    @Benchmark
+    public String upload() throws IOException {
+        HttpURLConnection conn = (HttpURLConnection)new URL(address + "/upload").openConnection();
+        conn.setDoOutput(true);
+        conn.setRequestMethod("POST");
+        conn.setChunkedStreamingMode(64 * 1024);
+        conn.setRequestProperty("Content-Type", "multipart/mixed; boundary=" + BOUNDARY);
+        conn.setRequestProperty("Accept", "text/plain");
+        
+        OutputStream os = conn.getOutputStream();
+        writePartHeaders(os, "manifest", "application/json");
+        os.write("{\"name\":\"data.bin\"}".getBytes("UTF-8"));
+        writePartHeaders(os, "file", "application/octet-stream");
+        byte[] chunk = new byte[64 * 1024];
+        Arrays.fill(chunk, (byte)'a');
+        for (long written = 0; written < sizeMb * 1024 * 1024; written += chunk.length) {
+            os.write(chunk);
+        }
+        os.write(("\r\n--" + BOUNDARY + "--\r\n").getBytes("UTF-8"));
+        os.close();
+        
+        InputStream is = conn.getInputStream();
+        try {
+            return IOUtils.toString(is);
+        } finally {
+            is.close();
+            conn.disconnect();
+        }
+    }
+    
+    private static void writePartHeaders(OutputStream os, String id, String type) throws IOException {
+        String headers = "\r\n--" + BOUNDARY + "\r\n"
+            + "Content-Type: " + type + "\r\n"
+            + "Content-ID: <" + id + ">\r\n\r\n";
+        os.write(headers.getBytes("UTF-8"));
+    }
+    
+    private static int findFreePort() throws IOException {
+        ServerSocket socket = new ServerSocket(0);
+        try {
+            return socket.getLocalPort();
+        } finally {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.benchmark.jmh;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cxf.jaxrs.model.ParameterType;
+import org.apache.cxf.jaxrs.utils.InjectionUtils;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Conversion of the String values of a parameter-heavy resource method
+ * (primitives, wrappers, String, enum, a String constructor and a list) 
+ * with InjectionUtils, as done for every request by JAXRSUtils.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParameterConversionBenchmark {
+    
+    public enum Order {
+        ASC, DESC
+    }
+    
+    private static final Annotation[] NO_ANNOTATIONS = new Annotation[0];
+    
+    private Message message;
+    private Type longListType;
+    private List<String> ids;
+    
+    @Setup
+    public void setUp() throws Exception {
+        message = new MessageImpl();
+        Exchange exchange = new ExchangeImpl();
+        message.setExchange(exchange);
+        exchange.setInMessage(message);
+        Method m = ParameterConversionBenchmark.class.getMethod("find", 
+            new Class[]{int.class, long.class, Integer.class, String.class, Order.class, 
+                        StringBuilder.class, List.class});
+        longListType = m.getGenericParameterTypes()[6];
+        ids = Arrays.asList("1", "2", "3", "4", "5", "6", "7", "8");
+    }
+    
+    /**
+     * The resource method signature the benchmark converts values for
+     */
+    public void find(int start, long size, Integer version, String name, Order order,
+                     StringBuilder filter, List<Long> idList) {
+        // not invoked
+    }
+    
+    @Benchmark
+    public void scalarParameters(Blackhole bh) {
+        bh.consume(convert("10", int.class, int.class, ParameterType.PATH));
+        bh.consume(convert("100", long.class, long.class, ParameterType.QUERY));
+        bh.consume(convert("2", Integer.class, Integer.class, ParameterType.QUERY));
+        bh.consume(convert("book", String.class, String.class, ParameterType.QUERY));
+        bh.consume(convert("DESC", Order.class, Order.class, ParameterType.QUERY));
+        bh.consume(convert("a=b", StringBuilder.class, StringBuilder.class, ParameterType.HEADER));
+    }
+    
+    @Benchmark
+    public Object listParameter() {
+        return InjectionUtils.createParameterObject(ids, List.class, longListType, NO_ANNOTATIONS, 
+                                                    null, true, ParameterType.QUERY, message);
+    }
+    
+    private Object convert(String value, Class<?> cls, Type type, ParameterType pType) {
+        return InjectionUtils.createParameterObject(Collections.singletonList(value), cls, type, 
+                                                    NO_ANNOTATIONS, null, true, pType, message);
+    }
+}
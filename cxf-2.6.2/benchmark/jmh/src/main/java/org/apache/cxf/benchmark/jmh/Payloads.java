@@ -0,0 +1,102 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.benchmark.jmh;
+
+import java.io.UnsupportedEncodingException;
+
+/**
+ * Representative doc/literal payloads shared by the benchmarks.
+ */
+final class Payloads {
+    static final String NS = "http://cxf.apache.org/benchmark";
+    static final String SOAP11_NS = "http://schemas.xmlsoap.org/soap/envelope/";
+    static final String WSA_NS = "http://www.w3.org/2005/08/addressing";
+    static final String XOP_NS = "http://www.w3.org/2004/08/xop/include";
+    static final String MIME_BOUNDARY = "uuid:0ca0e16e-feb1-426c-97d8-c4508ada5e82";
+    
+    private Payloads() {
+        //utility class
+    }
+    
+    static String orderBody(int lines) {
+        StringBuilder b = new StringBuilder(256 + lines * 128);
+        b.append("<b:order xmlns:b=\"").append(NS).append("\">");
+        b.append("<b:customer>Acme Corporation</b:customer><b:id>4711</b:id>");
+        for (int i = 0; i < lines; i++) {
+            b.append("<b:items><b:price>").append(9.99 + i).append("</b:price>")
+                .append("<b:product>product-").append(i).append("</b:product>")
+                .append("<b:quantity>").append(i + 1).append("</b:quantity></b:items>");
+        }
+        b.append("</b:order>");
+        return b.toString();
+    }
+    
+    static String soapEnvelope(int lines) {
+        StringBuilder b = new StringBuilder(1024 + lines * 128);
+        b.append("<soap:Envelope xmlns:soap=\"").append(SOAP11_NS).append("\">");
+        b.append("<soap:Header>");
+        b.append("<wsa:Action xmlns:wsa=\"").append(WSA_NS).append("\">")
+            .append(NS).append("/OrderService/placeOrder</wsa:Action>");
+        b.append("<wsa:MessageID xmlns:wsa=\"").append(WSA_NS).append("\">")
+            .append("urn:uuid:6f5b0b2c-5d8e-4b5b-9c35-2b8f3a8a1f10</wsa:MessageID>");
+        b.append("<wsa:To xmlns:wsa=\"").append(WSA_NS).append("\">local://orders</wsa:To>");
+        b.append("</soap:Header>");
+        b.append("<soap:Body>").append(orderBody(lines)).append("</soap:Body>");
+        b.append("</soap:Envelope>");
+        return b.toString();
+    }
+    
+    static String mtomMessage(byte[] attachment) {
+        StringBuilder b = new StringBuilder(1024 + attachment.length);
+        b.append("--").append(MIME_BOUNDARY).append("\r\n");
+        b.append("Content-Type: application/xop+xml; charset=UTF-8; type=\"text/xml\"\r\n");
+        b.append("Content-Transfer-Encoding: binary\r\n");
+        b.append("Content-ID: <root.message@cxf.apache.org>\r\n\r\n");
+        b.append("<soap:Envelope xmlns:soap=\"").append(SOAP11_NS).append("\"><soap:Body>")
+            .append("<b:upload xmlns:b=\"").append(NS).append("\"><b:data>")
+            .append("<xop:Include xmlns:xop=\"").append(XOP_NS)
+            .append("\" href=\"cid:data@cxf.apache.org\"/>")
+            .append("</b:data></b:upload></soap:Body></soap:Envelope>\r\n");
+        b.append("--").append(MIME_BOUNDARY).append("\r\n");
+        b.append("Content-Type: application/octet-stream\r\n");
+        b.append("Content-Transfer-Encoding: binary\r\n");
+        b.append("Content-ID: <data@cxf.apache.org>\r\n\r\n");
+        // ISO-8859-1 maps each char to exactly one byte, keeping the binary part intact
+        try {
+            b.append(new String(attachment, "ISO-8859-1"));
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+        b.append("\r\n--").append(MIME_BOUNDARY).append("--");
+        return b.toString();
+    }
+    
+    static String mtomContentType() {
+        return "multipart/related; type=\"application/xop+xml\"; boundary=\"" + MIME_BOUNDARY 
+            + "\"; start=\"<root.message@cxf.apache.org>\"; start-info=\"text/xml\"";
+    }
+    
+    static byte[] bytes(String s) {
+        try {
+            return s.getBytes("ISO-8859-1");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
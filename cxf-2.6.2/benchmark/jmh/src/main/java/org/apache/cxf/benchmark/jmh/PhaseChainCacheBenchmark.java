@@ -0,0 +1,106 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.benchmark.jmh;
+
+import java.util.List;
+import java.util.SortedSet;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.BusFactory;
+import org.apache.cxf.endpoint.Endpoint;
+import org.apache.cxf.endpoint.Server;
+import org.apache.cxf.interceptor.Interceptor;
+import org.apache.cxf.jaxws.JaxWsServerFactoryBean;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.phase.Phase;
+import org.apache.cxf.phase.PhaseChainCache;
+import org.apache.cxf.phase.PhaseInterceptorChain;
+import org.apache.cxf.phase.PhaseManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Interceptor chain setup for an incoming JAX-WS request, using the same 
+ * interceptor providers as <code>ChainInitiationObserver</code>.  The 
+ * <code>cached</code> case is what every request pays when the providers 
+ * did not change, <code>uncached</code> is the full chain build.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PhaseChainCacheBenchmark {
+    
+    private Bus bus;
+    private Server server;
+    private SortedSet<Phase> phases;
+    private List<Interceptor<? extends Message>> busInterceptors;
+    private List<Interceptor<? extends Message>> serviceInterceptors;
+    private List<Interceptor<? extends Message>> endpointInterceptors;
+    private List<Interceptor<? extends Message>> bindingInterceptors;
+    private PhaseChainCache cache;
+    
+    @Setup
+    public void setUp() {
+        bus = BusFactory.newInstance().createBus();
+        JaxWsServerFactoryBean sf = new JaxWsServerFactoryBean();
+        sf.setBus(bus);
+        sf.setServiceBean(new EchoImpl());
+        sf.setAddress("local://chain");
+        server = sf.create();
+        
+        Endpoint endpoint = server.getEndpoint();
+        phases = bus.getExtension(PhaseManager.class).getInPhases();
+        busInterceptors = bus.getInInterceptors();
+        serviceInterceptors = endpoint.getService().getInInterceptors();
+        endpointInterceptors = endpoint.getInInterceptors();
+        bindingInterceptors = endpoint.getBinding().getInInterceptors();
+        cache = new PhaseChainCache();
+    }
+    
+    @TearDown
+    public void tearDown() {
+        server.destroy();
+        bus.shutdown(true);
+    }
+    
+    @Benchmark
+    public PhaseInterceptorChain cached() {
+        return cache.get(phases, busInterceptors, serviceInterceptors, 
+                         endpointInterceptors, bindingInterceptors);
+    }
+    
+    @Benchmark
+    public PhaseInterceptorChain uncached() {
+        return new PhaseChainCache().get(phases, busInterceptors, serviceInterceptors, 
+                                         endpointInterceptors, bindingInterceptors);
+    }
+}
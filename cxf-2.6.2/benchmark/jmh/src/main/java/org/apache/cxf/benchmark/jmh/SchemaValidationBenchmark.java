@@ -0,0 +1,105 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.benchmark.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.BusFactory;
+import org.apache.cxf.annotations.SchemaValidation.SchemaValidationType;
+import org.apache.cxf.endpoint.Client;
+import org.apache.cxf.endpoint.Server;
+import org.apache.cxf.frontend.ClientProxy;
+import org.apache.cxf.jaxws.JaxWsProxyFactoryBean;
+import org.apache.cxf.jaxws.JaxWsServerFactoryBean;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.transport.local.LocalConduit;
+import org.apache.cxf.transport.local.LocalTransportFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JAX-WS round trips over the in-process local transport with schema 
+ * validation switched off, on for incoming messages only, or on in both directions, 
+ * showing the per message cost of validating against the cached schema.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SchemaValidationBenchmark {
+    
+    @Param({"NONE", "IN", "BOTH" })
+    private SchemaValidationType validation;
+    
+    private Bus bus;
+    private Server server;
+    private Echo echo;
+    private String text;
+    
+    @Setup
+    public void setUp() {
+        bus = BusFactory.newInstance().createBus();
+        String address = "local://validation-" + validation;
+        
+        JaxWsServerFactoryBean sf = new JaxWsServerFactoryBean();
+        sf.setBus(bus);
+        sf.setServiceBean(new EchoImpl());
+        sf.setAddress(address);
+        sf.setTransportId(LocalTransportFactory.TRANSPORT_ID);
+        server = sf.create();
+        server.getEndpoint().put(Message.SCHEMA_VALIDATION_ENABLED, validation);
+        
+        JaxWsProxyFactoryBean pf = new JaxWsProxyFactoryBean();
+        pf.setBus(bus);
+        pf.setServiceClass(Echo.class);
+        pf.setAddress(address);
+        pf.getClientFactoryBean().setTransportId(LocalTransportFactory.TRANSPORT_ID);
+        echo = (Echo)pf.create();
+        Client client = ClientProxy.getClient(echo);
+        client.getRequestContext().put(LocalConduit.DIRECT_DISPATCH, Boolean.TRUE);
+        client.getRequestContext().put(Message.SCHEMA_VALIDATION_ENABLED, validation);
+        
+        text = Payloads.orderBody(1);
+    }
+    
+    @TearDown
+    public void tearDown() {
+        server.destroy();
+        bus.shutdown(true);
+    }
+    
+    @Benchmark
+    public String roundTrip() {
+        return echo.echo(text);
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.benchmark.jmh;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.stream.XMLStreamWriter;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import org.apache.cxf.binding.soap.Soap11;
+import org.apache.cxf.binding.soap.SoapMessage;
+import org.apache.cxf.binding.soap.SoapVersion;
+import org.apache.cxf.binding.soap.interceptor.ReadHeadersInterceptor;
+import org.apache.cxf.helpers.DOMUtils;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.staxutils.StaxUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing of a SOAP 1.1 envelope carrying WS-Addressing headers through 
+ * {@link ReadHeadersInterceptor} and writing an equivalent envelope back out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SoapEnvelopeBenchmark {
+    
+    @Param({"1", "50" })
+    private int lines;
+    
+    private byte[] envelope;
+    private ReadHeadersInterceptor readHeaders;
+    private List<Element> headers;
+    private Element body;
+    
+    @Setup
+    public void setUp() throws Exception {
+        envelope = Payloads.bytes(Payloads.soapEnvelope(lines));
+        readHeaders = new ReadHeadersInterceptor(null);
+        
+        Document doc = StaxUtils.read(new ByteArrayInputStream(envelope));
+        Element hdr = DOMUtils.getFirstElement(doc.getDocumentElement());
+        headers = new ArrayList<Element>();
+        for (Element el = DOMUtils.getFirstElement(hdr); el != null; el = DOMUtils.getNextElement(el)) {
+            headers.add(el);
+        }
+        body = DOMUtils.getFirstElement(DOMUtils.getNextElement(hdr));
+    }
+    
+    @Benchmark
+    public SoapMessage parse() {
+        SoapMessage message = new SoapMessage(new MessageImpl());
+        Exchange exchange = new ExchangeImpl();
+        exchange.setInMessage(message);
+        message.setContent(InputStream.class, new ByteArrayInputStream(envelope));
+        readHeaders.handleMessage(message);
+        return message;
+    }
+    
+    @Benchmark
+    public int write() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(envelope.length);
+        XMLStreamWriter writer = StaxUtils.createXMLStreamWriter(out);
+        SoapVersion version = Soap11.getInstance();
+        String prefix = "soap";
+        writer.writeStartElement(prefix, version.getEnvelope().getLocalPart(), version.getNamespace());
+        writer.writeNamespace(prefix, version.getNamespace());
+        writer.writeStartElement(prefix, version.getHeader().getLocalPart(), version.getNamespace());
+        for (Element header : headers) {
+            StaxUtils.writeElement(header, writer, false);
+        }
+        writer.writeEndElement();
+        writer.writeStartElement(prefix, version.getBody().getLocalPart(), version.getNamespace());
+        StaxUtils.writeElement(body, writer, false);
+        writer.writeEndElement();
+        writer.writeEndElement();
+        writer.flush();
+        StaxUtils.close(writer);
+        return out.size();
+    }
+}
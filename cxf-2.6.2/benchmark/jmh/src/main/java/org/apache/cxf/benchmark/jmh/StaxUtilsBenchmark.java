@@ -0,0 +1,101 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.benchmark.jmh;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.apache.cxf.staxutils.StaxUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Cost of obtaining StAX readers and writers through {@link StaxUtils} and of 
+ * pulling a doc/literal payload through them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StaxUtilsBenchmark {
+    
+    @Param({"1", "50" })
+    private int lines;
+    
+    private byte[] payload;
+    
+    @Setup
+    public void setUp() {
+        payload = Payloads.bytes(Payloads.orderBody(lines));
+    }
+    
+    @Benchmark
+    public void createReader(Blackhole bh) throws Exception {
+        XMLStreamReader reader = StaxUtils.createXMLStreamReader(new ByteArrayInputStream(payload));
+        bh.consume(reader.getEventType());
+        StaxUtils.close(reader);
+    }
+    
+    @Benchmark
+    public void readPayload(Blackhole bh) throws Exception {
+        XMLStreamReader reader = StaxUtils.createXMLStreamReader(new ByteArrayInputStream(payload));
+        while (reader.hasNext()) {
+            bh.consume(reader.next());
+        }
+        StaxUtils.close(reader);
+    }
+    
+    @Benchmark
+    public int createWriter() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        XMLStreamWriter writer = StaxUtils.createXMLStreamWriter(out);
+        writer.writeEmptyElement("e");
+        writer.flush();
+        StaxUtils.close(writer);
+        return out.size();
+    }
+    
+    @Benchmark
+    public int copyPayload() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length);
+        XMLStreamReader reader = StaxUtils.createXMLStreamReader(new ByteArrayInputStream(payload));
+        XMLStreamWriter writer = StaxUtils.createXMLStreamWriter(out);
+        StaxUtils.copy(reader, writer);
+        writer.flush();
+        StaxUtils.close(writer);
+        StaxUtils.close(reader);
+        return out.size();
+    }
+}
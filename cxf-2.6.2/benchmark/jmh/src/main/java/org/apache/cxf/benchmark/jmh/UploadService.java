@@ -0,0 +1,59 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.benchmark.jmh;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+
+import org.apache.cxf.helpers.IOUtils;
+import org.apache.cxf.jaxrs.ext.multipart.Attachment;
+import org.apache.cxf.jaxrs.ext.multipart.MultipartBody;
+
+/**
+ * JAX-RS resource accepting a multipart upload made of a small manifest 
+ * part followed by a large file part, the parts are consumed in order.
+ */
+@Path("/upload")
+public class UploadService {
+    
+    @POST
+    @Consumes("multipart/mixed")
+    @Produces("text/plain")
+    public String upload(MultipartBody body) throws IOException {
+        Iterator<Attachment> parts = body.iterator();
+        String manifest = IOUtils.toString(parts.next().getDataHandler().getInputStream());
+        long size = 0;
+        while (parts.hasNext()) {
+            InputStream is = parts.next().getDataHandler().getInputStream();
+            byte[] buffer = new byte[8192];
+            for (int n = is.read(buffer); n != -1; n = is.read(buffer)) {
+                size += n;
+            }
+            is.close();
+        }
+        return manifest.length() + ":" + size;
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.benchmark.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.BusFactory;
+import org.apache.cxf.endpoint.Client;
+import org.apache.cxf.endpoint.Server;
+import org.apache.cxf.frontend.ClientProxy;
+import org.apache.cxf.jaxws.JaxWsProxyFactoryBean;
+import org.apache.cxf.jaxws.JaxWsServerFactoryBean;
+import org.apache.cxf.transport.local.LocalConduit;
+import org.apache.cxf.transport.local.LocalTransportFactory;
+import org.apache.cxf.ws.addressing.WSAddressingFeature;
+import org.apache.cxf.ws.addressing.soap.MAPCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JAX-WS round trips over the in-process local transport with WS-Addressing 
+ * enabled on both sides, comparing the StAX header codec of the MAPCodec 
+ * against the JAXB path it falls back to.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WSAddressingBenchmark {
+    
+    @Param({"true", "false" })
+    private boolean streaming;
+    
+    private Bus bus;
+    private Server server;
+    private Echo echo;
+    private String text;
+    
+    @Setup
+    public void setUp() {
+        bus = BusFactory.newInstance().createBus();
+        String address = "local://wsa-" + streaming;
+        
+        JaxWsServerFactoryBean sf = new JaxWsServerFactoryBean();
+        sf.setBus(bus);
+        sf.setServiceBean(new EchoImpl());
+        sf.setAddress(address);
+        sf.setTransportId(LocalTransportFactory.TRANSPORT_ID);
+        sf.getFeatures().add(new WSAddressingFeature());
+        server = sf.create();
+        server.getEndpoint().put(MAPCodec.STREAMING_CODEC, streaming);
+        
+        JaxWsProxyFactoryBean pf = new JaxWsProxyFactoryBean();
+        pf.setBus(bus);
+        pf.setServiceClass(Echo.class);
+        pf.setAddress(address);
+        pf.getClientFactoryBean().setTransportId(LocalTransportFactory.TRANSPORT_ID);
+        pf.getFeatures().add(new WSAddressingFeature());
+        echo = (Echo)pf.create();
+        Client client = ClientProxy.getClient(echo);
+        client.getRequestContext().put(LocalConduit.DIRECT_DISPATCH, Boolean.TRUE);
+        client.getRequestContext().put(MAPCodec.STREAMING_CODEC, streaming);
+        
+        text = Payloads.orderBody(1);
+    }
+    
+    @TearDown
+    public void tearDown() {
+        server.destroy();
+        bus.shutdown(true);
+    }
+    
+    @Benchmark
+    public String roundTrip() {
+        return echo.echo(text);
+    }
+}
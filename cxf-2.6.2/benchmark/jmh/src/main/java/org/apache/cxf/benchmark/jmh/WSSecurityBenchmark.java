@@ -0,0 +1,130 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.benchmark.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.BusFactory;
+import org.apache.cxf.binding.soap.saaj.SAAJInInterceptor;
+import org.apache.cxf.binding.soap.saaj.SAAJOutInterceptor;
+import org.apache.cxf.endpoint.Client;
+import org.apache.cxf.endpoint.Server;
+import org.apache.cxf.frontend.ClientProxy;
+import org.apache.cxf.jaxws.JaxWsProxyFactoryBean;
+import org.apache.cxf.jaxws.JaxWsServerFactoryBean;
+import org.apache.cxf.service.Service;
+import org.apache.cxf.transport.local.LocalConduit;
+import org.apache.cxf.transport.local.LocalTransportFactory;
+import org.apache.cxf.ws.security.wss4j.WSS4JInInterceptor;
+import org.apache.cxf.ws.security.wss4j.WSS4JOutInterceptor;
+import org.apache.ws.security.handler.WSHandlerConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Full JAX-WS round trips over the in-process local transport, with and 
+ * without WS-Security signing of the request and response.  The difference 
+ * between the two is the sign/verify cost of the WSS4J interceptors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WSSecurityBenchmark {
+    private static final String CRYPTO_PROPERTIES = "wss-benchmark.properties";
+    
+    @Param({"none", "Signature", "Timestamp Signature" })
+    private String action;
+    
+    private Bus bus;
+    private Server server;
+    private Echo echo;
+    private String text;
+    
+    @Setup
+    public void setUp() {
+        bus = BusFactory.newInstance().createBus();
+        String address = "local://wss-" + action.replace(' ', '-');
+        
+        JaxWsServerFactoryBean sf = new JaxWsServerFactoryBean();
+        sf.setBus(bus);
+        sf.setServiceBean(new EchoImpl());
+        sf.setAddress(address);
+        sf.setTransportId(LocalTransportFactory.TRANSPORT_ID);
+        server = sf.create();
+        
+        JaxWsProxyFactoryBean pf = new JaxWsProxyFactoryBean();
+        pf.setBus(bus);
+        pf.setServiceClass(Echo.class);
+        pf.setAddress(address);
+        pf.getClientFactoryBean().setTransportId(LocalTransportFactory.TRANSPORT_ID);
+        echo = (Echo)pf.create();
+        Client client = ClientProxy.getClient(echo);
+        client.getRequestContext().put(LocalConduit.DIRECT_DISPATCH, Boolean.TRUE);
+        
+        if (!"none".equals(action)) {
+            WSS4JInInterceptor wsIn = new WSS4JInInterceptor();
+            wsIn.setProperty(WSHandlerConstants.ACTION, action);
+            wsIn.setProperty(WSHandlerConstants.SIG_PROP_FILE, CRYPTO_PROPERTIES);
+            wsIn.setProperty(WSHandlerConstants.PW_CALLBACK_CLASS, KeystorePasswordCallback.class.getName());
+            
+            WSS4JOutInterceptor wsOut = new WSS4JOutInterceptor();
+            wsOut.setProperty(WSHandlerConstants.ACTION, action);
+            wsOut.setProperty(WSHandlerConstants.SIG_PROP_FILE, CRYPTO_PROPERTIES);
+            wsOut.setProperty(WSHandlerConstants.USER, "myalias");
+            wsOut.setProperty(WSHandlerConstants.PW_CALLBACK_CLASS, KeystorePasswordCallback.class.getName());
+            
+            Service service = server.getEndpoint().getService();
+            service.getInInterceptors().add(new SAAJInInterceptor());
+            service.getInInterceptors().add(wsIn);
+            service.getOutInterceptors().add(new SAAJOutInterceptor());
+            service.getOutInterceptors().add(wsOut);
+            
+            client.getInInterceptors().add(new SAAJInInterceptor());
+            client.getInInterceptors().add(wsIn);
+            client.getOutInterceptors().add(new SAAJOutInterceptor());
+            client.getOutInterceptors().add(wsOut);
+        }
+        text = Payloads.orderBody(10);
+    }
+    
+    @TearDown
+    public void tearDown() {
+        server.destroy();
+        bus.shutdown(true);
+    }
+    
+    @Benchmark
+    public String roundTrip() {
+        return echo.echo(text);
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.benchmark.jmh.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * Simple order bean, bound both by JAXB and by Aegis.
+ */
+@XmlRootElement(name = "order")
+public class Order {
+    private long id;
+    private String customer;
+    private List<Item> items = new ArrayList<Item>();
+    
+    public long getId() {
+        return id;
+    }
+    public void setId(long id) {
+        this.id = id;
+    }
+    public String getCustomer() {
+        return customer;
+    }
+    public void setCustomer(String customer) {
+        this.customer = customer;
+    }
+    public List<Item> getItems() {
+        return items;
+    }
+    public void setItems(List<Item> items) {
+        this.items = items;
+    }
+    
+    public static Order create(int lines) {
+        Order order = new Order();
+        order.setId(4711);
+        order.setCustomer("Acme Corporation");
+        for (int i = 0; i < lines; i++) {
+            Item item = new Item();
+            item.setProduct("product-" + i);
+            item.setQuantity(i + 1);
+            item.setPrice(9.99 + i);
+            order.getItems().add(item);
+        }
+        return order;
+    }
+}
@@ -21,6 +21,7 @@ package org.apache.cxf.wstx_msv_validation;
 
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.xml.XMLConstants;
@@ -49,6 +50,7 @@ import org.codehaus.stax2.validation.XMLValidationSchema;
  */
 class Stax2ValidationUtils {
     private static final Logger LOG = LogUtils.getL7dLogger(Stax2ValidationUtils.class);
+    private static final String KEY = XMLValidationSchema.class.getName();
 
     public Stax2ValidationUtils() {
         new W3CMultiSchemaFactory(); // will throw if wrong woodstox.
@@ -90,6 +92,26 @@ class Stax2ValidationUtils {
         writer2.validateAgainst(vs);
     }
 
+    /**
+     * Returns the woodstox validation schema for the schema set of the service.
+     * The compiled schema is immutable and only used to create the per document
+     * validators, so it is built once and kept on the ServiceInfo.
+     * 
+     * @param serviceInfo
+     * @return
+     * @throws XMLStreamException
+     */
+    private XMLValidationSchema getValidator(ServiceInfo serviceInfo) throws XMLStreamException {
+        synchronized (serviceInfo) {
+            XMLValidationSchema vs = serviceInfo.getProperty(KEY, XMLValidationSchema.class);
+            if (vs == null) {
+                vs = createValidator(serviceInfo);
+                serviceInfo.setProperty(KEY, vs);
+            }
+            return vs;
+        }
+    }
+
     /**
      * Create woodstox validator for a schema set.
      * 
@@ -97,7 +119,7 @@ class Stax2ValidationUtils {
      * @return
      * @throws XMLStreamException
      */
-    private XMLValidationSchema getValidator(ServiceInfo serviceInfo) throws XMLStreamException {
+    private XMLValidationSchema createValidator(ServiceInfo serviceInfo) throws XMLStreamException {
         Map<String, EmbeddedSchema> sources = new TreeMap<String, EmbeddedSchema>();
 
         for (SchemaInfo schemaInfo : serviceInfo.getSchemas()) {
@@ -106,7 +128,9 @@ class Stax2ValidationUtils {
             if (XMLConstants.W3C_XML_SCHEMA_NS_URI.equals(uri)) {
                 continue;
             }
-            LOG.info(uri);
+            if (LOG.isLoggable(Level.FINE)) {
+                LOG.fine("Compiling schema for validation: " + uri);
+            }
 
             Element serialized = schemaInfo.getElement();
             String schemaSystemId = sch.getSourceURI();
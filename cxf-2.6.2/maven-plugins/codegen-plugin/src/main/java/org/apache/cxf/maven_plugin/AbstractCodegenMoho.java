@@ -18,19 +18,37 @@
  */
 package org.apache.cxf.maven_plugin;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintWriter;
 import java.net.URI;
 import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang.SystemUtils;
 import org.apache.cxf.Bus;
@@ -145,6 +163,18 @@ public abstract class AbstractCodegenMoho extends AbstractMojo {
     /** @component */
     protected BuildContext buildContext;
     
+    /**
+     * The number of wsdls processed at the same time. If fork is "false" or "always", the wsdls 
+     * are processed by worker threads, each with its own thread default Bus. If fork is "once", 
+     * the wsdls are split among this number of forked JVMs. The wsdls generating code into the 
+     * same output directory are always processed one after the other as they may write the 
+     * same files. 
+     * 
+     * @parameter expression="${cxf.codegen.threads}" default-value="1"
+     * @since 2.6.3
+     */
+    protected int threads = 1;
+    
     
     /**
      * Sets the JVM arguments (i.e. <code>-Xms128m -Xmx128m</code>) if fork is set to <code>true</code>.
@@ -214,6 +244,12 @@ public abstract class AbstractCodegenMoho extends AbstractMojo {
       */
     private ArtifactResolver artifactResolver;
     
+    /**
+     * Digests of the files read while checking whether the wsdls are up to date, 
+     * so that schemas shared by several wsdls are only read once per build.
+     */
+    private final Map<String, String> fileDigests = new ConcurrentHashMap<String, String>();
+    
 
     public AbstractCodegenMoho() {
         super();
@@ -252,6 +288,8 @@ public abstract class AbstractCodegenMoho extends AbstractMojo {
 
             if ("once".equals(fork) || "true".equals(fork)) {
                 forkOnce(cp, effectiveWsdlOptions);
+            } else if (threads > 1 && effectiveWsdlOptions.size() > 1) {
+                generateInParallel(cp, effectiveWsdlOptions);
             } else {
                 for (GenericWsdlOption o : effectiveWsdlOptions) {
                     bus = generate(o, bus, cp);
@@ -287,6 +325,111 @@ public abstract class AbstractCodegenMoho extends AbstractMojo {
     protected abstract Bus generate(GenericWsdlOption o, 
                                     Bus bus, Set<URI> cp) throws MojoExecutionException;
 
+    /**
+     * Processes the wsdls on a pool of worker threads, the wsdls sharing an output directory 
+     * being processed in order by the same task. Each worker lazily creates its own Bus, 
+     * which is the thread default Bus the tools use, and which is shut down once all the 
+     * wsdls have been processed.
+     */
+    protected void generateInParallel(final Set<URI> cp, List<GenericWsdlOption> effectiveWsdlOptions) 
+        throws MojoExecutionException {
+        final List<Bus> buses = Collections.synchronizedList(new ArrayList<Bus>());
+        final ThreadLocal<Bus> workerBus = new ThreadLocal<Bus>();
+        List<List<GenericWsdlOption>> groups = groupByOutputDir(effectiveWsdlOptions);
+        if (groups.size() < effectiveWsdlOptions.size()) {
+            getLog().debug("The wsdls sharing an output directory are processed one after the other");
+        }
+        List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(groups.size());
+        for (final List<GenericWsdlOption> group : groups) {
+            tasks.add(new Callable<Object>() {
+                public Object call() throws Exception {
+                    for (GenericWsdlOption o : group) {
+                        Bus bus = generate(o, workerBus.get(), cp);
+                        if (bus != null && workerBus.get() == null) {
+                            workerBus.set(bus);
+                            buses.add(bus);
+                        }
+                        File dirs[] = o.getDeleteDirs();
+                        if (dirs != null) {
+                            for (int idx = 0; idx < dirs.length; ++idx) {
+                                deleteDir(dirs[idx]);
+                            }
+                        }
+                    }
+                    return null;
+                }
+            });
+        }
+        try {
+            invokeAll(tasks);
+        } finally {
+            for (Bus bus : buses) {
+                bus.shutdown(true);
+            }
+        }
+    }
+    
+    /**
+     * Groups the wsdls by output directory, keeping their order. The code generated for 
+     * wsdls sharing a namespace, e.g. the ObjectFactory and package-info classes, goes to 
+     * the same files, so the wsdls of a group must not be processed at the same time.
+     */
+    protected static List<List<GenericWsdlOption>> groupByOutputDir(List<GenericWsdlOption> options) {
+        Map<File, List<GenericWsdlOption>> groups = new LinkedHashMap<File, List<GenericWsdlOption>>();
+        for (GenericWsdlOption o : options) {
+            File dir = o.getOutputDir() == null ? null : o.getOutputDir().getAbsoluteFile();
+            List<GenericWsdlOption> group = groups.get(dir);
+            if (group == null) {
+                group = new ArrayList<GenericWsdlOption>();
+                groups.put(dir, group);
+            }
+            group.add(o);
+        }
+        return new ArrayList<List<GenericWsdlOption>>(groups.values());
+    }
+    
+    /**
+     * Runs the tasks on at most {@link #threads} threads which use the context 
+     * class loader of the calling thread, and rethrows the first failure.
+     */
+    protected void invokeAll(List<Callable<Object>> tasks) throws MojoExecutionException {
+        final ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        final AtomicInteger count = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, tasks.size())),
+            new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "cxf-codegen-" + count.incrementAndGet());
+                    t.setDaemon(true);
+                    t.setContextClassLoader(loader);
+                    return t;
+                }
+            });
+        try {
+            List<Future<Object>> futures = new ArrayList<Future<Object>>(tasks.size());
+            for (Callable<Object> task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            for (Future<Object> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Code generation was interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable t = e.getCause();
+            if (t instanceof MojoExecutionException) {
+                throw (MojoExecutionException)t;
+            } else if (t instanceof RuntimeException) {
+                throw (RuntimeException)t;
+            } else if (t instanceof Error) {
+                throw (Error)t;
+            }
+            throw new MojoExecutionException(t.getMessage(), t);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     protected void addPluginArtifact(Set<URI> artifactsPath) {
         // for Maven 2.x, the actual artifact isn't in the list.... need to try and find it
         URL url = getClass().getResource(getClass().getSimpleName() + ".class");
@@ -375,6 +518,8 @@ public abstract class AbstractCodegenMoho extends AbstractMojo {
     protected void forkOnce(Set<URI> classPath, List<GenericWsdlOption> effectiveWsdlOptions)
         throws MojoExecutionException {
         List<GenericWsdlOption> toDo = new LinkedList<GenericWsdlOption>();
+        Map<GenericWsdlOption, String> digests = new HashMap<GenericWsdlOption, String>();
+        Map<GenericWsdlOption, List<String>> argsByOption = new HashMap<GenericWsdlOption, List<String>>();
         List<List<String>> wargs = new LinkedList<List<String>>();
         for (GenericWsdlOption wsdlOption : effectiveWsdlOptions) {
             File outputDirFile = wsdlOption.getOutputDir();
@@ -389,8 +534,11 @@ public abstract class AbstractCodegenMoho extends AbstractMojo {
             doneFile.delete();
 
             toDo.add(wsdlOption);
+            digests.put(wsdlOption, getInputsDigest(wsdlOption, wsdlURI));
 
-            wargs.add(generateCommandLine(wsdlOption));
+            List<String> args = generateCommandLine(wsdlOption);
+            argsByOption.put(wsdlOption, args);
+            wargs.add(args);
         }
         if (wargs.isEmpty()) {
             return;
@@ -408,8 +556,39 @@ public abstract class AbstractCodegenMoho extends AbstractMojo {
         addPluginArtifact(artifactsPath);
         artifactsPath.addAll(classPath);
 
-        String args[] = createForkOnceArgs(wargs);
-        runForked(artifactsPath, getForkClass().getName(), args);
+        List<List<GenericWsdlOption>> groups = threads > 1 && wargs.size() > 1 
+            ? groupByOutputDir(toDo) : null;
+        if (groups != null && groups.size() > 1) {
+            // split the wsdls among several JVMs, in a round robin fashion, keeping 
+            // the wsdls which share an output directory in the same JVM
+            int forks = Math.min(threads, groups.size());
+            List<List<List<String>>> parts = new ArrayList<List<List<String>>>(forks);
+            for (int i = 0; i < forks; i++) {
+                parts.add(new ArrayList<List<String>>());
+            }
+            int idx = 0;
+            for (List<GenericWsdlOption> group : groups) {
+                List<List<String>> part = parts.get(idx++ % forks);
+                for (GenericWsdlOption o : group) {
+                    part.add(argsByOption.get(o));
+                }
+            }
+            List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(forks);
+            for (List<List<String>> part : parts) {
+                final String args[] = createForkOnceArgs(part);
+                final Set<URI> path = artifactsPath;
+                tasks.add(new Callable<Object>() {
+                    public Object call() throws Exception {
+                        runForked(path, getForkClass().getName(), args);
+                        return null;
+                    }
+                });
+            }
+            invokeAll(tasks);
+        } else {
+            String args[] = createForkOnceArgs(wargs);
+            runForked(artifactsPath, getForkClass().getName(), args);
+        }
 
         for (GenericWsdlOption wsdlOption : toDo) {
             File dirs[] = wsdlOption.getDeleteDirs();
@@ -422,7 +601,7 @@ public abstract class AbstractCodegenMoho extends AbstractMojo {
             URI wsdlURI = getWsdlURI(wsdlOption, basedir);
             File doneFile = getDoneFile(basedir, wsdlURI, getMarkerSuffix());
             try {
-                doneFile.createNewFile();
+                writeDoneFile(doneFile, digests.get(wsdlOption));
             } catch (Throwable e) {
                 getLog().warn("Could not create marker file " + doneFile.getAbsolutePath());
                 getLog().debug(e);
@@ -432,6 +611,115 @@ public abstract class AbstractCodegenMoho extends AbstractMojo {
     
     protected abstract Class<?> getForkClass();
     
+    /**
+     * Returns a digest of the content of the inputs the code generated for the wsdl 
+     * depends upon, or null if it can not be computed, in which case the markers 
+     * are compared to the timestamps of the inputs only.
+     */
+    protected String getInputsDigest(GenericWsdlOption wsdlOption, URI wsdlURI) {
+        return null;
+    }
+    
+    /**
+     * Computes a digest of the wsdl, the given files and the tool arguments. 
+     * Returns null if the wsdl is not a local file.
+     */
+    protected String computeInputsDigest(URI wsdlURI, Collection<File> files, List<String> args) {
+        if (!"file".equals(wsdlURI.getScheme())) {
+            return null;
+        }
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-1");
+            md.update(getFileDigest(new File(wsdlURI)).getBytes("UTF-8"));
+            for (File f : files) {
+                md.update(getFileDigest(f).getBytes("UTF-8"));
+            }
+            // the order of some of the arguments, e.g. the binding files, is not stable
+            List<String> sortedArgs = new ArrayList<String>(args);
+            Collections.sort(sortedArgs);
+            for (String arg : sortedArgs) {
+                md.update(arg.getBytes("UTF-8"));
+                md.update((byte)0);
+            }
+            return toHex(md.digest());
+        } catch (Exception e) {
+            getLog().debug(e);
+            return null;
+        }
+    }
+    
+    /**
+     * Returns the digest recorded in the marker file, or null if the marker 
+     * does not exist or was created without one.
+     */
+    protected String readDoneFile(File doneFile) {
+        if (!doneFile.isFile() || doneFile.length() == 0) {
+            return null;
+        }
+        try {
+            BufferedReader reader = new BufferedReader(new FileReader(doneFile));
+            try {
+                String line = reader.readLine();
+                return line == null || line.trim().length() == 0 ? null : line.trim();
+            } finally {
+                reader.close();
+            }
+        } catch (IOException e) {
+            getLog().debug(e);
+            return null;
+        }
+    }
+    
+    protected void writeDoneFile(File doneFile, String digest) throws IOException {
+        if (digest == null) {
+            // do not leave the digest of an earlier run behind
+            doneFile.delete();
+            doneFile.createNewFile();
+        } else {
+            FileWriter writer = new FileWriter(doneFile);
+            try {
+                writer.write(digest);
+            } finally {
+                writer.close();
+            }
+        }
+    }
+    
+    private String getFileDigest(File f) throws IOException, NoSuchAlgorithmException {
+        if (!f.isFile()) {
+            return "";
+        }
+        String key = f.getAbsolutePath() + ':' + f.lastModified() + ':' + f.length();
+        String digest = fileDigests.get(key);
+        if (digest == null) {
+            MessageDigest md = MessageDigest.getInstance("SHA-1");
+            InputStream is = new FileInputStream(f);
+            try {
+                byte[] buffer = new byte[8192];
+                for (int n = is.read(buffer); n != -1; n = is.read(buffer)) {
+                    md.update(buffer, 0, n);
+                }
+            } finally {
+                is.close();
+            }
+            digest = toHex(md.digest());
+            fileDigests.put(key, digest);
+        }
+        return digest;
+    }
+    
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            String hex = Integer.toHexString(b & 0xff);
+            if (hex.length() == 1) {
+                sb.append('0');
+            }
+            sb.append(hex);
+        }
+        return sb.toString();
+    }
+    
     protected File getDoneFile(URI basedir, URI wsdlURI, String mojo) {
         String doneFileName = wsdlURI.toString();
 
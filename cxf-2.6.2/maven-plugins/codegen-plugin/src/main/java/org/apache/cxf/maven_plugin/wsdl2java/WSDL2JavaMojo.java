@@ -158,12 +158,16 @@ public class WSDL2JavaMojo extends AbstractCodegenMoho {
             }
         }
         boolean doWork = false;
+        String digest = doneFile.exists() ? readDoneFile(doneFile) : null;
         if (!doneFile.exists()) {
             doWork = true;
-        } else if (timestamp > doneFile.lastModified()) {
-            doWork = true;
         } else if (wsdlOption.isDefServiceName()) {
             doWork = true;
+        } else if (digest != null) {
+            // the marker records the content of the inputs, so touching them does not trigger a run
+            doWork = !digest.equals(getInputsDigest(wsdlOption, wsdlURI));
+        } else if (timestamp > doneFile.lastModified()) {
+            doWork = true;
         } else {
             File files[] = wsdlOption.getDependencies();
             if (files != null) {
@@ -177,6 +181,33 @@ public class WSDL2JavaMojo extends AbstractCodegenMoho {
         return doWork;
     }
 
+    @Override
+    protected String getInputsDigest(GenericWsdlOption genericWsdlOption, URI wsdlURI) {
+        WsdlOption wsdlOption = (WsdlOption) genericWsdlOption;
+        URI basedir = project.getBasedir().toURI();
+        List<File> files = new ArrayList<File>();
+        if (wsdlOption.getDependencies() != null) {
+            files.addAll(Arrays.asList(wsdlOption.getDependencies()));
+        }
+        for (String binding : wsdlOption.getBindingFiles()) {
+            File bindingFile = new File(binding);
+            if (!bindingFile.exists()) {
+                URI bindingURI = basedir.resolve(binding);
+                if ("file".equals(bindingURI.getScheme())) {
+                    bindingFile = new File(bindingURI);
+                }
+            }
+            files.add(bindingFile);
+        }
+        List<String> args = wsdlOption.generateCommandLine(wsdlOption.getOutputDir(), basedir,
+                                                           wsdlURI, false);
+        if (encoding != null) {
+            args.add("-encoding");
+            args.add(encoding);
+        }
+        return computeInputsDigest(wsdlURI, files, args);
+    }
+
     protected List<String> generateCommandLine(GenericWsdlOption wsdlOption)
         throws MojoExecutionException {
         List<String> ret = super.generateCommandLine(wsdlOption);
@@ -202,6 +233,7 @@ public class WSDL2JavaMojo extends AbstractCodegenMoho {
             return bus;
         }
         doneFile.delete();
+        String digest = getInputsDigest(wsdlOption, wsdlURI);
 
         try {
             File file = new File(wsdlURI);
@@ -303,20 +335,24 @@ public class WSDL2JavaMojo extends AbstractCodegenMoho {
 
 
         try {
-            doneFile.createNewFile();
+            writeDoneFile(doneFile, digest);
             buildContext.refresh(doneFile);
         } catch (Throwable e) {
             getLog().warn("Could not create marker file " + doneFile.getAbsolutePath());
             getLog().debug(e);
             throw new MojoExecutionException("Failed to create marker file " + doneFile.getAbsolutePath());
         }
-        if (project != null && getGeneratedSourceRoot() != null && getGeneratedSourceRoot().exists()) {
-            project.addCompileSourceRoot(getGeneratedSourceRoot().getAbsolutePath());
-            buildContext.refresh(getGeneratedSourceRoot().getAbsoluteFile());
-        }
-        if (project != null && getGeneratedTestRoot() != null && getGeneratedTestRoot().exists()) {
-            project.addTestCompileSourceRoot(getGeneratedTestRoot().getAbsolutePath());
-            buildContext.refresh(getGeneratedTestRoot().getAbsoluteFile());
+        // several wsdls may be processed at the same time
+        synchronized (this) {
+            if (project != null && getGeneratedSourceRoot() != null
+                && getGeneratedSourceRoot().exists()) {
+                project.addCompileSourceRoot(getGeneratedSourceRoot().getAbsolutePath());
+                buildContext.refresh(getGeneratedSourceRoot().getAbsoluteFile());
+            }
+            if (project != null && getGeneratedTestRoot() != null && getGeneratedTestRoot().exists()) {
+                project.addTestCompileSourceRoot(getGeneratedTestRoot().getAbsolutePath());
+                buildContext.refresh(getGeneratedTestRoot().getAbsoluteFile());
+            }
         }
         return bus;
     }
@@ -0,0 +1,306 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.maven_plugin;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.helpers.FileUtils;
+import org.apache.cxf.maven_plugin.wsdl2java.WSDL2JavaMojo;
+import org.apache.cxf.maven_plugin.wsdl2java.WsdlOption;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.project.MavenProject;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AbstractCodegenMohoTest extends Assert {
+    
+    private File dir;
+    
+    @Before
+    public void setUp() throws Exception {
+        dir = FileUtils.createTempFile("codegen", "");
+        dir.delete();
+        dir.mkdirs();
+    }
+    
+    @After
+    public void tearDown() {
+        FileUtils.removeDir(dir);
+    }
+    
+    @Test
+    public void testInputsDigest() throws Exception {
+        TestMojo mojo = new TestMojo();
+        File wsdl = write("service.wsdl", "<definitions/>");
+        File xsd = write("types.xsd", "<schema/>");
+        URI wsdlURI = wsdl.toURI();
+        List<String> args = Arrays.asList("-b", "a.xjb", "-b", "b.xjb");
+        
+        String digest = mojo.computeInputsDigest(wsdlURI, Collections.singletonList(xsd), args);
+        assertNotNull(digest);
+        assertEquals(40, digest.length());
+        
+        // touching the inputs does not change the digest
+        wsdl.setLastModified(wsdl.lastModified() + 10000);
+        assertEquals(digest, mojo.computeInputsDigest(wsdlURI, Collections.singletonList(xsd), args));
+        
+        // nor does the order of the arguments
+        List<String> reordered = Arrays.asList("-b", "b.xjb", "-b", "a.xjb");
+        assertEquals(digest, mojo.computeInputsDigest(wsdlURI, Collections.singletonList(xsd), reordered));
+        
+        // a change of a dependency does
+        write("types.xsd", "<schema></schema>");
+        xsd.setLastModified(xsd.lastModified() + 20000);
+        String changed = mojo.computeInputsDigest(wsdlURI, Collections.singletonList(xsd), args);
+        assertFalse(digest.equals(changed));
+        
+        // and so does a change of the arguments
+        assertFalse(changed.equals(mojo.computeInputsDigest(wsdlURI, Collections.singletonList(xsd),
+                                                            Arrays.asList("-b", "a.xjb"))));
+        
+        assertNull(mojo.computeInputsDigest(new URI("http://localhost/service?wsdl"), 
+                                            Collections.<File>emptyList(), args));
+    }
+    
+    @Test
+    public void testDoneFile() throws Exception {
+        TestMojo mojo = new TestMojo();
+        File doneFile = new File(dir, ".service.wsdl.java.DONE");
+        assertNull(mojo.readDoneFile(doneFile));
+        
+        // a marker created without a digest
+        mojo.writeDoneFile(doneFile, null);
+        assertTrue(doneFile.exists());
+        assertNull(mojo.readDoneFile(doneFile));
+        
+        mojo.writeDoneFile(doneFile, "0123456789abcdef");
+        assertEquals("0123456789abcdef", mojo.readDoneFile(doneFile));
+    }
+    
+    @Test
+    public void testShouldRunComparesDigests() throws Exception {
+        File wsdl = write("service.wsdl", "<definitions/>");
+        URI wsdlURI = wsdl.toURI();
+        MavenProject project = new MavenProject();
+        project.setFile(new File(dir, "pom.xml"));
+        AbstractCodegenMoho mojo = new WSDL2JavaMojo();
+        mojo.project = project;
+        mojo.markerDirectory = new File(dir, "markers");
+        mojo.markerDirectory.mkdirs();
+        WsdlOption option = new WsdlOption();
+        option.setWsdl(wsdl.getAbsolutePath());
+        option.setOutputDir(new File(dir, "out"));
+        File doneFile = mojo.getDoneFile(dir.toURI(), wsdlURI, "java");
+        
+        assertTrue(mojo.shouldRun(option, doneFile, wsdlURI));
+        mojo.writeDoneFile(doneFile, mojo.getInputsDigest(option, wsdlURI));
+        assertFalse(mojo.shouldRun(option, doneFile, wsdlURI));
+        
+        // the wsdl is newer than the marker but its content has not changed
+        wsdl.setLastModified(doneFile.lastModified() + 10000);
+        assertFalse(mojo.shouldRun(option, doneFile, wsdlURI));
+        
+        write("service.wsdl", "<definitions></definitions>");
+        wsdl.setLastModified(doneFile.lastModified() + 20000);
+        assertTrue(mojo.shouldRun(option, doneFile, wsdlURI));
+        
+        // a marker without a digest falls back to the timestamps
+        mojo.writeDoneFile(doneFile, null);
+        doneFile.setLastModified(wsdl.lastModified() + 10000);
+        assertFalse(mojo.shouldRun(option, doneFile, wsdlURI));
+    }
+    
+    @Test
+    public void testGroupByOutputDir() throws Exception {
+        GenericWsdlOption a1 = createOption("a1.wsdl", "a");
+        GenericWsdlOption b1 = createOption("b1.wsdl", "b");
+        GenericWsdlOption a2 = createOption("a2.wsdl", "a");
+        
+        List<List<GenericWsdlOption>> groups 
+            = AbstractCodegenMoho.groupByOutputDir(Arrays.asList(a1, b1, a2));
+        assertEquals(2, groups.size());
+        assertEquals(Arrays.asList(a1, a2), groups.get(0));
+        assertEquals(Arrays.asList(b1), groups.get(1));
+    }
+    
+    @Test
+    public void testGenerateInParallel() throws Exception {
+        TestMojo mojo = new TestMojo();
+        mojo.threads = 4;
+        // the first wsdl of each directory waits for the other one, 
+        // which fails unless the directories are processed at the same time
+        mojo.barrier = new CyclicBarrier(2);
+        List<GenericWsdlOption> options = Arrays.asList(createOption("a1.wsdl", "a"),
+                                                        createOption("b1.wsdl", "b"),
+                                                        createOption("a2.wsdl", "a"),
+                                                        createOption("b2.wsdl", "b"),
+                                                        createOption("a3.wsdl", "a"));
+        mojo.generateInParallel(Collections.<URI>emptySet(), options);
+        
+        assertEquals(Arrays.asList("a1.wsdl", "a2.wsdl", "a3.wsdl"), mojo.getGenerated("a"));
+        assertEquals(Arrays.asList("b1.wsdl", "b2.wsdl"), mojo.getGenerated("b"));
+        assertEquals("the wsdls of a directory must not be processed concurrently", 
+                     1, mojo.maxConcurrentPerDir.get());
+    }
+    
+    @Test
+    public void testInvokeAllRethrowsFailure() throws Exception {
+        TestMojo mojo = new TestMojo();
+        mojo.threads = 2;
+        final MojoExecutionException failure = new MojoExecutionException("failed");
+        List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+        tasks.add(new Callable<Object>() {
+            public Object call() throws Exception {
+                return null;
+            }
+        });
+        tasks.add(new Callable<Object>() {
+            public Object call() throws Exception {
+                throw failure;
+            }
+        });
+        try {
+            mojo.invokeAll(tasks);
+            fail("MojoExecutionException expected");
+        } catch (MojoExecutionException ex) {
+            assertSame(failure, ex);
+        }
+    }
+    
+    private File write(String name, String content) throws IOException {
+        File f = new File(dir, name);
+        FileWriter writer = new FileWriter(f);
+        try {
+            writer.write(content);
+        } finally {
+            writer.close();
+        }
+        return f;
+    }
+    
+    private GenericWsdlOption createOption(String wsdl, String outputDir) {
+        WsdlOption option = new WsdlOption();
+        option.setWsdl(wsdl);
+        option.setOutputDir(new File(dir, outputDir));
+        return option;
+    }
+    
+    private static class TestMojo extends AbstractCodegenMoho {
+        private final Map<File, List<String>> generated = new ConcurrentHashMap<File, List<String>>();
+        private final Map<File, AtomicInteger> active = new ConcurrentHashMap<File, AtomicInteger>();
+        private final AtomicInteger maxConcurrentPerDir = new AtomicInteger();
+        private CyclicBarrier barrier;
+        
+        List<String> getGenerated(String outputDir) {
+            for (Map.Entry<File, List<String>> entry : generated.entrySet()) {
+                if (entry.getKey().getName().equals(outputDir)) {
+                    return entry.getValue();
+                }
+            }
+            return null;
+        }
+        
+        @Override
+        protected Bus generate(GenericWsdlOption o, Bus bus, Set<URI> cp) throws MojoExecutionException {
+            File outputDir = o.getOutputDir();
+            AtomicInteger count;
+            synchronized (this) {
+                count = active.get(outputDir);
+                if (count == null) {
+                    count = new AtomicInteger();
+                    active.put(outputDir, count);
+                    generated.put(outputDir, Collections.synchronizedList(new ArrayList<String>()));
+                }
+            }
+            int current = count.incrementAndGet();
+            int max = maxConcurrentPerDir.get();
+            while (current > max && !maxConcurrentPerDir.compareAndSet(max, current)) {
+                max = maxConcurrentPerDir.get();
+            }
+            try {
+                List<String> done = generated.get(outputDir);
+                if (done.isEmpty() && barrier != null) {
+                    barrier.await(10, TimeUnit.SECONDS);
+                }
+                Thread.sleep(20);
+                done.add(((WsdlOption)o).getWsdl());
+            } catch (InterruptedException e) {
+                throw new MojoExecutionException(e.getMessage(), e);
+            } catch (BrokenBarrierException e) {
+                throw new MojoExecutionException(e.getMessage(), e);
+            } catch (TimeoutException e) {
+                throw new MojoExecutionException("The output directories were not processed in parallel", e);
+            } finally {
+                count.decrementAndGet();
+            }
+            return bus;
+        }
+        
+        @Override
+        protected List<GenericWsdlOption> createWsdlOptionsFromScansAndExplicitWsdlOptions() {
+            return Collections.emptyList();
+        }
+        
+        @Override
+        protected String getMarkerSuffix() {
+            return "test";
+        }
+        
+        @Override
+        protected Class<?> getForkClass() {
+            return Object.class;
+        }
+        
+        @Override
+        protected File getGeneratedSourceRoot() {
+            return null;
+        }
+        
+        @Override
+        protected File getGeneratedTestRoot() {
+            return null;
+        }
+        
+        @Override
+        protected boolean shouldRun(GenericWsdlOption wsdlOption, File doneFile, URI wsdlURI) {
+            return true;
+        }
+    }
+}
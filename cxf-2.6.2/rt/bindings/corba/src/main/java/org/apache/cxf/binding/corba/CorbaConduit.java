@@ -24,6 +24,8 @@ import java.io.OutputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -75,6 +77,11 @@ public class CorbaConduit implements Conduit {
     private ORB orb;
     private OrbConfig orbConfig;
     private CorbaTypeMap typeMap;
+    // DII request metadata that does not change between invocations, it is only read by the ORB
+    private final ConcurrentMap<OperationType, ExceptionList> exceptionLists = 
+        new ConcurrentHashMap<OperationType, ExceptionList>();
+    private volatile ContextList contextList;
+    private Context defaultContext;
 
     public CorbaConduit(EndpointInfo ei, EndpointReferenceType ref, OrbConfig config) {
         endpointInfo = ei;
@@ -184,8 +191,16 @@ public class CorbaConduit implements Conduit {
         ServiceInfo service = message.getExchange().get(ServiceInfo.class);
         NVList nvlist = getArguments(message);
         NamedValue ret = getReturn(message);
-        Map<TypeCode, RaisesType> exceptions = getOperationExceptions(opType, typeMap);
-        ExceptionList exList = getExceptionList(exceptions, message, opType);
+        Map<TypeCode, RaisesType> exceptions;
+        ExceptionList exList;
+        if (typeMap != null) {
+            CorbaOperationTypeCodes typeCodes = getOperationTypeCodes(opType);
+            exceptions = typeCodes.getExceptions();
+            exList = getExceptionList(typeCodes, opType);
+        } else {
+            exceptions = getOperationExceptions(opType, typeMap);
+            exList = getExceptionList(exceptions, message, opType);
+        }
         Request request = getRequest(message, opType.getName(), nvlist, ret, exList);
         if (request == null) {
             throw new CorbaBindingException("Couldn't build the corba request");
@@ -288,6 +303,38 @@ public class CorbaConduit implements Conduit {
         return exList;
     }
             
+    /**
+     * Get the exception TypeCodes of the operation from the cache on this conduit's type map.
+     */
+    public CorbaOperationTypeCodes getOperationTypeCodes(OperationType opType) {
+        if (orb == null) {
+            prepareOrb();
+        }
+        return TypeMapCache.getOperationTypeCodes(orb, typeMap, opType);
+    }
+
+    /**
+     * Get the exception list of the operation, it is created once and then shared by 
+     * all the requests made through this conduit.
+     */
+    public ExceptionList getExceptionList(CorbaOperationTypeCodes typeCodes, OperationType opType) {
+        if (orb == null) {
+            prepareOrb();
+        }
+        ExceptionList exList = exceptionLists.get(opType);
+        if (exList == null) {
+            exList = orb.create_exception_list();
+            for (int i = 0; i < typeCodes.getExceptionCount(); i++) {
+                exList.add(typeCodes.getExceptionTypeCode(i));
+            }
+            ExceptionList existing = exceptionLists.putIfAbsent(opType, exList);
+            if (existing != null) {
+                exList = existing;
+            }
+        }
+        return exList;
+    }
+            
     public Request getRequest(CorbaMessage message,
                                  String opName,
                                  org.omg.CORBA.NVList nvlist, 
@@ -298,21 +345,30 @@ public class CorbaConduit implements Conduit {
         if (orb == null) {
             prepareOrb();
         }
-        ContextList ctxList = orb.create_context_list();
-        Context ctx = null;
-        try {
-            ctx = orb.get_default_context();            
-        } catch (Exception ex) {
-            //ignore?
+        ContextList ctxList = contextList;
+        if (ctxList == null) {
+            ctxList = initContexts();
         }
 
         org.omg.CORBA.Object targetObj =
             (org.omg.CORBA.Object)message.get(CorbaConstants.CORBA_ENDPOINT_OBJECT);
         if (targetObj != null) {
-            request = targetObj._create_request(ctx, opName, nvlist, ret, exList, ctxList);
+            request = targetObj._create_request(defaultContext, opName, nvlist, ret, exList, ctxList);
         }
         return request;
     }
+
+    private synchronized ContextList initContexts() {
+        if (contextList == null) {
+            try {
+                defaultContext = orb.get_default_context();            
+            } catch (Exception ex) {
+                //ignore?
+            }
+            contextList = orb.create_context_list();
+        }
+        return contextList;
+    }
         
     public Map<TypeCode, RaisesType> getOperationExceptions(
                                          OperationType operation, 
@@ -0,0 +1,78 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.binding.corba;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.cxf.binding.corba.utils.CorbaUtils;
+import org.apache.cxf.binding.corba.wsdl.OperationType;
+import org.apache.cxf.binding.corba.wsdl.RaisesType;
+import org.omg.CORBA.ORB;
+import org.omg.CORBA.TypeCode;
+
+/**
+ * The TypeCodes of the exceptions a CORBA operation can raise, resolved once per 
+ * operation and kept on the {@link CorbaTypeMap}, see 
+ * {@link TypeMapCache#getOperationTypeCodes(ORB, CorbaTypeMap, OperationType)}.
+ */
+public final class CorbaOperationTypeCodes {
+
+    private final TypeCode[] exceptionTypeCodes;
+    private final Map<TypeCode, RaisesType> exceptions;
+
+    public CorbaOperationTypeCodes(ORB orb, OperationType operation, CorbaTypeMap typeMap) {
+        List<RaisesType> raises = operation.getRaises();
+        int count = raises == null ? 0 : raises.size();
+        exceptionTypeCodes = new TypeCode[count];
+        Map<TypeCode, RaisesType> map = new HashMap<TypeCode, RaisesType>(count * 2);
+        for (int i = 0; i < count; i++) {
+            RaisesType ex = raises.get(i);
+            TypeCode tc = CorbaUtils.getTypeCode(orb, ex.getException(), typeMap);
+            exceptionTypeCodes[i] = tc;
+            map.put(tc, ex);
+        }
+        exceptions = Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * The exception TypeCodes, in the order they are declared in the operation.
+     */
+    public TypeCode[] getExceptionTypeCodes() {
+        return exceptionTypeCodes.clone();
+    }
+
+    public int getExceptionCount() {
+        return exceptionTypeCodes.length;
+    }
+
+    public TypeCode getExceptionTypeCode(int index) {
+        return exceptionTypeCodes[index];
+    }
+
+    /**
+     * The raises declarations of the operation keyed by their TypeCode.
+     */
+    public Map<TypeCode, RaisesType> getExceptions() {
+        return exceptions;
+    }
+}
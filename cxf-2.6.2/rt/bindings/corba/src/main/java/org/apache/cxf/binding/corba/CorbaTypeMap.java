@@ -22,11 +22,13 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.namespace.QName;
 
 import org.apache.cxf.binding.corba.wsdl.CorbaTypeImpl;
 import org.apache.cxf.binding.corba.wsdl.NamedType;
+import org.apache.cxf.binding.corba.wsdl.OperationType;
 import org.omg.CORBA.TypeCode;
 
 
@@ -35,11 +37,14 @@ public class CorbaTypeMap {
     private String targetNamespace;
     private Map<String, CorbaTypeImpl> typeMap;
     private Map<QName, TypeCode> typeCodeMap;
+    private Map<OperationType, CorbaOperationTypeCodes> operationTypeCodes;
 
     public CorbaTypeMap(String namespace) {
         targetNamespace = namespace;
         typeMap = new HashMap<String, CorbaTypeImpl>();
-        typeCodeMap = new HashMap<QName, TypeCode>();
+        // TypeCodes are resolved lazily by concurrent requests sharing this map
+        typeCodeMap = new ConcurrentHashMap<QName, TypeCode>();
+        operationTypeCodes = new ConcurrentHashMap<OperationType, CorbaOperationTypeCodes>();
     }
 
     public void addType(String name, CorbaTypeImpl type) {
@@ -64,6 +69,14 @@ public class CorbaTypeMap {
         return typeCodeMap.get(name);
     }
 
+    public void addOperationTypeCodes(OperationType operation, CorbaOperationTypeCodes typeCodes) {
+        operationTypeCodes.put(operation, typeCodes);
+    }
+
+    public CorbaOperationTypeCodes getOperationTypeCodes(OperationType operation) {
+        return operationTypeCodes.get(operation);
+    }
+
     // This is used by the Any type when trying to re-construct the type stored inside a 
     // CORBA Any.
     public QName getIdlType(TypeCode tc) {
@@ -21,8 +21,10 @@ package org.apache.cxf.binding.corba;
 import java.util.List;
 
 import org.apache.cxf.binding.corba.utils.CorbaUtils;
+import org.apache.cxf.binding.corba.wsdl.OperationType;
 import org.apache.cxf.binding.corba.wsdl.TypeMappingType;
 import org.apache.cxf.service.model.ServiceInfo;
+import org.omg.CORBA.ORB;
 
 public final class TypeMapCache {
 
@@ -49,4 +51,19 @@ public final class TypeMapCache {
         }
         return null;
     }
+
+    /**
+     * Get the exception TypeCodes of an operation, resolving them and caching them 
+     * on the type map the first time.
+     */
+    public static CorbaOperationTypeCodes getOperationTypeCodes(ORB orb, 
+                                                                CorbaTypeMap map, 
+                                                                OperationType operation) {
+        CorbaOperationTypeCodes typeCodes = map.getOperationTypeCodes(operation);
+        if (typeCodes == null) {
+            typeCodes = new CorbaOperationTypeCodes(orb, operation, map);
+            map.addOperationTypeCodes(operation, typeCodes);
+        }
+        return typeCodes;
+    }
 }
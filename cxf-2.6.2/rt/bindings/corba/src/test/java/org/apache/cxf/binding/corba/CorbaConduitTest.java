@@ -338,6 +338,26 @@ public class CorbaConduitTest extends Assert {
         assertEquals("ID should be equal", exList.item(0).member_name(0), "reason");
         assertNotNull("Member type is not null", exList.item(0).member_type(0) != null);                
     }
+    
+    @Test
+    public void testOperationTypeCodesAreCached() throws Exception {
+        TestUtils testUtils = new TestUtils();
+        CorbaDestination destination = testUtils.getExceptionTypesTestDestination();
+        EndpointInfo endpointInfo2 = destination.getEndPointInfo();
+        QName name = new QName("http://schemas.apache.org/idl/except", "review_data", "");
+        BindingOperationInfo bInfo = destination.getBindingInfo().getOperation(name);
+        OperationType opType = bInfo.getExtensor(OperationType.class);
+        CorbaTypeMap typeMap = CorbaUtils.createCorbaTypeMap(
+            endpointInfo2.getService().getDescription().getExtensors(TypeMappingType.class));
+        
+        CorbaOperationTypeCodes typeCodes = TypeMapCache.getOperationTypeCodes(orb, typeMap, opType);
+        assertSame(typeCodes, TypeMapCache.getOperationTypeCodes(orb, typeMap, opType));
+        assertEquals(1, typeCodes.getExceptionCount());
+        assertEquals("IDL:BadRecord:1.0", typeCodes.getExceptionTypeCode(0).id());
+        RaisesType raises = typeCodes.getExceptions().get(typeCodes.getExceptionTypeCode(0));
+        assertNotNull(raises);
+        assertEquals("BadRecord", raises.getException().getLocalPart());
+    }
             
     @Test
     public void testInvoke() throws Exception {
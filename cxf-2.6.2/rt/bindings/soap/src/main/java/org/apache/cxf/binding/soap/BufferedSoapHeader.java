@@ -0,0 +1,163 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.binding.soap;
+
+import java.util.List;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import org.apache.cxf.headers.Header;
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.staxutils.W3CDOMStreamReader;
+import org.apache.cxf.staxutils.XMLStreamEventBuffer;
+
+/**
+ * An inbound SOAP header that is held as buffered StAX events and only turned 
+ * into DOM when {@link #getObject()} is first called.  Consumers that can work 
+ * from a stream should check {@link #isMaterialized()} and use 
+ * {@link #getXMLStreamReader()} instead to leave the header unparsed.
+ * 
+ * Materialized headers are inserted into the soap:Header element of the 
+ * envelope document in their original order, so the DOM seen by consumers is 
+ * the same as when the headers are read eagerly.
+ */
+public class BufferedSoapHeader extends SoapHeader {
+    private final XMLStreamEventBuffer buffer;
+    private final Element parent;
+    private final List<BufferedSoapHeader> siblings;
+    private final int index;
+    private boolean materialized;
+    private Element element;
+    
+    /**
+     * @param buffer the recorded header element
+     * @param parent the soap:Header element of the envelope document
+     * @param siblings the buffered headers read from the same soap:Header, 
+     *  in document order; this header is appended to it
+     */
+    public BufferedSoapHeader(XMLStreamEventBuffer buffer, 
+                              Element parent, 
+                              List<BufferedSoapHeader> siblings) {
+        super(buffer.getName(), null);
+        this.buffer = buffer;
+        this.parent = parent;
+        this.siblings = siblings;
+        this.index = siblings.size();
+        siblings.add(this);
+        setDirection(Direction.DIRECTION_IN);
+    }
+    
+    /**
+     * @return true once the header has been turned into DOM or replaced
+     */
+    public boolean isMaterialized() {
+        return materialized;
+    }
+    
+    /**
+     * @return a reader over the header element, positioned on its START_ELEMENT;
+     *  once materialized this reads the (possibly modified) DOM, and it is 
+     *  null if the object has been replaced by something other than an Element
+     */
+    public XMLStreamReader getXMLStreamReader() {
+        if (!materialized) {
+            return buffer.getXMLStreamReader();
+        }
+        Object obj = super.getObject();
+        return obj instanceof Element ? new W3CDOMStreamReader((Element)obj) : null;
+    }
+    
+    /**
+     * Look up an attribute of the header element without materializing it.
+     * Attributes of the enclosing soap:Header are inherited, as they are when 
+     * the headers are read into DOM.
+     */
+    public String getAttributeValue(String namespace, String localName) {
+        String value = buffer.getAttributeValue(namespace, localName);
+        if (value == null && parent.hasAttributeNS(namespace, localName)) {
+            value = parent.getAttributeNS(namespace, localName);
+        }
+        return value;
+    }
+    
+    @Override
+    public Object getObject() {
+        if (!materialized) {
+            materialized = true;
+            super.setObject(materialize());
+        }
+        return super.getObject();
+    }
+    
+    @Override
+    public void setObject(Object object) {
+        materialized = true;
+        super.setObject(object);
+    }
+    
+    /**
+     * Materialize all buffered headers in the list, for code that reads the 
+     * envelope document rather than the header objects.
+     */
+    public static void materialize(List<Header> headers) {
+        for (Header h : headers) {
+            if (h instanceof BufferedSoapHeader) {
+                h.getObject();
+            }
+        }
+    }
+    
+    private Element materialize() {
+        try {
+            element = buffer.toElement(parent.getOwnerDocument());
+        } catch (XMLStreamException e) {
+            throw new Fault(e);
+        }
+        Node next = null;
+        for (int i = index + 1; i < siblings.size() && next == null; i++) {
+            Element sibling = siblings.get(i).element;
+            if (sibling != null && sibling.getParentNode() == parent) {
+                next = sibling;
+            }
+        }
+        parent.insertBefore(element, next);
+        
+        // same as the eager path: inherit the attributes of the soap:Header
+        if (parent.hasAttributes()) {
+            NamedNodeMap nnp = parent.getAttributes();
+            for (int ct = 0; ct < nnp.getLength(); ct++) {
+                Node attr = nnp.item(ct);
+                if (element.getAttributeNodeNS(attr.getNamespaceURI(), attr.getLocalName()) == null) {
+                    Attr attribute = element.getOwnerDocument().createAttributeNS(attr.getNamespaceURI(),
+                                                                                  attr.getNodeName());
+                    attribute.setNodeValue(attr.getNodeValue());
+                    element.setAttributeNodeNS(attribute);
+                }
+            }
+        }
+        return element;
+    }
+}
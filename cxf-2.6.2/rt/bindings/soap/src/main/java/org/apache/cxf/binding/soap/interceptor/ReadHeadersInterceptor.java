@@ -20,9 +20,13 @@
 package org.apache.cxf.binding.soap.interceptor;
 
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Logger;
 
+import javax.xml.XMLConstants;
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
@@ -37,6 +41,7 @@ import org.w3c.dom.Node;
 
 import org.apache.cxf.Bus;
 import org.apache.cxf.annotations.SchemaValidation.SchemaValidationType;
+import org.apache.cxf.binding.soap.BufferedSoapHeader;
 import org.apache.cxf.binding.soap.Soap11;
 import org.apache.cxf.binding.soap.Soap12;
 import org.apache.cxf.binding.soap.SoapFault;
@@ -53,10 +58,12 @@ import org.apache.cxf.headers.HeaderProcessor;
 import org.apache.cxf.helpers.DOMUtils;
 import org.apache.cxf.helpers.ServiceUtils;
 import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.message.MessageUtils;
 import org.apache.cxf.phase.Phase;
 import org.apache.cxf.staxutils.PartialXMLStreamReader;
 import org.apache.cxf.staxutils.StaxUtils;
 import org.apache.cxf.staxutils.W3CDOMStreamWriter;
+import org.apache.cxf.staxutils.XMLStreamEventBuffer;
 
 
 public class ReadHeadersInterceptor extends AbstractSoapInterceptor {
@@ -65,6 +72,12 @@ public class ReadHeadersInterceptor extends AbstractSoapInterceptor {
     public static final String BODY_EVENTS = "body.events";
     public static final String ENVELOPE_PREFIX = "envelope.prefix";
     public static final String BODY_PREFIX = "body.prefix";
+    /**
+     * Contextual property; when true the headers are buffered as StAX events and
+     * only parsed into DOM when a consumer asks for them, see {@link BufferedSoapHeader}.
+     * Ignored when the envelope is read into SAAJ or an existing Document.
+     */
+    public static final String LAZY_HEADERS = "soap.lazy.headers";
     /**
      * 
      */
@@ -171,90 +184,13 @@ public class ReadHeadersInterceptor extends AbstractSoapInterceptor {
                                         version.getVersionMismatch());                    
                 }
 
-                XMLStreamReader filteredReader = new PartialXMLStreamReader(xmlReader, message.getVersion()
-                    .getBody());
-
                 Node nd = message.getContent(Node.class);
                 W3CDOMStreamWriter writer = message.get(W3CDOMStreamWriter.class);
-                Document doc = null;
-                if (writer != null) {
-                    StaxUtils.copy(filteredReader, writer);
-                    doc = writer.getDocument();
-                } else if (nd instanceof Document) {
-                    doc = (Document)nd;
-                    StaxUtils.readDocElements(doc, doc, filteredReader, false, false);
+                if (writer == null && !(nd instanceof Document)
+                    && MessageUtils.getContextualBoolean(message, LAZY_HEADERS, false)) {
+                    readBufferedHeaders(message, xmlReader, soapVersion);
                 } else {
-                    doc = StaxUtils.read(filteredReader);
-                    message.setContent(Node.class, doc);
-                }
-
-                // Find header
-                // TODO - we could stream read the "known" headers and just DOM read the 
-                // unknown ones
-                Element element = doc.getDocumentElement();
-                QName header = soapVersion.getHeader();                
-                List<Element> elemList = 
-                    DOMUtils.findAllElementsByTagNameNS(element, 
-                                                        header.getNamespaceURI(), 
-                                                        header.getLocalPart());
-                for (Element elem : elemList) {
-                    Element hel = DOMUtils.getFirstElement(elem);
-                    hel = (Element) DOMUtils.getDomElement(hel);
-                    while (hel != null) {
-                        // Need to add any attributes that are present on the parent element
-                        // which otherwise would be lost.
-                        if (elem.hasAttributes()) {
-                            NamedNodeMap nnp = elem.getAttributes();
-                            for (int ct = 0; ct < nnp.getLength(); ct++) {
-                                Node attr = nnp.item(ct);
-                                Node headerAttrNode = hel.hasAttributes() 
-                                        ?  hel.getAttributes().getNamedItemNS(
-                                                        attr.getNamespaceURI(), attr.getLocalName()) 
-                                        : null;
-                                
-                                if (headerAttrNode == null) {
-                                    Attr attribute = hel.getOwnerDocument().createAttributeNS(
-                                            attr.getNamespaceURI(), 
-                                            attr.getNodeName());
-                                    attribute.setNodeValue(attr.getNodeValue());
-                                    hel.setAttributeNodeNS(attribute);
-                                }
-                            }
-                        }
-                        
-                        HeaderProcessor p = bus == null ? null : bus.getExtension(HeaderManager.class)
-                            .getHeaderProcessor(hel.getNamespaceURI());
-
-                        Object obj;
-                        DataBinding dataBinding = null;
-                        if (p == null || p.getDataBinding() == null) {
-                            obj = hel;
-                        } else {
-                            dataBinding = p.getDataBinding();
-                            obj = dataBinding.createReader(Node.class).read(hel);
-                        }
-                        //TODO - add the interceptors
-                        
-                        SoapHeader shead = new SoapHeader(new QName(hel.getNamespaceURI(),
-                                                                    hel.getLocalName()),
-                                                           obj,
-                                                           dataBinding);
-                        String mu = hel.getAttributeNS(soapVersion.getNamespace(),
-                                                      soapVersion.getAttrNameMustUnderstand());
-                        String act = hel.getAttributeNS(soapVersion.getNamespace(),
-                                                        soapVersion.getAttrNameRole());
-
-                        if (!StringUtils.isEmpty(act)) {
-                            shead.setActor(act);
-                        }
-                        shead.setMustUnderstand(Boolean.valueOf(mu) || "1".equals(mu));
-                        //mark header as inbound header.(for distinguishing between the  direction to 
-                        //avoid piggybacking of headers from request->server->response.
-                        shead.setDirection(SoapHeader.Direction.DIRECTION_IN);
-                        message.getHeaders().add(shead);
-                        
-                        hel = DOMUtils.getNextElement(hel);
-                    }
+                    readDOMHeaders(message, xmlReader, soapVersion, nd, writer);
                 }
 
                 if (ServiceUtils.isSchemaValidationEnabled(SchemaValidationType.IN, message)) {
@@ -269,4 +205,171 @@ public class ReadHeadersInterceptor extends AbstractSoapInterceptor {
             }
         }
     }
-}
\ No newline at end of file
+    
+    private void readDOMHeaders(SoapMessage message, XMLStreamReader xmlReader, SoapVersion soapVersion,
+                                Node nd, W3CDOMStreamWriter writer) throws XMLStreamException {
+        XMLStreamReader filteredReader = new PartialXMLStreamReader(xmlReader, message.getVersion()
+            .getBody());
+
+        Document doc = null;
+        if (writer != null) {
+            StaxUtils.copy(filteredReader, writer);
+            doc = writer.getDocument();
+        } else if (nd instanceof Document) {
+            doc = (Document)nd;
+            StaxUtils.readDocElements(doc, doc, filteredReader, false, false);
+        } else {
+            doc = StaxUtils.read(filteredReader);
+            message.setContent(Node.class, doc);
+        }
+
+        // Find header
+        Element element = doc.getDocumentElement();
+        QName header = soapVersion.getHeader();                
+        List<Element> elemList = 
+            DOMUtils.findAllElementsByTagNameNS(element, 
+                                                header.getNamespaceURI(), 
+                                                header.getLocalPart());
+        for (Element elem : elemList) {
+            Element hel = DOMUtils.getFirstElement(elem);
+            hel = (Element) DOMUtils.getDomElement(hel);
+            while (hel != null) {
+                // Need to add any attributes that are present on the parent element
+                // which otherwise would be lost.
+                if (elem.hasAttributes()) {
+                    NamedNodeMap nnp = elem.getAttributes();
+                    for (int ct = 0; ct < nnp.getLength(); ct++) {
+                        Node attr = nnp.item(ct);
+                        Node headerAttrNode = hel.hasAttributes() 
+                                ?  hel.getAttributes().getNamedItemNS(
+                                                attr.getNamespaceURI(), attr.getLocalName()) 
+                                : null;
+                        
+                        if (headerAttrNode == null) {
+                            Attr attribute = hel.getOwnerDocument().createAttributeNS(
+                                    attr.getNamespaceURI(), 
+                                    attr.getNodeName());
+                            attribute.setNodeValue(attr.getNodeValue());
+                            hel.setAttributeNodeNS(attribute);
+                        }
+                    }
+                }
+                
+                HeaderProcessor p = bus == null ? null : bus.getExtension(HeaderManager.class)
+                    .getHeaderProcessor(hel.getNamespaceURI());
+
+                Object obj;
+                DataBinding dataBinding = null;
+                if (p == null || p.getDataBinding() == null) {
+                    obj = hel;
+                } else {
+                    dataBinding = p.getDataBinding();
+                    obj = dataBinding.createReader(Node.class).read(hel);
+                }
+                //TODO - add the interceptors
+                
+                SoapHeader shead = new SoapHeader(new QName(hel.getNamespaceURI(),
+                                                            hel.getLocalName()),
+                                                   obj,
+                                                   dataBinding);
+                String mu = hel.getAttributeNS(soapVersion.getNamespace(),
+                                              soapVersion.getAttrNameMustUnderstand());
+                String act = hel.getAttributeNS(soapVersion.getNamespace(),
+                                                soapVersion.getAttrNameRole());
+
+                if (!StringUtils.isEmpty(act)) {
+                    shead.setActor(act);
+                }
+                shead.setMustUnderstand(Boolean.valueOf(mu) || "1".equals(mu));
+                //mark header as inbound header.(for distinguishing between the  direction to 
+                //avoid piggybacking of headers from request->server->response.
+                shead.setDirection(SoapHeader.Direction.DIRECTION_IN);
+                message.getHeaders().add(shead);
+                
+                hel = DOMUtils.getNextElement(hel);
+            }
+        }
+    }
+    
+    private void readBufferedHeaders(SoapMessage message, XMLStreamReader xmlReader, 
+                                     SoapVersion soapVersion) throws XMLStreamException {
+        Document doc = DOMUtils.createDocument();
+        Map<String, String> namespaces = new HashMap<String, String>();
+        Element envelope = createElement(doc, doc, xmlReader, namespaces);
+        message.setContent(Node.class, doc);
+
+        int event = xmlReader.nextTag();
+        if (event == XMLStreamConstants.START_ELEMENT 
+            && soapVersion.getHeader().equals(xmlReader.getName())) {
+            Element hdr = createElement(doc, envelope, xmlReader, namespaces);
+            List<BufferedSoapHeader> siblings = new ArrayList<BufferedSoapHeader>();
+            event = xmlReader.nextTag();
+            while (event == XMLStreamConstants.START_ELEMENT) {
+                XMLStreamEventBuffer buffer = 
+                    new XMLStreamEventBuffer(xmlReader, new HashMap<String, String>(namespaces));
+                BufferedSoapHeader shead = new BufferedSoapHeader(buffer, hdr, siblings);
+                
+                HeaderProcessor p = bus == null ? null : bus.getExtension(HeaderManager.class)
+                    .getHeaderProcessor(shead.getName().getNamespaceURI());
+                if (p != null && p.getDataBinding() != null) {
+                    DataBinding dataBinding = p.getDataBinding();
+                    shead.setObject(dataBinding.createReader(Node.class).read((Element)shead.getObject()));
+                    shead.setDataBinding(dataBinding);
+                }
+                String mu = shead.getAttributeValue(soapVersion.getNamespace(),
+                                                    soapVersion.getAttrNameMustUnderstand());
+                String act = shead.getAttributeValue(soapVersion.getNamespace(),
+                                                     soapVersion.getAttrNameRole());
+                if (!StringUtils.isEmpty(act)) {
+                    shead.setActor(act);
+                }
+                shead.setMustUnderstand(Boolean.valueOf(mu) || "1".equals(mu));
+                message.getHeaders().add(shead);
+                
+                event = xmlReader.nextTag();
+            }
+            // move from the end of the soap:Header to the soap:Body
+            event = xmlReader.nextTag();
+        }
+        if (event == XMLStreamConstants.START_ELEMENT 
+            && soapVersion.getBody().equals(xmlReader.getName())) {
+            // like the DOM path, record the (empty) body element and leave the 
+            // reader on its start tag for the body interceptors
+            createElement(doc, envelope, xmlReader, namespaces);
+        }
+    }
+    
+    /**
+     * Create a DOM element for the start tag the reader is on, recording the 
+     * namespaces it declares.
+     */
+    private static Element createElement(Document doc, Node parent, XMLStreamReader reader,
+                                         Map<String, String> namespaces) {
+        String prefix = reader.getPrefix();
+        Element e = doc.createElementNS(reader.getNamespaceURI(), 
+                                        StringUtils.isEmpty(prefix) 
+                                            ? reader.getLocalName() : prefix + ":" + reader.getLocalName());
+        parent.appendChild(e);
+        for (int i = 0; i < reader.getNamespaceCount(); i++) {
+            String pfx = reader.getNamespacePrefix(i);
+            String uri = reader.getNamespaceURI(i);
+            if (StringUtils.isEmpty(pfx)) {
+                pfx = "";
+                e.setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, XMLConstants.XMLNS_ATTRIBUTE, uri);
+            } else {
+                e.setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, 
+                                 XMLConstants.XMLNS_ATTRIBUTE + ":" + pfx, uri);
+            }
+            namespaces.put(pfx, uri);
+        }
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String ns = reader.getAttributeNamespace(i);
+            String pfx = reader.getAttributePrefix(i);
+            String name = reader.getAttributeLocalName(i);
+            e.setAttributeNS(StringUtils.isEmpty(ns) ? null : ns, 
+                             StringUtils.isEmpty(pfx) ? name : pfx + ":" + name,
+                             reader.getAttributeValue(i));
+        }
+        return e;
+    }
+}
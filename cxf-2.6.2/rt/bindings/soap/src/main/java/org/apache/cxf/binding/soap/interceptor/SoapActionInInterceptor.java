@@ -28,6 +28,7 @@ import org.apache.cxf.binding.soap.Soap11;
 import org.apache.cxf.binding.soap.Soap12;
 import org.apache.cxf.binding.soap.SoapBindingConstants;
 import org.apache.cxf.binding.soap.SoapMessage;
+import org.apache.cxf.binding.soap.model.SoapBindingInfo;
 import org.apache.cxf.binding.soap.model.SoapOperationInfo;
 import org.apache.cxf.common.logging.LogUtils;
 import org.apache.cxf.common.util.StringUtils;
@@ -37,6 +38,7 @@ import org.apache.cxf.interceptor.Fault;
 import org.apache.cxf.message.Exchange;
 import org.apache.cxf.message.Message;
 import org.apache.cxf.phase.Phase;
+import org.apache.cxf.service.model.BindingInfo;
 import org.apache.cxf.service.model.BindingOperationInfo;
 import org.apache.cxf.service.model.OperationInfo;
 import org.apache.cxf.ws.addressing.JAXWSAConstants;
@@ -120,28 +122,36 @@ public class SoapActionInInterceptor extends AbstractSoapInterceptor {
         
         BindingOperationInfo bindingOp = null;
         
-        Collection<BindingOperationInfo> bops = ep.getEndpointInfo()
-            .getBinding().getOperations();
-        if (bops != null) {
-            for (BindingOperationInfo boi : bops) {
-                SoapOperationInfo soi = boi.getExtensor(SoapOperationInfo.class);
-                if (soi != null && action.equals(soi.getAction())) {
-                    if (bindingOp != null) {
-                        //more than one op with the same action, will need to parse normally
-                        return;
+        BindingInfo binding = ep.getEndpointInfo().getBinding();
+        if (binding instanceof SoapBindingInfo) {
+            List<BindingOperationInfo> candidates 
+                = binding.getOperationIndex().getOperationsForAction(action);
+            if (candidates.size() > 1) {
+                //more than one op with the same action, will need to parse normally
+                return;
+            } else if (candidates.size() == 1) {
+                bindingOp = candidates.get(0);
+            }
+        } else {
+            Collection<BindingOperationInfo> bops = binding.getOperations();
+            if (bops != null) {
+                for (BindingOperationInfo boi : bops) {
+                    SoapOperationInfo soi = boi.getExtensor(SoapOperationInfo.class);
+                    if (soi != null && action.equals(soi.getAction())) {
+                        if (bindingOp != null) {
+                            //more than one op with the same action, will need to parse normally
+                            return;
+                        }
+                        bindingOp = boi;
                     }
-                    bindingOp = boi;
-                }
-                Object o = boi.getOperationInfo().getInput().getExtensionAttribute(JAXWSAConstants.WSAM_ACTION_QNAME);
-                if (o == null) {
-                    o = boi.getOperationInfo().getInput().getExtensionAttribute(JAXWSAConstants.WSAW_ACTION_QNAME);
-                }
-                if (o != null && action.equals(o.toString())) {
-                    if (bindingOp != null && bindingOp != boi) {
-                        //more than one op with the same action, will need to parse normally
-                        return;
+                    Object o = getWSAAction(boi);
+                    if (o != null && action.equals(o.toString())) {
+                        if (bindingOp != null && bindingOp != boi) {
+                            //more than one op with the same action, will need to parse normally
+                            return;
+                        }
+                        bindingOp = boi;
                     }
-                    bindingOp = boi;
                 }
             }
         }
@@ -159,6 +169,14 @@ public class SoapActionInInterceptor extends AbstractSoapInterceptor {
         ex.put(OperationInfo.class, bindingOp.getOperationInfo());
     }
     
+    private static Object getWSAAction(BindingOperationInfo boi) {
+        Object o = boi.getOperationInfo().getInput().getExtensionAttribute(JAXWSAConstants.WSAM_ACTION_QNAME);
+        if (o == null) {
+            o = boi.getOperationInfo().getInput().getExtensionAttribute(JAXWSAConstants.WSAW_ACTION_QNAME);
+        }
+        return o;
+    }
+    
     public static class SoapActionInAttemptTwoInterceptor extends AbstractSoapInterceptor {
         public SoapActionInAttemptTwoInterceptor() {
             super(Phase.PRE_LOGICAL);
@@ -177,10 +195,7 @@ public class SoapActionInInterceptor extends AbstractSoapInterceptor {
                 return;
             }
 
-            Object o = boi.getOperationInfo().getInput().getExtensionAttribute(JAXWSAConstants.WSAM_ACTION_QNAME);
-            if (o == null) {
-                o = boi.getOperationInfo().getInput().getExtensionAttribute(JAXWSAConstants.WSAW_ACTION_QNAME);
-            }
+            Object o = getWSAAction(boi);
             if (o != null && action.equals(o.toString())) {
                 return;
             }
@@ -111,6 +111,12 @@ public class SoapBindingInfo extends BindingInfo {
         return "";
     }
 
+    @Override
+    protected String getDispatchAction(BindingOperationInfo operation) {
+        SoapOperationInfo opInfo = operation.getExtensor(SoapOperationInfo.class);
+        return opInfo == null ? null : opInfo.getAction();
+    }
+
     public void setStyle(String style) {
         this.style = style;
     }
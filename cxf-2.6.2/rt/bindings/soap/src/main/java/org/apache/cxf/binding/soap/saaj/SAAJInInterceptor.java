@@ -51,6 +51,7 @@ import org.w3c.dom.Node;
 
 import org.apache.cxf.Bus;
 import org.apache.cxf.attachment.AttachmentDataSource;
+import org.apache.cxf.binding.soap.BufferedSoapHeader;
 import org.apache.cxf.binding.soap.Soap11;
 import org.apache.cxf.binding.soap.Soap12;
 import org.apache.cxf.binding.soap.SoapFault;
@@ -185,6 +186,8 @@ public class SAAJInInterceptor extends AbstractSoapInterceptor {
             final SOAPPart part = soapMessage.getSOAPPart();
             Document node = (Document) message.getContent(Node.class);
             if (node != part && node != null) {
+                // buffered headers only show up in the document once materialized
+                BufferedSoapHeader.materialize(message.getHeaders());
                 StaxUtils.copy(node, new SAAJStreamWriter(part));
             } else {
                 SOAPEnvelope env = soapMessage.getSOAPPart().getEnvelope();
@@ -29,6 +29,7 @@ import javax.xml.namespace.QName;
 import org.apache.cxf.binding.soap.tcp.frames.SoapTcpMessage;
 import org.apache.cxf.common.logging.LogUtils;
 import org.apache.cxf.configuration.Configurable;
+import org.apache.cxf.helpers.SegmentedByteArrayOutputStream;
 import org.apache.cxf.message.Exchange;
 import org.apache.cxf.message.Message;
 import org.apache.cxf.transport.AbstractConduit;
@@ -66,7 +67,7 @@ public class BackendTcpConduit extends AbstractConduit implements Configurable,
     }
 
     public void prepare(Message message) throws IOException {
-        message.setContent(OutputStream.class, new ByteArrayOutputStream(512));
+        message.setContent(OutputStream.class, new SegmentedByteArrayOutputStream(512));
     }
 
     @Override
@@ -75,6 +76,9 @@ public class BackendTcpConduit extends AbstractConduit implements Configurable,
         Exchange exchange = msg.getExchange();
         SoapTcpChannel channel = exchange.getInMessage().getContent(SoapTcpChannel.class);
         String message = new String(baos.toByteArray());
+        if (baos instanceof SegmentedByteArrayOutputStream) {
+            ((SegmentedByteArrayOutputStream)baos).release();
+        }
         SoapTcpMessage soapTcpMessage = SoapTcpMessage.createSoapTcpMessage(message, channel.getChannelId());
         IoBuffer buffer = IoBuffer.allocate(512);
         buffer.setAutoExpand(true);
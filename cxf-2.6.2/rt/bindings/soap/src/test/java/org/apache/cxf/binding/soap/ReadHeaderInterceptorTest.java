@@ -27,9 +27,13 @@ import java.util.List;
 
 import javax.activation.DataHandler;
 import javax.mail.util.ByteArrayDataSource;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamReader;
 
+import org.w3c.dom.Document;
 import org.w3c.dom.Element;
+import org.w3c.dom.Node;
 
 import org.apache.cxf.BusFactory;
 import org.apache.cxf.attachment.AttachmentImpl;
@@ -149,6 +153,52 @@ public class ReadHeaderInterceptorTest extends TestBase {
         }
     }
 
+    @Test
+    public void testHandleBufferedHeader() throws Exception {
+        prepareSoapMessage("test-soap-header.xml");
+        soapMessage.put(ReadHeadersInterceptor.LAZY_HEADERS, Boolean.TRUE);
+
+        staxIntc.handleMessage(soapMessage);
+        soapMessage.getInterceptorChain().doIntercept(soapMessage);
+        XMLStreamReader xmlReader = soapMessage.getContent(XMLStreamReader.class);
+        assertEquals("check the first entry of body", "itinerary", xmlReader.getLocalName());
+        
+        List<Header> headers = soapMessage.getHeaders();
+        assertEquals(2, headers.size());
+        BufferedSoapHeader reservation = (BufferedSoapHeader)headers.get(0);
+        BufferedSoapHeader passenger = (BufferedSoapHeader)headers.get(1);
+        assertEquals(new QName("http://travelcompany.example.org/reservation", "reservation"),
+                     reservation.getName());
+        assertTrue(reservation.isMustUnderstand());
+        assertEquals("http://schemas.xmlsoap.org/soap/actor/next", passenger.getActor());
+        
+        Element header = DOMUtils.getFirstElement(
+            ((Document)soapMessage.getContent(Node.class)).getDocumentElement());
+        assertEquals("Header", header.getLocalName());
+        assertNull(DOMUtils.getFirstElement(header));
+        
+        // read from the buffer without parsing
+        XMLStreamReader reader = passenger.getXMLStreamReader();
+        assertEquals(XMLStreamConstants.START_ELEMENT, reader.getEventType());
+        assertEquals("passenger", reader.getLocalName());
+        assertEquals(XMLStreamConstants.START_ELEMENT, reader.nextTag());
+        assertEquals("Bob", reader.getElementText());
+        assertEquals("http://schemas.xmlsoap.org/soap/envelope/", 
+                     reader.getNamespaceContext().getNamespaceURI("env"));
+        assertFalse(passenger.isMaterialized());
+        
+        // materialized out of order, the DOM keeps the document order
+        Element passengerEl = (Element)passenger.getObject();
+        Element reservationEl = (Element)reservation.getObject();
+        assertTrue(passenger.isMaterialized());
+        assertSame(header, passengerEl.getParentNode());
+        assertSame(reservationEl, DOMUtils.getFirstElement(header));
+        assertSame(passengerEl, DOMUtils.getNextElement(reservationEl));
+        assertEquals("Bob", DOMUtils.getFirstElement(passengerEl).getTextContent());
+        Element dateAndTime = DOMUtils.getNextElement(DOMUtils.getFirstElement(reservationEl));
+        assertEquals("2001-11-29T13:20:00.000-05:00", dateAndTime.getTextContent());
+    }
+
     private void prepareSoapMessage(String message) throws IOException {
 
         soapMessage = TestUtil.createEmptySoapMessage(Soap12.getInstance(), chain);
@@ -0,0 +1,156 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.binding.soap.interceptor;
+
+import java.io.StringReader;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import org.apache.cxf.annotations.SchemaValidation.SchemaValidationType;
+import org.apache.cxf.binding.soap.SoapMessage;
+import org.apache.cxf.binding.soap.model.SoapHeaderInfo;
+import org.apache.cxf.databinding.DataBinding;
+import org.apache.cxf.headers.Header;
+import org.apache.cxf.helpers.DOMUtils;
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.service.Service;
+import org.apache.cxf.service.ServiceImpl;
+import org.apache.cxf.service.model.BindingInfo;
+import org.apache.cxf.service.model.BindingOperationInfo;
+import org.apache.cxf.service.model.InterfaceInfo;
+import org.apache.cxf.service.model.MessageInfo;
+import org.apache.cxf.service.model.MessagePartInfo;
+import org.apache.cxf.service.model.OperationInfo;
+import org.apache.cxf.service.model.ServiceInfo;
+import org.easymock.EasyMock;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SoapHeaderInterceptorTest extends Assert {
+    
+    private static final String NS = "http://cxf.apache.org/headers";
+    private static final QName HEADER_NAME = new QName(NS, "count");
+    private static final String SCHEMA = 
+        "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\" targetNamespace=\"" + NS + "\""
+        + " elementFormDefault=\"qualified\">"
+        + "<xs:element name=\"count\" type=\"xs:int\"/>"
+        + "</xs:schema>";
+    
+    private Service service;
+    private OperationInfo operation;
+    private BindingOperationInfo bop;
+    
+    @Before
+    public void setUp() throws Exception {
+        ServiceInfo si = new ServiceInfo();
+        InterfaceInfo ii = new InterfaceInfo(si, new QName(NS, "Counter"));
+        operation = ii.addOperation(new QName(NS, "add"));
+        MessageInfo input = operation.createMessage(new QName(NS, "addRequest"), MessageInfo.Type.INPUT);
+        operation.setInput("addRequest", input);
+        MessagePartInfo part = input.addMessagePart(new QName(NS, "count"));
+        part.setElement(true);
+        part.setElementQName(HEADER_NAME);
+        part.setConcreteName(HEADER_NAME);
+        
+        bop = new BindingOperationInfo(new BindingInfo(si, "soap"), operation);
+        SoapHeaderInfo header = new SoapHeaderInfo();
+        header.setPart(part);
+        bop.getInput().addExtensor(header);
+        
+        Schema schema = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI)
+            .newSchema(new StreamSource(new StringReader(SCHEMA)));
+        si.setProperty(Schema.class.getName(), schema);
+        
+        DataBinding db = EasyMock.createMock(DataBinding.class);
+        EasyMock.expect(db.getSupportedReaderFormats()).andReturn(new Class<?>[] {Node.class})
+            .anyTimes();
+        EasyMock.replay(db);
+        service = new ServiceImpl(si);
+        service.setDataBinding(db);
+    }
+    
+    @Test
+    public void testHeaderValidatedWithValidationType() throws Exception {
+        // what the @SchemaValidation annotation stores on the endpoint
+        service.put(Message.SCHEMA_VALIDATION_ENABLED, SchemaValidationType.IN);
+        assertInvalid(createMessage("abc"));
+        
+        new SoapHeaderInterceptor().handleMessage(createMessage("12"));
+    }
+    
+    @Test
+    public void testHeaderValidatedWithBooleanSetting() throws Exception {
+        service.put(Message.SCHEMA_VALIDATION_ENABLED, Boolean.TRUE);
+        assertInvalid(createMessage("abc"));
+    }
+    
+    @Test
+    public void testHeaderValidatedWithOperationSetting() throws Exception {
+        operation.setProperty(Message.SCHEMA_VALIDATION_ENABLED, SchemaValidationType.BOTH);
+        assertInvalid(createMessage("abc"));
+    }
+    
+    @Test
+    public void testHeaderNotValidatedForOutOnly() throws Exception {
+        service.put(Message.SCHEMA_VALIDATION_ENABLED, SchemaValidationType.OUT);
+        new SoapHeaderInterceptor().handleMessage(createMessage("abc"));
+        
+        service.remove(Message.SCHEMA_VALIDATION_ENABLED);
+        new SoapHeaderInterceptor().handleMessage(createMessage("abc"));
+    }
+    
+    private void assertInvalid(SoapMessage message) {
+        try {
+            new SoapHeaderInterceptor().handleMessage(message);
+            fail("Invalid header must be rejected");
+        } catch (Fault f) {
+            assertEquals(Fault.FAULT_CODE_CLIENT, f.getFaultCode());
+        }
+    }
+    
+    private SoapMessage createMessage(String value) {
+        Document doc = DOMUtils.createDocument();
+        Element el = doc.createElementNS(NS, "count");
+        el.setTextContent(value);
+        doc.appendChild(el);
+        
+        SoapMessage message = new SoapMessage(new MessageImpl());
+        Exchange exchange = new ExchangeImpl();
+        exchange.put(Service.class, service);
+        exchange.put(BindingOperationInfo.class, bop);
+        message.setExchange(exchange);
+        message.getHeaders().add(new Header(HEADER_NAME, el));
+        return message;
+    }
+}
@@ -38,9 +38,16 @@ import org.apache.cxf.management.InstrumentationManager;
 import org.apache.cxf.workqueue.AutomaticWorkQueue;
 import org.apache.cxf.workqueue.AutomaticWorkQueueImpl;
 import org.apache.cxf.workqueue.WorkQueueManager;
+import org.apache.cxf.workqueue.WorkStealingWorkQueue;
 
 @NoJSR250Annotations(unlessNull = "bus")
 public class WorkQueueManagerImpl implements WorkQueueManager {
+    /**
+     * Bus property selecting the implementation of the default work queue when none
+     * is configured: "threadpool" (the default, {@link AutomaticWorkQueueImpl}), 
+     * "forkjoin" or "virtual" ({@link WorkStealingWorkQueue}).
+     */
+    public static final String DEFAULT_QUEUE_TYPE = "org.apache.cxf.workqueue.default.type";
 
     private static final Logger LOG =
         LogUtils.getL7dLogger(WorkQueueManagerImpl.class);
@@ -51,6 +58,7 @@ public class WorkQueueManagerImpl implements WorkQueueManager {
     boolean inShutdown;
     InstrumentationManager imanager;
     Bus bus;  
+    String defaultQueueType;
     
     public WorkQueueManagerImpl() {
         
@@ -98,6 +106,18 @@ public class WorkQueueManagerImpl implements WorkQueueManager {
         }
     }
 
+    public String getDefaultQueueType() {
+        return defaultQueueType;
+    }
+    
+    /**
+     * Sets the implementation used for the default work queue if none is configured.
+     * @see #DEFAULT_QUEUE_TYPE
+     */
+    public void setDefaultQueueType(String type) {
+        defaultQueueType = type;
+    }
+
     public synchronized AutomaticWorkQueue getAutomaticWorkQueue() {
         AutomaticWorkQueue defaultQueue = getNamedWorkQueue("default");
         if (defaultQueue == null) {
@@ -190,11 +210,29 @@ public class WorkQueueManagerImpl implements WorkQueueManager {
                     LOG.log(Level.WARNING , jmex.getMessage(), jmex);
                 }
             }
+        } else if (q instanceof WorkStealingWorkQueue && imanager != null) {
+            try {
+                imanager.register(new WorkStealingWorkQueueMBeanWrapper((WorkStealingWorkQueue)q, this));
+            } catch (JMException jmex) {
+                LOG.log(Level.WARNING , jmex.getMessage(), jmex);
+            }
         }
     }
     
     private AutomaticWorkQueue createAutomaticWorkQueue() {        
-        AutomaticWorkQueue q = new AutomaticWorkQueueImpl("default");
+        String type = defaultQueueType;
+        if (type == null && bus != null) {
+            type = (String)bus.getProperty(DEFAULT_QUEUE_TYPE);
+        }
+        AutomaticWorkQueue q;
+        if (WorkStealingWorkQueue.MODE_FORK_JOIN.equals(type) 
+            || WorkStealingWorkQueue.MODE_VIRTUAL.equals(type)) {
+            WorkStealingWorkQueue wq = new WorkStealingWorkQueue("default");
+            wq.setMode(type);
+            q = wq;
+        } else {
+            q = new AutomaticWorkQueueImpl("default");
+        }
         addNamedWorkQueue("default", q);
         return q;
     }
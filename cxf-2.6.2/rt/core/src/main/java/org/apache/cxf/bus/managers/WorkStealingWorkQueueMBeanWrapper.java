@@ -0,0 +1,133 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.bus.managers;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.apache.cxf.management.ManagedComponent;
+import org.apache.cxf.management.ManagementConstants;
+import org.apache.cxf.management.annotation.ManagedAttribute;
+import org.apache.cxf.management.annotation.ManagedOperation;
+import org.apache.cxf.management.annotation.ManagedResource;
+import org.apache.cxf.workqueue.WorkStealingWorkQueue;
+
+@ManagedResource(componentName = "WorkQueue", 
+                 description = "The CXF work stealing work queue", 
+                 currencyTimeLimit = 15, persistPolicy = "OnUpdate", persistPeriod = 200)
+                 
+public class WorkStealingWorkQueueMBeanWrapper implements ManagedComponent {    
+    private static final String TYPE_VALUE = "WorkQueues";
+    
+    private WorkStealingWorkQueue workQueue;
+    private WorkQueueManagerImpl manager;
+    
+    public WorkStealingWorkQueueMBeanWrapper(WorkStealingWorkQueue wq,
+                                             WorkQueueManagerImpl mgr) {
+        workQueue = wq;
+        manager = mgr;
+    }
+    
+    @ManagedAttribute(description = "The executor type, forkjoin or virtual")
+    public String getMode() {
+        return workQueue.getMode();
+    }
+    
+    @ManagedAttribute(description = "The target number of worker threads")
+    public int getParallelism() {
+        return workQueue.getParallelism();
+    }
+      
+    @ManagedAttribute(description = "The WorkQueueMaxSize")
+    public long getWorkQueueMaxSize() {
+        return workQueue.getMaxSize();
+    }
+   
+    @ManagedAttribute(description = "The number of tasks waiting for a thread")
+    public long getWorkQueueSize() {
+        return workQueue.getSize();
+    }
+
+    @ManagedAttribute(description = "The number of tasks currently running")
+    public int getActiveCount() { 
+        return workQueue.getActiveCount(); 
+    }
+    
+    @ManagedAttribute(description = "The number of tasks submitted")
+    public long getSubmittedCount() { 
+        return workQueue.getSubmittedCount(); 
+    }
+    
+    @ManagedAttribute(description = "The number of tasks completed")
+    public long getCompletedCount() { 
+        return workQueue.getCompletedCount(); 
+    }
+    
+    @ManagedAttribute(description = "The number of tasks rejected")
+    public long getRejectedCount() { 
+        return workQueue.getRejectedCount(); 
+    }
+    
+    @ManagedAttribute(description = "Mean time tasks wait for a thread (us)")
+    public long getMeanQueueTime() { 
+        return workQueue.getQueueTimeHistogram().getMean(); 
+    }
+    
+    @ManagedAttribute(description = "99th percentile of the time tasks wait for a thread (us)")
+    public long getQueueTime99() { 
+        return workQueue.getQueueTimeHistogram().getPercentile(99); 
+    }
+    
+    @ManagedAttribute(description = "Mean task execution time (us)")
+    public long getMeanExecutionTime() { 
+        return workQueue.getExecutionTimeHistogram().getMean(); 
+    }
+    
+    @ManagedAttribute(description = "99th percentile of the task execution time (us)")
+    public long getExecutionTime99() { 
+        return workQueue.getExecutionTimeHistogram().getPercentile(99); 
+    }
+    
+    @ManagedAttribute(description = "Longest task execution time (us)")
+    public long getMaxExecutionTime() { 
+        return workQueue.getExecutionTimeHistogram().getMax(); 
+    }
+    
+    @ManagedOperation(description = "Resets the queue and execution time histograms")
+    public void resetHistograms() {
+        workQueue.getQueueTimeHistogram().reset();
+        workQueue.getExecutionTimeHistogram().reset();
+    }
+
+    public ObjectName getObjectName() throws JMException {
+        StringBuilder buffer = new StringBuilder();
+        buffer.append(ManagementConstants.DEFAULT_DOMAIN_NAME).append(':');
+        String busId = manager.getBus().getId();
+        buffer.append(ManagementConstants.BUS_ID_PROP).append('=').append(busId).append(',');
+        buffer.append(WorkQueueManagerImplMBeanWrapper.TYPE_VALUE).append('=');
+        buffer.append(WorkQueueManagerImplMBeanWrapper.NAME_VALUE).append(',');
+        buffer.append(ManagementConstants.TYPE_PROP).append('=').append(TYPE_VALUE).append(',');
+        buffer.append(ManagementConstants.NAME_PROP).append('=').append(workQueue.getName()).append(',');
+        // Added the instance id to make the ObjectName unique
+        buffer.append(ManagementConstants.INSTANCE_ID_PROP).append('=').append(workQueue.hashCode());
+        return new ObjectName(buffer.toString());
+    }
+
+}
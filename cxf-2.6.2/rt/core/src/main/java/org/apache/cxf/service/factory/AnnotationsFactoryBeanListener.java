@@ -32,6 +32,7 @@ import org.apache.cxf.annotations.FastInfoset;
 import org.apache.cxf.annotations.GZIP;
 import org.apache.cxf.annotations.Logging;
 import org.apache.cxf.annotations.SchemaValidation;
+import org.apache.cxf.annotations.SchemaValidation.SchemaValidationType;
 import org.apache.cxf.annotations.WSDLDocumentation;
 import org.apache.cxf.annotations.WSDLDocumentation.Placement;
 import org.apache.cxf.annotations.WSDLDocumentationCollection;
@@ -156,6 +157,7 @@ public class AnnotationsFactoryBeanListener implements FactoryBeanListener {
             if (col != null) {
                 addDocumentation(inf, WSDLDocumentation.Placement.PORT_TYPE_OPERATION, col.value());
             }
+            addSchemaValidationSupport(inf, m.getAnnotation(SchemaValidation.class));
             break;
         }
         default:
@@ -257,10 +259,26 @@ public class AnnotationsFactoryBeanListener implements FactoryBeanListener {
 
     private void addSchemaValidationSupport(Endpoint endpoint, SchemaValidation annotation) {
         if (annotation != null) {
-            endpoint.put(Message.SCHEMA_VALIDATION_ENABLED, annotation.enabled());
+            endpoint.put(Message.SCHEMA_VALIDATION_ENABLED, getSchemaValidationType(annotation));
         }
     }
 
+    private void addSchemaValidationSupport(OperationInfo inf, SchemaValidation annotation) {
+        if (annotation != null) {
+            SchemaValidationType type = getSchemaValidationType(annotation);
+            inf.setProperty(Message.SCHEMA_VALIDATION_ENABLED, type);
+            if (inf.getUnwrappedOperation() != null) {
+                inf.getUnwrappedOperation().setProperty(Message.SCHEMA_VALIDATION_ENABLED, type);
+            }
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private SchemaValidationType getSchemaValidationType(SchemaValidation annotation) {
+        // the deprecated enabled flag still switches validation off completely
+        return annotation.enabled() ? annotation.type() : SchemaValidationType.NONE;
+    }
+
     private void addFastInfosetSupport(InterceptorProvider provider, FastInfoset annotation) {
         if (annotation != null) {
             FIStaxInInterceptor in = new FIStaxInInterceptor();
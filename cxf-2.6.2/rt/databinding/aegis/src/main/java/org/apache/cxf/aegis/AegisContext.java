@@ -95,6 +95,7 @@ public class AegisContext {
     private boolean mtomEnabled;
     private boolean mtomUseXmime;
     private boolean enableJDOMMappings;
+    private boolean generateBeanAccessors;
     // this URI goes into the type map.
     private String mappingNamespaceURI;
 
@@ -532,4 +533,18 @@ public class AegisContext {
     public void setEnableJDOMMappings(boolean enableJDOMMappings) {
         this.enableJDOMMappings = enableJDOMMappings;
     }
+
+    public boolean isGenerateBeanAccessors() {
+        return generateBeanAccessors;
+    }
+
+    /**
+     * Whether bean properties are read and written through classes generated with ASM instead of
+     * reflection. False by default. Beans for which no accessor can be generated, for example because
+     * ASM is not available, keep using reflection.
+     * @param generateBeanAccessors
+     */
+    public void setGenerateBeanAccessors(boolean generateBeanAccessors) {
+        this.generateBeanAccessors = generateBeanAccessors;
+    }
 }
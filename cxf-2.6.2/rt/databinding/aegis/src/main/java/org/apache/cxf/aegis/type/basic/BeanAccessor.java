@@ -0,0 +1,41 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.aegis.type.basic;
+
+/**
+ * Direct, reflection free access to the properties of a bean class. Properties are 
+ * addressed by slot, the index of their PropertyDescriptor in the array the accessor 
+ * was generated for.
+ * 
+ * @see BeanAccessorCompiler
+ */
+public interface BeanAccessor {
+    
+    /**
+     * Invokes the read method of the property in the given slot. Primitive values 
+     * are returned boxed.
+     */
+    Object read(Object bean, int slot);
+    
+    /**
+     * Invokes the write method of the property in the given slot. Primitive 
+     * properties must not be passed a null value.
+     */
+    void write(Object bean, int slot, Object value);
+}
@@ -0,0 +1,342 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.aegis.type.basic;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.namespace.QName;
+
+import org.apache.cxf.common.util.ASMHelper;
+
+/**
+ * Generates a {@link BeanAccessor} for a bean class with ASM. The generated class 
+ * calls the read and write methods of the properties directly, selecting the 
+ * property through a table switch on the slot number.  The mapped names of the 
+ * BeanTypeInfo are resolved to slots once, up front.  Properties whose methods can't 
+ * be called from the generated class are left out; {@link #getReadSlot(QName)} and 
+ * {@link #getWriteSlot(QName)} return -1 for those so that the caller can use 
+ * reflection instead.
+ */
+final class BeanAccessorCompiler extends ASMHelper {
+    private static final String ACCESSOR_NAME = periodToSlashes(BeanAccessor.class.getName());
+    
+    final Class<?> beanClass;
+    final PropertyDescriptor[] descriptors;
+    final Method[] readMethods;
+    final Method[] writeMethods;
+    final Map<QName, Integer> slots = new HashMap<QName, Integer>();
+    final ClassWriter cw;
+    private BeanAccessor accessor;
+    
+    private BeanAccessorCompiler(BeanTypeInfo info) {
+        this.beanClass = info.getTypeClass();
+        this.descriptors = info.getPropertyDescriptors();
+        readMethods = new Method[descriptors.length];
+        writeMethods = new Method[descriptors.length];
+        for (int x = 0; x < descriptors.length; x++) {
+            readMethods[x] = accessible(descriptors[x].getReadMethod());
+            writeMethods[x] = accessible(descriptors[x].getWriteMethod());
+        }
+        mapSlots(info);
+        cw = createClassWriter();
+    }
+    
+    /**
+     * @return the compiler holding the generated accessor, or null if no accessor 
+     * could be generated, in which case the caller should stay with reflection.
+     */
+    static BeanAccessorCompiler compile(BeanTypeInfo info) {
+        Class<?> beanClass = info.getTypeClass();
+        if (beanClass.isInterface() 
+            || !Modifier.isPublic(beanClass.getModifiers())
+            || info.getPropertyDescriptors().length == 0) {
+            return null;
+        }
+        try {
+            BeanAccessorCompiler compiler = new BeanAccessorCompiler(info);
+            if (compiler.compileAccessor() != null) {
+                return compiler;
+            }
+        } catch (Throwable t) {
+            // Some error - probably a bad version of ASM or similar
+        }
+        return null;
+    }
+    
+    BeanAccessor getAccessor() {
+        return accessor;
+    }
+    
+    /**
+     * @return the slot to read the property mapped to the name, or -1 if the 
+     * accessor can't read it.
+     */
+    int getReadSlot(QName name) {
+        Integer slot = slots.get(name);
+        return slot == null || readMethods[slot] == null ? -1 : slot;
+    }
+    
+    /**
+     * @return the slot to write the property mapped to the name, or -1 if the 
+     * accessor can't write it.
+     */
+    int getWriteSlot(QName name) {
+        Integer slot = slots.get(name);
+        return slot == null || writeMethods[slot] == null ? -1 : slot;
+    }
+    
+    boolean isPrimitive(int slot) {
+        return descriptors[slot].getPropertyType().isPrimitive();
+    }
+    
+    private void mapSlots(BeanTypeInfo info) {
+        for (QName name : info.getAttributes()) {
+            mapSlot(info, name);
+        }
+        for (QName name : info.getElements()) {
+            mapSlot(info, name);
+        }
+    }
+    
+    private void mapSlot(BeanTypeInfo info, QName name) {
+        PropertyDescriptor pd = info.getPropertyDescriptorFromMappedName(name);
+        for (int x = 0; x < descriptors.length; x++) {
+            if (descriptors[x] == pd) {
+                slots.put(name, x);
+                return;
+            }
+        }
+    }
+    
+    private static Method accessible(Method m) {
+        if (m == null
+            || !Modifier.isPublic(m.getModifiers())
+            || Modifier.isStatic(m.getModifiers())
+            || !Modifier.isPublic(m.getDeclaringClass().getModifiers())
+            || !isPublicType(m.getReturnType())) {
+            return null;
+        }
+        for (Class<?> tp : m.getParameterTypes()) {
+            if (!isPublicType(tp)) {
+                return null;
+            }
+        }
+        return m;
+    }
+    
+    /**
+     * The generated accessor is loaded by a child loader, so it is in another runtime
+     * package than the bean and can only link against the public property types.
+     */
+    private static boolean isPublicType(Class<?> tp) {
+        while (tp.isArray()) {
+            tp = tp.getComponentType();
+        }
+        for (Class<?> c = tp; c != null; c = c.getEnclosingClass()) {
+            if (!c.isPrimitive() && !Modifier.isPublic(c.getModifiers())) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private BeanAccessor compileAccessor() throws Exception {
+        if (cw == null) {
+            return null;
+        }
+        String signature = computeSignature();
+        int count = 1;
+        String newClassName = periodToSlashes((beanClass.getName() + "_AegisBeanAccessor" + count)
+                                                  .replaceAll("\\$", "."));
+        Class<?> cls = findClass(newClassName.replace('/', '.'), beanClass);
+        while (cls != null) {
+            // same bean class seen before, possibly with a different set of properties
+            if (signature.equals(cls.getField("SIGNATURE").get(null))) {
+                accessor = BeanAccessor.class.cast(cls.newInstance());
+                return accessor;
+            }
+            count++;
+            newClassName = periodToSlashes((beanClass.getName() + "_AegisBeanAccessor" + count)
+                                               .replaceAll("\\$", "."));
+            cls = findClass(newClassName.replace('/', '.'), beanClass);
+        }
+        
+        cw.visit(Opcodes.V1_5,
+                 Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER,
+                 newClassName,
+                 null,
+                 "java/lang/Object",
+                 new String[] {ACCESSOR_NAME});
+        FieldVisitor fv = cw.visitField(Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_STATIC,
+                                        "SIGNATURE", "Ljava/lang/String;", null, signature);
+        fv.visitEnd();
+        addConstructor(newClassName);
+        addRead(newClassName);
+        addWrite(newClassName);
+        cw.visitEnd();
+        
+        cls = loadClass(newClassName.replace('/', '.'), beanClass, cw.toByteArray());
+        accessor = BeanAccessor.class.cast(cls.newInstance());
+        return accessor;
+    }
+    
+    private String computeSignature() {
+        StringBuilder b = new StringBuilder();
+        b.append(descriptors.length).append(':');
+        for (int x = 0; x < descriptors.length; x++) {
+            b.append(readMethods[x] == null ? "null" : readMethods[x].getName()).append('/');
+            b.append(writeMethods[x] == null ? "null" : writeMethods[x].getName()).append('/');
+            b.append(descriptors[x].getPropertyType().getName()).append(',');
+        }
+        return b.toString();
+    }
+    
+    private void addConstructor(String newClassName) {
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        mv.visitCode();
+        Label l0 = createLabel();
+        mv.visitLabel(l0);
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V");
+        mv.visitInsn(Opcodes.RETURN);
+        Label l1 = createLabel();
+        mv.visitLabel(l1);
+        mv.visitLocalVariable("this", "L" + newClassName + ";", null, l0, l1, 0);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+    
+    private void addRead(String newClassName) {
+        String beanName = periodToSlashes(beanClass.getName());
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "read",
+                                          "(Ljava/lang/Object;I)Ljava/lang/Object;", null, null);
+        mv.visitCode();
+        Label lBegin = createLabel();
+        mv.visitLabel(lBegin);
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        mv.visitTypeInsn(Opcodes.CHECKCAST, beanName);
+        mv.visitVarInsn(Opcodes.ASTORE, 3);
+        
+        Label dflt = createLabel();
+        Label[] labels = new Label[descriptors.length];
+        for (int x = 0; x < labels.length; x++) {
+            labels[x] = readMethods[x] == null ? dflt : createLabel();
+        }
+        mv.visitVarInsn(Opcodes.ILOAD, 2);
+        mv.visitTableSwitchInsn(0, labels.length - 1, dflt, createLabelArray(labels));
+        
+        for (int x = 0; x < labels.length; x++) {
+            Method m = readMethods[x];
+            if (m == null) {
+                continue;
+            }
+            mv.visitLabel(labels[x]);
+            mv.visitVarInsn(Opcodes.ALOAD, 3);
+            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, beanName, m.getName(), getMethodSignature(m));
+            Class<?> tp = m.getReturnType();
+            if (tp.isPrimitive()) {
+                mv.visitMethodInsn(Opcodes.INVOKESTATIC, NONPRIMITIVE_MAP.get(tp), "valueOf",
+                                   "(" + PRIMITIVE_MAP.get(tp) + ")L" + NONPRIMITIVE_MAP.get(tp) + ";");
+            }
+            mv.visitInsn(Opcodes.ARETURN);
+        }
+        addThrowUnknownSlot(mv, dflt);
+        
+        Label lEnd = createLabel();
+        mv.visitLabel(lEnd);
+        mv.visitLocalVariable("this", "L" + newClassName + ";", null, lBegin, lEnd, 0);
+        mv.visitLocalVariable("o", "Ljava/lang/Object;", null, lBegin, lEnd, 1);
+        mv.visitLocalVariable("slot", "I", null, lBegin, lEnd, 2);
+        mv.visitLocalVariable("bean", "L" + beanName + ";", null, lBegin, lEnd, 3);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+    
+    private void addWrite(String newClassName) {
+        String beanName = periodToSlashes(beanClass.getName());
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "write",
+                                          "(Ljava/lang/Object;ILjava/lang/Object;)V", null, null);
+        mv.visitCode();
+        Label lBegin = createLabel();
+        mv.visitLabel(lBegin);
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        mv.visitTypeInsn(Opcodes.CHECKCAST, beanName);
+        mv.visitVarInsn(Opcodes.ASTORE, 4);
+        
+        Label dflt = createLabel();
+        Label[] labels = new Label[descriptors.length];
+        for (int x = 0; x < labels.length; x++) {
+            labels[x] = writeMethods[x] == null ? dflt : createLabel();
+        }
+        mv.visitVarInsn(Opcodes.ILOAD, 2);
+        mv.visitTableSwitchInsn(0, labels.length - 1, dflt, createLabelArray(labels));
+        
+        for (int x = 0; x < labels.length; x++) {
+            Method m = writeMethods[x];
+            if (m == null) {
+                continue;
+            }
+            mv.visitLabel(labels[x]);
+            mv.visitVarInsn(Opcodes.ALOAD, 4);
+            mv.visitVarInsn(Opcodes.ALOAD, 3);
+            Class<?> tp = m.getParameterTypes()[0];
+            if (tp.isPrimitive()) {
+                mv.visitTypeInsn(Opcodes.CHECKCAST, NONPRIMITIVE_MAP.get(tp));
+                mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, NONPRIMITIVE_MAP.get(tp), 
+                                   tp.getName() + "Value", "()" + PRIMITIVE_MAP.get(tp));
+            } else if (tp.isArray()) {
+                mv.visitTypeInsn(Opcodes.CHECKCAST, getClassCode(tp));
+            } else if (tp != Object.class) {
+                mv.visitTypeInsn(Opcodes.CHECKCAST, periodToSlashes(tp.getName()));
+            }
+            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, beanName, m.getName(), getMethodSignature(m));
+            if (m.getReturnType() != Void.TYPE) {
+                // fluent setters
+                mv.visitInsn(Opcodes.POP);
+            }
+            mv.visitInsn(Opcodes.RETURN);
+        }
+        addThrowUnknownSlot(mv, dflt);
+        
+        Label lEnd = createLabel();
+        mv.visitLabel(lEnd);
+        mv.visitLocalVariable("this", "L" + newClassName + ";", null, lBegin, lEnd, 0);
+        mv.visitLocalVariable("o", "Ljava/lang/Object;", null, lBegin, lEnd, 1);
+        mv.visitLocalVariable("slot", "I", null, lBegin, lEnd, 2);
+        mv.visitLocalVariable("value", "Ljava/lang/Object;", null, lBegin, lEnd, 3);
+        mv.visitLocalVariable("bean", "L" + beanName + ";", null, lBegin, lEnd, 4);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+    
+    private void addThrowUnknownSlot(MethodVisitor mv, Label dflt) {
+        mv.visitLabel(dflt);
+        mv.visitTypeInsn(Opcodes.NEW, "java/lang/IllegalArgumentException");
+        mv.visitInsn(Opcodes.DUP);
+        mv.visitLdcInsn("No accessor for slot of " + beanClass.getName());
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL,
+                           "java/lang/IllegalArgumentException",
+                           "<init>", "(Ljava/lang/String;)V");
+        mv.visitInsn(Opcodes.ATHROW);
+    }
+}
@@ -74,6 +74,13 @@ public class BeanType extends AegisType {
 
     private boolean isException;
 
+    /**
+     * Accessors generated on first use when {@link AegisContext#isGenerateBeanAccessors()} is set;
+     * stays null, and reflection is used, if they could not be generated.
+     */
+    private volatile BeanAccessorCompiler accessors;
+    private volatile boolean accessorsChecked;
+
     /**
      * Construct a type info. Caller must pass in the type class via
      * setTypeClass later.
@@ -104,6 +111,7 @@ public class BeanType extends AegisType {
     @Override
     public Object readObject(MessageReader reader, Context context) throws DatabindingException {
         BeanTypeInfo inf = getTypeInfo();
+        initAccessors(inf, context);
 
         try {
             Class<?> clazz = getTypeClass();
@@ -202,6 +210,19 @@ public class BeanType extends AegisType {
         }
     }
 
+    private void initAccessors(BeanTypeInfo inf, Context context) {
+        if (accessorsChecked || context == null || context.getGlobalContext() == null
+            || !context.getGlobalContext().isGenerateBeanAccessors()) {
+            return;
+        }
+        synchronized (this) {
+            if (!accessorsChecked) {
+                accessors = BeanAccessorCompiler.compile(inf);
+                accessorsChecked = true;
+            }
+        }
+    }
+
     protected boolean alwaysAllowNillables() {
         return false;
     }
@@ -273,6 +294,21 @@ public class BeanType extends AegisType {
             return;
         }
 
+        BeanAccessorCompiler acc = accessors;
+        int slot = acc == null || inf != getTypeInfo() || impl != getTypeClass() 
+            ? -1 : acc.getWriteSlot(name);
+        if (slot != -1) {
+            if (property != null || !acc.isPrimitive(slot)) {
+                try {
+                    acc.getAccessor().write(object, slot, property);
+                } catch (RuntimeException e) {
+                    throw new DatabindingException("Couldn't set property " + name + " on " + object + ". "
+                                                   + e.getMessage(), e);
+                }
+            }
+            return;
+        }
+
         try {
             PropertyDescriptor desc = inf.getPropertyDescriptorFromMappedName(name);
 
@@ -352,6 +388,7 @@ public class BeanType extends AegisType {
         }
 
         BeanTypeInfo inf = getTypeInfo();
+        initAccessors(inf, context);
 
         if (!wroteXsiType && object.getClass() == getTypeClass() && context.isWriteXsiTypes()) {
             writer.writeXsiType(getSchemaType());
@@ -435,7 +472,13 @@ public class BeanType extends AegisType {
     }
 
     protected Object readProperty(Object object, QName name) {
+        BeanAccessorCompiler acc = accessors;
+        int slot = acc == null ? -1 : acc.getReadSlot(name);
         try {
+            if (slot != -1) {
+                return acc.getAccessor().read(object, slot);
+            }
+
             PropertyDescriptor desc = getTypeInfo().getPropertyDescriptorFromMappedName(name);
 
             Method m = desc.getReadMethod();
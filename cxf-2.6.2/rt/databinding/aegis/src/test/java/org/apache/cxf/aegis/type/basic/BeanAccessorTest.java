@@ -0,0 +1,215 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.aegis.type.basic;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.apache.cxf.aegis.AbstractAegisTest;
+import org.apache.cxf.aegis.AegisContext;
+import org.apache.cxf.aegis.type.AegisType;
+import org.apache.cxf.staxutils.StaxUtils;
+
+import org.junit.Test;
+
+public class BeanAccessorTest extends AbstractAegisTest {
+
+    @Test
+    public void testCompiledAccessor() throws Exception {
+        AegisContext context = new AegisContext();
+        context.initialize();
+        BeanTypeInfo info = new BeanTypeInfo(AccessorBean.class, "urn:Bean");
+        info.setTypeMapping(context.getTypeMapping());
+        info.initialize();
+
+        BeanAccessorCompiler compiler = BeanAccessorCompiler.compile(info);
+        assertNotNull(compiler);
+        BeanAccessor accessor = compiler.getAccessor();
+
+        QName count = new QName("urn:Bean", "count");
+        QName name = new QName("urn:Bean", "name");
+        QName values = new QName("urn:Bean", "values");
+        QName tags = new QName("urn:Bean", "tags");
+
+        AccessorBean bean = new AccessorBean();
+        accessor.write(bean, compiler.getWriteSlot(count), Integer.valueOf(42));
+        accessor.write(bean, compiler.getWriteSlot(name), "cxf");
+        accessor.write(bean, compiler.getWriteSlot(values), new double[] {1.5});
+        assertEquals(42, bean.getCount());
+        assertEquals("cxf", bean.getName());
+        assertEquals(1.5, bean.getValues()[0], 0);
+
+        assertEquals(Integer.valueOf(42), accessor.read(bean, compiler.getReadSlot(count)));
+        assertEquals("cxf", accessor.read(bean, compiler.getReadSlot(name)));
+        assertTrue(compiler.isPrimitive(compiler.getReadSlot(count)));
+
+        // read only property, written through reflection by BeanType
+        assertTrue(compiler.getReadSlot(tags) != -1);
+        assertEquals(-1, compiler.getWriteSlot(tags));
+        assertEquals(-1, compiler.getReadSlot(new QName("urn:Bean", "unknown")));
+
+        // a second compile for the same class reuses the generated class
+        BeanAccessorCompiler compiler2 = BeanAccessorCompiler.compile(info);
+        assertSame(accessor.getClass(), compiler2.getAccessor().getClass());
+    }
+
+    @Test
+    public void testRoundTripWithGeneratedAccessors() throws Exception {
+        AegisContext context = new AegisContext();
+        context.setGenerateBeanAccessors(true);
+        Set<java.lang.reflect.Type> rootClasses = new HashSet<java.lang.reflect.Type>();
+        rootClasses.add(AccessorBean.class);
+        context.setRootClasses(rootClasses);
+        context.initialize();
+        AegisType type = context.getRootType(AccessorBean.class);
+
+        AccessorBean bean = new AccessorBean();
+        bean.setCount(7);
+        bean.setFlag(true);
+        bean.setName("bean");
+        bean.setValues(new double[] {1.0, 2.0});
+        bean.getTags().add("a");
+        bean.getTags().add("b");
+
+        StringWriter out = new StringWriter();
+        XMLStreamWriter writer = StaxUtils.createXMLStreamWriter(out);
+        context.createXMLStreamWriter().write(bean, new QName("urn:Bean", "bean"), false, writer, type);
+        writer.close();
+
+        XMLStreamReader reader = StaxUtils.createXMLStreamReader(new StringReader(out.toString()));
+        AccessorBean read = (AccessorBean)context.createXMLStreamReader().read(reader, type);
+        assertEquals(7, read.getCount());
+        assertTrue(read.isFlag());
+        assertEquals("bean", read.getName());
+        assertEquals(2, read.getValues().length);
+        assertEquals(2.0, read.getValues()[1], 0);
+        assertEquals(2, read.getTags().size());
+        assertEquals("b", read.getTags().get(1));
+    }
+
+    @Test
+    public void testNonPublicPropertyTypeLeftToReflection() throws Exception {
+        AegisContext context = new AegisContext();
+        context.initialize();
+        BeanTypeInfo info = new BeanTypeInfo(HiddenTypeBean.class, "urn:Bean");
+        info.setTypeMapping(context.getTypeMapping());
+        info.initialize();
+
+        BeanAccessorCompiler compiler = BeanAccessorCompiler.compile(info);
+        assertNotNull(compiler);
+        QName hidden = new QName("urn:Bean", "hidden");
+        QName hiddens = new QName("urn:Bean", "hiddens");
+        QName name = new QName("urn:Bean", "name");
+        assertEquals(-1, compiler.getReadSlot(hidden));
+        assertEquals(-1, compiler.getWriteSlot(hidden));
+        assertEquals(-1, compiler.getReadSlot(hiddens));
+        assertEquals(-1, compiler.getWriteSlot(hiddens));
+
+        // the public properties still go through the generated accessor
+        HiddenTypeBean bean = new HiddenTypeBean();
+        compiler.getAccessor().write(bean, compiler.getWriteSlot(name), "cxf");
+        assertEquals("cxf", bean.getName());
+        assertEquals("cxf", compiler.getAccessor().read(bean, compiler.getReadSlot(name)));
+    }
+
+    public static class AccessorBean {
+        private int count;
+        private boolean flag;
+        private String name;
+        private double[] values;
+        private List<String> tags = new ArrayList<String>();
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public boolean isFlag() {
+            return flag;
+        }
+
+        public void setFlag(boolean flag) {
+            this.flag = flag;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public double[] getValues() {
+            return values;
+        }
+
+        public void setValues(double[] values) {
+            this.values = values;
+        }
+
+        public List<String> getTags() {
+            return tags;
+        }
+    }
+
+    static class HiddenValue {
+    }
+
+    public static class HiddenTypeBean {
+        private String name;
+        private HiddenValue hidden;
+        private HiddenValue[] hiddens;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public HiddenValue getHidden() {
+            return hidden;
+        }
+
+        public void setHidden(HiddenValue hidden) {
+            this.hidden = hidden;
+        }
+
+        public HiddenValue[] getHiddens() {
+            return hiddens;
+        }
+
+        public void setHiddens(HiddenValue[] hiddens) {
+            this.hiddens = hiddens;
+        }
+    }
+}
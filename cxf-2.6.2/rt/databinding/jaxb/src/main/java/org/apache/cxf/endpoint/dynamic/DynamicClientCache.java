@@ -0,0 +1,374 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.endpoint.dynamic;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.ref.SoftReference;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.WeakHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.xml.XMLConstants;
+import javax.xml.bind.JAXBContext;
+
+import org.w3c.dom.Document;
+
+import org.apache.cxf.common.logging.LogUtils;
+import org.apache.cxf.common.xmlschema.SchemaCollection;
+import org.apache.cxf.helpers.FileUtils;
+import org.apache.cxf.helpers.IOUtils;
+import org.apache.cxf.service.Service;
+import org.apache.cxf.service.model.FaultInfo;
+import org.apache.cxf.service.model.MessageInfo;
+import org.apache.cxf.service.model.MessagePartInfo;
+import org.apache.cxf.service.model.OperationInfo;
+import org.apache.cxf.service.model.ServiceInfo;
+import org.apache.cxf.staxutils.StaxUtils;
+import org.apache.ws.commons.schema.XmlSchema;
+import org.apache.ws.commons.schema.XmlSchemaSerializer;
+
+/**
+ * Cache of the classes generated by {@link DynamicClientFactory}. Entries are keyed by a digest of the
+ * service model, the schemas and the binding files the classes were generated from, so a client for an
+ * unchanged WSDL reuses the class loader of an earlier one instead of running XJC and javac again.
+ * <p>
+ * Class loaders are held in memory for each parent class loader. When a directory is given the compiled
+ * classes are also kept there, together with the mapping of message parts to classes, and survive restarts;
+ * the directory is never cleaned up by the cache. One cache may be shared by several factories.
+ */
+public class DynamicClientCache {
+    private static final Logger LOG = LogUtils.getL7dLogger(DynamicClientCache.class);
+    
+    private static final String CLASSES_DIR = "classes";
+    private static final String PROPERTIES_FILE = "client.properties";
+    private static final String PACKAGES_PROPERTY = "packages";
+    private static final String TYPE_PREFIX = "type.";
+    
+    private final File directory;
+    private final Map<ClassLoader, Map<String, SoftReference<Entry>>> loaders 
+        = new WeakHashMap<ClassLoader, Map<String, SoftReference<Entry>>>();
+    
+    /**
+     * Creates a cache that keeps generated classes in memory only.
+     */
+    public DynamicClientCache() {
+        this(null);
+    }
+    
+    /**
+     * Creates a cache that also stores generated classes in the given directory.
+     */
+    public DynamicClientCache(File directory) {
+        this.directory = directory;
+        if (directory != null) {
+            FileUtils.mkDir(directory);
+        }
+    }
+    
+    public File getDirectory() {
+        return directory;
+    }
+    
+    /**
+     * Removes all class loaders held in memory; classes stored in the directory are kept.
+     */
+    public synchronized void clear() {
+        loaders.clear();
+    }
+    
+    /**
+     * Computes the key of the classes generated for a service.
+     */
+    String computeKey(Service svc, SchemaCollection schemas, List<URL> bindingFiles, boolean wrapperOps) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        update(digest, String.valueOf(wrapperOps));
+        for (ServiceInfo si : svc.getServiceInfos()) {
+            update(digest, si.getInterface().getName());
+            for (OperationInfo op : si.getInterface().getOperations()) {
+                update(digest, op, op.getInput());
+                update(digest, op, op.getOutput());
+                for (FaultInfo fault : op.getFaults()) {
+                    update(digest, op, fault);
+                }
+            }
+        }
+        try {
+            for (XmlSchema schema : schemas.getXmlSchemas()) {
+                if (XMLConstants.W3C_XML_SCHEMA_NS_URI.equals(schema.getTargetNamespace())) {
+                    continue;
+                }
+                XmlSchemaSerializer xser = new XmlSchemaSerializer();
+                xser.setExtReg(schemas.getExtReg());
+                for (Document doc : xser.serializeSchema(schema, false)) {
+                    update(digest, StaxUtils.toString(doc));
+                }
+            }
+            if (bindingFiles != null) {
+                for (URL url : bindingFiles) {
+                    InputStream in = url.openStream();
+                    try {
+                        digest.update(IOUtils.readBytesFromStream(in));
+                    } finally {
+                        in.close();
+                    }
+                }
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Unable to compute the key of generated classes: "
+                                            + e.getMessage(), e);
+        }
+        StringBuilder key = new StringBuilder();
+        for (byte b : digest.digest()) {
+            key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return key.toString();
+    }
+    
+    private static void update(MessageDigest digest, OperationInfo op, MessageInfo msg) {
+        if (msg == null) {
+            return;
+        }
+        update(digest, op.getName());
+        update(digest, msg.getName());
+        for (MessagePartInfo part : msg.getMessageParts()) {
+            update(digest, part.getName());
+            update(digest, part.isElement() ? part.getElementQName() : part.getTypeQName());
+        }
+    }
+    
+    private static void update(MessageDigest digest, OperationInfo op, FaultInfo fault) {
+        update(digest, op.getName());
+        update(digest, fault.getFaultName());
+        for (MessagePartInfo part : fault.getMessageParts()) {
+            update(digest, part.getName());
+            update(digest, part.isElement() ? part.getElementQName() : part.getTypeQName());
+        }
+    }
+    
+    private static void update(MessageDigest digest, Object value) {
+        try {
+            digest.update(String.valueOf(value).getBytes("UTF-8"));
+            digest.update((byte)0);
+        } catch (IOException e) {
+            // UTF-8 is always supported
+        }
+    }
+    
+    /**
+     * Returns the cached classes for the key, loading them from the directory if needed.
+     * 
+     * @return the entry or null if the classes have to be generated
+     */
+    synchronized Entry get(String key, ClassLoader parent) {
+        Map<String, SoftReference<Entry>> entries = loaders.get(parent);
+        SoftReference<Entry> ref = entries == null ? null : entries.get(key);
+        Entry entry = ref == null ? null : ref.get();
+        if (entry == null && directory != null) {
+            entry = load(key, parent);
+            if (entry != null) {
+                add(key, parent, entry);
+            }
+        }
+        return entry;
+    }
+    
+    private Entry load(String key, ClassLoader parent) {
+        File dir = new File(directory, key);
+        File props = new File(dir, PROPERTIES_FILE);
+        if (!props.isFile()) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try {
+            InputStream in = new FileInputStream(props);
+            try {
+                properties.load(in);
+            } finally {
+                in.close();
+            }
+            Map<String, String> types = new HashMap<String, String>();
+            for (String name : properties.stringPropertyNames()) {
+                if (name.startsWith(TYPE_PREFIX)) {
+                    types.put(name.substring(TYPE_PREFIX.length()), properties.getProperty(name));
+                }
+            }
+            return new Entry(createClassLoader(new File(dir, CLASSES_DIR), parent),
+                             properties.getProperty(PACKAGES_PROPERTY, ""),
+                             types);
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Unable to read generated classes from " + dir, e);
+            return null;
+        }
+    }
+    
+    /**
+     * Returns the directory new classes for the key should be compiled into, or null if
+     * classes are not stored.  The directory is only visible to {@link #get} after
+     * {@link #put} is called.
+     */
+    File getClassesDirectory(String key, String stem) {
+        if (directory == null) {
+            return null;
+        }
+        File dir = new File(new File(directory, key + "-" + stem + ".tmp"), CLASSES_DIR);
+        FileUtils.mkDir(dir);
+        return dir;
+    }
+    
+    /**
+     * Moves classes compiled into {@link #getClassesDirectory(String, String)} to their final location.
+     * 
+     * @return the directory holding the classes; the given one if they could not be moved
+     */
+    File publish(String key, File classes) {
+        File target = new File(directory, key);
+        if (!target.exists() && classes.getParentFile().renameTo(target)) {
+            return new File(target, CLASSES_DIR);
+        }
+        // someone else stored the same classes concurrently
+        return classes;
+    }
+    
+    /**
+     * Stores new classes, writing the part to class mapping next to the classes if they
+     * were published to the directory.
+     */
+    synchronized Entry put(String key, ClassLoader parent, URLClassLoader cl, String packages, 
+                           Map<String, String> types, boolean published) {
+        Entry entry = new Entry(cl, packages, 
+                                Collections.unmodifiableMap(new HashMap<String, String>(types)));
+        if (published) {
+            Properties properties = new Properties();
+            properties.setProperty(PACKAGES_PROPERTY, packages);
+            for (Map.Entry<String, String> type : types.entrySet()) {
+                properties.setProperty(TYPE_PREFIX + type.getKey(), type.getValue());
+            }
+            File dir = new File(directory, key);
+            File tmp = new File(dir, PROPERTIES_FILE + ".tmp");
+            try {
+                OutputStream out = new FileOutputStream(tmp);
+                try {
+                    properties.store(out, "Generated by " + DynamicClientFactory.class.getName());
+                } finally {
+                    out.close();
+                }
+                if (!tmp.renameTo(new File(dir, PROPERTIES_FILE))) {
+                    FileUtils.delete(tmp);
+                }
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "Unable to store generated classes in " + dir, e);
+            }
+        }
+        add(key, parent, entry);
+        return entry;
+    }
+    
+    private void add(String key, ClassLoader parent, Entry entry) {
+        Map<String, SoftReference<Entry>> entries = loaders.get(parent);
+        if (entries == null) {
+            entries = new HashMap<String, SoftReference<Entry>>();
+            loaders.put(parent, entries);
+        }
+        entries.put(key, new SoftReference<Entry>(entry));
+    }
+    
+    static URLClassLoader createClassLoader(File classes, ClassLoader parent) {
+        try {
+            return new GeneratedClassLoader(new URL[] {classes.toURI().toURL()}, parent);
+        } catch (MalformedURLException mue) {
+            throw new IllegalStateException("Internal error; a directory returns a malformed URL: "
+                                            + mue.getMessage(), mue);
+        }
+    }
+    
+    /**
+     * Skips the class loaders of generated classes.
+     */
+    static ClassLoader getApplicationClassLoader(ClassLoader cl) {
+        while (cl instanceof GeneratedClassLoader) {
+            cl = cl.getParent();
+        }
+        return cl;
+    }
+    
+    private static final class GeneratedClassLoader extends URLClassLoader {
+        GeneratedClassLoader(URL[] urls, ClassLoader parent) {
+            super(urls, parent);
+        }
+    }
+    
+    /**
+     * Generated classes of one service.
+     */
+    static final class Entry {
+        private final URLClassLoader classLoader;
+        private final String packages;
+        private final Map<String, String> typeClassNames;
+        private JAXBContext context;
+        private Map<String, Object> contextProperties;
+        
+        Entry(URLClassLoader cl, String packages, Map<String, String> types) {
+            this.classLoader = cl;
+            this.packages = packages;
+            this.typeClassNames = types;
+        }
+        
+        URLClassLoader getClassLoader() {
+            return classLoader;
+        }
+        
+        String getPackages() {
+            return packages;
+        }
+        
+        Map<String, String> getTypeClassNames() {
+            return typeClassNames;
+        }
+        
+        synchronized JAXBContext getContext(Map<String, Object> properties) {
+            return properties.equals(contextProperties) ? context : null;
+        }
+        
+        synchronized void setContext(JAXBContext ctx, Map<String, Object> properties) {
+            this.context = ctx;
+            this.contextProperties = properties;
+        }
+    }
+}
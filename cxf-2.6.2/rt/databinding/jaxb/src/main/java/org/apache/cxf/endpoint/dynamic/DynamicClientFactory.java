@@ -26,7 +26,6 @@ import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
-import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
@@ -134,6 +133,8 @@ public class DynamicClientFactory {
     
     private Map<String, Object> jaxbContextProperties;
     
+    private DynamicClientCache cache;
+    
     protected DynamicClientFactory(Bus bus) {
         this.bus = bus;
     }
@@ -149,6 +150,18 @@ public class DynamicClientFactory {
     public void setAllowElementReferences(boolean b) {
         allowRefs = b;
     }
+    
+    public DynamicClientCache getCache() {
+        return cache;
+    }
+    
+    /**
+     * Sets the cache used to reuse the classes generated for a WSDL by later clients.
+     * By default every client generates and compiles its own classes.
+     */
+    public void setCache(DynamicClientCache cache) {
+        this.cache = cache;
+    }
 
     /**
      * Create a new instance using a specific <tt>Bus</tt>.
@@ -299,6 +312,38 @@ public class DynamicClientFactory {
 
         //all SI's should have the same schemas
         SchemaCollection schemas = svc.getServiceInfos().get(0).getXmlSchemaCollection();
+        
+        Map<String, Object> contextProperties = jaxbContextProperties;
+        if (contextProperties == null) {
+            contextProperties = Collections.emptyMap();
+        }
+        ServiceInfo svcfo = client.getEndpoint().getEndpointInfo().getService();
+
+        String cacheKey = null;
+        if (cache != null) {
+            // the context class loader may still be the one set up for a previous client
+            classLoader = DynamicClientCache.getApplicationClassLoader(classLoader);
+            List<URL> bindingUrls = new ArrayList<URL>();
+            if (bindingFiles != null) {
+                for (String s : bindingFiles) {
+                    bindingUrls.add(composeUrl(s));
+                }
+            }
+            cacheKey = cache.computeKey(svc, schemas, bindingUrls, allowWrapperOps());
+            DynamicClientCache.Entry entry = cache.get(cacheKey, classLoader);
+            if (entry != null) {
+                LOG.log(Level.FINE, "Using cached classes " + cacheKey + " for WSDL " + wsdlUrl);
+                JAXBContext context = entry.getContext(contextProperties);
+                if (context == null) {
+                    context = createContext(entry.getPackages(), entry.getClassLoader(), contextProperties);
+                    entry.setContext(context, contextProperties);
+                }
+                setDataBinding(svc, context);
+                ClassLoaderUtils.setThreadContextClassloader(entry.getClassLoader());
+                new TypeClassInitializer(svcfo, entry.getTypeClassNames(), allowWrapperOps()).walk();
+                return client;
+            }
+        }
 
         SchemaCompiler compiler = 
             JAXBUtils.createSchemaCompilerWithDefaultAllocator(new HashSet<String>());
@@ -352,9 +397,13 @@ public class DynamicClientFactory {
             throw new IllegalStateException("Unable to write generated Java files for schemas: "
                                             + e.getMessage(), e);
         }
-        File classes = new File(tmpdir, stem + "-classes");
-        if (!classes.mkdir()) {
-            throw new IllegalStateException("Unable to create working directory " + classes.getPath());
+        File classes = cache == null ? null : cache.getClassesDirectory(cacheKey, stem);
+        boolean staged = classes != null;
+        if (!staged) {
+            classes = new File(tmpdir, stem + "-classes");
+            if (!classes.mkdir()) {
+                throw new IllegalStateException("Unable to create working directory " + classes.getPath());
+            }
         }
         StringBuilder classPath = new StringBuilder();
         try {
@@ -364,53 +413,86 @@ public class DynamicClientFactory {
         }
         
         List<File> srcFiles = FileUtils.getFilesRecurse(src, ".+\\.java$"); 
-        if (!compileJavaSrc(classPath.toString(), srcFiles, classes.toString())) {
+        boolean compiled = compileJavaSrc(classPath.toString(), srcFiles, classes.toString());
+        if (!compiled) {
             LOG.log(Level.SEVERE , new Message("COULD_NOT_COMPILE_SRC", LOG, wsdlUrl).toString());
         }
         FileUtils.removeDir(src);
-        URLClassLoader cl;
-        try {
-            cl = new URLClassLoader(new URL[] {classes.toURI().toURL()}, classLoader);
-        } catch (MalformedURLException mue) {
-            throw new IllegalStateException("Internal error; a directory returns a malformed URL: "
-                                            + mue.getMessage(), mue);
+        boolean published = false;
+        if (staged && compiled) {
+            File dir = cache.publish(cacheKey, classes);
+            published = dir != classes;
+            classes = dir;
         }
+        URLClassLoader cl = DynamicClientCache.createClassLoader(classes, classLoader);
 
-        JAXBContext context;
-        Map<String, Object> contextProperties = jaxbContextProperties;
-        
-        if (contextProperties == null) {
-            contextProperties = Collections.emptyMap();
+        JAXBContext context = createContext(packageList, cl, contextProperties);
+        setDataBinding(svc, context);
+
+        // Setup the new classloader!
+        ClassLoaderUtils.setThreadContextClassloader(cl);
+
+        TypeClassInitializer visitor = new TypeClassInitializer(svcfo, 
+                                                                intermediateModel,
+                                                                allowWrapperOps());
+        visitor.walk();
+        if (cache != null && compiled) {
+            cache.put(cacheKey, classLoader, cl, packageList, visitor.getTypeClassNames(), published)
+                .setContext(context, contextProperties);
         }
-        
+        if (!published) {
+            // delete the classes files
+            FileUtils.removeDir(staged ? classes.getParentFile() : classes);
+        }
+        return client;
+    }
+    
+    private JAXBContext createContext(String packageList, ClassLoader cl, 
+                                      Map<String, Object> contextProperties) {
         try {
             if (StringUtils.isEmpty(packageList)) {
-                context = JAXBContext.newInstance(new Class[0], contextProperties);
+                return JAXBContext.newInstance(new Class[0], contextProperties);
             } else {
-                context = JAXBContext.newInstance(packageList, cl, contextProperties);
+                return JAXBContext.newInstance(packageList, cl, contextProperties);
             }
         } catch (JAXBException jbe) {
             throw new IllegalStateException("Unable to create JAXBContext for generated packages: "
                                             + jbe.getMessage(), jbe);
         }
-         
+    }
+    
+    private void setDataBinding(Service svc, JAXBContext context) {
         JAXBDataBinding databinding = new JAXBDataBinding();
         databinding.setContext(context);
         svc.setDataBinding(databinding);
-
-        ServiceInfo svcfo = client.getEndpoint().getEndpointInfo().getService();
-
-        // Setup the new classloader!
-        ClassLoaderUtils.setThreadContextClassloader(cl);
-
-        TypeClassInitializer visitor = new TypeClassInitializer(svcfo, 
-                                                                intermediateModel,
-                                                                allowWrapperOps());
-        visitor.walk();
-        // delete the classes files
-        FileUtils.removeDir(classes);
-        return client;
     }
+    
+    /**
+     * Generates the classes for the given WSDLs so later clients for them are created from the
+     * {@link #setCache(DynamicClientCache) cache}.
+     * 
+     * @param wsdlUrls the WSDLs to generate classes for
+     * @param classLoader the parent of the generated classes, the context class loader if null
+     */
+    public void prewarm(List<String> wsdlUrls, ClassLoader classLoader) {
+        if (cache == null) {
+            throw new IllegalStateException("No DynamicClientCache is set");
+        }
+        ClassLoader parent = classLoader;
+        if (parent == null) {
+            parent = Thread.currentThread().getContextClassLoader();
+        }
+        for (String wsdlUrl : wsdlUrls) {
+            ClassLoaderUtils.ClassLoaderHolder holder 
+                = ClassLoaderUtils.setThreadContextClassloader(parent);
+            try {
+                createClient(wsdlUrl, parent).destroy();
+            } finally {
+                holder.reset();
+            }
+        }
+    }
+    
     protected boolean allowWrapperOps() {
         return false;
     }
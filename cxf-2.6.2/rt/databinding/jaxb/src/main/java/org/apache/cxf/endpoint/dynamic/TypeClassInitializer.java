@@ -19,7 +19,9 @@
 package org.apache.cxf.endpoint.dynamic;
 
 import java.lang.reflect.Array;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.logging.Logger;
 
 import javax.xml.namespace.QName;
@@ -48,6 +50,7 @@ public class TypeClassInitializer extends ServiceModelVisitor {
     S2JJAXBModel model;
     boolean allowWrapperOperations;
     boolean isFault;
+    Map<String, String> typeClassNames = new HashMap<String, String>();
     
     public TypeClassInitializer(ServiceInfo serviceInfo, 
                                 S2JJAXBModel model,
@@ -56,6 +59,38 @@ public class TypeClassInitializer extends ServiceModelVisitor {
         this.model = model;
         this.allowWrapperOperations = allowWr;
     }
+    
+    /**
+     * Initializes the parts from the type class names recorded by an earlier walk over the same
+     * service model instead of an XJC model.
+     * 
+     * @see #getTypeClassNames()
+     */
+    public TypeClassInitializer(ServiceInfo serviceInfo, 
+                                Map<String, String> typeClassNames,
+                                boolean allowWr) {
+        super(serviceInfo);
+        this.typeClassNames = new HashMap<String, String>(typeClassNames);
+        this.allowWrapperOperations = allowWr;
+    }
+    
+    /**
+     * Returns the type class names assigned to the message parts, keyed by operation, message
+     * and part name; array classes end with one "[]" per dimension.
+     */
+    public Map<String, String> getTypeClassNames() {
+        return typeClassNames;
+    }
+    
+    static String getPartKey(MessagePartInfo part) {
+        OperationInfo op = part.getMessageInfo().getOperation();
+        StringBuilder key = new StringBuilder(op.getName().toString());
+        if (op.isUnwrapped()) {
+            key.append("#unwrapped");
+        }
+        return key.append('|').append(part.getMessageInfo().getName())
+            .append('|').append(part.getName()).toString();
+    }
 
     @Override
     public void begin(MessagePartInfo part) {
@@ -64,6 +99,11 @@ public class TypeClassInitializer extends ServiceModelVisitor {
             return;
         }
         
+        if (model == null) {
+            initializeFromNames(part);
+            return;
+        }
+        
         QName name;
         if (part.isElement()) {
             name = part.getElementQName();
@@ -149,6 +189,44 @@ public class TypeClassInitializer extends ServiceModelVisitor {
             throw new ServiceConstructionException(e);
         }
         
+        setTypeClass(part, cls);
+        super.begin(part);
+    }
+    
+    private void initializeFromNames(MessagePartInfo part) {
+        String clsName = typeClassNames.get(getPartKey(part));
+        if (clsName == null) {
+            return;
+        }
+        int arrayCount = 0;
+        while (clsName.endsWith("[]")) {
+            clsName = clsName.substring(0, clsName.length() - 2);
+            arrayCount++;
+        }
+        Class<?> cls = PrimitiveUtils.getClass(clsName);
+        try {
+            if (cls == null) {
+                cls = ClassLoaderUtils.loadClass(clsName, getClass());
+            }
+        } catch (ClassNotFoundException e) {
+            throw new ServiceConstructionException(e);
+        }
+        if (arrayCount > 0) {
+            cls = Array.newInstance(cls, new int[arrayCount]).getClass();
+        }
+        setTypeClass(part, cls);
+        super.begin(part);
+    }
+    
+    private void setTypeClass(MessagePartInfo part, Class<?> cls) {
+        StringBuilder clsName = new StringBuilder();
+        Class<?> rootCls = cls;
+        while (rootCls.isArray()) {
+            rootCls = rootCls.getComponentType();
+            clsName.append("[]");
+        }
+        typeClassNames.put(getPartKey(part), clsName.insert(0, rootCls.getName()).toString());
+        
         part.setTypeClass(cls);
         if (isFault) {
             //need to create an Exception class for this
@@ -158,7 +236,6 @@ public class TypeClassInitializer extends ServiceModelVisitor {
                 //ignore - probably no asm
             }
         }
-        super.begin(part);
     }
 
     private Class<?> createFaultClass(Class<?> cls) {
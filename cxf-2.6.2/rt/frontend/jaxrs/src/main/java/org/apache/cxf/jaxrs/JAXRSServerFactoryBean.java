@@ -37,15 +37,18 @@ import org.apache.cxf.endpoint.Server;
 import org.apache.cxf.endpoint.ServerImpl;
 import org.apache.cxf.feature.AbstractFeature;
 import org.apache.cxf.helpers.CastUtils;
+import org.apache.cxf.jaxrs.ext.RequestHandler;
 import org.apache.cxf.jaxrs.ext.ResourceComparator;
 import org.apache.cxf.jaxrs.impl.RequestPreprocessor;
 import org.apache.cxf.jaxrs.lifecycle.PerRequestResourceProvider;
 import org.apache.cxf.jaxrs.lifecycle.ResourceProvider;
 import org.apache.cxf.jaxrs.model.ClassResourceInfo;
 import org.apache.cxf.jaxrs.model.ProviderInfo;
+import org.apache.cxf.jaxrs.model.wadl.WadlGenerator;
 import org.apache.cxf.jaxrs.provider.ProviderFactory;
 import org.apache.cxf.jaxrs.utils.InjectionUtils;
 import org.apache.cxf.jaxrs.utils.JAXRSUtils;
+import org.apache.cxf.message.MessageUtils;
 import org.apache.cxf.service.factory.FactoryBeanListener;
 import org.apache.cxf.service.factory.ServiceConstructionException;
 import org.apache.cxf.service.invoker.Invoker;
@@ -180,6 +183,7 @@ public class JAXRSServerFactoryBean extends AbstractJAXRSFactoryBean {
                                           null);
             
             applyFeatures();
+            preGenerateWadl(ep, factory);
             
             if (start) {
                 server.start();
@@ -201,6 +205,17 @@ public class JAXRSServerFactoryBean extends AbstractJAXRSFactoryBean {
         return server;
     }
 
+    private void preGenerateWadl(Endpoint ep, ProviderFactory factory) {
+        if (MessageUtils.isTrue(ep.get(WadlGenerator.PREGENERATE_WADL))) {
+            for (ProviderInfo<RequestHandler> handler : factory.getRequestHandlers()) {
+                if (handler.getProvider() instanceof WadlGenerator) {
+                    ((WadlGenerator)handler.getProvider()).preGenerate(ep);
+                    break;
+                }
+            }
+        }
+    }
+
     protected void applyFeatures() {
         if (getFeatures() != null) {
             for (AbstractFeature feature : getFeatures()) {
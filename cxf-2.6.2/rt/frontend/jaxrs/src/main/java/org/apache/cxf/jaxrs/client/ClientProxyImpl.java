@@ -35,6 +35,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 import javax.ws.rs.core.HttpHeaders;
@@ -59,7 +60,6 @@ import org.apache.cxf.jaxrs.model.OperationResourceInfo;
 import org.apache.cxf.jaxrs.model.Parameter;
 import org.apache.cxf.jaxrs.model.ParameterType;
 import org.apache.cxf.jaxrs.provider.ProviderFactory;
-import org.apache.cxf.jaxrs.utils.AnnotationUtils;
 import org.apache.cxf.jaxrs.utils.FormUtils;
 import org.apache.cxf.jaxrs.utils.InjectionUtils;
 import org.apache.cxf.message.Exchange;
@@ -83,6 +83,8 @@ public class ClientProxyImpl extends AbstractClient implements
     private boolean inheritHeaders;
     private boolean isRoot;
     private Map<String, Object> valuesMap = Collections.emptyMap();
+    private Map<OperationResourceInfo, OperationInvocationPlan> plans = 
+        new ConcurrentHashMap<OperationResourceInfo, OperationInvocationPlan>();
     
     public ClientProxyImpl(URI baseURI,
                            ClassLoader loader,
@@ -147,10 +149,10 @@ public class ClientProxyImpl extends AbstractClient implements
             reportInvalidResourceMethod(m, "INVALID_RESOURCE_METHOD");
         }
         
-        MultivaluedMap<ParameterType, Parameter> types = getParametersInfo(params, ori);
-        List<Object> pathParams = getPathParamValues(types, params, ori);
+        OperationInvocationPlan plan = getInvocationPlan(ori, m);
+        List<Object> pathParams = getPathParamValues(plan, params);
         
-        int bodyIndex = getBodyIndex(types, ori);
+        int bodyIndex = plan.bodyIndex;
         
         UriBuilder builder = getCurrentBuilder().clone(); 
         if (isRoot) {
@@ -158,15 +160,15 @@ public class ClientProxyImpl extends AbstractClient implements
         }
         addNonEmptyPath(builder, ori.getURITemplate().getValue());
         
-        handleMatrixes(types, params, builder);
-        handleQueries(types, params, builder);
+        handleMatrixes(plan, params, builder);
+        handleQueries(plan, params, builder);
         
         URI uri = builder.buildFromEncoded(pathParams.toArray()).normalize();
         
         MultivaluedMap<String, String> headers = getHeaders();
         MultivaluedMap<String, String> paramHeaders = new MetadataMap<String, String>();
-        handleHeaders(paramHeaders, types, params);
-        handleCookies(paramHeaders, types, params);
+        handleHeaders(paramHeaders, plan, params);
+        handleCookies(paramHeaders, plan, params);
                 
         if (ori.isSubResourceLocator()) {
             ClassResourceInfo subCri = cri.getSubResource(m.getReturnType(), m.getReturnType());
@@ -183,23 +185,24 @@ public class ClientProxyImpl extends AbstractClient implements
                  getTemplateParametersMap(ori.getURITemplate(), pathParams));
             ClientProxyImpl proxyImpl = 
                 new ClientProxyImpl(newState, proxyLoader, subCri, false, inheritHeaders);
+            proxyImpl.plans = plans;
             proxyImpl.setConfiguration(getConfiguration());
             return JAXRSClientFactory.createProxy(m.getReturnType(), proxyLoader, proxyImpl);
         } 
         
         headers.putAll(paramHeaders);
-        setRequestHeaders(headers, ori, types.containsKey(ParameterType.FORM), 
-            bodyIndex == -1 ? null : params[bodyIndex].getClass(), m.getReturnType());
+        setRequestHeaders(headers, plan, plan.hasFormParams(), 
+            bodyIndex == -1 ? null : params[bodyIndex].getClass());
         
         getState().setTemplates(getTemplateParametersMap(ori.getURITemplate(), pathParams));
         
         Object body = null;
         if (bodyIndex != -1) {
             body = params[bodyIndex];
-        } else if (types.containsKey(ParameterType.FORM))  {
-            body = handleForm(types, params);
-        } else if (types.containsKey(ParameterType.REQUEST_BODY))  {
-            body = handleMultipart(types, ori, params);
+        } else if (plan.hasFormParams())  {
+            body = handleForm(plan, params);
+        } else if (plan.hasRequestBody)  {
+            body = handleMultipart(plan, params);
         }
         
         return doChainedInvocation(uri, headers, ori, body, bodyIndex, null, null);
@@ -212,50 +215,13 @@ public class ClientProxyImpl extends AbstractClient implements
         }
     }
     
-    private static MultivaluedMap<ParameterType, Parameter> getParametersInfo(
-        Object[] params, OperationResourceInfo ori) {
-        MultivaluedMap<ParameterType, Parameter> map = 
-            new MetadataMap<ParameterType, Parameter>();
-        
-        List<Parameter> parameters = ori.getParameters();
-        if (parameters.size() == 0) {
-            return map;
-        }
-        int requestBodyParam = 0;
-        int multipartParam = 0;
-        for (Parameter p : parameters) {
-            if (p.getType() == ParameterType.CONTEXT) {
-                // ignore
-                continue;
-            }
-            if (p.getType() == ParameterType.REQUEST_BODY) {
-                requestBodyParam++;
-                if (getMultipart(ori, p.getIndex()) != null) {
-                    multipartParam++;    
-                }
-            }
-            map.add(p.getType(), p);
-        }
-        
-        if (map.containsKey(ParameterType.REQUEST_BODY)) {
-            if (requestBodyParam > 1 && requestBodyParam != multipartParam) {
-                reportInvalidResourceMethod(ori.getMethodToInvoke(), "SINGLE_BODY_ONLY");
-            }
-            if (map.containsKey(ParameterType.FORM)) {
-                reportInvalidResourceMethod(ori.getMethodToInvoke(), "ONLY_FORM_ALLOWED");
-            }
+    private OperationInvocationPlan getInvocationPlan(OperationResourceInfo ori, Method m) {
+        OperationInvocationPlan plan = plans.get(ori);
+        if (plan == null) {
+            plan = new OperationInvocationPlan(ori, m.getReturnType());
+            plans.put(ori, plan);
         }
-        return map;
-    }
-    
-    private static int getBodyIndex(MultivaluedMap<ParameterType, Parameter> map, 
-                                    OperationResourceInfo ori) {
-        List<Parameter> list = map.get(ParameterType.REQUEST_BODY);
-        int index = list == null || list.size() > 1 ? -1 : list.get(0).getIndex();
-        if (ori.isSubResourceLocator() && index != -1) {
-            reportInvalidResourceMethod(ori.getMethodToInvoke(), "NO_BODY_IN_SUBRESOURCE");
-        }
-        return index;
+        return plan;
     }
     
     private void checkResponse(Method m, Response r, Message inMessage) throws Throwable {
@@ -308,92 +274,53 @@ public class ClientProxyImpl extends AbstractClient implements
     }
     
     private MultivaluedMap<String, String> setRequestHeaders(MultivaluedMap<String, String> headers,          
-                                                             OperationResourceInfo ori,
+                                                             OperationInvocationPlan plan,
                                                              boolean formParams,
-                                                             Class<?> bodyClass,
-                                                             Class<?> responseClass) {
+                                                             Class<?> bodyClass) {
         if (headers.getFirst(HttpHeaders.CONTENT_TYPE) == null) {
             if (formParams || bodyClass != null && MultivaluedMap.class.isAssignableFrom(bodyClass)) {
                 headers.putSingle(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_FORM_URLENCODED);
             } else {
-                String cType = ori.getConsumeTypes().isEmpty() 
-                    || ori.getConsumeTypes().get(0).equals(MediaType.WILDCARD_TYPE) 
-                    ? MediaType.APPLICATION_XML : ori.getConsumeTypes().get(0).toString();   
-                headers.putSingle(HttpHeaders.CONTENT_TYPE, cType);
+                headers.putSingle(HttpHeaders.CONTENT_TYPE, plan.defaultContentType);
             }
         }
         
-        List<MediaType> accepts = getAccept(headers);
-        if (accepts == null) {
-            boolean produceWildcard = ori.getProduceTypes().size() == 0 
-                || ori.getProduceTypes().get(0).equals(MediaType.WILDCARD_TYPE);
-            if (produceWildcard) {
-                accepts = InjectionUtils.isPrimitive(responseClass)
-                    ? Collections.singletonList(MediaType.TEXT_PLAIN_TYPE)
-                    : Collections.singletonList(MediaType.APPLICATION_XML_TYPE);        
-            } else if (responseClass == Void.class) {
-                accepts = Collections.singletonList(MediaType.WILDCARD_TYPE);
-            } else {
-                accepts = ori.getProduceTypes();
-            }
-            
-            for (MediaType mt : accepts) {
-                headers.add(HttpHeaders.ACCEPT, mt.toString());
+        List<String> accepts = headers.get(HttpHeaders.ACCEPT);
+        if (accepts == null || accepts.size() == 0) {
+            for (String mt : plan.defaultAccepts) {
+                headers.add(HttpHeaders.ACCEPT, mt);
             }
         }
             
         return headers;
     }
     
-    private List<MediaType> getAccept(MultivaluedMap<String, String> allHeaders) {
-        List<String> headers = allHeaders.get(HttpHeaders.ACCEPT);
-        if (headers == null || headers.size() == 0) {
-            return null;
-        }
-        List<MediaType> types = new ArrayList<MediaType>();
-        for (String s : headers) {
-            types.add(MediaType.valueOf(s));
-        }
-        return types;
-    }
-    
-    private List<Object> getPathParamValues(MultivaluedMap<ParameterType, Parameter> map,
-                                            Object[] params,
-                                            OperationResourceInfo ori) {
-        List<Object> list = new LinkedList<Object>();
+    private List<Object> getPathParamValues(OperationInvocationPlan plan, Object[] params) {
+        List<Object> list = new ArrayList<Object>();
         if (isRoot) {
             list.addAll(valuesMap.values());
         }
-        List<String> methodVars = ori.getURITemplate().getVariables();
-        
-        List<Parameter> paramsList =  getParameters(map, ParameterType.PATH);
-        Map<String, Parameter> paramsMap = new LinkedHashMap<String, Parameter>();
-        for (Parameter p : paramsList) {
-            if (p.getName().length() == 0) {
+        if (!plan.beanPathParams.isEmpty()) {
+            List<String> methodVars = plan.ori.getURITemplate().getVariables();
+            for (Parameter p : plan.beanPathParams) {
                 MultivaluedMap<String, Object> values = 
                     InjectionUtils.extractValuesFromBean(params[p.getIndex()], "");
                 for (String var : methodVars) {
                     list.addAll(values.get(var));
                 }
-            } else {
-                paramsMap.put(p.getName(), p);
             }
         }
         
-        for (String varName : methodVars) {
-            Parameter p = paramsMap.remove(varName);
-            if (p != null) {
-                list.add(params[p.getIndex()]);
-            }
+        for (Parameter p : plan.templatePathParams) {
+            list.add(params[p.getIndex()]);
         }
         
-        for (Parameter p : paramsMap.values()) {
+        for (Parameter p : plan.otherPathParams) {
             if (valuesMap.containsKey(p.getName())) {
                 int index = 0; 
                 for (Iterator<String> it = valuesMap.keySet().iterator(); it.hasNext(); index++) {
                     if (it.next().equals(p.getName()) && index < list.size()) {
-                        list.remove(index);
-                        list.add(index, params[p.getIndex()]);
+                        list.set(index, params[p.getIndex()]);
                         break;
                     }
                 }
@@ -403,40 +330,31 @@ public class ClientProxyImpl extends AbstractClient implements
         return list;
     }
     
-    @SuppressWarnings("unchecked")
-    private static List<Parameter> getParameters(MultivaluedMap<ParameterType, Parameter> map, 
-                                           ParameterType key) {
-        return  map.get(key) == null ? Collections.EMPTY_LIST : map.get(key);
-    }
-    
-    private static void handleQueries(MultivaluedMap<ParameterType, Parameter> map, 
+    private static void handleQueries(OperationInvocationPlan plan, 
                                       Object[] params,
                                       UriBuilder ub) {
-        List<Parameter> qs = getParameters(map, ParameterType.QUERY);
-        for (Parameter p : qs) {
+        for (Parameter p : plan.queryParams) {
             if (params[p.getIndex()] != null) {
                 addParametersToBuilder(ub, p.getName(), params[p.getIndex()], ParameterType.QUERY);
             }
         }
     }
     
-    private static void handleMatrixes(MultivaluedMap<ParameterType, Parameter> map, Object[] params,
+    private static void handleMatrixes(OperationInvocationPlan plan, Object[] params,
                                 UriBuilder ub) {
-        List<Parameter> mx = getParameters(map, ParameterType.MATRIX);
-        for (Parameter p : mx) {
+        for (Parameter p : plan.matrixParams) {
             if (params[p.getIndex()] != null) {
                 addParametersToBuilder(ub, p.getName(), params[p.getIndex()], ParameterType.MATRIX);
             }
         }
     }
 
-    private MultivaluedMap<String, String> handleForm(MultivaluedMap<ParameterType, Parameter> map, 
+    private MultivaluedMap<String, String> handleForm(OperationInvocationPlan plan, 
                                                       Object[] params) {
         
         MultivaluedMap<String, String> form = new MetadataMap<String, String>();
         
-        List<Parameter> fm = getParameters(map, ParameterType.FORM);
-        for (Parameter p : fm) {
+        for (Parameter p : plan.formParams) {
             Object pValue = params[p.getIndex()];
             if (pValue != null) {
                 if (InjectionUtils.isSupportedCollectionOrArray(pValue.getClass())) {
@@ -455,41 +373,30 @@ public class ClientProxyImpl extends AbstractClient implements
         return form;
     }
     
-    private List<Attachment> handleMultipart(MultivaluedMap<ParameterType, Parameter> map,
-                                             OperationResourceInfo ori,
+    private List<Attachment> handleMultipart(OperationInvocationPlan plan,
                                              Object[] params) {
         
         List<Attachment> atts = new LinkedList<Attachment>();
-        List<Parameter> fm = getParameters(map, ParameterType.REQUEST_BODY);
-        for (Parameter p : fm) {
-            Multipart part = getMultipart(ori, p.getIndex());
-            if (part != null) {
-                atts.add(new Attachment(part.value(), part.type(), params[p.getIndex()]));
-            }
+        for (int i = 0; i < plan.multipartParams.size(); i++) {
+            Multipart part = plan.multiparts.get(i);
+            Object value = params[plan.multipartParams.get(i).getIndex()];
+            atts.add(new Attachment(part.value(), part.type(), value));
         }
         return atts;        
     }
     
     private void handleHeaders(MultivaluedMap<String, String> headers,
-                               MultivaluedMap<ParameterType, Parameter> map, Object[] params) {
-        List<Parameter> hs = getParameters(map, ParameterType.HEADER);
-        for (Parameter p : hs) {
+                               OperationInvocationPlan plan, Object[] params) {
+        for (Parameter p : plan.headerParams) {
             if (params[p.getIndex()] != null) {
                 headers.add(p.getName(), params[p.getIndex()].toString());
             }
         }
     }
     
-    private static Multipart getMultipart(OperationResourceInfo ori, int index) {
-        Method aMethod = ori.getAnnotatedMethod();
-        return aMethod != null ? AnnotationUtils.getAnnotation(
-            aMethod.getParameterAnnotations()[index], Multipart.class) : null;
-    }
-    
     private void handleCookies(MultivaluedMap<String, String> headers,
-                               MultivaluedMap<ParameterType, Parameter> map, Object[] params) {
-        List<Parameter> cs = getParameters(map, ParameterType.COOKIE);
-        for (Parameter p : cs) {
+                               OperationInvocationPlan plan, Object[] params) {
+        for (Parameter p : plan.cookieParams) {
             if (params[p.getIndex()] != null) {
                 headers.add(HttpHeaders.COOKIE, p.getName() + '=' + params[p.getIndex()].toString());
             }
@@ -625,16 +532,14 @@ public class ClientProxyImpl extends AbstractClient implements
             }
             MultivaluedMap<String, Object> headers = 
                 (MultivaluedMap<String, Object>)outMessage.get(Message.PROTOCOL_HEADERS);
-            Method method = ori.getMethodToInvoke();
             int bodyIndex = (Integer)outMessage.get("BODY_INDEX");
-            Method aMethod = ori.getAnnotatedMethod();
-            Annotation[] anns = aMethod == null || bodyIndex == -1 ? new Annotation[0] 
-                                                  : aMethod.getParameterAnnotations()[bodyIndex];
+            OperationInvocationPlan plan = getInvocationPlan(ori, ori.getMethodToInvoke());
+            Annotation[] anns = plan.bodyAnnotations;
             Object body = objs.get(0);
             try {
                 if (bodyIndex != -1) {
-                    Class<?> paramClass = method.getParameterTypes()[bodyIndex];
-                    Type paramType = method.getGenericParameterTypes()[bodyIndex];
+                    Class<?> paramClass = plan.bodyClass;
+                    Type paramType = plan.bodyType;
                     
                     boolean isAssignable = paramClass.isAssignableFrom(body.getClass());
                     writeBody(body, outMessage,
@@ -0,0 +1,173 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.jaxrs.client;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.ws.rs.core.MediaType;
+
+import org.apache.cxf.jaxrs.ext.multipart.Multipart;
+import org.apache.cxf.jaxrs.model.OperationResourceInfo;
+import org.apache.cxf.jaxrs.model.Parameter;
+import org.apache.cxf.jaxrs.utils.AnnotationUtils;
+import org.apache.cxf.jaxrs.utils.InjectionUtils;
+
+/**
+ * Everything a proxy needs to know about a resource method which does not depend on 
+ * the actual parameter values: the parameters grouped by type, the path parameters 
+ * in the order of the URI template, the multipart annotations, the body parameter 
+ * and the default Content-Type and Accept values. Created by {@link ClientProxyImpl}
+ * on the first invocation of a method so subsequent invocations only need to bind
+ * the values.
+ */
+final class OperationInvocationPlan {
+    private static final Annotation[] NO_ANNOTATIONS = new Annotation[0];
+    
+    final OperationResourceInfo ori;
+    final List<Parameter> beanPathParams = new ArrayList<Parameter>();
+    final List<Parameter> templatePathParams = new ArrayList<Parameter>();
+    final List<Parameter> otherPathParams;
+    final List<Parameter> queryParams = new ArrayList<Parameter>();
+    final List<Parameter> matrixParams = new ArrayList<Parameter>();
+    final List<Parameter> headerParams = new ArrayList<Parameter>();
+    final List<Parameter> cookieParams = new ArrayList<Parameter>();
+    final List<Parameter> formParams = new ArrayList<Parameter>();
+    final List<Parameter> multipartParams = new ArrayList<Parameter>();
+    final List<Multipart> multiparts = new ArrayList<Multipart>();
+    final boolean hasRequestBody;
+    final int bodyIndex;
+    final Class<?> bodyClass;
+    final Type bodyType;
+    final Annotation[] bodyAnnotations;
+    final String defaultContentType;
+    final List<String> defaultAccepts;
+    
+    OperationInvocationPlan(OperationResourceInfo ori, Class<?> responseClass) {
+        this.ori = ori;
+        Method annotatedMethod = ori.getAnnotatedMethod();
+        Annotation[][] paramAnns = annotatedMethod == null ? null : annotatedMethod.getParameterAnnotations();
+        
+        List<Parameter> bodyParams = new ArrayList<Parameter>();
+        Map<String, Parameter> namedPathParams = new LinkedHashMap<String, Parameter>();
+        for (Parameter p : ori.getParameters()) {
+            switch (p.getType()) {
+            case CONTEXT:
+                break;
+            case REQUEST_BODY:
+                bodyParams.add(p);
+                Multipart part = paramAnns == null ? null 
+                    : AnnotationUtils.getAnnotation(paramAnns[p.getIndex()], Multipart.class);
+                if (part != null) {
+                    multipartParams.add(p);
+                    multiparts.add(part);
+                }
+                break;
+            case PATH:
+                if (p.getName().length() == 0) {
+                    beanPathParams.add(p);
+                } else {
+                    namedPathParams.put(p.getName(), p);
+                }
+                break;
+            case QUERY:
+                queryParams.add(p);
+                break;
+            case MATRIX:
+                matrixParams.add(p);
+                break;
+            case HEADER:
+                headerParams.add(p);
+                break;
+            case COOKIE:
+                cookieParams.add(p);
+                break;
+            case FORM:
+                formParams.add(p);
+                break;
+            default:
+                break;
+            }
+        }
+        
+        hasRequestBody = !bodyParams.isEmpty();
+        if (hasRequestBody) {
+            if (bodyParams.size() > 1 && bodyParams.size() != multipartParams.size()) {
+                ClientProxyImpl.reportInvalidResourceMethod(ori.getMethodToInvoke(), "SINGLE_BODY_ONLY");
+            }
+            if (!formParams.isEmpty()) {
+                ClientProxyImpl.reportInvalidResourceMethod(ori.getMethodToInvoke(), "ONLY_FORM_ALLOWED");
+            }
+        }
+        bodyIndex = bodyParams.size() == 1 ? bodyParams.get(0).getIndex() : -1;
+        if (ori.isSubResourceLocator() && bodyIndex != -1) {
+            ClientProxyImpl.reportInvalidResourceMethod(ori.getMethodToInvoke(), "NO_BODY_IN_SUBRESOURCE");
+        }
+        if (bodyIndex != -1) {
+            Method method = ori.getMethodToInvoke();
+            bodyClass = method.getParameterTypes()[bodyIndex];
+            bodyType = method.getGenericParameterTypes()[bodyIndex];
+            bodyAnnotations = paramAnns == null ? NO_ANNOTATIONS : paramAnns[bodyIndex];
+        } else {
+            bodyClass = null;
+            bodyType = null;
+            bodyAnnotations = NO_ANNOTATIONS;
+        }
+        
+        for (String varName : ori.getURITemplate().getVariables()) {
+            Parameter p = namedPathParams.remove(varName);
+            if (p != null) {
+                templatePathParams.add(p);
+            }
+        }
+        otherPathParams = new ArrayList<Parameter>(namedPathParams.values());
+        
+        List<MediaType> consumes = ori.getConsumeTypes();
+        defaultContentType = consumes.isEmpty() || consumes.get(0).equals(MediaType.WILDCARD_TYPE) 
+            ? MediaType.APPLICATION_XML : consumes.get(0).toString();
+        
+        List<MediaType> accepts;
+        List<MediaType> produces = ori.getProduceTypes();
+        if (produces.size() == 0 || produces.get(0).equals(MediaType.WILDCARD_TYPE)) {
+            accepts = InjectionUtils.isPrimitive(responseClass)
+                ? Collections.singletonList(MediaType.TEXT_PLAIN_TYPE)
+                : Collections.singletonList(MediaType.APPLICATION_XML_TYPE);        
+        } else if (responseClass == Void.class) {
+            accepts = Collections.singletonList(MediaType.WILDCARD_TYPE);
+        } else {
+            accepts = produces;
+        }
+        List<String> acceptValues = new ArrayList<String>(accepts.size());
+        for (MediaType mt : accepts) {
+            acceptValues.add(mt.toString());
+        }
+        defaultAccepts = Collections.unmodifiableList(acceptValues);
+    }
+    
+    boolean hasFormParams() {
+        return !formParams.isEmpty();
+    }
+}
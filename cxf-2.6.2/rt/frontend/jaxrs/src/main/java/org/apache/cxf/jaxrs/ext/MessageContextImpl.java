@@ -24,6 +24,7 @@ import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -263,16 +264,41 @@ public class MessageContextImpl implements MessageContext {
         if (childAttachments == null) {
             childAttachments = Collections.emptyList();
         }
-        childAttachments.size();
-        for (org.apache.cxf.message.Attachment a : childAttachments) {
-            newAttachments.add(new Attachment(a, new ProvidersImpl(inMessage)));
-        }
         MediaType mt = embeddedAttachment 
             ? (MediaType)inMessage.get("org.apache.cxf.multipart.embedded.ctype")
             : getHttpHeaders().getMediaType();
-        MultipartBody body = new MultipartBody(newAttachments, mt, false);
+        MultipartBody body = null;
+        boolean streaming = !embeddedAttachment && MessageUtils.isTrue(
+            inMessage.getContextualProperty(AttachmentDeserializer.ATTACHMENT_STREAMING));
+        if (streaming) {
+            body = new MultipartBody(newAttachments, 
+                                     createAttachmentIterator(childAttachments.iterator(), inMessage), 
+                                     mt);
+        } else {
+            childAttachments.size();
+            for (org.apache.cxf.message.Attachment a : childAttachments) {
+                newAttachments.add(new Attachment(a, new ProvidersImpl(inMessage)));
+            }
+            body = new MultipartBody(newAttachments, mt, false);
+        }
         inMessage.put(propertyName, body);
         return body;
     }
        
+    private static Iterator<Attachment> createAttachmentIterator(
+        final Iterator<org.apache.cxf.message.Attachment> it, final Message inMessage) {
+        return new Iterator<Attachment>() {
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            public Attachment next() {
+                return new Attachment(it.next(), new ProvidersImpl(inMessage));
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
 }
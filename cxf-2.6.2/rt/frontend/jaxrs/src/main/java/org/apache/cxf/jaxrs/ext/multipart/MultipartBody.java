@@ -20,7 +20,9 @@ package org.apache.cxf.jaxrs.ext.multipart;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 import javax.ws.rs.core.MediaType;
 
@@ -33,6 +35,7 @@ public class MultipartBody {
     private boolean outbound;
     private List<Attachment> atts;
     private MediaType mt; 
+    private Iterator<Attachment> pending;
     
     public MultipartBody(List<Attachment> atts, MediaType mt, boolean outbound) {
         this.atts = atts;
@@ -51,6 +54,19 @@ public class MultipartBody {
         this.mt = MULTIPART_RELATED_TYPE;
     }
     
+    /**
+     * Creates an inbound body which reads the parts following the already loaded ones 
+     * from the message only when they are requested, in the order they arrive.
+     * 
+     * @param atts the parts which have already been read
+     * @param pending the remaining parts
+     * @param mt the multipart type
+     */
+    public MultipartBody(List<Attachment> atts, Iterator<Attachment> pending, MediaType mt) {
+        this(new ArrayList<Attachment>(atts), mt, false);
+        this.pending = pending;
+    }
+    
     public MultipartBody(List<Attachment> atts) {
         this(atts, MULTIPART_RELATED_TYPE, false);
     }
@@ -63,12 +79,47 @@ public class MultipartBody {
         return mt;
     }
     
+    /**
+     * Returns true if the parts are read from the message as they are requested.
+     * In this mode, the content of a part which has not been read or closed by 
+     * the time the next part is requested is discarded.
+     */
+    public boolean isStreaming() {
+        return pending != null;
+    }
+    
+    /**
+     * Returns the parts in the order they have been received. If this body is streaming
+     * then the parts not loaded yet are read from the message as the iteration proceeds.
+     */
+    public Iterator<Attachment> iterator() {
+        return new Iterator<Attachment>() {
+            private int index;
+            
+            public boolean hasNext() {
+                return index < atts.size() || loadNext();
+            }
+
+            public Attachment next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return atts.get(index++);
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+    
     public List<Attachment> getAllAttachments() {
-        
+        loadAll();
         return outbound ? atts : Collections.unmodifiableList(atts);
     }
     
     public List<Attachment> getChildAttachments() {
+        loadAll();
         List<Attachment> childAtts = new ArrayList<Attachment>();
         for (int i = 1; i < atts.size(); i++) {
             childAtts.add(atts.get(i));
@@ -77,11 +128,12 @@ public class MultipartBody {
     }
     
     public Attachment getRootAttachment() {
-        return atts.size() > 0 ? atts.get(0) : null;
+        return atts.size() > 0 || loadNext() ? atts.get(0) : null;
     }
     
     public Attachment getAttachment(String contentId) {
-        for (Attachment a : atts) {
+        for (Iterator<Attachment> it = iterator(); it.hasNext();) {
+            Attachment a = it.next();
             if (contentId.equalsIgnoreCase(a.getContentId())) {
                 return a;
             }
@@ -100,4 +152,19 @@ public class MultipartBody {
         }
         return null;
     }
+    
+    private boolean loadNext() {
+        if (pending != null && pending.hasNext()) {
+            atts.add(pending.next());
+            return true;
+        }
+        return false;
+    }
+    
+    private void loadAll() {
+        boolean loaded = loadNext();
+        while (loaded) {
+            loaded = loadNext();
+        }
+    }
 }
@@ -31,10 +31,14 @@ import java.util.TreeSet;
 
 import javax.ws.rs.core.MultivaluedMap;
 
+import org.apache.cxf.helpers.CastUtils;
+import org.apache.cxf.helpers.HeaderMap;
+
 public class MetadataMap<K, V> implements MultivaluedMap<K, V> {
 
     private boolean caseInsensitive;
     private Map<K, List<V>> m;
+    private HeaderMap<V> headerMap;
     
     public MetadataMap() {
         this.m = new LinkedHashMap<K, List<V>>();
@@ -56,7 +60,12 @@ public class MetadataMap<K, V> implements MultivaluedMap<K, V> {
         
         this.caseInsensitive = caseInsensitive;
         
-        this.m = new LinkedHashMap<K, List<V>>();
+        if (caseInsensitive) {
+            headerMap = new HeaderMap<V>();
+            this.m = CastUtils.cast(headerMap);
+        } else {
+            this.m = new LinkedHashMap<K, List<V>>();
+        }
         if (store != null) {
             for (Map.Entry<K, List<V>> entry : store.entrySet()) {
                 List<V> values = new ArrayList<V>(entry.getValue());
@@ -66,11 +75,16 @@ public class MetadataMap<K, V> implements MultivaluedMap<K, V> {
         }
         if (readOnly) {
             this.m = Collections.unmodifiableMap(m);
+            this.headerMap = null;
         }
         
     }
     
     public void add(K key, V value) {
+        if (headerMap != null) {
+            headerMap.add(key.toString(), value);
+            return;
+        }
         List<V> data = this.get(key);
         if (data == null) {
             data = new ArrayList<V>();    
@@ -80,11 +94,18 @@ public class MetadataMap<K, V> implements MultivaluedMap<K, V> {
     }
 
     public V getFirst(K key) {
+        if (headerMap != null) {
+            return headerMap.getFirst(key.toString());
+        }
         List<V> data = this.get(key);
         return data == null ? null : data.get(0);
     }
 
     public void putSingle(K key, V value) {
+        if (headerMap != null) {
+            headerMap.putSingle(key.toString(), value);
+            return;
+        }
         List<V> data = new ArrayList<V>();
         data.add(value);
         this.put(key, data);
@@ -95,10 +116,7 @@ public class MetadataMap<K, V> implements MultivaluedMap<K, V> {
     }
 
     public boolean containsKey(Object key) {
-        if (!caseInsensitive) {
-            return m.containsKey(key);
-        }
-        return getMatchingKey(key) != null;
+        return m.containsKey(key);
     }
 
     public boolean containsValue(Object value) {
@@ -110,20 +128,7 @@ public class MetadataMap<K, V> implements MultivaluedMap<K, V> {
     }
 
     public List<V> get(Object key) {
-        if (!caseInsensitive) {
-            return m.get(key);
-        }
-        K realKey = getMatchingKey(key);
-        return realKey == null ? null : m.get(realKey);
-    }
-    
-    private K getMatchingKey(Object key) {
-        for (K entry : m.keySet()) {
-            if (entry.toString().equalsIgnoreCase(key.toString())) {
-                return entry;
-            }
-        }
-        return null;
+        return m.get(key);
     }
 
     public boolean isEmpty() {
@@ -141,27 +146,15 @@ public class MetadataMap<K, V> implements MultivaluedMap<K, V> {
     }
 
     public List<V> put(K key, List<V> value) {
-        K realKey = !caseInsensitive ? key : getMatchingKey(key);
-        return m.put(realKey == null ? key : realKey, value);
+        return m.put(key, value);
     }
 
     public void putAll(Map<? extends K, ? extends List<V>> map) {
-        if (!caseInsensitive) {
-            m.putAll(map);
-        } else {
-            for (Map.Entry<? extends K, ? extends List<V>> entry : map.entrySet()) {
-                this.put(entry.getKey(), entry.getValue());
-            }
-        }
+        m.putAll(map);
     }
 
     public List<V> remove(Object key) {
-        if (caseInsensitive) {
-            K realKey = getMatchingKey(key);
-            return m.remove(realKey == null ? key : realKey);
-        } else {
-            return m.remove(key);
-        }
+        return m.remove(key);
     }
 
     public int size() {
@@ -47,6 +47,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
@@ -91,6 +92,7 @@ import org.apache.cxf.jaxrs.ext.RequestHandler;
 import org.apache.cxf.jaxrs.ext.multipart.Multipart;
 import org.apache.cxf.jaxrs.ext.xml.XMLSource;
 import org.apache.cxf.jaxrs.impl.HttpHeadersImpl;
+import org.apache.cxf.jaxrs.impl.RequestImpl;
 import org.apache.cxf.jaxrs.impl.UriInfoImpl;
 import org.apache.cxf.jaxrs.model.ClassResourceInfo;
 import org.apache.cxf.jaxrs.model.OperationResourceInfo;
@@ -103,7 +105,10 @@ import org.apache.cxf.jaxrs.utils.InjectionUtils;
 import org.apache.cxf.jaxrs.utils.JAXRSUtils;
 import org.apache.cxf.jaxrs.utils.ResourceUtils;
 import org.apache.cxf.jaxrs.utils.schemas.SchemaHandler;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
 import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
 import org.apache.cxf.service.Service;
 import org.apache.cxf.service.model.EndpointInfo;
 import org.apache.cxf.staxutils.DelegatingXMLStreamWriter;
@@ -115,6 +120,11 @@ public class WadlGenerator implements RequestHandler {
     public static final String WADL_QUERY = "_wadl";
     public static final MediaType WADL_TYPE = MediaType.valueOf("application/vnd.sun.wadl+xml");
     public static final String WADL_NS = "http://wadl.dev.java.net/2009/02";
+    /**
+     * Endpoint property; if true the WADL for the default media type is generated 
+     * when the server is created rather than on the first request.
+     */
+    public static final String PREGENERATE_WADL = "org.apache.cxf.jaxrs.wadl.pregenerate";
     
     private static final MediaType DEFAULT_MEDIA_TYPE = MediaType.APPLICATION_XML_TYPE; 
     private static final Logger LOG = LogUtils.getL7dLogger(WadlGenerator.class);
@@ -122,6 +132,8 @@ public class WadlGenerator implements RequestHandler {
     private static final String JAXB_DEFAULT_NAME = "##default";
     private static final String CLASSPATH_PREFIX = "classpath:";
     private static final String DEFAULT_NS_PREFIX = "prefix";
+    private static final String WADL_CACHE = WadlGenerator.class.getName() + ".cache";
+    private static final int MAX_CACHED_DOCUMENTS = 32;
 
     private String wadlNamespace;
     private boolean ignoreMessageWriters = true;
@@ -133,6 +145,7 @@ public class WadlGenerator implements RequestHandler {
     private boolean linkJsonToXmlSchema;
     private boolean useJaxbContextForQnames = true;
     private boolean supportCollections = true;
+    private boolean cacheWadl = true;
     
     private List<String> externalSchemasCache;
     private List<URI> externalSchemaLinks;
@@ -163,6 +176,7 @@ public class WadlGenerator implements RequestHandler {
         this.singleResourceMultipleMethods = other.singleResourceMultipleMethods;
         this.useJaxbContextForQnames = other.useJaxbContextForQnames;
         this.useSingleSlashResource = other.useSingleSlashResource;
+        this.cacheWadl = other.cacheWadl;
     }
 
     public Response handleRequest(Message m, ClassResourceInfo resource) {
@@ -201,7 +215,90 @@ public class WadlGenerator implements RequestHandler {
         }
         
         boolean isJson = type == MediaType.APPLICATION_JSON_TYPE; 
-                
+        
+        CachedWadl wadl = getWadl(m, ui, resource, type);
+        Response.ResponseBuilder rb = new RequestImpl(m).evaluatePreconditions(wadl.tag);
+        if (rb != null) {
+            return rb.build();
+        }
+        
+        m.getExchange().put(JAXRSUtils.IGNORE_MESSAGE_WRITERS, ignoreMessageWriters);
+        return Response.ok().type(type).tag(wadl.tag).entity(
+                createResponseEntity(wadl.document, isJson)).build();
+    }
+    
+    /**
+     * Generates the WADL for the endpoint of the given request and caches it on the
+     * endpoint, so that it can be served in response to subsequent requests with the same
+     * base URI and media type.
+     */
+    private CachedWadl getWadl(Message m, UriInfo ui, ClassResourceInfo resource, MediaType type) {
+        List<ClassResourceInfo> cris = getResourcesList(m, resource);
+        String baseURI = getBaseURI(m, ui);
+        if (!cacheWadl) {
+            return new CachedWadl(generateWadl(m, ui, cris, baseURI, 
+                                               type == MediaType.APPLICATION_JSON_TYPE), cris);
+        }
+        Map<String, CachedWadl> cache = getWadlCache(m.getExchange().get(Endpoint.class).getEndpointInfo());
+        String key = baseURI + " " + type + (resource == null ? "" 
+            : " " + resource.getServiceClass().getName() + resource.getURITemplate().getValue());
+        CachedWadl wadl;
+        synchronized (cache) {
+            wadl = cache.get(key);
+        }
+        // the resource model may have been updated after the document was cached
+        if (wadl == null || !wadl.resources.equals(cris)) {
+            wadl = new CachedWadl(generateWadl(m, ui, cris, baseURI, type == MediaType.APPLICATION_JSON_TYPE),
+                                  cris);
+            synchronized (cache) {
+                cache.put(key, wadl);
+            }
+        }
+        return wadl;
+    }
+    
+    private static Map<String, CachedWadl> getWadlCache(EndpointInfo ei) {
+        synchronized (ei) {
+            Map<String, CachedWadl> cache = CastUtils.cast((Map<?, ?>)ei.getProperty(WADL_CACHE));
+            if (cache == null) {
+                // the base URI depends on the request so keep the least recently used documents only
+                cache = new LinkedHashMap<String, CachedWadl>(16, 0.75f, true) {
+                    private static final long serialVersionUID = 1L;
+                    protected boolean removeEldestEntry(Map.Entry<String, CachedWadl> eldest) {
+                        return size() > MAX_CACHED_DOCUMENTS;
+                    }
+                };
+                ei.setProperty(WADL_CACHE, cache);
+            }
+            return cache;
+        }
+    }
+    
+    /**
+     * Generates and caches the WADL for the default media type in advance, using the 
+     * configured address of the endpoint as the base URI. Only useful if that address is 
+     * absolute, as the base URI of requests relative to a servlet is only known once a 
+     * request has been received.  
+     * 
+     * @param ep the endpoint
+     */
+    public void preGenerate(Endpoint ep) {
+        String address = ep.getEndpointInfo().getAddress();
+        if (!cacheWadl || address == null || !URI.create(address).isAbsolute()) {
+            return;
+        }
+        Message m = new MessageImpl();
+        Exchange exchange = new ExchangeImpl();
+        exchange.put(Endpoint.class, ep);
+        exchange.put(Service.class, ep.getService());
+        m.setExchange(exchange);
+        m.put(Message.ENDPOINT_ADDRESS, address);
+        m.put(Message.HTTP_REQUEST_METHOD, "GET");
+        getWadl(m, new UriInfoImpl(m), null, defaultMediaType);
+    }
+    
+    private String generateWadl(Message m, UriInfo ui, List<ClassResourceInfo> cris, 
+                                String baseURI, boolean isJson) {
         StringBuilder sbMain = new StringBuilder();
         sbMain.append("<application");
         if (!isJson) {
@@ -212,9 +309,7 @@ public class WadlGenerator implements RequestHandler {
         sbGrammars.append("<grammars>");
 
         StringBuilder sbResources = new StringBuilder();
-        sbResources.append("<resources base=\"").append(getBaseURI(m, ui)).append("\">");
-
-        List<ClassResourceInfo> cris = getResourcesList(m, resource);
+        sbResources.append("<resources base=\"").append(baseURI).append("\">");
 
         ResourceTypes resourceTypes =
             ResourceUtils.getAllRequestResponseTypes(cris, useJaxbContextForQnames);
@@ -253,10 +348,7 @@ public class WadlGenerator implements RequestHandler {
         sbMain.append(sbGrammars.toString());
         sbMain.append(sbResources.toString());
         sbMain.append("</application>");
-
-        m.getExchange().put(JAXRSUtils.IGNORE_MESSAGE_WRITERS, ignoreMessageWriters);
-        return Response.ok().type(type).entity(
-                createResponseEntity(sbMain.toString(), isJson)).build();
+        return sbMain.toString();
     }
 
     private Object createResponseEntity(String entity, boolean isJson) {
@@ -1214,6 +1306,13 @@ public class WadlGenerator implements RequestHandler {
         return new QName(namespace, name, prefix);
     }
 
+    /**
+     * Enables or disables caching the generated documents, enabled by default.
+     */
+    public void setCacheWadl(boolean cache) {
+        this.cacheWadl = cache;
+    }
+
     public void setIgnoreMessageWriters(boolean ignoreMessageWriters) {
         this.ignoreMessageWriters = ignoreMessageWriters;
     }
@@ -1632,5 +1731,17 @@ public class WadlGenerator implements RequestHandler {
             super.writeAttribute(local, value);
         }
     }
-
+    
+    private static class CachedWadl {
+        final String document;
+        final EntityTag tag;
+        final List<ClassResourceInfo> resources;
+        
+        CachedWadl(String document, List<ClassResourceInfo> resources) {
+            this.document = document;
+            this.tag = new EntityTag(Integer.toHexString(document.hashCode()) 
+                                     + Integer.toHexString(document.length()));
+            this.resources = new ArrayList<ClassResourceInfo>(resources);
+        }
+    }
 }
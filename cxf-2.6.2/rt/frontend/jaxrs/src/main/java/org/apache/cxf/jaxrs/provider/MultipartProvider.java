@@ -26,6 +26,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -50,6 +51,7 @@ import javax.ws.rs.ext.MessageBodyReader;
 import javax.ws.rs.ext.MessageBodyWriter;
 import javax.ws.rs.ext.Provider;
 
+import org.apache.cxf.attachment.AttachmentDeserializer;
 import org.apache.cxf.attachment.AttachmentUtil;
 import org.apache.cxf.attachment.ByteDataSource;
 import org.apache.cxf.common.i18n.BundleUtils;
@@ -63,6 +65,9 @@ import org.apache.cxf.jaxrs.ext.multipart.InputStreamDataSource;
 import org.apache.cxf.jaxrs.ext.multipart.Multipart;
 import org.apache.cxf.jaxrs.ext.multipart.MultipartBody;
 import org.apache.cxf.jaxrs.impl.MetadataMap;
+import org.apache.cxf.jaxrs.model.OperationResourceInfo;
+import org.apache.cxf.jaxrs.model.Parameter;
+import org.apache.cxf.jaxrs.model.ParameterType;
 import org.apache.cxf.jaxrs.utils.AnnotationUtils;
 import org.apache.cxf.jaxrs.utils.InjectionUtils;
 import org.apache.cxf.jaxrs.utils.multipart.AttachmentUtils;
@@ -84,6 +89,7 @@ public class MultipartProvider extends AbstractConfigurableProvider
     private String attachmentDir;
     private String attachmentThreshold;
     private String attachmentMaxSize;
+    private boolean attachmentStreaming;
 
     public void setMessageContext(MessageContext context) {
         this.mc = context;
@@ -100,6 +106,18 @@ public class MultipartProvider extends AbstractConfigurableProvider
     public void setAttachmentMaxSize(String maxSize) {
         attachmentMaxSize = maxSize;
     }
+    
+    /**
+     * Enables the streaming of the multipart bodies: the parts are read from the
+     * message one by one as the MultipartBody is iterated or as the individual 
+     * Multipart parameters are requested, and the parts which have been skipped 
+     * are discarded instead of being cached. The parts have to be consumed
+     * in the order they arrive. The streaming is not used for the resource methods
+     * with Collection or Map body parameters which are not annotated with Multipart.
+     */
+    public void setAttachmentStreaming(boolean streaming) {
+        attachmentStreaming = streaming;
+    }
 
     public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, 
                               MediaType mt) {
@@ -134,9 +152,22 @@ public class MultipartProvider extends AbstractConfigurableProvider
                            MultivaluedMap<String, String> headers, InputStream is) 
         throws IOException, WebApplicationException {
         checkContentLength();
-        List<Attachment> infos = AttachmentUtils.getAttachments(
+        if (!canStream(c, anns)) {
+            // the parts have to be cached for this request, whatever the endpoint setting is
+            mc.put(AttachmentDeserializer.ATTACHMENT_STREAMING, "false");
+        } else if (attachmentStreaming) {
+            mc.put(AttachmentDeserializer.ATTACHMENT_STREAMING, "true");
+        }
+        MultipartBody body = AttachmentUtils.getMultipartBody(
                 mc, attachmentDir, attachmentThreshold, attachmentMaxSize);
-        
+        if (body.isStreaming()) {
+            return readFromStreamingBody(body, c, t, anns, mt);
+        }
+        return readFromAttachments(c, t, anns, mt, body.getAllAttachments());
+    }
+    
+    private Object readFromAttachments(Class<Object> c, Type t, Annotation[] anns, MediaType mt,
+                                       List<Attachment> infos) throws IOException {
         if (Collection.class.isAssignableFrom(c) 
             && AnnotationUtils.getAnnotation(anns, Multipart.class) == null) {
             Class<?> actual = getActualType(t, 0);
@@ -176,6 +207,57 @@ public class MultipartProvider extends AbstractConfigurableProvider
         
     }
     
+    private Object readFromStreamingBody(MultipartBody body, Class<Object> c, Type t, 
+                                         Annotation[] anns, MediaType mt) throws IOException {
+        if (MultipartBody.class.isAssignableFrom(c)) {
+            return body;
+        }
+        if (requiresAllParts(c, anns)) {
+            // the body has been created in the streaming mode before this parameter could 
+            // switch it off, loading all the parts would only keep the content of the last one
+            String message = new org.apache.cxf.common.i18n.Message("MULTIPART_STREAMING_NOT_SUPPORTED", 
+                                                                    BUNDLE, c.getName()).toString();
+            LOG.warning(message);
+            throw new WebApplicationException(500);
+        }
+        Multipart id = AnnotationUtils.getAnnotation(anns, Multipart.class);
+        Attachment multipart = AttachmentUtils.getMultipart(c, id, mt, body.iterator());
+        if (multipart != null) {
+            return fromAttachment(multipart, c, t, anns);
+        } else if (id != null && !id.required()) {
+            return null;
+        }
+        throw new WebApplicationException(400);
+    }
+    
+    /**
+     * The parts can not be streamed if this or any other body parameter of the
+     * resource method collects all of them.
+     */
+    private boolean canStream(Class<?> c, Annotation[] anns) {
+        if (requiresAllParts(c, anns)) {
+            return false;
+        }
+        OperationResourceInfo ori = 
+            (OperationResourceInfo)mc.getContextualProperty(OperationResourceInfo.class);
+        if (ori != null && ori.getAnnotatedMethod() != null) {
+            Method method = ori.getAnnotatedMethod();
+            for (Parameter p : ori.getParameters()) {
+                if (p.getType() == ParameterType.REQUEST_BODY
+                    && requiresAllParts(method.getParameterTypes()[p.getIndex()], 
+                                        method.getParameterAnnotations()[p.getIndex()])) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
+    private static boolean requiresAllParts(Class<?> c, Annotation[] anns) {
+        return (Collection.class.isAssignableFrom(c) || Map.class.isAssignableFrom(c))
+            && AnnotationUtils.getAnnotation(anns, Multipart.class) == null;
+    }
+    
     private Class<?> getActualType(Type type, int pos) {
         Class<?> actual = null;
         try {
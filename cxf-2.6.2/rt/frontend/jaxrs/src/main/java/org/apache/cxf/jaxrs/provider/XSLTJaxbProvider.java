@@ -19,16 +19,24 @@
 package org.apache.cxf.jaxrs.provider;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.Reader;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
+import java.net.URL;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
 import javax.ws.rs.Consumes;
@@ -41,7 +49,10 @@ import javax.ws.rs.core.UriInfo;
 import javax.ws.rs.ext.Provider;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
+import javax.xml.bind.UnmarshalException;
 import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.UnmarshallerHandler;
+import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.XMLStreamWriter;
 import javax.xml.transform.Result;
@@ -49,23 +60,30 @@ import javax.xml.transform.Source;
 import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.URIResolver;
+import javax.xml.transform.sax.SAXResult;
 import javax.xml.transform.sax.SAXSource;
 import javax.xml.transform.sax.SAXTransformerFactory;
-import javax.xml.transform.sax.TransformerHandler;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
 
+import org.xml.sax.ContentHandler;
 import org.xml.sax.InputSource;
-import org.xml.sax.XMLFilter;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXNotRecognizedException;
+import org.xml.sax.helpers.XMLFilterImpl;
 
+import org.apache.cxf.Bus;
 import org.apache.cxf.common.logging.LogUtils;
+import org.apache.cxf.helpers.CastUtils;
 import org.apache.cxf.io.CachedOutputStream;
 import org.apache.cxf.jaxrs.ext.MessageContext;
 import org.apache.cxf.jaxrs.utils.ResourceUtils;
 import org.apache.cxf.staxutils.StaxSource;
 import org.apache.cxf.staxutils.StaxUtils;
+import org.apache.cxf.staxutils.StreamWriterContentHandler;
 
 @Produces({"application/xml", "application/*+xml", "text/xml", "text/html" })
 @Consumes({"application/xml", "application/*+xml", "text/xml", "text/html" })
@@ -77,6 +95,9 @@ public class XSLTJaxbProvider<T> extends JAXBElementProvider<T> {
     private static final String ABSOLUTE_PATH_PARAMETER = "absolute.path";
     private static final String BASE_PATH_PARAMETER = "base.path";
     private static final String RELATIVE_PATH_PARAMETER = "relative.path";
+    private static final int DEFAULT_TRANSFORMER_POOL_SIZE = 16;
+    
+    private static final String SHARED_TEMPLATES = XSLTJaxbProvider.class.getName() + ".templates";
     
     private SAXTransformerFactory factory;
     private Templates inTemplates;
@@ -94,11 +115,42 @@ public class XSLTJaxbProvider<T> extends JAXBElementProvider<T> {
     private String systemId;
     
     private boolean supportJaxbOnly;
+    private boolean shareTemplates;
+    private int transformerPoolSize = DEFAULT_TRANSFORMER_POOL_SIZE;
+    private long templatesRefreshInterval;
     
     public void setSupportJaxbOnly(boolean support) {
         this.supportJaxbOnly = support;
     }
     
+    /**
+     * Lets the providers of the same bus loading the same stylesheet with the same
+     * pool size and refresh interval share the compiled templates.
+     * Templates are not shared if a custom URIResolver is set.
+     */
+    public void setShareTemplates(boolean share) {
+        this.shareTemplates = share;
+    }
+    
+    /**
+     * Sets the maximum number of idle transformers kept per template,
+     * 0 disables the pooling.
+     */
+    public void setTransformerPoolSize(int size) {
+        this.transformerPoolSize = size;
+        configureTemplates();
+    }
+    
+    /**
+     * Sets the interval in milliseconds at which the stylesheets loaded from files 
+     * are checked for updates; the updated stylesheets are recompiled while the 
+     * requests in progress keep using the old ones. Disabled by default.
+     */
+    public void setTemplatesRefreshInterval(long interval) {
+        this.templatesRefreshInterval = interval;
+        configureTemplates();
+    }
+    
     @Override
     public boolean isReadable(Class<?> type, Type genericType, Annotation[] anns, MediaType mt) {
         // JAXB support is required
@@ -154,26 +206,27 @@ public class XSLTJaxbProvider<T> extends JAXBElementProvider<T> {
     @Override
     protected Object unmarshalFromInputStream(Unmarshaller unmarshaller, InputStream is, MediaType mt) 
         throws JAXBException {
-        try {
-
-            Templates t = createTemplates(getInTemplates(mt), inParamsMap, inProperties);
-            if (t == null && supportJaxbOnly) {
-                return super.unmarshalFromInputStream(unmarshaller, is, mt);
-            }
-            XMLFilter filter = factory.newXMLFilter(t);
-            SAXSource source = new SAXSource(filter, new InputSource(is));
-            if (systemId != null) {
-                source.setSystemId(systemId);
-            }
-            return unmarshaller.unmarshal(source);
-        } catch (TransformerConfigurationException ex) {
-            LOG.warning("Transformation exception : " + ex.getMessage());
-            throw new WebApplicationException(ex);
+        Templates t = createTemplates(getInTemplates(mt), inParamsMap, inProperties);
+        if (t == null && supportJaxbOnly) {
+            return super.unmarshalFromInputStream(unmarshaller, is, mt);
         }
+        StreamSource source = new StreamSource(is);
+        if (systemId != null) {
+            source.setSystemId(systemId);
+        }
+        return unmarshalFromSource(unmarshaller, t, source);
     }
     
     protected Object unmarshalFromReader(Unmarshaller unmarshaller, XMLStreamReader reader, MediaType mt) 
         throws JAXBException {
+        if (reader.getEventType() == XMLStreamConstants.START_DOCUMENT) {
+            Templates t = createTemplates(getInTemplates(mt), inParamsMap, inProperties);
+            if (t == null && supportJaxbOnly) {
+                return super.unmarshalFromReader(unmarshaller, reader, mt);
+            }
+            return unmarshalFromSource(unmarshaller, t, new StaxSource(reader));
+        }
+        // the transformer expects a complete document
         CachedOutputStream out = new CachedOutputStream();
         try {
             XMLStreamWriter writer = StaxUtils.createXMLStreamWriter(out);
@@ -187,13 +240,34 @@ public class XSLTJaxbProvider<T> extends JAXBElementProvider<T> {
         }
     }
     
+    private Object unmarshalFromSource(Unmarshaller unmarshaller, Templates t, Source source) 
+        throws JAXBException {
+        try {
+            Transformer tr = t.newTransformer();
+            UnmarshallerHandler handler = unmarshaller.getUnmarshallerHandler();
+            transform(t, tr, source, new SAXResult(handler));
+            return handler.getResult();
+        } catch (TransformerConfigurationException ex) {
+            LOG.warning("Transformation exception : " + ex.getMessage());
+            throw new WebApplicationException(ex);
+        } catch (TransformerException ex) {
+            throw new UnmarshalException(ex);
+        }
+    }
+    
     @Override
     protected void marshalToWriter(Marshaller ms, Object obj, XMLStreamWriter writer, MediaType mt) 
         throws Exception {
-        CachedOutputStream out = new CachedOutputStream();
-        marshalToOutputStream(ms, obj, out, mt);
+        Templates t = createTemplates(getOutTemplates(mt), outParamsMap, outProperties);
+        if (t == null && supportJaxbOnly) {
+            super.marshalToWriter(ms, obj, writer, mt);
+            return;
+        }
         
-        StaxUtils.copy(new StreamSource(out.getInputStream()), writer);
+        StreamWriterContentHandler handler = new StreamWriterContentHandler(writer);
+        SAXResult result = new SAXResult(handler);
+        result.setLexicalHandler(handler);
+        transform(t, t.newTransformer(), new MarshallerSource(ms, obj), result);
     }
     
     @Override
@@ -211,19 +285,19 @@ public class XSLTJaxbProvider<T> extends JAXBElementProvider<T> {
             return;
         }
         
-        TransformerHandler th = factory.newTransformerHandler(t);
         Result result = new StreamResult(os);
         if (systemId != null) {
             result.setSystemId(systemId);
         }
-        th.setResult(result);
-        
-        if (getContext() == null) {
-            th.startDocument();
-        }
-        ms.marshal(obj, th);
-        if (getContext() == null) {
-            th.endDocument();
+        transform(t, t.newTransformer(), new MarshallerSource(ms, obj), result);
+    }
+    
+    private void transform(Templates t, Transformer tr, Source source, Result result) 
+        throws TransformerException {
+        tr.transform(source, result);
+        if (t instanceof TemplatesImpl) {
+            // only the transformers which completed successfully are reused
+            ((TemplatesImpl)t).release(tr);
         }
     }
     
@@ -347,21 +421,41 @@ public class XSLTJaxbProvider<T> extends JAXBElementProvider<T> {
     
     protected Templates createTemplates(String loc) {
         try {
-            InputStream is = ResourceUtils.getResourceStream(loc, this.getBus());
-            if (is == null) {
+            URL url = ResourceUtils.getResourceURL(loc, this.getBus());
+            if (url == null) {
                 return null;
             }
-            
-            Reader r = new BufferedReader(
-                           new InputStreamReader(is, "UTF-8"));
-            Source source = new StreamSource(r);
+            return createTemplates(url);
+        } catch (Exception ex) {
+            LOG.warning("No template can be created : " + ex.getMessage());
+        }
+        return null;
+    }
+    
+    private Templates createTemplates(URL url) {
+        try {
             if (factory == null) {
                 factory = (SAXTransformerFactory)TransformerFactory.newInstance();
                 if (uriResolver != null) {
                     factory.setURIResolver(uriResolver);
                 }
             }
-            return factory.newTemplates(source);
+            
+            ConcurrentMap<String, CompiledTemplates> shared = 
+                shareTemplates && uriResolver == null ? getSharedTemplates() : null;
+            String key = url.toExternalForm() + " " + transformerPoolSize + " " + templatesRefreshInterval;
+            CompiledTemplates compiled = shared != null ? shared.get(key) : null;
+            if (compiled == null) {
+                compiled = new CompiledTemplates(factory, url, shared != null);
+                compiled.configure(transformerPoolSize, templatesRefreshInterval);
+                if (shared != null) {
+                    CompiledTemplates existing = shared.putIfAbsent(key, compiled);
+                    if (existing != null) {
+                        compiled = existing;
+                    }
+                }
+            }
+            return compiled;
             
         } catch (Exception ex) {
             LOG.warning("No template can be created : " + ex.getMessage());
@@ -369,9 +463,247 @@ public class XSLTJaxbProvider<T> extends JAXBElementProvider<T> {
         return null;
     }
     
+    /**
+     * The shared templates are kept on the bus so that they go away with it, 
+     * for example when the application is redeployed.
+     */
+    private ConcurrentMap<String, CompiledTemplates> getSharedTemplates() {
+        Bus bus = getBus();
+        synchronized (bus) {
+            ConcurrentMap<String, CompiledTemplates> shared = 
+                CastUtils.cast((Map<?, ?>)bus.getProperty(SHARED_TEMPLATES));
+            if (shared == null) {
+                shared = new ConcurrentHashMap<String, CompiledTemplates>();
+                bus.setProperty(SHARED_TEMPLATES, shared);
+            }
+            return shared;
+        }
+    }
+    
+    private void configureTemplates() {
+        inTemplates = configureTemplates(inTemplates);
+        outTemplates = configureTemplates(outTemplates);
+        if (inMediaTemplates != null) {
+            for (Map.Entry<String, Templates> entry : inMediaTemplates.entrySet()) {
+                entry.setValue(configureTemplates(entry.getValue()));
+            }
+        }
+        if (outMediaTemplates != null) {
+            for (Map.Entry<String, Templates> entry : outMediaTemplates.entrySet()) {
+                entry.setValue(configureTemplates(entry.getValue()));
+            }
+        }
+    }
+    
+    private Templates configureTemplates(Templates t) {
+        if (t instanceof CompiledTemplates) {
+            CompiledTemplates compiled = (CompiledTemplates)t;
+            if (compiled.isShared()) {
+                // the other providers keep their settings, look up the templates for the new ones
+                Templates newTemplates = createTemplates(compiled.getURL());
+                return newTemplates != null ? newTemplates : t;
+            }
+            compiled.configure(transformerPoolSize, templatesRefreshInterval);
+        }
+        return t;
+    }
+    
+    /**
+     * Compiled stylesheet which keeps a pool of transformers and 
+     * optionally recompiles the stylesheet when its file is updated
+     */
+    private static class CompiledTemplates implements Templates {
+        
+        private final SAXTransformerFactory factory;
+        private final URL url;
+        private final File file;
+        private final boolean shared;
+        private volatile TemplatesSnapshot current;
+        private volatile int poolSize;
+        private volatile long refreshInterval;
+        private volatile long lastChecked;
+        private final AtomicBoolean reloading = new AtomicBoolean();
+        
+        public CompiledTemplates(SAXTransformerFactory factory, URL url, boolean shared) throws Exception {
+            this.factory = factory;
+            this.url = url;
+            this.shared = shared;
+            this.file = "file".equals(url.getProtocol()) ? new File(url.toURI()) : null;
+            long modified = file != null ? file.lastModified() : 0;
+            this.current = new TemplatesSnapshot(compile(), modified, this);
+            this.lastChecked = System.currentTimeMillis();
+        }
+        
+        public void configure(int size, long interval) {
+            this.poolSize = size;
+            this.refreshInterval = interval;
+        }
+        
+        public int getPoolSize() {
+            return poolSize;
+        }
+        
+        public URL getURL() {
+            return url;
+        }
+        
+        public boolean isShared() {
+            return shared;
+        }
+        
+        public Properties getOutputProperties() {
+            return getSnapshot().templates.getOutputProperties();
+        }
+
+        public Transformer newTransformer() throws TransformerConfigurationException {
+            return getSnapshot().templates.newTransformer();
+        }
+        
+        public TemplatesSnapshot getSnapshot() {
+            TemplatesSnapshot snapshot = current;
+            long interval = refreshInterval;
+            if (file == null || interval <= 0) {
+                return snapshot;
+            }
+            long now = System.currentTimeMillis();
+            // only one thread checks the file, others keep using the current templates
+            if (now - lastChecked >= interval && reloading.compareAndSet(false, true)) {
+                try {
+                    lastChecked = now;
+                    long modified = file.lastModified();
+                    if (modified != snapshot.lastModified) {
+                        snapshot = new TemplatesSnapshot(compile(), modified, this);
+                        current = snapshot;
+                    }
+                } catch (Exception ex) {
+                    LOG.warning("Template " + url + " can not be reloaded : " + ex.getMessage());
+                } finally {
+                    reloading.set(false);
+                }
+            }
+            return snapshot;
+        }
+        
+        private Templates compile() throws Exception {
+            Reader r = new BufferedReader(new InputStreamReader(url.openStream(), "UTF-8"));
+            try {
+                Source source = new StreamSource(r);
+                // TransformerFactory is not thread-safe
+                synchronized (factory) {
+                    return factory.newTemplates(source);
+                }
+            } finally {
+                r.close();
+            }
+        }
+    }
+    
+    private static class TemplatesSnapshot {
+        private final Templates templates;
+        private final long lastModified;
+        private final CompiledTemplates owner;
+        private final Queue<Transformer> transformers = new ConcurrentLinkedQueue<Transformer>();
+        private final AtomicInteger idle = new AtomicInteger();
+        
+        public TemplatesSnapshot(Templates templates, long lastModified, CompiledTemplates owner) {
+            this.templates = templates;
+            this.lastModified = lastModified;
+            this.owner = owner;
+        }
+        
+        public Transformer acquire() throws TransformerConfigurationException {
+            Transformer tr = transformers.poll();
+            if (tr != null) {
+                idle.decrementAndGet();
+                return tr;
+            }
+            return templates.newTransformer();
+        }
+        
+        public void release(Transformer tr) {
+            if (idle.get() >= owner.getPoolSize()) {
+                return;
+            }
+            try {
+                tr.reset();
+            } catch (UnsupportedOperationException ex) {
+                return;
+            }
+            idle.incrementAndGet();
+            transformers.offer(tr);
+        }
+    }
+    
+    /**
+     * Source which marshals the JAXB object straight to the transformer 
+     */
+    private static class MarshallerSource extends SAXSource {
+        public MarshallerSource(Marshaller ms, Object obj) {
+            super(new MarshallerReader(ms, obj), new InputSource());
+        }
+    }
+    
+    /**
+     * Reports the document events once whether the marshaller reports them or not 
+     */
+    private static class MarshallerReader extends XMLFilterImpl {
+        private Marshaller ms;
+        private Object obj;
+        
+        public MarshallerReader(Marshaller ms, Object obj) {
+            this.ms = ms;
+            this.obj = obj;
+        }
+        
+        @Override
+        public boolean getFeature(String name) throws SAXNotRecognizedException {
+            if ("http://xml.org/sax/features/namespaces".equals(name)) {
+                return true;
+            } else if ("http://xml.org/sax/features/namespace-prefixes".equals(name)) {
+                return false;
+            }
+            throw new SAXNotRecognizedException(name);
+        }
+        
+        @Override
+        public void setFeature(String name, boolean value) throws SAXNotRecognizedException {
+            if (getFeature(name) != value) {
+                throw new SAXNotRecognizedException(name);
+            }
+        }
+        
+        @Override
+        public void parse(String id) throws SAXException {
+            parse((InputSource)null);
+        }
+        
+        @Override
+        public void parse(InputSource input) throws SAXException {
+            ContentHandler handler = getContentHandler();
+            handler.startDocument();
+            try {
+                ms.marshal(obj, this);
+            } catch (JAXBException ex) {
+                throw new SAXException(ex);
+            }
+            handler.endDocument();
+        }
+        
+        @Override
+        public void startDocument() {
+            // reported by parse
+        }
+        
+        @Override
+        public void endDocument() {
+            // reported by parse
+        }
+    }
+    
     private static class TemplatesImpl implements Templates {
 
         private Templates templates;
+        private TemplatesSnapshot snapshot;
         private URIResolver resolver;
         private Map<String, Object> transformParameters = new HashMap<String, Object>();
         private Map<String, String> outProps = new HashMap<String, String>();
@@ -394,7 +726,13 @@ public class XSLTJaxbProvider<T> extends JAXBElementProvider<T> {
         }
 
         public Transformer newTransformer() throws TransformerConfigurationException {
-            Transformer tr = templates.newTransformer();
+            Transformer tr;
+            if (templates instanceof CompiledTemplates) {
+                snapshot = ((CompiledTemplates)templates).getSnapshot();
+                tr = snapshot.acquire();
+            } else {
+                tr = templates.newTransformer();
+            }
             tr.setURIResolver(resolver);
             for (Map.Entry<String, Object> entry : transformParameters.entrySet()) {
                 tr.setParameter(entry.getKey(), entry.getValue());
@@ -405,5 +743,11 @@ public class XSLTJaxbProvider<T> extends JAXBElementProvider<T> {
             return tr;
         }
         
+        public void release(Transformer tr) {
+            if (snapshot != null) {
+                snapshot.release(tr);
+            }
+        }
+        
     }
 }
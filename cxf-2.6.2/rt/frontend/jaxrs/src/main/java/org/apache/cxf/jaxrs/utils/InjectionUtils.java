@@ -21,7 +21,6 @@ package org.apache.cxf.jaxrs.utils;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Array;
-import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -304,7 +303,7 @@ public final class InjectionUtils {
         if (pClass.isPrimitive()) {
             try {
                 @SuppressWarnings("unchecked")
-                T ret = (T)PrimitiveUtils.read(value, pClass);
+                T ret = (T)ParameterConverter.getInstance(pClass).readDirect(value);
                 // cannot us pClass.cast as the pClass is something like
                 // Boolean.TYPE (representing the boolean primitive) and
                 // the object is a Boolean object
@@ -334,12 +333,14 @@ public final class InjectionUtils {
         if (result != null) {
             return pClass.cast(result);
         }
+        ParameterConverter converter = ParameterConverter.getInstance(cls);
         // check constructors accepting a single String value
         try {
-            Constructor<?> c = cls.getConstructor(new Class<?>[]{String.class});
-            result = c.newInstance(new Object[]{value});
-        } catch (NoSuchMethodException ex) {
-            // try valueOf
+            if (converter.isDirect()) {
+                result = converter.readDirect(value);
+            } else if (converter.getConstructor() != null) {
+                result = converter.getConstructor().newInstance(new Object[]{value});
+            }
         } catch (WebApplicationException ex) {
             throw ex;
         } catch (Exception ex) {
@@ -353,11 +354,8 @@ public final class InjectionUtils {
         }
         if (result == null) {
             // check for valueOf(String) static methods
-            String[] methodNames = cls.isEnum() 
-                ? new String[] {"fromString", "fromValue", "valueOf"} 
-                : new String[] {"valueOf", "fromString"};
-            for (String mName : methodNames) {   
-                result = evaluateFactoryMethod(value, cls, pType, mName);
+            for (Method m : converter.getFactoryMethods()) {   
+                result = evaluateFactoryMethod(value, cls, pType, m);
                 if (result != null) {
                     break;
                 }
@@ -425,14 +423,9 @@ public final class InjectionUtils {
     private static <T> T evaluateFactoryMethod(String value,
                                                 Class<T> pClass, 
                                                 ParameterType pType, 
-                                                String methodName) {
+                                                Method m) {
         try {
-            Method m = pClass.getMethod(methodName, new Class<?>[]{String.class});
-            if (Modifier.isStatic(m.getModifiers())) {
-                return pClass.cast(m.invoke(null, new Object[]{value}));
-            }
-        } catch (NoSuchMethodException ex) {
-            // no luck
+            return pClass.cast(m.invoke(null, new Object[]{value}));
         } catch (Exception ex) {
             Throwable t = ex instanceof InvocationTargetException 
                 ? ((InvocationTargetException)ex).getTargetException() : ex; 
@@ -441,7 +434,6 @@ public final class InjectionUtils {
                                                                pClass.getName()).toString());
             throw new WebApplicationException(t, HttpUtils.getParameterFailureStatus(pType));
         }
-        return null;
     }
     
     public static Object handleBean(Class<?> paramType, Annotation[] paramAnns, 
@@ -740,8 +732,18 @@ public final class InjectionUtils {
         Class<?> realType = rawType.isArray() ? rawType.getComponentType() 
                 : InjectionUtils.getActualType(genericType);
         
+        List<String> valuesList = null;
+        if (!isbean) {
+            valuesList = checkPathSegment(values.values().iterator().next(), realType, pathParam);
+        }
+        int size = isbean ? 1 : valuesList.size();
+        
         Object theValues = null;
-        if (type != null) {
+        if (type == ArrayList.class) {
+            theValues = new ArrayList<Object>(size);
+        } else if (type == HashSet.class) {
+            theValues = new HashSet<Object>(Math.max(size * 4 / 3 + 1, 16));
+        } else if (type != null) {
             try {
                 theValues = type.newInstance();
             } catch (IllegalAccessException ex) {
@@ -750,14 +752,12 @@ public final class InjectionUtils {
                 reportServerError("CLASS_INSTANTIATION_FAILURE", type.getName());
             }
         } else {
-            theValues = Array.newInstance(realType, isbean ? 1 : values.values().iterator().next().size());
+            theValues = Array.newInstance(realType, size);
         }
         if (isbean) {
             Object o = InjectionUtils.handleBean(realType, paramAnns, values, pathParam, message, decoded);
             addToCollectionValues(theValues, o, 0);
         } else {
-            List<String> valuesList = values.values().iterator().next();
-            valuesList = checkPathSegment(valuesList, realType, pathParam);
             for (int ind = 0; ind < valuesList.size(); ind++) {
                 Object o = InjectionUtils.handleParameter(valuesList.get(ind), decoded, 
                                                           realType, paramAnns, pathParam, message);
@@ -0,0 +1,189 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.jaxrs.utils;
+
+import java.lang.ref.SoftReference;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Holds the result of probing a parameter class for the ways a String value
+ * can be converted to it, so that the reflective lookups done by 
+ * {@link InjectionUtils#handleParameter} happen once per class only.
+ */
+final class ParameterConverter {
+    
+    private static final int KIND_NONE = 0;
+    private static final int KIND_INT = 1;
+    private static final int KIND_LONG = 2;
+    private static final int KIND_SHORT = 3;
+    private static final int KIND_BYTE = 4;
+    private static final int KIND_DOUBLE = 5;
+    private static final int KIND_FLOAT = 6;
+    private static final int KIND_BOOLEAN = 7;
+    private static final int KIND_CHAR = 8;
+    private static final int KIND_STRING = 9;
+    
+    private static final Map<Class<?>, Integer> KINDS = new HashMap<Class<?>, Integer>();
+    private static final Map<Class<?>, SoftReference<ParameterConverter>> CONVERTERS = 
+        Collections.synchronizedMap(new WeakHashMap<Class<?>, SoftReference<ParameterConverter>>());
+    private static final Method[] NO_METHODS = new Method[0];
+    
+    static {
+        KINDS.put(int.class, KIND_INT);
+        KINDS.put(Integer.class, KIND_INT);
+        KINDS.put(long.class, KIND_LONG);
+        KINDS.put(Long.class, KIND_LONG);
+        KINDS.put(short.class, KIND_SHORT);
+        KINDS.put(Short.class, KIND_SHORT);
+        KINDS.put(byte.class, KIND_BYTE);
+        KINDS.put(Byte.class, KIND_BYTE);
+        KINDS.put(double.class, KIND_DOUBLE);
+        KINDS.put(Double.class, KIND_DOUBLE);
+        KINDS.put(float.class, KIND_FLOAT);
+        KINDS.put(Float.class, KIND_FLOAT);
+        KINDS.put(boolean.class, KIND_BOOLEAN);
+        KINDS.put(Boolean.class, KIND_BOOLEAN);
+        // Character has no String constructor, only the primitive char is read directly
+        KINDS.put(char.class, KIND_CHAR);
+        KINDS.put(String.class, KIND_STRING);
+    }
+    
+    private final Class<?> cls;
+    private final int kind;
+    private final Constructor<?> constructor;
+    private final Method[] factoryMethods;
+    
+    private ParameterConverter(Class<?> cls) {
+        this.cls = cls;
+        Integer k = KINDS.get(cls);
+        this.kind = k == null ? KIND_NONE : k;
+        if (kind != KIND_NONE || cls.isPrimitive()) {
+            this.constructor = null;
+            this.factoryMethods = NO_METHODS;
+        } else {
+            this.constructor = findStringConstructor(cls);
+            this.factoryMethods = constructor == null ? findFactoryMethods(cls) : NO_METHODS;
+        }
+    }
+    
+    static ParameterConverter getInstance(Class<?> cls) {
+        SoftReference<ParameterConverter> ref = CONVERTERS.get(cls);
+        ParameterConverter converter = ref == null ? null : ref.get();
+        if (converter == null) {
+            converter = new ParameterConverter(cls);
+            CONVERTERS.put(cls, new SoftReference<ParameterConverter>(converter));
+        }
+        return converter;
+    }
+    
+    Class<?> getParameterClass() {
+        return cls;
+    }
+    
+    /**
+     * Returns true if the value can be converted without reflection, 
+     * this is the case for primitives, their wrappers and String
+     */
+    boolean isDirect() {
+        return kind != KIND_NONE;
+    }
+    
+    /**
+     * Converts the value to a primitive, wrapper or String instance.
+     * @throws NumberFormatException if the value can not be parsed 
+     */
+    Object readDirect(String value) {
+        switch (kind) {
+        case KIND_INT:
+            return Integer.valueOf(value);
+        case KIND_LONG:
+            return Long.valueOf(value);
+        case KIND_SHORT:
+            return Short.valueOf(value);
+        case KIND_BYTE:
+            return Byte.valueOf(value);
+        case KIND_DOUBLE:
+            return Double.valueOf(value);
+        case KIND_FLOAT:
+            return Float.valueOf(value);
+        case KIND_BOOLEAN:
+            return Boolean.valueOf(value);
+        case KIND_CHAR:
+            return value.charAt(0);
+        case KIND_STRING:
+            return value;
+        default:
+            throw new IllegalStateException(cls.getName());
+        }
+    }
+    
+    /**
+     * Returns the public constructor accepting a single String, or null
+     */
+    Constructor<?> getConstructor() {
+        return constructor;
+    }
+    
+    /**
+     * Returns the static factory methods accepting a single String
+     * in the order they have to be tried
+     */
+    Method[] getFactoryMethods() {
+        return factoryMethods;
+    }
+    
+    private static Constructor<?> findStringConstructor(Class<?> cls) {
+        try {
+            return cls.getConstructor(new Class<?>[]{String.class});
+        } catch (NoSuchMethodException ex) {
+            return null;
+        } catch (SecurityException ex) {
+            return null;
+        }
+    }
+    
+    private static Method[] findFactoryMethods(Class<?> cls) {
+        String[] methodNames = cls.isEnum() 
+            ? new String[] {"fromString", "fromValue", "valueOf"} 
+            : new String[] {"valueOf", "fromString"};
+        List<Method> methods = new ArrayList<Method>(methodNames.length);
+        for (String mName : methodNames) {
+            try {
+                Method m = cls.getMethod(mName, new Class<?>[]{String.class});
+                if (Modifier.isStatic(m.getModifiers())) {
+                    methods.add(m);
+                }
+            } catch (NoSuchMethodException ex) {
+                // no luck
+            } catch (SecurityException ex) {
+                // no luck
+            }
+        }
+        return methods.isEmpty() ? NO_METHODS : methods.toArray(new Method[methods.size()]);
+    }
+}
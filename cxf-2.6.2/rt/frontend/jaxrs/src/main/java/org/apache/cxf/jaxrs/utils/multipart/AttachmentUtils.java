@@ -20,6 +20,7 @@
 package org.apache.cxf.jaxrs.utils.multipart;
 
 import java.io.IOException;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -101,9 +102,22 @@ public final class AttachmentUtils {
                                           Multipart id, 
                                           MediaType mt, 
                                           List<Attachment> infos) throws IOException {
+        return getMultipart(c, id, mt, infos.iterator());
+    }
+    
+    /**
+     * Finds the part matching the Multipart annotation, the parts are only read 
+     * until the matching one is found which makes this method suitable for
+     * the streaming MultipartBody iterators.
+     */
+    public static Attachment getMultipart(Class<Object> c, 
+                                          Multipart id, 
+                                          MediaType mt, 
+                                          Iterator<Attachment> infos) throws IOException {
         
         if (id != null) {
-            for (Attachment a : infos) {
+            while (infos.hasNext()) {
+                Attachment a = infos.next();
                 if (matchAttachmentId(a, id, mt)) {
                     checkMediaTypes(a.getContentType(), id.type());
                     return a;    
@@ -123,7 +137,7 @@ public final class AttachmentUtils {
             }
         }
         
-        return infos.size() > 0 ? infos.get(0) : null; 
+        return infos.hasNext() ? infos.next() : null; 
     }
     
     private static boolean matchAttachmentId(Attachment at, Multipart mid, MediaType multipartType) {
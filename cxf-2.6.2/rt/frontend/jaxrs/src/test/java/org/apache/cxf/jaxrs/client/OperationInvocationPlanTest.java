@@ -0,0 +1,100 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.jaxrs.client;
+
+import java.util.Collections;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.FormParam;
+import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+
+import org.apache.cxf.jaxrs.model.ClassResourceInfo;
+import org.apache.cxf.jaxrs.model.OperationResourceInfo;
+import org.apache.cxf.jaxrs.utils.ResourceUtils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OperationInvocationPlanTest extends Assert {
+
+    @Test
+    public void testBodyHeadersAndQueries() throws Exception {
+        OperationInvocationPlan plan = createPlan("addBook", String.class, String.class, String.class,
+                                                  String.class);
+        assertEquals(3, plan.bodyIndex);
+        assertTrue(plan.hasRequestBody);
+        assertSame(String.class, plan.bodyClass);
+        assertEquals(1, plan.queryParams.size());
+        assertEquals("q", plan.queryParams.get(0).getName());
+        assertEquals(1, plan.headerParams.size());
+        assertEquals(1, plan.templatePathParams.size());
+        assertEquals("application/json", plan.defaultContentType);
+        assertEquals(Collections.singletonList("application/json"), plan.defaultAccepts);
+    }
+    
+    @Test
+    public void testPathParamsInTemplateOrder() throws Exception {
+        OperationInvocationPlan plan = createPlan("getBook", String.class, String.class, String.class);
+        assertEquals(-1, plan.bodyIndex);
+        assertEquals(2, plan.templatePathParams.size());
+        assertEquals("a", plan.templatePathParams.get(0).getName());
+        assertEquals(1, plan.templatePathParams.get(0).getIndex());
+        assertEquals("b", plan.templatePathParams.get(1).getName());
+        assertEquals(1, plan.otherPathParams.size());
+        assertEquals("id", plan.otherPathParams.get(0).getName());
+        assertEquals(Collections.singletonList("text/plain"), plan.defaultAccepts);
+    }
+    
+    @Test(expected = ClientWebApplicationException.class)
+    public void testFormAndBody() throws Exception {
+        createPlan("formAndBody", String.class, String.class);
+    }
+    
+    private OperationInvocationPlan createPlan(String name, Class<?>... types) throws Exception {
+        ClassResourceInfo cri = ResourceUtils.createClassResourceInfo(TestResource.class, 
+                                                                      TestResource.class, true, true);
+        OperationResourceInfo ori = 
+            cri.getMethodDispatcher().getOperationResourceInfo(TestResource.class.getMethod(name, types));
+        return new OperationInvocationPlan(ori, ori.getMethodToInvoke().getReturnType());
+    }
+
+    @Path("/store/{id}")
+    public interface TestResource {
+        @POST
+        @Path("/books/{bookId}")
+        @Consumes("application/json")
+        @Produces("application/json")
+        String addBook(@PathParam("bookId") String bookId, @QueryParam("q") String q, 
+                       @HeaderParam("h") String h, String body);
+        
+        @GET
+        @Path("/{a}/{b}")
+        String getBook(@PathParam("b") String b, @PathParam("a") String a, @PathParam("id") String id);
+        
+        @POST
+        void formAndBody(@FormParam("f") String f, String body);
+    }
+}
@@ -20,10 +20,13 @@
 package org.apache.cxf.jaxrs.ext.multipart;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
 import javax.activation.DataHandler;
 import javax.mail.util.ByteArrayDataSource;
+import javax.ws.rs.core.MediaType;
 
 import org.apache.cxf.jaxrs.impl.MetadataMap;
 
@@ -54,6 +57,53 @@ public class MultipartBodyTest extends Assert {
         assertNull(b.getAttachment("p3"));
     }
     
+    @Test
+    public void testStreamingBody() {
+        final List<Attachment> pending = new ArrayList<Attachment>();
+        pending.add(createAttachment("p2"));
+        pending.add(createAttachment("p3"));
+        final Iterator<Attachment> it = pending.iterator();
+        final int[] requested = new int[1];
+        Iterator<Attachment> counting = new Iterator<Attachment>() {
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+            public Attachment next() {
+                requested[0]++;
+                return it.next();
+            }
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+        
+        MultipartBody b = new MultipartBody(Collections.singletonList(createAttachment("p1")),
+                                            counting, MediaType.valueOf("multipart/mixed"));
+        assertTrue(b.isStreaming());
+        assertEquals("p1", b.getRootAttachment().getContentId());
+        assertEquals(0, requested[0]);
+        assertEquals("p2", b.getAttachment("p2").getContentId());
+        assertEquals(1, requested[0]);
+        
+        Iterator<Attachment> parts = b.iterator();
+        assertEquals("p1", parts.next().getContentId());
+        assertEquals("p2", parts.next().getContentId());
+        assertEquals(1, requested[0]);
+        assertEquals("p3", parts.next().getContentId());
+        assertEquals(2, requested[0]);
+        assertFalse(parts.hasNext());
+        assertEquals(3, b.getAllAttachments().size());
+    }
+    
+    @Test
+    public void testNonStreamingBody() {
+        MultipartBody b = new MultipartBody(Collections.singletonList(createAttachment("p1")));
+        assertFalse(b.isStreaming());
+        Iterator<Attachment> parts = b.iterator();
+        assertEquals("p1", parts.next().getContentId());
+        assertFalse(parts.hasNext());
+    }
+    
     private Attachment createAttachment(String id) {
         return new Attachment(id, 
                        new DataHandler(new ByteArrayDataSource(new byte[]{1}, "application/octet-stream")),
@@ -164,6 +164,22 @@ public class MetadataMapTest extends Assert {
         assertEquals("GetFirst value is wrong", "bar", m.getFirst("baz"));
     }
     
+    @Test
+    public void testAddAndGetFirstCaseInsensitive() {
+        MetadataMap<String, Object> m = new MetadataMap<String, Object>(false, true);
+        m.add("Baz", "bar");
+        assertEquals("bar", m.getFirst("baz"));
+        
+        m.add("BAZ", "foo");
+        assertEquals(1, m.size());
+        assertEquals("Baz", m.keySet().iterator().next());
+        List<Object> value = m.get("baz");
+        assertEquals("Two values should be in the list", 2, value.size());
+        assertEquals("Value1 is wrong", "bar", value.get(0));
+        assertEquals("Value2 is wrong", "foo", value.get(1));
+        assertEquals("GetFirst value is wrong", "bar", m.getFirst("bAz"));
+    }
+    
     @Test
     public void testCopyAndUpdate() {
         MetadataMap<String, Object> m = new MetadataMap<String, Object>();
@@ -22,8 +22,10 @@ import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.ws.rs.Consumes;
@@ -223,6 +225,61 @@ public class WadlGeneratorTest extends Assert {
                            "ns1:books");
     }
     
+    @Test
+    public void testCachedWadlAndConditionalGet() throws Exception {
+        WadlGenerator wg = new WadlGenerator();
+        ClassResourceInfo cri = 
+            ResourceUtils.createClassResourceInfo(BookStore.class, BookStore.class, true, true);
+        Message m = mockMessage("http://localhost:8080/baz", "/bar", WadlGenerator.WADL_QUERY, null);
+        
+        Response r = wg.handleRequest(m, cri);
+        checkResponse(r);
+        Object etag = r.getMetadata().getFirst(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        
+        Response r2 = wg.handleRequest(m, cri);
+        assertSame(r.getEntity(), r2.getEntity());
+        assertEquals(etag, r2.getMetadata().getFirst(HttpHeaders.ETAG));
+        
+        Map<String, List<String>> headers = new HashMap<String, List<String>>();
+        headers.put(HttpHeaders.IF_NONE_MATCH, Collections.singletonList(etag.toString()));
+        m.put(Message.PROTOCOL_HEADERS, headers);
+        Response r3 = wg.handleRequest(m, cri);
+        assertEquals(304, r3.getStatus());
+        assertNull(r3.getEntity());
+        
+        WadlGenerator wg2 = new WadlGenerator();
+        wg2.setCacheWadl(false);
+        m.remove(Message.PROTOCOL_HEADERS);
+        Response r4 = wg2.handleRequest(m, cri);
+        assertEquals(r.getEntity(), r4.getEntity());
+        assertNotSame(r.getEntity(), r4.getEntity());
+    }
+    
+    @Test
+    public void testWadlCacheEvictsLeastRecentlyUsed() throws Exception {
+        WadlGenerator wg = new WadlGenerator();
+        ClassResourceInfo cri = 
+            ResourceUtils.createClassResourceInfo(BookStore.class, BookStore.class, true, true);
+        Message m = mockMessage("http://host0:8080/baz", "/bar", WadlGenerator.WADL_QUERY, null);
+        EndpointInfo ei = m.getExchange().get(Endpoint.class).getEndpointInfo();
+        
+        Object first = wg.handleRequest(m, cri).getEntity();
+        Object last = null;
+        for (int i = 1; i < 40; i++) {
+            ei.setAddress("http://host" + i + ":8080/baz");
+            last = wg.handleRequest(m, cri).getEntity();
+        }
+        // the documents for the most recent base URIs are still cached 
+        assertSame(last, wg.handleRequest(m, cri).getEntity());
+        
+        ei.setAddress("http://host0:8080/baz");
+        Object regenerated = wg.handleRequest(m, cri).getEntity();
+        assertNotSame(first, regenerated);
+        assertEquals(first, regenerated);
+        assertSame(regenerated, wg.handleRequest(m, cri).getEntity());
+    }
+    
     @Test
     public void testTwoSchemasSameNs() throws Exception {
         WadlGenerator wg = new WadlGenerator();
@@ -20,6 +20,8 @@ package org.apache.cxf.jaxrs.provider;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.StringReader;
@@ -130,6 +132,74 @@ public class XSLTJaxbProviderTest extends Assert {
         assertEquals("Transformation is bad", b, b2);
     }
     
+    @Test
+    public void testWriteWithPooledTransformer() throws Exception {
+        XSLTJaxbProvider<Book> provider = new XSLTJaxbProvider<Book>();
+        provider.setTransformerPoolSize(1);
+        provider.setOutTemplate(TEMPLATE_LOCATION);
+        provider.setMessageContext(new MessageContextImpl(createMessage()));
+        Book b = new Book();
+        b.setId(123L);
+        b.setName("TheBook");
+        for (int i = 0; i < 3; i++) {
+            assertEquals("TheBook2", writeBook(provider, b).getName());
+        }
+    }
+    
+    @Test
+    public void testShareTemplates() throws Exception {
+        XSLTJaxbProvider<Book> provider = new XSLTJaxbProvider<Book>();
+        provider.setShareTemplates(true);
+        provider.setOutTemplate(TEMPLATE_LOCATION);
+        XSLTJaxbProvider<Book> provider2 = new XSLTJaxbProvider<Book>();
+        provider2.setShareTemplates(true);
+        provider2.setOutTemplate(TEMPLATE_LOCATION);
+        assertSame(provider.getOutTemplates(MediaType.TEXT_XML_TYPE),
+                   provider2.getOutTemplates(MediaType.TEXT_XML_TYPE));
+        
+        XSLTJaxbProvider<Book> provider3 = new XSLTJaxbProvider<Book>();
+        provider3.setOutTemplate(TEMPLATE_LOCATION);
+        assertNotSame(provider.getOutTemplates(MediaType.TEXT_XML_TYPE),
+                      provider3.getOutTemplates(MediaType.TEXT_XML_TYPE));
+        
+        // the templates are only shared between the providers with the same settings
+        XSLTJaxbProvider<Book> provider4 = new XSLTJaxbProvider<Book>();
+        provider4.setShareTemplates(true);
+        provider4.setTransformerPoolSize(2);
+        provider4.setOutTemplate(TEMPLATE_LOCATION);
+        assertNotSame(provider.getOutTemplates(MediaType.TEXT_XML_TYPE),
+                      provider4.getOutTemplates(MediaType.TEXT_XML_TYPE));
+        
+        provider2.setTransformerPoolSize(2);
+        assertSame(provider4.getOutTemplates(MediaType.TEXT_XML_TYPE),
+                   provider2.getOutTemplates(MediaType.TEXT_XML_TYPE));
+        assertNotSame(provider.getOutTemplates(MediaType.TEXT_XML_TYPE),
+                      provider2.getOutTemplates(MediaType.TEXT_XML_TYPE));
+    }
+    
+    @Test
+    public void testReloadTemplate() throws Exception {
+        File file = File.createTempFile("template", ".xsl");
+        try {
+            writeTemplate(file, "TheBook2");
+            XSLTJaxbProvider<Book> provider = new XSLTJaxbProvider<Book>();
+            provider.setTemplatesRefreshInterval(1);
+            provider.setOutTemplate(file.toURI().toString());
+            provider.setMessageContext(new MessageContextImpl(createMessage()));
+            Book b = new Book();
+            b.setId(123L);
+            b.setName("TheBook");
+            assertEquals("TheBook2", writeBook(provider, b).getName());
+            
+            writeTemplate(file, "TheBook3");
+            file.setLastModified(file.lastModified() + 2000);
+            Thread.sleep(10);
+            assertEquals("TheBook3", writeBook(provider, b).getName());
+        } finally {
+            file.delete();
+        }
+    }
+    
     @Test
     public void testWriteWithoutTemplate() throws Exception {
         XSLTJaxbProvider<Book> provider = new XSLTJaxbProvider<Book>();
@@ -233,6 +303,29 @@ public class XSLTJaxbProviderTest extends Assert {
         assertEquals("Transformation is bad", b, b2);
     }
     
+    private Book writeBook(XSLTJaxbProvider<Book> provider, Book b) throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        provider.writeTo(b, Book.class, Book.class, b.getClass().getAnnotations(),
+                         MediaType.TEXT_XML_TYPE, new MetadataMap<String, Object>(), bos);
+        Unmarshaller um = provider.getClassContext(Book.class).createUnmarshaller();
+        return (Book)um.unmarshal(new StringReader(bos.toString()));
+    }
+    
+    private void writeTemplate(File file, String name) throws Exception {
+        String template = "<xsl:stylesheet xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\""
+            + " version=\"1.0\">"
+            + "<xsl:template match=\"@*|node()\"><xsl:copy><xsl:apply-templates select=\"@*|node()\"/>"
+            + "</xsl:copy></xsl:template>"
+            + "<xsl:template match=\"name\"><xsl:copy>" + name + "</xsl:copy></xsl:template>"
+            + "</xsl:stylesheet>";
+        FileOutputStream fos = new FileOutputStream(file);
+        try {
+            fos.write(template.getBytes("UTF-8"));
+        } finally {
+            fos.close();
+        }
+    }
+    
     private Message createMessage() {
         ProviderFactory factory = ProviderFactory.getInstance();
         Message m = new MessageImpl();
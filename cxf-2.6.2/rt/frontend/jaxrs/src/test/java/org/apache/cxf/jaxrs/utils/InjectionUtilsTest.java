@@ -19,7 +19,9 @@
 package org.apache.cxf.jaxrs.utils;
 
 import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
@@ -28,6 +30,7 @@ import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Application;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.xml.bind.annotation.adapters.XmlAdapter;
@@ -89,6 +92,83 @@ public class InjectionUtilsTest extends Assert {
     }
     
     
+    @Test
+    public void testHandlePrimitiveAndStringParameters() {
+        Message m = createMessage();
+        assertEquals(Integer.valueOf(3), 
+                     InjectionUtils.handleParameter("3", true, int.class, null, ParameterType.QUERY, m));
+        assertEquals(Long.valueOf(4L), 
+                     InjectionUtils.handleParameter("4", true, Long.class, null, ParameterType.QUERY, m));
+        assertEquals(Boolean.TRUE, 
+                     InjectionUtils.handleParameter("true", true, boolean.class, null, 
+                                                    ParameterType.HEADER, m));
+        assertEquals("a b", 
+                     InjectionUtils.handleParameter("a%20b", false, String.class, null, 
+                                                    ParameterType.QUERY, m));
+        assertEquals("a b", 
+                     InjectionUtils.handleParameter("a%20b", true, String.class, null, 
+                                                    ParameterType.QUERY, m));
+    }
+    
+    @Test
+    public void testHandleInvalidNumberParameter() {
+        try {
+            InjectionUtils.handleParameter("a", true, Integer.class, null, ParameterType.QUERY, 
+                                           createMessage());
+            fail("WebApplicationException expected");
+        } catch (WebApplicationException ex) {
+            assertEquals(404, ex.getResponse().getStatus());
+        }
+        try {
+            InjectionUtils.handleParameter("a", true, int.class, null, ParameterType.HEADER, 
+                                           createMessage());
+            fail("WebApplicationException expected");
+        } catch (WebApplicationException ex) {
+            assertEquals(400, ex.getResponse().getStatus());
+        }
+    }
+    
+    @Test
+    public void testHandleFactoryMethodParameters() {
+        Message m = createMessage();
+        assertEquals(Color.RED, 
+                     InjectionUtils.handleParameter("r", true, Color.class, null, ParameterType.QUERY, m));
+        assertEquals(Color.GREEN, 
+                     InjectionUtils.handleParameter("GREEN", true, Color.class, null, 
+                                                    ParameterType.QUERY, m));
+        assertSame(ParameterConverter.getInstance(Color.class), 
+                   ParameterConverter.getInstance(Color.class));
+        assertNull(ParameterConverter.getInstance(Color.class).getConstructor());
+        assertEquals(2, ParameterConverter.getInstance(Color.class).getFactoryMethods().length);
+    }
+    
+    @Test
+    public void testCreateCollectionParameterObject() {
+        List<?> list = (List<?>)InjectionUtils.createParameterObject(
+            Arrays.asList("1", "2", "3"), List.class, getListOfLongType(), null, null, 
+            true, ParameterType.QUERY, createMessage());
+        assertEquals(Arrays.asList(1L, 2L, 3L), list);
+        
+        Set<?> set = (Set<?>)InjectionUtils.createParameterObject(
+            Arrays.asList("a", "b", "a"), Set.class, String.class, null, null, 
+            true, ParameterType.QUERY, createMessage());
+        assertEquals(2, set.size());
+        
+        String[] array = (String[])InjectionUtils.createParameterObject(
+            Arrays.asList("a", "b"), String[].class, String[].class, null, null, 
+            true, ParameterType.QUERY, createMessage());
+        assertEquals(Arrays.asList("a", "b"), Arrays.asList(array));
+    }
+    
+    private static Type getListOfLongType() {
+        try {
+            return LongListBean.class.getMethod("setLongs", new Class[]{List.class})
+                .getGenericParameterTypes()[0];
+        } catch (NoSuchMethodException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+    
     @Test
     public void testExtractValuesFromBean() {
         CustomerBean1 bean1 = new CustomerBean1();
@@ -136,6 +216,20 @@ public class InjectionUtilsTest extends Assert {
         assertTrue(map.get("d.s").contains("set2"));
     }
 
+    public enum Color {
+        RED, GREEN;
+        
+        public static Color fromValue(String value) {
+            return "r".equals(value) ? RED : null;
+        }
+    }
+    
+    static class LongListBean {
+        public void setLongs(List<Long> longs) {
+            // complete
+        }
+    }
+    
     static class CustomerBean1 {
         private String a;
         private Long b;
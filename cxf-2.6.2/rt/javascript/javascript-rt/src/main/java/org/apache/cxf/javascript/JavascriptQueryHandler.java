@@ -19,14 +19,22 @@
 
 package org.apache.cxf.javascript;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.net.URI;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 import javax.annotation.Resource;
 
@@ -37,22 +45,27 @@ import org.apache.cxf.common.util.UrlUtils;
 import org.apache.cxf.endpoint.Endpoint;
 import org.apache.cxf.endpoint.Server;
 import org.apache.cxf.endpoint.ServerRegistry;
+import org.apache.cxf.helpers.CastUtils;
 import org.apache.cxf.javascript.service.ServiceJavascriptBuilder;
 import org.apache.cxf.javascript.types.SchemaJavascriptBuilder;
 import org.apache.cxf.service.model.EndpointInfo;
 import org.apache.cxf.service.model.SchemaInfo;
 import org.apache.cxf.service.model.ServiceInfo;
 import org.apache.cxf.transport.DestinationWithEndpoint;
+import org.apache.cxf.transports.http.ConditionalQueryHandler;
 import org.apache.cxf.transports.http.QueryHandlerRegistry;
 import org.apache.cxf.transports.http.StemMatchingQueryHandler;
 
 @NoJSR250Annotations(unlessNull = "bus")
-public class JavascriptQueryHandler implements StemMatchingQueryHandler {
+public class JavascriptQueryHandler implements StemMatchingQueryHandler, ConditionalQueryHandler {
     private static final String JS_UTILS_PATH = "/org/apache/cxf/javascript/cxf-utils.js";
     private static final Charset UTF8 = Charset.forName("utf-8");
     private static final String NO_UTILS_QUERY_KEY = "nojsutils";
     private static final String CODE_QUERY_KEY = "js";
+    private static final String SCRIPT_CACHE = JavascriptQueryHandler.class.getName() + ".cache";
+    private static final int MAX_CACHED_SCRIPTS = 16;
     private Bus bus;
+    private boolean cacheScripts = true;
 
     public JavascriptQueryHandler(Bus b) {
         setBus(b);
@@ -125,42 +138,193 @@ public class JavascriptQueryHandler implements StemMatchingQueryHandler {
     }
 
     public void writeResponse(String fullQueryString, String ctx, EndpointInfo endpoint, OutputStream os) {
+        writeResponse(fullQueryString, ctx, endpoint, Collections.<String, String>emptyMap(),
+                      new HashMap<String, String>(), os);
+    }
+
+    public int writeResponse(String fullQueryString, String ctx, EndpointInfo endpoint,
+                             Map<String, String> requestHeaders, Map<String, String> responseHeaders,
+                             OutputStream os) {
         URI uri = URI.create(fullQueryString);
         String query = uri.getQuery();
         Map<String, String> map = UrlUtils.parseQueryString(query);
+        if (!map.containsKey(CODE_QUERY_KEY)) {
+            throw new RuntimeException("Invalid query " + fullQueryString);
+        }
+        boolean includeUtils = !map.containsKey(NO_UTILS_QUERY_KEY);
+        CachedScript script = cacheScripts 
+            ? getCachedScript(endpoint, includeUtils) 
+            : new CachedScript(generateScript(endpoint, includeUtils), null);
+        
+        boolean gzip = acceptsGzip(requestHeaders.get("Accept-Encoding"));
+        String etag = gzip ? script.getGzipETag() : script.getETag();
+        responseHeaders.put("ETag", etag);
+        responseHeaders.put("Vary", "Accept-Encoding");
+        if (matchesETag(requestHeaders.get("If-None-Match"), etag)) {
+            return 304;
+        }
+        try {
+            if (gzip) {
+                responseHeaders.put("Content-Encoding", "gzip");
+                os.write(script.getGzipContent());
+            } else {
+                os.write(script.getContent());
+            }
+            os.flush();
+        } catch (IOException e) {
+            throw new UncheckedException(e);
+        }
+        return 200;
+    }
+    
+    /**
+     * Sets whether the generated code is kept per endpoint and address, 
+     * the default is true.
+     */
+    public void setCacheScripts(boolean cacheScripts) {
+        this.cacheScripts = cacheScripts;
+    }
+    
+    private CachedScript getCachedScript(EndpointInfo endpoint, boolean includeUtils) {
+        Map<String, CachedScript> cache;
+        synchronized (endpoint) {
+            cache = CastUtils.cast((Map<?, ?>)endpoint.getProperty(SCRIPT_CACHE));
+            if (cache == null) {
+                cache = new LinkedHashMap<String, CachedScript>(16, 0.75f, true) {
+                    private static final long serialVersionUID = 1L;
+                    protected boolean removeEldestEntry(Map.Entry<String, CachedScript> eldest) {
+                        return size() > MAX_CACHED_SCRIPTS;
+                    }
+                };
+                endpoint.setProperty(SCRIPT_CACHE, cache);
+            }
+        }
+        // the address may have been updated to the one of the current request
+        String key = endpoint.getAddress() + (includeUtils ? "" : "?" + NO_UTILS_QUERY_KEY);
+        List<Object> model = getModelState(endpoint);
+        synchronized (cache) {
+            CachedScript script = cache.get(key);
+            if (script == null || !script.isCurrent(model)) {
+                script = new CachedScript(generateScript(endpoint, includeUtils), model);
+                cache.put(key, script);
+            }
+            return script;
+        }
+    }
+    
+    private static List<Object> getModelState(EndpointInfo endpoint) {
+        ServiceInfo serviceInfo = endpoint.getService();
+        List<Object> state = new ArrayList<Object>();
+        state.add(serviceInfo);
+        state.addAll(serviceInfo.getSchemas());
+        if (serviceInfo.getInterface() != null) {
+            state.addAll(serviceInfo.getInterface().getOperations());
+        }
+        return state;
+    }
+
+    private byte[] generateScript(EndpointInfo endpoint, boolean includeUtils) {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
         OutputStreamWriter writer = new OutputStreamWriter(os, UTF8);
-        if (!map.containsKey(NO_UTILS_QUERY_KEY)) {
+        if (includeUtils) {
             writeUtilsToResponseStream(JavascriptQueryHandler.class, os);
         } 
-        if (map.containsKey(CODE_QUERY_KEY)) {
-            ServiceInfo serviceInfo = endpoint.getService();
-            Collection<SchemaInfo> schemata = serviceInfo.getSchemas();
-            Endpoint serverEndpoint = findEndpoint(endpoint);
-            // we need to move this to the bus.
-            BasicNameManager nameManager = BasicNameManager.newNameManager(serviceInfo, serverEndpoint);
-            NamespacePrefixAccumulator prefixManager = new NamespacePrefixAccumulator(serviceInfo
-                .getXmlSchemaCollection());
-            try {
-                for (SchemaInfo schema : schemata) {
-                    SchemaJavascriptBuilder builder = new SchemaJavascriptBuilder(serviceInfo
-                        .getXmlSchemaCollection(), prefixManager, nameManager);
-                    String allThatJavascript = builder.generateCodeForSchema(schema.getSchema());
-                    writer.append(allThatJavascript);
-                }
+        ServiceInfo serviceInfo = endpoint.getService();
+        Collection<SchemaInfo> schemata = serviceInfo.getSchemas();
+        Endpoint serverEndpoint = findEndpoint(endpoint);
+        // we need to move this to the bus.
+        BasicNameManager nameManager = BasicNameManager.newNameManager(serviceInfo, serverEndpoint);
+        NamespacePrefixAccumulator prefixManager = new NamespacePrefixAccumulator(serviceInfo
+            .getXmlSchemaCollection());
+        try {
+            for (SchemaInfo schema : schemata) {
+                SchemaJavascriptBuilder builder = new SchemaJavascriptBuilder(serviceInfo
+                    .getXmlSchemaCollection(), prefixManager, nameManager);
+                String allThatJavascript = builder.generateCodeForSchema(schema.getSchema());
+                writer.append(allThatJavascript);
+            }
 
-                ServiceJavascriptBuilder serviceBuilder = new ServiceJavascriptBuilder(serviceInfo,
-                                                                                       endpoint.getAddress(),
-                                                                                       prefixManager,
-                                                                                       nameManager);
-                serviceBuilder.walk();
-                String serviceJavascript = serviceBuilder.getCode();
-                writer.append(serviceJavascript);
-                writer.flush();
-            } catch (IOException e) {
-                throw new UncheckedException(e);
+            ServiceJavascriptBuilder serviceBuilder = new ServiceJavascriptBuilder(serviceInfo,
+                                                                                   endpoint.getAddress(),
+                                                                                   prefixManager,
+                                                                                   nameManager);
+            serviceBuilder.walk();
+            String serviceJavascript = serviceBuilder.getCode();
+            writer.append(serviceJavascript);
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedException(e);
+        }
+        return os.toByteArray();
+    }
+    
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.trim().split(";");
+            if ("gzip".equalsIgnoreCase(parts[0].trim())) {
+                return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
             }
-        } else {
-            throw new RuntimeException("Invalid query " + fullQueryString);
+        }
+        return false;
+    }
+    
+    private static boolean matchesETag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String token : ifNoneMatch.split(",")) {
+            String value = token.trim();
+            if ("*".equals(value) || etag.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The generated code for a given endpoint address with its precompressed variant.
+     */
+    private static class CachedScript {
+        private final byte[] content;
+        private final List<Object> model;
+        private final String etag;
+        private byte[] gzipContent;
+        
+        CachedScript(byte[] content, List<Object> model) {
+            this.content = content;
+            this.model = model;
+            this.etag = "\"" + Integer.toHexString(Arrays.hashCode(content)) 
+                + "-" + Integer.toHexString(content.length) + "\"";
+        }
+        
+        boolean isCurrent(List<Object> currentModel) {
+            return model.equals(currentModel);
+        }
+        
+        byte[] getContent() {
+            return content;
+        }
+        
+        String getETag() {
+            return etag;
+        }
+        
+        String getGzipETag() {
+            return etag.substring(0, etag.length() - 1) + "-gzip\"";
+        }
+        
+        synchronized byte[] getGzipContent() throws IOException {
+            if (gzipContent == null) {
+                ByteArrayOutputStream bos = new ByteArrayOutputStream(content.length / 4 + 64);
+                GZIPOutputStream zos = new GZIPOutputStream(bos);
+                zos.write(content);
+                zos.close();
+                gzipContent = bos.toByteArray();
+            }
+            return gzipContent;
         }
     }
 
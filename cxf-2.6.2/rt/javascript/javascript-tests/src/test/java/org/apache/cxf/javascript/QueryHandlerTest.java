@@ -23,10 +23,12 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLConnection;
 import java.nio.charset.Charset;
 import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
 
 import org.apache.cxf.common.logging.LogUtils;
 import org.apache.cxf.endpoint.Endpoint;
@@ -125,6 +127,37 @@ public class QueryHandlerTest extends AbstractCXFSpringTest {
         assertFalse(jsString.contains("function CxfApacheOrgUtil"));
     }
     
+    @Test
+    public void conditionalGetTest() throws Exception {
+        URL endpointURL = new URL(dlbEndpoint.getEndpointInfo().getAddress()  + "?js");
+        HttpURLConnection connection = (HttpURLConnection)endpointURL.openConnection();
+        assertEquals(200, connection.getResponseCode());
+        String etag = connection.getHeaderField("ETag");
+        assertNotNull(etag);
+        String js = readStringFromStream(connection.getInputStream());
+        
+        connection = (HttpURLConnection)endpointURL.openConnection();
+        connection.setRequestProperty("If-None-Match", etag);
+        assertEquals(304, connection.getResponseCode());
+        
+        connection = (HttpURLConnection)endpointURL.openConnection();
+        connection.setRequestProperty("If-None-Match", "\"other\"");
+        assertEquals(200, connection.getResponseCode());
+        assertEquals(etag, connection.getHeaderField("ETag"));
+        assertEquals(js, readStringFromStream(connection.getInputStream()));
+    }
+    
+    @Test
+    public void gzipTest() throws Exception {
+        URL endpointURL = new URL(dlbEndpoint.getEndpointInfo().getAddress()  + "?js");
+        String js = getStringFromURL(endpointURL);
+        HttpURLConnection connection = (HttpURLConnection)endpointURL.openConnection();
+        connection.setRequestProperty("Accept-Encoding", "gzip, deflate");
+        assertEquals(200, connection.getResponseCode());
+        assertEquals("gzip", connection.getHeaderField("Content-Encoding"));
+        assertEquals(js, readStringFromStream(new GZIPInputStream(connection.getInputStream())));
+    }
+    
     // this is in here since we need to use the query handler to perform the test.
     @org.junit.Ignore
     @Test 
@@ -18,6 +18,7 @@
  */
 package org.apache.cxf.management.web.logging.atom;
 
+import java.util.List;
 import java.util.logging.Handler;
 
 import org.apache.commons.lang.Validate;
@@ -106,6 +107,15 @@ public final class AtomPushBean extends AbstractAtomBean {
         conf.setDeliverer(deliverer);
     }
 
+    /**
+     * Set initialized deliverers; every batch is pushed to each of them in parallel.
+     */
+    public void setDeliverers(List<Deliverer> deliverers) {
+        checkInit();
+        Validate.notEmpty(deliverers, "deliverers list is empty");
+        conf.setDeliverers(deliverers);
+    }
+
     /**
      * Set initialized converter.
      */
@@ -187,6 +197,33 @@ public final class AtomPushBean extends AbstractAtomBean {
         conf.setFormat(format);
     }
 
+    /**
+     * Maximum number of log records waiting to be pushed; empty string for default of 1024.
+     */
+    public void setQueueSize(String queueSize) {
+        checkInit();
+        Validate.notNull(queueSize, "queueSize is null");
+        conf.setQueueSize(queueSize);
+    }
+
+    /**
+     * Handling of log records published while the queue is full: "drop" or "block".
+     */
+    public void setOverflowPolicy(String overflowPolicy) {
+        checkInit();
+        Validate.notNull(overflowPolicy, "overflowPolicy is null");
+        conf.setOverflowPolicy(overflowPolicy);
+    }
+
+    /**
+     * Registration of engine counters with the platform MBean server: "true" or "false".
+     */
+    public void setJmx(String jmx) {
+        checkInit();
+        Validate.notNull(jmx, "jmx is null");
+        conf.setJmx(jmx);
+    }
+
     protected Handler createHandler() {
         return new AtomPushHandler(conf.createEngine());
     }
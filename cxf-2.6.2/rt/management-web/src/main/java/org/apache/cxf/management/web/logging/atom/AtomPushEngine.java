@@ -16,49 +16,91 @@
  * specific language governing permissions and limitations
  * under the License.
  */
+
 package org.apache.cxf.management.web.logging.atom;
 
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
 
 import org.apache.abdera.model.Element;
 import org.apache.commons.lang.Validate;
+import org.apache.cxf.management.ManagementConstants;
 import org.apache.cxf.management.web.logging.LogRecord;
 import org.apache.cxf.management.web.logging.atom.converter.Converter;
 import org.apache.cxf.management.web.logging.atom.deliverer.Deliverer;
 
 /**
  * Package private ATOM push-style engine. Engine enqueues log records as they are {@link #publish(LogRecord)
- * published}. After queue size exceeds {@link #getBatchSize() batch size} processing of collection of these
- * records (in size of batch size) is triggered.
+ * published} into a bounded queue. When the queue is full records are either dropped or the publishing
+ * thread waits for room, depending on the {@link #setOverflowPolicy(OverflowPolicy) overflow policy}; the
+ * default is to drop so a slow consumer can never hold up or exhaust the memory of the observed service.
  * <p>
- * Processing is done in separate thread not to block publishing interface. Processing is two step: first list
- * of log records is transformed by {@link Converter converter} to ATOM {@link Element element} and then it is
- * pushed out by {@link Deliverer deliverer} to client. Next to transport deliverer is indirectly responsible
- * for marshaling ATOM element to XML.
+ * Processing is done in separate thread not to block publishing interface. The thread collects records into
+ * batches which are processed when they reach {@link #getBatchSize() batch size} or when the oldest record
+ * in the batch is older than the batch time. Processing is two step: first list of log records is
+ * transformed by {@link Converter converter} to ATOM {@link Element element} and then it is pushed out by
+ * each registered {@link Deliverer deliverer} to its client; with more than one deliverer the deliveries run
+ * in parallel. Next to transport deliverer is indirectly responsible for marshaling ATOM element to XML.
  * <p>
- * Processing is done by single threaded {@link java.util.concurrent.Executor executor}; next batch of records
- * is taken from queue only when currently processed batch finishes and queue has enough elements to proceed.
+ * First failure of a delivery disables that deliverer; once no deliverers are left the engine shuts down.
+ * To avoid this situation engine must have registered reliable deliverers or use wrapping
+ * {@link org.apache.cxf.management.web.logging.atom.deliverer.RetryingDeliverer}.
  * <p>
- * First failure of any delivery shuts engine down. To avoid this situation engine must have registered
- * reliable deliverer or use wrapping
- * {@link org.apache.cxf.jaxrs.ext.logging.atom.deliverer.RetryingDeliverer}.
+ * Numbers of queued, dropped, delivered and failed records are kept and can be exposed through JMX, see
+ * {@link AtomPushEngineMBean}.
  */
-// TODO add internal diagnostics - log messages somewhere except for logger :D
-final class AtomPushEngine {
-    private List<LogRecord> queue = new ArrayList<LogRecord>();
-    private ExecutorService executor = Executors.newSingleThreadExecutor();
+final class AtomPushEngine implements AtomPushEngineMBean {
+    
+    /**
+     * Behavior of {@link AtomPushEngine#publish(LogRecord)} when the queue is full.
+     */
+    enum OverflowPolicy {
+        /** The record is discarded and counted as dropped. */
+        DROP, 
+        /** The publishing thread waits until there is room in the queue. */
+        BLOCK
+    }
+    
+    static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    private static final long POLL_INTERVAL = 500;
+    private static final long SHUTDOWN_TIMEOUT = 20000;
+    
+    private BlockingQueue<LogRecord> queue;
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
     private int batchSize = 1;
     private int batchTime;
     private Converter converter;
-    private Deliverer deliverer;
-    private Timer timer;
+    private final List<Deliverer> deliverers = new CopyOnWriteArrayList<Deliverer>();
+    private boolean jmxEnabled;
+    private ObjectName objectName;
+    
+    private Thread worker;
+    private ExecutorService deliveryExecutor;
+    private volatile boolean shutdown;
+    
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
     
     /**
      * Put record to publishing queue. Engine accepts published records only if is in proper state - is
@@ -67,99 +109,208 @@ final class AtomPushEngine {
      * 
      * @param record record to be published.
      */
-    public synchronized void publish(LogRecord record) {
+    public void publish(LogRecord record) {
         Validate.notNull(record, "record is null");
-        if (isValid()) {
-            if (batchSize > 1 && batchTime > 0 && timer == null) {
-                createTimerTask(batchTime * 60 * 1000);
-            }
-            queue.add(record);
-            if (queue.size() >= batchSize) {
-                publishAndReset();
+        if (!start()) {
+            dropped.incrementAndGet();
+            handleUndeliveredRecords(Collections.singletonList(record), getEndpointAddresses());
+            return;
+        }
+        boolean accepted = queue.offer(record);
+        if (!accepted && overflowPolicy == OverflowPolicy.BLOCK) {
+            try {
+                while (!accepted && !shutdown) {
+                    accepted = queue.offer(record, POLL_INTERVAL, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
+        }
+        if (accepted) {
+            queued.incrementAndGet();
         } else {
-            handleUndeliveredRecords(Collections.singletonList(record), 
-                                     deliverer == null ? "" : deliverer.getEndpointAddress());
+            dropped.incrementAndGet();
         }
     }
     
-    protected synchronized void publishAndReset() {
-        publishBatch(queue, deliverer, converter);
-        queue = new ArrayList<LogRecord>();
+    /**
+     * Starts the processing thread on first use.
+     * 
+     * @return false if the engine is not configured or has been shut down.
+     */
+    private synchronized boolean start() {
+        if (worker != null) {
+            return !shutdown;
+        }
+        if (!isValid()) {
+            return false;
+        }
+        queue = new ArrayBlockingQueue<LogRecord>(queueCapacity);
+        if (deliverers.size() > 1) {
+            deliveryExecutor = Executors.newFixedThreadPool(deliverers.size(), 
+                                                            new DaemonThreadFactory("delivery"));
+        }
+        worker = new DaemonThreadFactory("engine").newThread(new Runnable() {
+            public void run() {
+                process();
+            }
+        });
+        worker.start();
+        if (jmxEnabled) {
+            registerMBean();
+        }
+        return true;
     }
 
     /**
-     * Shuts engine down.
+     * Shuts engine down. Records already queued are given a chance to be delivered.
      */
-    public synchronized void shutdown() {
-        cancelTimerTask();
-        if (isValid() && queue.size() > 0) {
-            publishAndReset();
+    public void shutdown() {
+        Thread t;
+        synchronized (this) {
+            if (shutdown) {
+                return;
+            }
+            shutdown = true;
+            t = worker;
         }
-        executor.shutdown();
-        
-        try {
-            //wait a little to try and flush the batches
-            //it's not critical, but can avoid errors on the 
-            //console and such which could be confusing
-            executor.awaitTermination(20, TimeUnit.SECONDS);
-        } catch (InterruptedException e) {
-            //ignore
+        if (t != null && t != Thread.currentThread()) {
+            try {
+                //wait a little to try and flush the batches
+                //it's not critical, but can avoid errors on the 
+                //console and such which could be confusing
+                t.join(SHUTDOWN_TIMEOUT);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
         }
+        if (deliveryExecutor != null) {
+            deliveryExecutor.shutdown();
+        }
+        unregisterMBean();
     }
 
     private boolean isValid() {
-        if (deliverer == null) {
-            // TODO report cause
-            ///System.err.println("deliverer is not set");
-            return false;
-        }
-        if (converter == null) {
-            //System.err.println("converter is not set");
-            return false;
-        }
-        if (executor.isShutdown()) {
-            //System.err.println("engine shutdown");
-            return false;
+        return !deliverers.isEmpty() && converter != null && !shutdown;
+    }
+    
+    private void process() {
+        LoggingThread.markSilent(true);
+        List<LogRecord> batch = new ArrayList<LogRecord>();
+        long maxAge = batchTime * 60L * 1000L;
+        long deadline = 0;
+        try {
+            while (!deliverers.isEmpty()) {
+                long wait = POLL_INTERVAL;
+                if (maxAge > 0 && !batch.isEmpty()) {
+                    wait = Math.max(0, Math.min(wait, deadline - System.currentTimeMillis()));
+                }
+                LogRecord record = queue.poll(wait, TimeUnit.MILLISECONDS);
+                if (record != null) {
+                    if (batch.isEmpty()) {
+                        deadline = System.currentTimeMillis() + maxAge;
+                    }
+                    batch.add(record);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+                boolean stopping = shutdown && queue.isEmpty();
+                if (!batch.isEmpty()
+                    && (batch.size() >= batchSize 
+                        || stopping
+                        || maxAge > 0 && System.currentTimeMillis() >= deadline)) {
+                    try {
+                        publishBatch(batch);
+                    } catch (RuntimeException e) {
+                        System.err.println("Processing of log records failed: " + e.getMessage());
+                        failed.addAndGet(batch.size());
+                        handleUndeliveredRecords(batch, getEndpointAddresses());
+                    }
+                    batch = new ArrayList<LogRecord>();
+                }
+                if (stopping) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            // no action
+        } finally {
+            List<LogRecord> left = new ArrayList<LogRecord>(batch);
+            queue.drainTo(left);
+            if (!left.isEmpty()) {
+                handleUndeliveredRecords(left, getEndpointAddresses());
+            }
+            shutdown = true;
+            if (deliveryExecutor != null) {
+                deliveryExecutor.shutdown();
+            }
+            LoggingThread.markSilent(false);
         }
-        return true;
     }
 
-    private void publishBatch(final List<LogRecord> batch,
-                              final Deliverer d,
-                              final Converter c) {
-        executor.execute(new Runnable() {
-            public void run() {
-                try {
+    private void publishBatch(final List<LogRecord> batch) throws InterruptedException {
+        final List<? extends Element> elements = converter.convert(batch);
+        List<Deliverer> targets = new ArrayList<Deliverer>(deliverers);
+        if (targets.size() == 1 || deliveryExecutor == null) {
+            for (Deliverer d : targets) {
+                completeDelivery(d, batch, elements.size(), deliver(d, elements));
+            }
+            return;
+        }
+        List<Future<Integer>> results = new ArrayList<Future<Integer>>(targets.size());
+        for (final Deliverer d : targets) {
+            results.add(deliveryExecutor.submit(new Callable<Integer>() {
+                public Integer call() throws Exception {
                     LoggingThread.markSilent(true);
-                    List<? extends Element> elements = c.convert(batch);
-                    for (int i = 0; i < elements.size(); i++) {
-                        Element element = elements.get(i);
-                        if (!d.deliver(element)) {
-                            System.err.println("Delivery to " + d.getEndpointAddress() 
-                                + " failed, shutting engine down");
-                            List<LogRecord> undelivered = null;
-                            if (i == 0) {
-                                undelivered = batch;
-                            } else {
-                                int index = (batch.size() / elements.size()) * i;
-                                // should not happen but just in case :-)
-                                if (index < batch.size()) {
-                                    undelivered = batch.subList(index, batch.size());
-                                }
-                            }
-                            handleUndeliveredRecords(undelivered, d.getEndpointAddress());
-                            shutdown();
-                            break;
-                        }
+                    try {
+                        return deliver(d, elements);
+                    } finally {
+                        LoggingThread.markSilent(false);
                     }
-                } catch (InterruptedException e) {
-                    // no action
-                } finally {
-                    LoggingThread.markSilent(false);
                 }
+            }));
+        }
+        for (int i = 0; i < targets.size(); i++) {
+            int failedAt;
+            try {
+                failedAt = results.get(i).get();
+            } catch (ExecutionException e) {
+                failedAt = 0;
             }
-        });
+            completeDelivery(targets.get(i), batch, elements.size(), failedAt);
+        }
+    }
+    
+    /**
+     * @return index of the first element that could not be delivered, or -1 if all were delivered
+     */
+    private static int deliver(Deliverer d, List<? extends Element> elements) throws InterruptedException {
+        for (int i = 0; i < elements.size(); i++) {
+            if (!d.deliver(elements.get(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private void completeDelivery(Deliverer d, List<LogRecord> batch, int elementCount, int failedAt) {
+        if (failedAt < 0) {
+            delivered.addAndGet(batch.size());
+            return;
+        }
+        deliverers.remove(d);
+        System.err.println("Delivery to " + d.getEndpointAddress() 
+            + (deliverers.isEmpty() ? " failed, shutting engine down" : " failed, deliverer disabled"));
+        List<LogRecord> undelivered = batch;
+        if (failedAt > 0) {
+            int index = (batch.size() / elementCount) * failedAt;
+            // should not happen but just in case :-)
+            if (index < batch.size()) {
+                undelivered = batch.subList(index, batch.size());
+            }
+        }
+        delivered.addAndGet(batch.size() - undelivered.size());
+        failed.addAndGet(undelivered.size());
+        handleUndeliveredRecords(undelivered, d.getEndpointAddress());
     }
 
     protected void handleUndeliveredRecords(List<LogRecord> records, String address) {
@@ -170,6 +321,42 @@ final class AtomPushEngine {
         }
     }
     
+    private String getEndpointAddresses() {
+        StringBuilder sb = new StringBuilder();
+        for (Deliverer d : deliverers) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(d.getEndpointAddress());
+        }
+        return sb.toString();
+    }
+    
+    private void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(ManagementConstants.DEFAULT_DOMAIN_NAME + ":"
+                + ManagementConstants.TYPE_PROP + "=AtomPushEngine,"
+                + ManagementConstants.NAME_PROP + "=" + ObjectName.quote(getEndpointAddresses()) + ","
+                + ManagementConstants.INSTANCE_ID_PROP + "=" + System.identityHashCode(this));
+            server.registerMBean(new StandardMBean(this, AtomPushEngineMBean.class), name);
+            objectName = name;
+        } catch (JMException e) {
+            System.err.println("Unable to register ATOM push engine with JMX: " + e.getMessage());
+        }
+    }
+
+    private synchronized void unregisterMBean() {
+        if (objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (JMException e) {
+                // ignore
+            }
+            objectName = null;
+        }
+    }
+    
     public int getBatchSize() {
         return batchSize;
     }
@@ -179,32 +366,62 @@ final class AtomPushEngine {
         this.batchSize = batchSize;
     }
     
+    /**
+     * Sets the maximum time, in minutes, a record may wait for its batch to fill up; zero or less waits
+     * until the batch is full. Ex, if we have a batch size 10 and only WARN records need to be delivered
+     * then without the time limit the consumers may not get prompt notifications.
+     */
     public void setBatchTime(int batchTime) {
         this.batchTime = batchTime;
     }
-
+    
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+    
     /**
-     * Creates a timer task which will periodically flush the batch queue
-     * thus ensuring log records won't become too 'stale'. 
-     * Ex, if we have a batch size 10 and only WARN records need to be delivered
-     * then without the periodic cleanup the consumers may not get prompt notifications
-     *  
-     * @param timeout
+     * Sets the maximum number of records waiting to be processed, must be set before first publish.
      */
-    protected void createTimerTask(long timeout) {
-        timer = new Timer();
-        timer.schedule(new TimerTask() {
-            public void run() {
-                publishAndReset();
-            }
-        }, timeout);
+    public void setQueueCapacity(int queueCapacity) {
+        Validate.isTrue(queueCapacity > 0, "queue capacity is not greater than zero");
+        this.queueCapacity = queueCapacity;
     }
     
-    protected void cancelTimerTask() {
-        if (timer != null) {
-            timer.cancel();
-            timer = null;
-        }
+    public int getQueueDepth() {
+        BlockingQueue<LogRecord> q = queue;
+        return q == null ? 0 : q.size();
+    }
+    
+    public String getOverflowPolicy() {
+        return overflowPolicy.name();
+    }
+    
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        Validate.notNull(overflowPolicy, "overflowPolicy is null");
+        this.overflowPolicy = overflowPolicy;
+    }
+    
+    /**
+     * Enables registration of this engine with the platform MBean server once it starts.
+     */
+    public void setJmxEnabled(boolean jmxEnabled) {
+        this.jmxEnabled = jmxEnabled;
+    }
+    
+    public long getQueuedCount() {
+        return queued.get();
+    }
+    
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+    
+    public long getDeliveredCount() {
+        return delivered.get();
+    }
+    
+    public long getFailedCount() {
+        return failed.get();
     }
     
     public synchronized Converter getConverter() {
@@ -216,12 +433,51 @@ final class AtomPushEngine {
         this.converter = converter;
     }
 
+    /**
+     * Returns the first registered deliverer.
+     */
     public synchronized Deliverer getDeliverer() {
-        return deliverer;
+        return deliverers.isEmpty() ? null : deliverers.get(0);
     }
 
+    /**
+     * Replaces registered deliverers with given one.
+     */
     public synchronized void setDeliverer(Deliverer deliverer) {
         Validate.notNull(deliverer, "deliverer is null");
-        this.deliverer = deliverer;
+        setDeliverers(Collections.singletonList(deliverer));
+    }
+    
+    public synchronized List<Deliverer> getDeliverers() {
+        return Collections.unmodifiableList(deliverers);
+    }
+    
+    /**
+     * Replaces registered deliverers; every batch is pushed to each of them.
+     */
+    public synchronized void setDeliverers(List<Deliverer> list) {
+        Validate.notEmpty(list, "deliverers list is empty");
+        Validate.noNullElements(list, "deliverers list contains null");
+        Validate.isTrue(worker == null, "engine already started");
+        deliverers.clear();
+        deliverers.addAll(list);
+    }
+    
+    public int getDelivererCount() {
+        return deliverers.size();
+    }
+    
+    private static class DaemonThreadFactory implements ThreadFactory {
+        private final String name;
+        
+        DaemonThreadFactory(String name) {
+            this.name = name;
+        }
+        
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "atom-push-" + name);
+            t.setDaemon(true);
+            return t;
+        }
     }
 }
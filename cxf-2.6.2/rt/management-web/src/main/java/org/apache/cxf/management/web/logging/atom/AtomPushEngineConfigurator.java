@@ -19,6 +19,8 @@
 package org.apache.cxf.management.web.logging.atom;
 
 import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.cxf.management.web.logging.atom.converter.Converter;
 import org.apache.cxf.management.web.logging.atom.converter.StandardConverter;
@@ -36,7 +38,7 @@ import org.apache.cxf.management.web.logging.atom.deliverer.WebClientDeliverer;
 // TODO extract 'general rules' of interpretation in handler and bean and put here
 final class AtomPushEngineConfigurator {
 
-    private Deliverer deliverer;
+    private List<Deliverer> deliverers;
     private Converter converter;
     private String delivererClass;
     private String converterClass;
@@ -49,6 +51,9 @@ final class AtomPushEngineConfigurator {
     private String output;
     private String multiplicity;
     private String format;
+    private String queueSize;
+    private String overflowPolicy;
+    private String jmx;
 
     public void setUrl(String url) {
         this.delivererUrl = url;
@@ -74,8 +79,26 @@ final class AtomPushEngineConfigurator {
         this.batchSize = batchSize;
     }
 
+    public void setQueueSize(String queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public void setOverflowPolicy(String overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public void setJmx(String jmx) {
+        this.jmx = jmx;
+    }
+
     public void setDeliverer(Deliverer deliverer) {
-        this.deliverer = deliverer;
+        List<Deliverer> list = new ArrayList<Deliverer>();
+        list.add(deliverer);
+        this.deliverers = list;
+    }
+
+    public void setDeliverers(List<Deliverer> deliverers) {
+        this.deliverers = deliverers;
     }
 
     public void setConverter(Converter converter) {
@@ -103,16 +126,24 @@ final class AtomPushEngineConfigurator {
     }
 
     public AtomPushEngine createEngine() {
-        Deliverer d = deliverer;
+        List<Deliverer> ds = deliverers;
         Converter c = converter;
         int batch = parseInt(batchSize, 1, 1);
         int batchTime = parseInt(batchCleanupTime, 0);
-        if (d == null) {
+        if (ds == null || ds.isEmpty()) {
             if (delivererUrl != null) {
-                if (delivererClass != null) {
-                    d = createDeliverer(delivererClass, delivererUrl);
-                } else {
-                    d = new WebClientDeliverer(delivererUrl);
+                ds = new ArrayList<Deliverer>();
+                // several comma separated addresses push the same records to each of them
+                for (String url : delivererUrl.split(",")) {
+                    url = url.trim();
+                    if (url.length() == 0) {
+                        continue;
+                    }
+                    if (delivererClass != null) {
+                        ds.add(createDeliverer(delivererClass, url));
+                    } else {
+                        ds.add(new WebClientDeliverer(url));
+                    }
                 }
             } else {
                 throw new IllegalStateException("Either url, deliverer or "
@@ -137,15 +168,23 @@ final class AtomPushEngineConfigurator {
                     int timeout = parseInt(retryTimeout, 0, 0);
                     int pause = parseInt(retryPauseTime, 1, 30);
                     boolean linear = !retryPause.equalsIgnoreCase("exponential");
-                    d = new RetryingDeliverer(d, timeout, pause, linear);
+                    List<Deliverer> retrying = new ArrayList<Deliverer>(ds.size());
+                    for (Deliverer d : ds) {
+                        retrying.add(new RetryingDeliverer(d, timeout, pause, linear));
+                    }
+                    ds = retrying;
                 }
             }
         }
         AtomPushEngine engine = new AtomPushEngine();
-        engine.setDeliverer(d);
+        engine.setDeliverers(ds);
         engine.setConverter(c);
         engine.setBatchSize(batch);
         engine.setBatchTime(batchTime);
+        engine.setQueueCapacity(parseInt(queueSize, 1, AtomPushEngine.DEFAULT_QUEUE_CAPACITY));
+        engine.setOverflowPolicy(parseEnum(overflowPolicy, AtomPushEngine.OverflowPolicy.DROP,
+                                           AtomPushEngine.OverflowPolicy.class));
+        engine.setJmxEnabled(Boolean.parseBoolean(jmx));
         return engine;
     }
 
@@ -0,0 +1,69 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.management.web.logging.atom;
+
+/**
+ * Management interface of the ATOM push engine, registered with the platform MBean server when the
+ * <b>jmx</b> option of {@link AtomPushHandler} or {@link AtomPushBean} is enabled.
+ */
+public interface AtomPushEngineMBean {
+
+    /**
+     * Maximum number of records waiting for delivery.
+     */
+    int getQueueCapacity();
+
+    /**
+     * Number of records currently waiting for delivery.
+     */
+    int getQueueDepth();
+
+    int getBatchSize();
+
+    /**
+     * Policy applied when the queue is full, either "DROP" or "BLOCK".
+     */
+    String getOverflowPolicy();
+
+    /**
+     * Number of deliverers still accepting records.
+     */
+    int getDelivererCount();
+
+    /**
+     * Number of records accepted into the queue.
+     */
+    long getQueuedCount();
+
+    /**
+     * Number of records rejected because the queue was full or the engine was not running.
+     */
+    long getDroppedCount();
+
+    /**
+     * Number of records delivered, counted once for every deliverer that received them.
+     */
+    long getDeliveredCount();
+
+    /**
+     * Number of records a deliverer failed to deliver, counted once for every failing deliverer.
+     */
+    long getFailedCount();
+}
@@ -32,10 +32,20 @@ import org.apache.cxf.management.web.logging.atom.deliverer.Deliverer;
  * For simple configuration using properties file (one global root-level handler of this class) following
  * properties prefixed with full name of this class can be used:
  * <ul>
- * <li><b>url</b> - URL where feeds will be pushed (mandatory parameter)</li>
+ * <li><b>url</b> - URL where feeds will be pushed (mandatory parameter); several comma separated URLs push
+ * the same feeds to each of them in parallel.</li>
  * <li><b>batchSize</b> - integer number specifying minimal number of published log records that trigger
  * processing and pushing ATOM document. If parameter is not set, is not greater than zero or is not a number,
  * batch size is set to 1.</li>
+ * <li><b>batchCleanupTime</b> - maximum time in minutes a log record waits for its batch to fill up. If
+ * parameter is not set, records wait until the batch is full.</li>
+ * <li><b>queueSize</b> - maximum number of log records waiting to be pushed. If parameter is not set or is
+ * not greater than zero, 1024 is used.</li>
+ * <li><b>overflowPolicy</b> - what happens to a log record published while the queue is full, either
+ * "drop" (the record is discarded) or "block" (the logging thread waits); when not specified or invalid value
+ * provided "drop" is used.</li>
+ * <li><b>jmx</b> - "true" registers the counters of queued, dropped, delivered and failed log records with
+ * the platform MBean server, see {@link AtomPushEngineMBean}.</li>
  * </ul>
  * Conversion of log records into ATOM Elements can be tuned up using following parameters. Note that not all
  * combinations are meaningful, see {@link org.apache.cxf.jaxrs.ext.logging.atom.converter.StandardConverter}
@@ -186,6 +196,9 @@ public final class AtomPushHandler extends Handler {
         conf.setOutput(manager.getProperty(cname + ".output"));
         conf.setMultiplicity(manager.getProperty(cname + ".multiplicity"));
         conf.setFormat(manager.getProperty(cname + ".format"));
+        conf.setQueueSize(manager.getProperty(cname + ".queueSize"));
+        conf.setOverflowPolicy(manager.getProperty(cname + ".overflowPolicy"));
+        conf.setJmx(manager.getProperty(cname + ".jmx"));
         engine = conf.createEngine();
     }
 }
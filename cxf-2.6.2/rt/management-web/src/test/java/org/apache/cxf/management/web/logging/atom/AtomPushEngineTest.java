@@ -0,0 +1,143 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.management.web.logging.atom;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.abdera.Abdera;
+import org.apache.abdera.factory.Factory;
+import org.apache.abdera.model.Element;
+import org.apache.cxf.management.web.logging.LogRecord;
+import org.apache.cxf.management.web.logging.atom.converter.Converter;
+import org.apache.cxf.management.web.logging.atom.deliverer.Deliverer;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AtomPushEngineTest extends Assert {
+
+    private AtomPushEngine engine;
+    
+    @Before
+    public void setUp() throws Exception {
+        engine = new AtomPushEngine();
+        engine.setConverter(new EntryPerBatchConverter());
+    }
+    
+    @Test
+    public void testDropWhenQueueFull() throws Exception {
+        GatedDeliverer deliverer = new GatedDeliverer();
+        engine.setDeliverer(deliverer);
+        engine.setQueueCapacity(2);
+        
+        engine.publish(new LogRecord());
+        assertTrue(deliverer.entered.await(10, TimeUnit.SECONDS));
+        // engine thread is busy delivering the first record, the rest has to fit in the queue
+        engine.publish(new LogRecord());
+        engine.publish(new LogRecord());
+        engine.publish(new LogRecord());
+        assertEquals(3, engine.getQueuedCount());
+        assertEquals(1, engine.getDroppedCount());
+        assertEquals(2, engine.getQueueDepth());
+        
+        deliverer.gate.countDown();
+        engine.shutdown();
+        assertEquals(3, engine.getDeliveredCount());
+        assertEquals(0, engine.getFailedCount());
+    }
+    
+    @Test
+    public void testBatchesToAllDeliverers() throws Exception {
+        RecordingDeliverer first = new RecordingDeliverer(true);
+        RecordingDeliverer second = new RecordingDeliverer(true);
+        engine.setDeliverers(Arrays.<Deliverer>asList(first, second));
+        engine.setBatchSize(3);
+        
+        for (int i = 0; i < 6; i++) {
+            engine.publish(new LogRecord());
+        }
+        engine.shutdown();
+        assertEquals(2, first.elements.size());
+        assertEquals(2, second.elements.size());
+        assertEquals(12, engine.getDeliveredCount());
+    }
+    
+    @Test
+    public void testFailingDelivererIsDisabled() throws Exception {
+        RecordingDeliverer good = new RecordingDeliverer(true);
+        RecordingDeliverer bad = new RecordingDeliverer(false);
+        engine.setDeliverers(Arrays.<Deliverer>asList(good, bad));
+        
+        engine.publish(new LogRecord());
+        engine.shutdown();
+        assertEquals(1, good.elements.size());
+        assertEquals(1, engine.getDeliveredCount());
+        assertEquals(1, engine.getFailedCount());
+        assertEquals(1, engine.getDelivererCount());
+    }
+    
+    private static class EntryPerBatchConverter implements Converter {
+        private final Factory factory = Abdera.getNewFactory();
+        
+        public List<? extends Element> convert(List<LogRecord> records) {
+            return Collections.singletonList(factory.newEntry());
+        }
+    }
+    
+    private static class RecordingDeliverer implements Deliverer {
+        private final List<Element> elements = Collections.synchronizedList(new ArrayList<Element>());
+        private final boolean result;
+        
+        RecordingDeliverer(boolean result) {
+            this.result = result;
+        }
+        
+        public boolean deliver(Element element) {
+            if (result) {
+                elements.add(element);
+            }
+            return result;
+        }
+
+        public String getEndpointAddress() {
+            return "local://recording";
+        }
+    }
+    
+    private static class GatedDeliverer implements Deliverer {
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch gate = new CountDownLatch(1);
+        
+        public boolean deliver(Element element) throws InterruptedException {
+            entered.countDown();
+            return gate.await(10, TimeUnit.SECONDS);
+        }
+
+        public String getEndpointAddress() {
+            return "local://gated";
+        }
+    }
+}
@@ -19,10 +19,19 @@
 package org.apache.cxf.rs.security.oauth2.filters;
 
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.ws.rs.core.HttpHeaders;
 
+import org.apache.cxf.jaxrs.client.ServerWebApplicationException;
 import org.apache.cxf.jaxrs.client.WebClient;
 import org.apache.cxf.jaxrs.ext.MessageContext;
 import org.apache.cxf.rs.security.oauth2.common.AccessTokenValidation;
@@ -30,25 +39,185 @@ import org.apache.cxf.rs.security.oauth2.provider.AccessTokenValidator;
 import org.apache.cxf.rs.security.oauth2.provider.OAuthServiceException;
 import org.apache.cxf.rs.security.oauth2.utils.OAuthConstants;
 
+/**
+ * Validates access tokens by calling a remote token validation service.
+ * 
+ * Validation results can optionally be cached by setting a cache size. A valid result is 
+ * reused until the token expires or the cache time to live elapses, whichever comes first, 
+ * and a token rejected by the validation service is rejected locally for the (shorter) 
+ * invalid token time to live. Concurrent validations of the same token share a single 
+ * remote call.
+ */
 public class AccessTokenValidatorClient implements AccessTokenValidator {
 
+    private static final String TOKEN_REJECTED = "Access token was rejected by the validation service";
+
     private WebClient tokenValidatorClient;
+    private int cacheSize;
+    private long cacheTimeToLive = 60;
+    private long invalidTokenCacheTimeToLive = 5;
+    private Map<String, CachedValidation> cache;
+    private final ConcurrentMap<String, FutureTask<AccessTokenValidation>> pendingValidations = 
+        new ConcurrentHashMap<String, FutureTask<AccessTokenValidation>>();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
     
     public List<String> getSupportedAuthorizationSchemes() {
         return Collections.singletonList(OAuthConstants.ALL_AUTH_SCHEMES);
     }
 
     public AccessTokenValidation validateAccessToken(MessageContext mc,
-                                                     String authScheme, 
-                                                     String authSchemeData) 
+                                                     final String authScheme, 
+                                                     final String authSchemeData) 
         throws OAuthServiceException {
+        if (cacheSize <= 0) {
+            return validateRemotely(authScheme, authSchemeData);
+        }
+        final String key = authScheme + " " + authSchemeData;
+        CachedValidation cached = getCachedValidation(key);
+        if (cached != null) {
+            cacheHits.incrementAndGet();
+            if (cached.validation == null) {
+                throw new OAuthServiceException(TOKEN_REJECTED);
+            }
+            return cached.validation;
+        }
+        cacheMisses.incrementAndGet();
+        
+        FutureTask<AccessTokenValidation> task = new FutureTask<AccessTokenValidation>(
+            new Callable<AccessTokenValidation>() {
+                public AccessTokenValidation call() {
+                    return validateAndCache(key, authScheme, authSchemeData);
+                }
+            });
+        FutureTask<AccessTokenValidation> existing = pendingValidations.putIfAbsent(key, task);
+        if (existing == null) {
+            try {
+                task.run();
+            } finally {
+                pendingValidations.remove(key, task);
+            }
+            existing = task;
+        }
+        try {
+            return existing.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            } else if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new OAuthServiceException("Access token validation failed", cause);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new OAuthServiceException("Access token validation was interrupted", ex);
+        }
+    }
+    
+    protected AccessTokenValidation validateRemotely(String authScheme, String authSchemeData) {
         WebClient client = WebClient.fromClient(tokenValidatorClient, true);
         client.header(HttpHeaders.AUTHORIZATION, authScheme + " " + authSchemeData);
         return client.get(AccessTokenValidation.class);
     }
+    
+    private AccessTokenValidation validateAndCache(String key, String authScheme, String authSchemeData) {
+        long now = System.currentTimeMillis();
+        AccessTokenValidation validation = null;
+        try {
+            validation = validateRemotely(authScheme, authSchemeData);
+        } catch (ServerWebApplicationException ex) {
+            int status = ex.getStatus();
+            if (status >= 400 && status < 500) {
+                // the token itself has been rejected, as opposed to the service being unavailable;
+                // report it the same way as a rejection found in the cache
+                if (invalidTokenCacheTimeToLive > 0) {
+                    putCachedValidation(key, new CachedValidation(null, 
+                                                                  now + invalidTokenCacheTimeToLive * 1000L));
+                }
+                throw new OAuthServiceException(TOKEN_REJECTED, ex);
+            }
+            throw ex;
+        }
+        if (validation != null) {
+            long expiresAt = now + cacheTimeToLive * 1000L;
+            if (validation.getTokenLifetime() != -1) {
+                expiresAt = Math.min(expiresAt, 
+                    (validation.getTokenIssuedAt() + validation.getTokenLifetime()) * 1000L);
+            }
+            if (expiresAt > now) {
+                putCachedValidation(key, new CachedValidation(validation, expiresAt));
+            }
+        }
+        return validation;
+    }
+    
+    private CachedValidation getCachedValidation(String key) {
+        synchronized (cache) {
+            CachedValidation cached = cache.get(key);
+            if (cached != null && cached.expiresAt <= System.currentTimeMillis()) {
+                cache.remove(key);
+                cached = null;
+            }
+            return cached;
+        }
+    }
+    
+    private void putCachedValidation(String key, CachedValidation cached) {
+        synchronized (cache) {
+            cache.put(key, cached);
+        }
+    }
 
     public void setTokenValidatorClient(WebClient tokenValidatorClient) {
         this.tokenValidatorClient = tokenValidatorClient;
     }
 
+    /**
+     * Sets the maximum number of validation results to cache, 
+     * caching is disabled by default.
+     */
+    public void setCacheSize(final int cacheSize) {
+        this.cacheSize = cacheSize;
+        this.cache = new LinkedHashMap<String, CachedValidation>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+            protected boolean removeEldestEntry(Map.Entry<String, CachedValidation> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Sets the maximum number of seconds a valid token's validation result is reused for, 
+     * 60 seconds by default. The result is never reused past the token's own expiry time.
+     */
+    public void setCacheTimeToLive(long cacheTimeToLive) {
+        this.cacheTimeToLive = cacheTimeToLive;
+    }
+
+    /**
+     * Sets the number of seconds a token rejected by the validation service 
+     * keeps being rejected without calling the service again, 5 seconds by default.
+     */
+    public void setInvalidTokenCacheTimeToLive(long invalidTokenCacheTimeToLive) {
+        this.invalidTokenCacheTimeToLive = invalidTokenCacheTimeToLive;
+    }
+    
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+    
+    public long getCacheMisses() {
+        return cacheMisses.get();
+    }
+    
+    private static class CachedValidation {
+        private final AccessTokenValidation validation;
+        private final long expiresAt;
+        
+        CachedValidation(AccessTokenValidation validation, long expiresAt) {
+            this.validation = validation;
+            this.expiresAt = expiresAt;
+        }
+    }
 }
@@ -0,0 +1,205 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.rs.security.oauth2.filters;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.ws.rs.core.Response;
+
+import org.apache.cxf.jaxrs.client.ServerWebApplicationException;
+import org.apache.cxf.rs.security.oauth2.common.AccessTokenValidation;
+import org.apache.cxf.rs.security.oauth2.provider.OAuthServiceException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AccessTokenValidatorClientTest extends Assert {
+    
+    @Test
+    public void testNoCacheByDefault() {
+        TestValidatorClient client = new TestValidatorClient();
+        client.validateAccessToken(null, "Bearer", "a");
+        client.validateAccessToken(null, "Bearer", "a");
+        assertEquals(2, client.calls);
+    }
+    
+    @Test
+    public void testValidTokenIsCached() {
+        TestValidatorClient client = new TestValidatorClient();
+        client.setCacheSize(10);
+        AccessTokenValidation v1 = client.validateAccessToken(null, "Bearer", "a");
+        AccessTokenValidation v2 = client.validateAccessToken(null, "Bearer", "a");
+        assertSame(v1, v2);
+        assertEquals(1, client.calls);
+        
+        client.validateAccessToken(null, "Mac", "a");
+        assertEquals(2, client.calls);
+        assertEquals(1, client.getCacheHits());
+        assertEquals(2, client.getCacheMisses());
+    }
+    
+    @Test
+    public void testExpiredTokenIsNotCached() {
+        TestValidatorClient client = new TestValidatorClient();
+        client.setCacheSize(10);
+        client.lifetime = 0;
+        client.validateAccessToken(null, "Bearer", "a");
+        client.validateAccessToken(null, "Bearer", "a");
+        assertEquals(2, client.calls);
+    }
+    
+    @Test
+    public void testCacheIsBounded() {
+        TestValidatorClient client = new TestValidatorClient();
+        client.setCacheSize(1);
+        client.validateAccessToken(null, "Bearer", "a");
+        client.validateAccessToken(null, "Bearer", "b");
+        client.validateAccessToken(null, "Bearer", "a");
+        assertEquals(3, client.calls);
+    }
+    
+    @Test
+    public void testInvalidTokenIsCached() {
+        TestValidatorClient client = new TestValidatorClient();
+        client.setCacheSize(10);
+        client.status = 401;
+        for (int i = 0; i < 2; i++) {
+            try {
+                client.validateAccessToken(null, "Bearer", "a");
+                fail("OAuthServiceException expected");
+            } catch (OAuthServiceException ex) {
+                // the same exception whether the service has been called or not
+            }
+        }
+        assertEquals(1, client.calls);
+        
+        client.setInvalidTokenCacheTimeToLive(0);
+        for (int i = 0; i < 2; i++) {
+            try {
+                client.validateAccessToken(null, "Bearer", "b");
+                fail("OAuthServiceException expected");
+            } catch (OAuthServiceException ex) {
+                assertTrue(ex.getCause() instanceof ServerWebApplicationException);
+            }
+        }
+        assertEquals(3, client.calls);
+    }
+    
+    @Test
+    public void testConcurrentValidationsShareRemoteCall() throws Exception {
+        final BlockingValidatorClient client = new BlockingValidatorClient();
+        client.setCacheSize(10);
+        final AccessTokenValidation[] results = new AccessTokenValidation[4];
+        Thread[] threads = new Thread[results.length];
+        for (int i = 0; i < threads.length; i++) {
+            final int index = i;
+            threads[i] = new Thread() {
+                public void run() {
+                    results[index] = client.validateAccessToken(null, "Bearer", "a");
+                }
+            };
+        }
+        threads[0].start();
+        assertTrue(client.entered.await(10, TimeUnit.SECONDS));
+        for (int i = 1; i < threads.length; i++) {
+            threads[i].start();
+        }
+        // wait until the other threads are blocked on the pending validation
+        long deadline = System.currentTimeMillis() + 10000;
+        for (int i = 1; i < threads.length; i++) {
+            while (threads[i].getState() != Thread.State.WAITING 
+                && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(Thread.State.WAITING, threads[i].getState());
+        }
+        client.release.countDown();
+        for (Thread t : threads) {
+            t.join(10000);
+        }
+        
+        assertEquals(1, client.calls.get());
+        assertEquals(threads.length, client.getCacheMisses());
+        for (AccessTokenValidation result : results) {
+            assertSame(results[0], result);
+        }
+    }
+    
+    @Test
+    public void testServiceFailureIsNotCached() {
+        TestValidatorClient client = new TestValidatorClient();
+        client.setCacheSize(10);
+        client.status = 503;
+        for (int i = 0; i < 2; i++) {
+            try {
+                client.validateAccessToken(null, "Bearer", "a");
+                fail("ServerWebApplicationException expected");
+            } catch (ServerWebApplicationException ex) {
+                assertEquals(503, ex.getStatus());
+            }
+        }
+        assertEquals(2, client.calls);
+    }
+    
+    private static class TestValidatorClient extends AccessTokenValidatorClient {
+        private int calls;
+        private int status = 200;
+        private long lifetime = 3600;
+        
+        @Override
+        protected AccessTokenValidation validateRemotely(String authScheme, String authSchemeData) {
+            calls++;
+            if (status != 200) {
+                throw new ServerWebApplicationException(Response.status(status).build());
+            }
+            AccessTokenValidation validation = new AccessTokenValidation();
+            validation.setTokenKey(authSchemeData);
+            validation.setTokenType(authScheme);
+            validation.setTokenIssuedAt(System.currentTimeMillis() / 1000 - 1);
+            validation.setTokenLifetime(lifetime);
+            return validation;
+        }
+    }
+    
+    private static class BlockingValidatorClient extends AccessTokenValidatorClient {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        
+        @Override
+        protected AccessTokenValidation validateRemotely(String authScheme, String authSchemeData) {
+            calls.incrementAndGet();
+            entered.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            AccessTokenValidation validation = new AccessTokenValidation();
+            validation.setTokenKey(authSchemeData);
+            validation.setTokenType(authScheme);
+            validation.setTokenIssuedAt(System.currentTimeMillis() / 1000);
+            validation.setTokenLifetime(3600);
+            return validation;
+        }
+    }
+}
@@ -22,6 +22,8 @@ import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.security.GeneralSecurityException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -48,8 +50,10 @@ import org.apache.cxf.service.model.EndpointInfo;
 import org.apache.cxf.transport.http.AbstractHTTPDestination;
 import org.apache.cxf.transport.http.DestinationRegistry;
 import org.apache.cxf.transport.http.HTTPSession;
+import org.apache.cxf.transport.http.Headers;
 import org.apache.cxf.transport.http_jetty.continuations.JettyContinuationProvider;
 import org.apache.cxf.transport.https.CertConstraintsJaxBUtils;
+import org.apache.cxf.transports.http.ConditionalQueryHandler;
 import org.apache.cxf.transports.http.QueryHandler;
 import org.apache.cxf.transports.http.QueryHandlerRegistry;
 import org.apache.cxf.transports.http.StemMatchingQueryHandler;
@@ -274,21 +278,34 @@ public class JettyHTTPDestination extends AbstractHTTPDestination {
                 if (recognized) {
                     //replace the endpointInfo address with request url only for get wsdl
                     String errorMsg = null;
+                    int status = HttpServletResponse.SC_OK;
+                    Map<String, String> responseHeaders = new LinkedHashMap<String, String>();
                     CachedOutputStream out = new CachedOutputStream();
                     try {
                         synchronized (endpointInfo) {
                             String oldAddress = updateEndpointAddress(reqAddr);   
                             resp.setContentType(qh.getResponseContentType(requestURL, pathInfo));
                             try {
-                                qh.writeResponse(requestURL, pathInfo, endpointInfo, out);
+                                if (qh instanceof ConditionalQueryHandler) {
+                                    status = ((ConditionalQueryHandler)qh).writeResponse(
+                                        requestURL, pathInfo, endpointInfo, 
+                                        Headers.getRequestHeaders(req), responseHeaders, out);
+                                } else {
+                                    qh.writeResponse(requestURL, pathInfo, endpointInfo, out);
+                                }
                             } catch (Exception ex) {
                                 LOG.log(Level.WARNING, "writeResponse failed: ", ex);
                                 errorMsg = ex.getMessage();
                             }
                             endpointInfo.setAddress(oldAddress);
                         }
+                        for (Map.Entry<String, String> entry : responseHeaders.entrySet()) {
+                            resp.setHeader(entry.getKey(), entry.getValue());
+                        }
                         if (errorMsg != null) {
                             resp.sendError(500, errorMsg);
+                        } else if (status != HttpServletResponse.SC_OK) {
+                            resp.setStatus(status);
                         } else {
                             out.writeCacheTo(resp.getOutputStream());
                             resp.getOutputStream().flush();                     
@@ -95,6 +95,7 @@ public abstract class AbstractHTTPDestination
     public static final String REQUEST_REDIRECTED = "http.request.redirected";
     public static final String CXF_CONTINUATION_MESSAGE = "cxf.continuation.message";
     public static final String CXF_ASYNC_CONTEXT = "cxf.async.context";
+    public static final String CXF_ASYNC_INVOCATION = "cxf.async.invocation";
 
     public static final String SERVICE_REDIRECTION = "http.service.redirection";
     private static final String HTTP_BASE_PATH = "http.base.path";
@@ -396,6 +397,12 @@ public abstract class AbstractHTTPDestination
                                      final HttpServletRequest req,
                                      final HttpServletResponse resp) {
         try {
+            if (req.getAttribute(CXF_ASYNC_INVOCATION) != null) {
+                // the servlet has already put the request into the async mode and 
+                // is processing it on a work queue thread, it can not be suspended again
+                // so no ContinuationProvider is offered (see CXFNonSpringServlet)
+                return;
+            }
             if (isServlet3 && req.isAsyncSupported()) {
                 inMessage.put(ContinuationProvider.class.getName(),
                               new Servlet3ContinuationProvider(req, resp, inMessage));
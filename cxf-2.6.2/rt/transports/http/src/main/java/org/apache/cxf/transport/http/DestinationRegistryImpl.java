@@ -23,6 +23,7 @@ import java.net.URLDecoder;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -38,6 +39,11 @@ public class DestinationRegistryImpl implements DestinationRegistry {
         = new ConcurrentHashMap<String, AbstractHTTPDestination>();
     private Map<String, AbstractHTTPDestination> decodedDestinations = 
         new ConcurrentHashMap<String, AbstractHTTPDestination>();
+    /**
+     * Path segment trie over the registered paths used by checkRestfulRequest, 
+     * replaced as a whole whenever a destination is added or removed.
+     */
+    private volatile PathNode pathTrie = new PathNode();
 
     public DestinationRegistryImpl() {
     }
@@ -50,6 +56,7 @@ public class DestinationRegistryImpl implements DestinationRegistry {
         } catch (UnsupportedEncodingException e) {
             throw new RuntimeException("Unsupported Encoding", e);
         }
+        rebuildPathTrie();
     }
 
     public void removeDestination(String path) {
@@ -59,6 +66,7 @@ public class DestinationRegistryImpl implements DestinationRegistry {
         } catch (UnsupportedEncodingException e) {
             throw new RuntimeException("Unsupported Encoding", e);
         }
+        rebuildPathTrie();
     }
 
     public AbstractHTTPDestination getDestinationForPath(String path) {
@@ -76,26 +84,24 @@ public class DestinationRegistryImpl implements DestinationRegistry {
     }
     
     public AbstractHTTPDestination checkRestfulRequest(String address) {
-        int len = -1;
-        AbstractHTTPDestination ret = null;
-        for (String path : getDestinationsPaths()) {
-            String thePath = path.length() > 1 && path.endsWith(SLASH) 
-                ? path.substring(0, path.length() - 1) : path;
-            if ((address.equals(thePath) 
-                || SLASH.equals(thePath)
-                || (address.length() > thePath.length() 
-                    && address.startsWith(thePath) && address.charAt(thePath.length()) == '/'))
-                && thePath.length() > len) {
-                ret = getDestinationForPath(path);
-                len = path.length();
-            }
-        }
+        AbstractHTTPDestination ret = pathTrie.findLongestPrefix(address);
         if (ret != null && ret.getMessageObserver() == null) {
             return null;
         }
         return ret; 
     }
 
+    private synchronized void rebuildPathTrie() {
+        PathNode root = new PathNode();
+        for (Map.Entry<String, AbstractHTTPDestination> entry : destinations.entrySet()) {
+            String path = entry.getKey();
+            String thePath = path.length() > 1 && path.endsWith(SLASH) 
+                ? path.substring(0, path.length() - 1) : path;
+            root.add(thePath, entry.getValue());
+        }
+        pathTrie = root;
+    }
+
     public Collection<AbstractHTTPDestination> getDestinations() {
         return Collections.unmodifiableCollection(destinations.values());
     }
@@ -151,4 +157,60 @@ public class DestinationRegistryImpl implements DestinationRegistry {
         return path;
     }
 
+    /**
+     * A node of the path segment trie, a path such as "/soap/test" is stored 
+     * under the segments "", "soap" and "test".  A path of "/" matches any 
+     * address and is kept on the root node.  Nodes are not modified once the 
+     * trie has been published.
+     */
+    private static final class PathNode {
+        private final Map<String, PathNode> children = new HashMap<String, PathNode>();
+        private AbstractHTTPDestination destination;
+        
+        void add(String path, AbstractHTTPDestination dest) {
+            PathNode node = this;
+            if (!SLASH.equals(path)) {
+                int start = 0;
+                while (true) {
+                    int end = path.indexOf('/', start);
+                    String segment = end == -1 ? path.substring(start) : path.substring(start, end);
+                    PathNode child = node.children.get(segment);
+                    if (child == null) {
+                        child = new PathNode();
+                        node.children.put(segment, child);
+                    }
+                    node = child;
+                    if (end == -1) {
+                        break;
+                    }
+                    start = end + 1;
+                }
+            }
+            if (node.destination == null) {
+                node.destination = dest;
+            }
+        }
+        
+        AbstractHTTPDestination findLongestPrefix(String address) {
+            AbstractHTTPDestination ret = destination;
+            PathNode node = this;
+            int start = 0;
+            while (!node.children.isEmpty()) {
+                int end = address.indexOf('/', start);
+                String segment = end == -1 ? address.substring(start) : address.substring(start, end);
+                node = node.children.get(segment);
+                if (node == null) {
+                    break;
+                }
+                if (node.destination != null) {
+                    ret = node.destination;
+                }
+                if (end == -1) {
+                    break;
+                }
+                start = end + 1;
+            }
+            return ret;
+        }
+    }
 }
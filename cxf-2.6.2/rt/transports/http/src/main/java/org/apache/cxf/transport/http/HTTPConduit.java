@@ -41,6 +41,7 @@ import java.util.concurrent.RejectedExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import javax.management.JMException;
 import javax.xml.namespace.QName;
 
 import org.apache.cxf.Bus;
@@ -57,15 +58,19 @@ import org.apache.cxf.endpoint.Endpoint;
 import org.apache.cxf.helpers.HttpHeaderHelper;
 import org.apache.cxf.helpers.IOUtils;
 import org.apache.cxf.helpers.LoadingByteArrayOutputStream;
+import org.apache.cxf.interceptor.MessageSenderInterceptor;
 import org.apache.cxf.io.AbstractThresholdOutputStream;
 import org.apache.cxf.io.CacheAndWriteOutputStream;
 import org.apache.cxf.io.CachedOutputStream;
+import org.apache.cxf.management.InstrumentationManager;
 import org.apache.cxf.message.Exchange;
 import org.apache.cxf.message.ExchangeImpl;
 import org.apache.cxf.message.Message;
 import org.apache.cxf.message.MessageContentsList;
 import org.apache.cxf.message.MessageImpl;
 import org.apache.cxf.message.MessageUtils;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
 import org.apache.cxf.phase.PhaseInterceptorChain;
 import org.apache.cxf.policy.PolicyDataEngine;
 import org.apache.cxf.service.model.EndpointInfo;
@@ -267,6 +272,13 @@ public class HTTPConduit
     private Cookies cookies;
     
     private CertConstraints certConstraints;
+    
+    /**
+     * Tracks and bounds the connections used by this conduit.
+     */
+    private HTTPConnectionPool connectionPool;
+    
+    private ManagedHTTPConnectionPool managedConnectionPool;
 
     /**
      * Constructor
@@ -303,6 +315,7 @@ public class HTTPConduit
         proxyFactory = new ProxyFactory();
         connectionFactory = new HttpsURLConnectionFactory();
         cookies = new Cookies();
+        connectionPool = new HTTPConnectionPool(b);
         updateClientPolicy();
         CXFAuthenticator.addAuthenticator();
     }
@@ -432,6 +445,27 @@ public class HTTPConduit
             clientSidePolicy.removePropertyChangeListener(this); //make sure we aren't added twice
             clientSidePolicy.addPropertyChangeListener(this);
         }
+        registerConnectionPool();
+    }
+    
+    /**
+     * Exposes the connection pool through JMX if it is bounded and an
+     * InstrumentationManager is available.
+     */
+    private void registerConnectionPool() {
+        InstrumentationManager imanager = bus.getExtension(InstrumentationManager.class);
+        if (imanager == null || managedConnectionPool != null
+            || connectionPool.getMaxConnectionsPerHost() <= 0) {
+            return;
+        }
+        ManagedHTTPConnectionPool mbean 
+            = new ManagedHTTPConnectionPool(connectionPool, getConduitName(), bus);
+        try {
+            imanager.register(mbean);
+            managedConnectionPool = mbean;
+        } catch (JMException jmex) {
+            LOG.log(Level.WARNING, "Registering ManagedHTTPConnectionPool failed.", jmex);
+        }
     }
     
     /**
@@ -445,7 +479,9 @@ public class HTTPConduit
     private HttpURLConnection createConnection(Message message, URL url) throws IOException {
         HTTPClientPolicy csPolicy = getClient(message);
         Proxy proxy = proxyFactory.createProxy(csPolicy , url);
-        return connectionFactory.createConnection(tlsClientParameters, proxy, url);
+        HttpURLConnection connection = connectionFactory.createConnection(tlsClientParameters, proxy, url);
+        connectionPool.connectionCreated();
+        return connection;
     }
 
     /**
@@ -553,6 +589,9 @@ public class HTTPConduit
             message.put(CertConstraints.class.getName(), certConstraints);
             message.getInterceptorChain().add(CertConstraintsInterceptor.INSTANCE);
         }
+        if (message.getInterceptorChain() != null) {
+            message.getInterceptorChain().add(LeaseFaultInterceptor.INSTANCE);
+        }
 
         setHeadersByAuthorizationPolicy(message, currentURL);
         new Headers(message).setFromClientPolicy(getClient(message));
@@ -642,6 +681,16 @@ public class HTTPConduit
     }
     
     public void close(Message msg) throws IOException {
+        if (MessageUtils.isOutbound(msg)) {
+            try {
+                super.close(msg);
+            } finally {
+                // the request could not be completed if the lease taken for it has 
+                // neither ended nor been handed on to the response
+                discardLease(msg);
+            }
+            return;
+        }
         InputStream in = msg.getContent(InputStream.class);
         try {
             if (in != null) {
@@ -657,10 +706,23 @@ public class HTTPConduit
                 }
             } 
         } finally {
+            // drain what is left of the response so the connection can be kept alive
+            HTTPConnectionPool.Lease lease = msg.get(HTTPConnectionPool.Lease.class);
+            if (lease != null) {
+                lease.release();
+            }
             super.close(msg);
         }
     }
 
+    private static void discardLease(Message outMessage) {
+        HTTPConnectionPool.Lease lease = outMessage.get(HTTPConnectionPool.Lease.class);
+        if (lease != null) {
+            outMessage.remove(HTTPConnectionPool.Lease.class);
+            lease.discard();
+        }
+    }
+
     /**
      * This function sets up a URL based on ENDPOINT_ADDRESS, PATH_INFO,
      * and QUERY_STRING properties in the Message. The QUERY_STRING gets
@@ -721,6 +783,17 @@ public class HTTPConduit
         if (clientSidePolicy != null) {
             clientSidePolicy.removePropertyChangeListener(this);
         }
+        if (managedConnectionPool != null) {
+            InstrumentationManager imanager = bus.getExtension(InstrumentationManager.class);
+            if (imanager != null) {
+                try {
+                    imanager.unregister(managedConnectionPool);
+                } catch (JMException jmex) {
+                    LOG.log(Level.FINE, "Unregistering ManagedHTTPConnectionPool failed.", jmex);
+                }
+            }
+            managedConnectionPool = null;
+        }
     }
 
     /**
@@ -975,6 +1048,20 @@ public class HTTPConduit
         this.authSupplier = supplier;
     }
     
+    /**
+     * This method gets the pool tracking the connections of this conduit.
+     */
+    public HTTPConnectionPool getConnectionPool() {
+        return connectionPool;
+    }
+
+    /**
+     * This method sets the pool tracking the connections of this conduit.
+     */
+    public void setConnectionPool(HTTPConnectionPool pool) {
+        connectionPool = pool;
+    }
+
     public HttpAuthSupplier getProxyAuthSupplier() {
         return proxyAuthSupplier;
     }
@@ -1294,6 +1381,11 @@ public class HTTPConduit
         protected Message outMessage;
 
         protected String conduitName;
+        
+        /**
+         * The lease on the connection pool, taken before the request is sent.
+         */
+        protected HTTPConnectionPool.Lease lease;
 
         protected WrappedOutputStream(
                 Message outMessage, 
@@ -1319,6 +1411,7 @@ public class HTTPConduit
             this.cachingForRetransmission = wos.cachingForRetransmission;
             this.chunking = wos.chunking;
             this.conduitName = wos.conduitName;
+            this.lease = wos.lease;
         }
         
         
@@ -1346,6 +1439,7 @@ public class HTTPConduit
             try {
                 handleHeadersTrustCaching();
             } catch (IOException e) {
+                discardLease();
                 if (e.getMessage() != null && e.getMessage().contains("HTTPS hostname wrong:")) {
                     throw new IOException("The https URL hostname does not match the " 
                         + "Common Name (CN) on the server certificate in the client's truststore.  " 
@@ -1369,6 +1463,15 @@ public class HTTPConduit
         }
         
         protected void handleHeadersTrustCaching() throws IOException {
+            if (lease == null) {
+                lease = connectionPool.lease(connection.getURL());
+                lease.setConnection(connection);
+                // held by the request until the response takes it over or the lease ends,
+                // so that it is discarded if the request fails after this point
+                if (outMessage != null) {
+                    outMessage.put(HTTPConnectionPool.Lease.class, lease);
+                }
+            }
             // Need to set the headers before the trust decision
             // because they are set before the connect().
             new Headers(outMessage).setProtocolHeadersInConnection(connection);
@@ -1449,8 +1552,10 @@ public class HTTPConduit
                     }
                 }
             } catch (HttpRetryException e) {
+                discardLease();
                 handleHttpRetryException(e, connection);
             } catch (IOException e) {
+                discardLease();
                 String url = connection.getURL().toString();
                 String origMessage = e.getMessage();
                 if (origMessage != null && origMessage.contains(url)) {
@@ -1461,12 +1566,36 @@ public class HTTPConduit
                                    + e.getMessage(), e,
                                    IOException.class);
             } catch (RuntimeException e) {
+                discardLease();
                 throw mapException(e.getClass().getSimpleName() 
                                    + " invoking " + connection.getURL() + ": "
                                    + e.getMessage(), e,
                                    RuntimeException.class);
             }
         }
+        
+        /**
+         * Ends the lease on the connection pool after a failure, disconnecting 
+         * the connection.
+         */
+        protected void discardLease() {
+            if (lease != null) {
+                lease.discard(connection);
+            }
+        }
+        
+        /**
+         * Ends the lease on the connection pool for a response whose body is not
+         * handed on, reading the body off so the connection may be kept alive.
+         */
+        protected void releaseLease() throws IOException {
+            if (lease != null) {
+                lease.release(connection);
+            } else {
+                closeInputStream(connection);
+            }
+        }
+        
         private <T extends Exception> T mapException(String msg, 
                                                      T ex, Class<T> cls) {
             T ex2 = ex;
@@ -1537,11 +1666,14 @@ public class HTTPConduit
                 || outMessage.getExchange().isSynchronous()) {
                 handleResponseInternal();
             } else {
+                // the response thread is responsible for the lease from now on
+                outMessage.remove(HTTPConnectionPool.Lease.class);
                 Runnable runnable = new Runnable() {
                     public void run() {
                         try {
                             handleResponseInternal();
                         } catch (Exception e) {
+                            discardLease();
                             ((PhaseInterceptorChain)outMessage.getInterceptorChain()).abort();
                             outMessage.setContent(Exception.class, e);
                             ((PhaseInterceptorChain)outMessage.getInterceptorChain()).unwind(outMessage);
@@ -1624,6 +1756,8 @@ public class HTTPConduit
             boolean noExceptions = MessageUtils.isTrue(outMessage.getContextualProperty(
                 "org.apache.cxf.http.no_io_exceptions"));
             if (responseCode >= 400 && responseCode != 500 && !noExceptions) {
+                // read the error body off, otherwise the connection can not be kept alive
+                releaseLease();
                 throw new HTTPException(responseCode, connection.getResponseMessage(), 
                                         connection.getURL());
             }
@@ -1641,7 +1775,7 @@ public class HTTPConduit
                 if ((in == null) || (!doProcessResponse(outMessage))) {
                     // oneway operation or decoupled MEP without 
                     // partial response
-                    closeInputStream(connection);
+                    releaseLease();
                     if (isOneway(exchange) && responseCode > 300) {
                         throw new HTTPException(responseCode, connection.getResponseMessage(), connection.getURL());
                     }
@@ -1696,8 +1830,14 @@ public class HTTPConduit
                 }
             }
             if (in == null) {
+                releaseLease();
                 // Create an empty stream to avoid NullPointerExceptions
                 in = new ByteArrayInputStream(new byte[] {});
+            } else if (lease != null) {
+                // the lease ends when the response is closed, see close(Message)
+                in = lease.wrap(connection, in);
+                inMessage.put(HTTPConnectionPool.Lease.class, lease);
+                outMessage.remove(HTTPConnectionPool.Lease.class);
             }
             inMessage.setContent(InputStream.class, in);
             
@@ -1845,4 +1985,25 @@ public class HTTPConduit
         throw (IOException) new IOException(msg).initCause(e);
     }
     
+    /**
+     * Discards the lease still held by the request when the outbound chain fails 
+     * after the connection has been leased but before the response could take it over.
+     */
+    private static final class LeaseFaultInterceptor extends AbstractPhaseInterceptor<Message> {
+        static final LeaseFaultInterceptor INSTANCE = new LeaseFaultInterceptor();
+        
+        private LeaseFaultInterceptor() {
+            super(Phase.PREPARE_SEND);
+            addAfter(MessageSenderInterceptor.class.getName());
+        }
+        
+        public void handleMessage(Message message) {
+            // nothing to do until the chain fails
+        }
+        
+        @Override
+        public void handleFault(Message message) {
+            discardLease(message);
+        }
+    }
 }
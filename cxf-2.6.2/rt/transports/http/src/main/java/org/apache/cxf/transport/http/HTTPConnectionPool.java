@@ -0,0 +1,363 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.transport.http;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.common.i18n.Message;
+import org.apache.cxf.common.logging.LogUtils;
+
+/**
+ * Tracks the connections used by an {@link HTTPConduit}.
+ * <p>
+ * The sockets themselves are kept by the keep-alive cache of the JDK
+ * <code>HttpURLConnection</code>, which only reuses a socket once the previous
+ * response has been read to the end and closed. Every exchange leases a
+ * connection from this pool; when the lease is released the remaining response
+ * body is drained (up to {@link #getMaxDrainSize()} bytes) so the socket can go
+ * back to the keep-alive cache, otherwise the connection is disconnected and
+ * counted as discarded. If {@link #getMaxConnectionsPerHost()} is positive the
+ * number of concurrent leases per host is bounded and callers wait up to
+ * {@link #getLeaseTimeout()} milliseconds for a free connection.
+ */
+public class HTTPConnectionPool {
+    public static final String MAX_CONNECTIONS_PER_HOST 
+        = "org.apache.cxf.transport.http.connection.maxPerHost";
+    public static final String LEASE_TIMEOUT 
+        = "org.apache.cxf.transport.http.connection.leaseTimeout";
+    public static final String MAX_DRAIN_SIZE 
+        = "org.apache.cxf.transport.http.connection.maxDrainSize";
+    
+    private static final Logger LOG = LogUtils.getL7dLogger(HTTPConnectionPool.class);
+    private static final long DEFAULT_LEASE_TIMEOUT = 30000L;
+    private static final long DEFAULT_MAX_DRAIN_SIZE = 64 * 1024L;
+    
+    private final ConcurrentMap<String, Semaphore> hostPermits = new ConcurrentHashMap<String, Semaphore>();
+    private volatile int maxConnectionsPerHost;
+    private volatile long leaseTimeout = DEFAULT_LEASE_TIMEOUT;
+    private volatile long maxDrainSize = DEFAULT_MAX_DRAIN_SIZE;
+    
+    private final AtomicInteger leased = new AtomicInteger();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong released = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+    private final AtomicLong leaseTimeouts = new AtomicLong();
+    
+    public HTTPConnectionPool() {
+    }
+    
+    public HTTPConnectionPool(Bus bus) {
+        if (bus != null) {
+            maxConnectionsPerHost = (int)getLong(bus, MAX_CONNECTIONS_PER_HOST, 0);
+            leaseTimeout = getLong(bus, LEASE_TIMEOUT, DEFAULT_LEASE_TIMEOUT);
+            maxDrainSize = getLong(bus, MAX_DRAIN_SIZE, DEFAULT_MAX_DRAIN_SIZE);
+        }
+    }
+    
+    private static long getLong(Bus bus, String name, long defaultValue) {
+        Object value = bus.getProperty(name);
+        if (value instanceof Number) {
+            return ((Number)value).longValue();
+        } else if (value instanceof String) {
+            try {
+                return Long.parseLong(((String)value).trim());
+            } catch (NumberFormatException ex) {
+                LOG.warning("Ignoring invalid value " + value + " for " + name);
+            }
+        }
+        return defaultValue;
+    }
+    
+    /**
+     * Leases a connection to the host of the given URL, waiting for one to 
+     * become free if the number of connections per host is bounded.
+     */
+    public Lease lease(URL url) throws IOException {
+        Semaphore permits = null;
+        int max = maxConnectionsPerHost;
+        if (max > 0) {
+            String host = getHostKey(url);
+            permits = hostPermits.get(host);
+            if (permits == null) {
+                Semaphore newPermits = new Semaphore(max, true);
+                permits = hostPermits.putIfAbsent(host, newPermits);
+                if (permits == null) {
+                    permits = newPermits;
+                }
+            }
+            boolean acquired;
+            try {
+                acquired = permits.tryAcquire(leaseTimeout, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException(e.getMessage());
+            }
+            if (!acquired) {
+                leaseTimeouts.incrementAndGet();
+                throw new IOException(new Message("CONNECTION_LEASE_TIMEOUT", LOG, 
+                                                  leaseTimeout, max, host).toString());
+            }
+        }
+        leased.incrementAndGet();
+        return new Lease(permits);
+    }
+    
+    /**
+     * Records that a new <code>HttpURLConnection</code> has been opened.
+     */
+    public void connectionCreated() {
+        created.incrementAndGet();
+    }
+    
+    private static String getHostKey(URL url) {
+        int port = url.getPort() == -1 ? url.getDefaultPort() : url.getPort();
+        return url.getProtocol() + "://" + url.getHost() + ":" + port;
+    }
+    
+    /**
+     * Reads the rest of the stream so the underlying socket can be reused.
+     * @return true if the end of the stream was reached within the drain limit
+     */
+    boolean drain(InputStream in) throws IOException {
+        // most of the time the response has been read already, so try a 
+        // single read before allocating a buffer
+        if (in.available() == 0 && in.read() == -1) {
+            return true;
+        }
+        byte[] buffer = new byte[1024];
+        long remaining = maxDrainSize;
+        while (remaining > 0) {
+            int n = in.read(buffer);
+            if (n == -1) {
+                return true;
+            } else if (n == 0) {
+                // a broken stream, do not spin on it
+                return false;
+            }
+            remaining -= n;
+        }
+        return false;
+    }
+    
+    public int getMaxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+    
+    /**
+     * Sets the maximum number of concurrent connections per host, 0 (the default)
+     * means unbounded.
+     */
+    public void setMaxConnectionsPerHost(int max) {
+        maxConnectionsPerHost = max;
+        hostPermits.clear();
+    }
+    
+    public long getLeaseTimeout() {
+        return leaseTimeout;
+    }
+    
+    public void setLeaseTimeout(long timeout) {
+        leaseTimeout = timeout;
+    }
+    
+    public long getMaxDrainSize() {
+        return maxDrainSize;
+    }
+    
+    public void setMaxDrainSize(long size) {
+        maxDrainSize = size;
+    }
+    
+    /**
+     * @return the number of connections currently leased
+     */
+    public int getLeased() {
+        return leased.get();
+    }
+    
+    /**
+     * @return the number of <code>HttpURLConnection</code>s opened, including retransmits
+     */
+    public long getCreated() {
+        return created.get();
+    }
+    
+    /**
+     * @return the number of connections released with the response fully read,
+     *         leaving the socket to the keep-alive cache
+     */
+    public long getReleased() {
+        return released.get();
+    }
+    
+    /**
+     * @return the number of connections disconnected because the response could 
+     *         not be drained or the exchange failed
+     */
+    public long getDiscarded() {
+        return discarded.get();
+    }
+    
+    /**
+     * @return the number of leases which timed out waiting for a free connection
+     */
+    public long getLeaseTimeouts() {
+        return leaseTimeouts.get();
+    }
+    
+    /**
+     * The use of a connection by a single exchange.  A lease is ended exactly once, 
+     * either by {@link #release()} or by {@link #discard(HttpURLConnection)}.
+     */
+    public final class Lease {
+        private final Semaphore permits;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private volatile HttpURLConnection connection;
+        private volatile InputStream in;
+        
+        Lease(Semaphore permits) {
+            this.permits = permits;
+        }
+        
+        /**
+         * Records the response stream to drain when the lease is released.  If the
+         * number of connections per host is bounded the stream is wrapped so that
+         * closing it releases the lease, otherwise it is returned as is.
+         */
+        public InputStream wrap(HttpURLConnection c, InputStream stream) {
+            connection = c;
+            in = stream;
+            if (permits == null) {
+                return stream;
+            }
+            return new FilterInputStream(stream) {
+                @Override
+                public void close() throws IOException {
+                    if (!release()) {
+                        super.close();
+                    }
+                }
+            };
+        }
+        
+        /**
+         * Releases the lease for a response whose body is not passed on, 
+         * draining the error or input stream of the connection.
+         */
+        public void release(HttpURLConnection c) {
+            connection = c;
+            if (in == null) {
+                InputStream ins = c.getErrorStream();
+                if (ins == null) {
+                    try {
+                        ins = c.getInputStream();
+                    } catch (IOException ex) {
+                        // nothing to drain
+                    }
+                }
+                in = ins;
+            }
+            release();
+        }
+        
+        /**
+         * Drains and closes the response stream, if any, and ends the lease.
+         * @return false if the lease had already ended
+         */
+        public boolean release() {
+            if (!done.compareAndSet(false, true)) {
+                return false;
+            }
+            boolean reusable = true;
+            try {
+                InputStream ins = in;
+                if (ins != null) {
+                    reusable = drain(ins);
+                    ins.close();
+                }
+            } catch (IOException ex) {
+                reusable = false;
+            } finally {
+                end(reusable);
+            }
+            return true;
+        }
+        
+        /**
+         * Records the connection the lease has been taken for, so that it can be 
+         * disconnected if the exchange fails before a response is received.
+         */
+        public void setConnection(HttpURLConnection c) {
+            connection = c;
+        }
+        
+        /**
+         * Disconnects the connection and ends the lease, used when the exchange failed.
+         */
+        public void discard(HttpURLConnection c) {
+            if (done.compareAndSet(false, true)) {
+                if (c != null) {
+                    connection = c;
+                }
+                end(false);
+            }
+        }
+        
+        /**
+         * Disconnects the last recorded connection and ends the lease.
+         */
+        public void discard() {
+            discard(null);
+        }
+        
+        private void end(boolean reusable) {
+            try {
+                if (reusable) {
+                    released.incrementAndGet();
+                } else {
+                    discarded.incrementAndGet();
+                    HttpURLConnection c = connection;
+                    if (c != null) {
+                        c.disconnect();
+                    }
+                }
+            } finally {
+                leased.decrementAndGet();
+                if (permits != null) {
+                    permits.release();
+                }
+            }
+        }
+    }
+}
@@ -39,6 +39,7 @@ import javax.servlet.http.HttpServletResponse;
 
 import org.apache.cxf.common.logging.LogUtils;
 import org.apache.cxf.helpers.CastUtils;
+import org.apache.cxf.helpers.HeaderMap;
 import org.apache.cxf.helpers.HttpHeaderHelper;
 import org.apache.cxf.message.Message;
 import org.apache.cxf.message.MessageUtils;
@@ -100,74 +101,59 @@ public class Headers {
             return;
         }
         if (policy.isSetCacheControl()) {
-            headers.put("Cache-Control",
-                    createMutableList(policy.getCacheControl()));
+            putSingle("Cache-Control", policy.getCacheControl());
         }
         if (policy.isSetHost()) {
-            headers.put("Host",
-                    createMutableList(policy.getHost()));
+            putSingle("Host", policy.getHost());
         }
         if (policy.isSetConnection()) {
-            headers.put("Connection",
-                    createMutableList(policy.getConnection().value()));
+            putSingle("Connection", policy.getConnection().value());
         }
         if (policy.isSetAccept()) {
-            headers.put("Accept",
-                    createMutableList(policy.getAccept()));
+            putSingle("Accept", policy.getAccept());
         } else if (!headers.containsKey("Accept")) {
-            headers.put("Accept", createMutableList("*/*"));
+            putSingle("Accept", "*/*");
         }
         if (policy.isSetAcceptEncoding()) {
-            headers.put("Accept-Encoding",
-                    createMutableList(policy.getAcceptEncoding()));
+            putSingle("Accept-Encoding", policy.getAcceptEncoding());
         }
         if (policy.isSetAcceptLanguage()) {
-            headers.put("Accept-Language",
-                    createMutableList(policy.getAcceptLanguage()));
+            putSingle("Accept-Language", policy.getAcceptLanguage());
         }
         if (policy.isSetContentType()) {
             message.put(Message.CONTENT_TYPE, policy.getContentType());
         }
         if (policy.isSetCookie()) {
-            headers.put("Cookie",
-                    createMutableList(policy.getCookie()));
+            putSingle("Cookie", policy.getCookie());
         }
         if (policy.isSetBrowserType()) {
-            headers.put("BrowserType",
-                    createMutableList(policy.getBrowserType()));
+            putSingle("BrowserType", policy.getBrowserType());
         }
         if (policy.isSetReferer()) {
-            headers.put("Referer",
-                    createMutableList(policy.getReferer()));
+            putSingle("Referer", policy.getReferer());
         }
     }
     
     void setFromServerPolicy(HTTPServerPolicy policy) {
         if (policy.isSetCacheControl()) {
-            headers.put("Cache-Control",
-                        createMutableList(policy.getCacheControl()));
+            putSingle("Cache-Control", policy.getCacheControl());
         }
         if (policy.isSetContentLocation()) {
-            headers.put("Content-Location",
-                        createMutableList(policy.getContentLocation()));
+            putSingle("Content-Location", policy.getContentLocation());
         }
         if (policy.isSetContentEncoding()) {
-            headers.put("Content-Encoding",
-                        createMutableList(policy.getContentEncoding()));
+            putSingle("Content-Encoding", policy.getContentEncoding());
         }
         if (policy.isSetContentType()) {
-            headers.put(HttpHeaderHelper.CONTENT_TYPE,
-                        createMutableList(policy.getContentType()));
+            putSingle(HttpHeaderHelper.CONTENT_TYPE, policy.getContentType());
         }
         if (policy.isSetServerType()) {
-            headers.put("Server",
-                        createMutableList(policy.getServerType()));
+            putSingle("Server", policy.getServerType());
         }
         if (policy.isSetHonorKeepAlive() && !policy.isHonorKeepAlive()) {
-            headers.put("Connection",
-                        createMutableList("close"));
+            putSingle("Connection", "close");
         } else if (policy.isSetKeepAliveParameters()) {
-            headers.put("Keep-Alive", createMutableList(policy.getKeepAliveParameters()));
+            putSingle("Keep-Alive", policy.getKeepAliveParameters());
         }
         
     
@@ -185,13 +171,11 @@ public class Headers {
     }
     
     public void setAuthorization(String authorization) {
-        headers.put("Authorization",
-                createMutableList(authorization));
+        putSingle("Authorization", authorization);
     }
     
     public void setProxyAuthorization(String authorization) {
-        headers.put("Proxy-Authorization",
-                createMutableList(authorization));
+        putSingle("Proxy-Authorization", authorization);
     }
     
     
@@ -208,12 +192,9 @@ public class Headers {
         Map<String, List<String>> headers =
             CastUtils.cast((Map<?, ?>)message.get(Message.PROTOCOL_HEADERS));        
         if (null == headers) {
-            headers = new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+            headers = new HeaderMap<String>();
         } else if (headers instanceof HashMap) {
-            Map<String, List<String>> headers2 
-                = new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
-            headers2.putAll(headers);
-            headers = headers2;
+            headers = new HeaderMap<String>(headers);
         }
         message.put(Message.PROTOCOL_HEADERS, headers);
         return headers;
@@ -230,8 +211,12 @@ public class Headers {
         }
     }
 
-    private static List<String> createMutableList(String val) {
-        return new ArrayList<String>(Arrays.asList(new String[] {val}));
+    private void putSingle(String name, String value) {
+        if (headers instanceof HeaderMap) {
+            ((HeaderMap<String>)headers).putSingle(name, value);
+        } else {
+            headers.put(name, new ArrayList<String>(Arrays.asList(new String[] {value})));
+        }
     }
     
     /**
@@ -317,6 +302,26 @@ public class Headers {
         }
     }
     
+    /**
+     * Returns the headers of the request in a case insensitive map, the values
+     * of a header occurring more than once are separated by commas.
+     */
+    public static Map<String, String> getRequestHeaders(HttpServletRequest req) {
+        Map<String, String> result = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+        for (Enumeration<String> e = req.getHeaderNames(); e.hasMoreElements();) {
+            String fname = e.nextElement();
+            StringBuilder sb = new StringBuilder();
+            for (Enumeration<String> e2 = req.getHeaders(fname); e2.hasMoreElements();) {
+                if (sb.length() > 0) {
+                    sb.append(',');
+                }
+                sb.append(e2.nextElement());
+            }
+            result.put(fname, sb.toString());
+        }
+        return result;
+    }
+    
     /**
      * Copy the request headers into the message.
      * 
@@ -326,9 +331,18 @@ public class Headers {
     protected void copyFromRequest(HttpServletRequest req) {
 
         //TODO how to deal with the fields        
+        HeaderMap<String> headerMap = headers instanceof HeaderMap ? (HeaderMap<String>)headers : null;
         for (Enumeration<String> e = req.getHeaderNames(); e.hasMoreElements();) {
             String fname = e.nextElement();
             String mappedName = HttpHeaderHelper.getHeaderKey(fname);
+            Enumeration<String> e2 = req.getHeaders(fname);
+            if (headerMap != null && e2.hasMoreElements()) {
+                // single valued headers are kept inline until someone asks for the list
+                while (e2.hasMoreElements()) {
+                    headerMap.add(mappedName, e2.nextElement());
+                }
+                continue;
+            }
             List<String> values;
             if (headers.containsKey(mappedName)) {
                 values = headers.get(mappedName);
@@ -336,9 +350,8 @@ public class Headers {
                 values = new ArrayList<String>();
                 headers.put(mappedName, values);
             }
-            for (Enumeration<String> e2 = req.getHeaders(fname); e2.hasMoreElements();) {
-                String val = e2.nextElement();
-                values.add(val);
+            while (e2.hasMoreElements()) {
+                values.add(e2.nextElement());
             }
         }
         if (!headers.containsKey(Message.CONTENT_TYPE)) {
@@ -0,0 +1,107 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.transport.http;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.management.ManagedComponent;
+import org.apache.cxf.management.ManagementConstants;
+import org.apache.cxf.management.annotation.ManagedAttribute;
+import org.apache.cxf.management.annotation.ManagedResource;
+
+@ManagedResource(componentName = "HTTPConnectionPool", 
+                 description = "The connections of a CXF HTTP conduit", 
+                 currencyTimeLimit = 15, persistPolicy = "OnUpdate", persistPeriod = 200)
+public class ManagedHTTPConnectionPool implements ManagedComponent {
+    private static final String TYPE_VALUE = "Bus.HTTPConduit.ConnectionPool";
+    
+    private final HTTPConnectionPool pool;
+    private final String conduitName;
+    private final Bus bus;
+    
+    public ManagedHTTPConnectionPool(HTTPConnectionPool pool, String conduitName, Bus bus) {
+        this.pool = pool;
+        this.conduitName = conduitName;
+        this.bus = bus;
+    }
+    
+    @ManagedAttribute(description = "The maximum number of connections per host")
+    public int getMaxConnectionsPerHost() {
+        return pool.getMaxConnectionsPerHost();
+    }
+    
+    @ManagedAttribute(description = "The time in ms to wait for a free connection")
+    public long getLeaseTimeout() {
+        return pool.getLeaseTimeout();
+    }
+    
+    public void setLeaseTimeout(long timeout) {
+        pool.setLeaseTimeout(timeout);
+    }
+    
+    @ManagedAttribute(description = "The number of bytes read off a response to keep the connection alive")
+    public long getMaxDrainSize() {
+        return pool.getMaxDrainSize();
+    }
+    
+    public void setMaxDrainSize(long size) {
+        pool.setMaxDrainSize(size);
+    }
+    
+    @ManagedAttribute(description = "The number of connections in use")
+    public int getLeased() {
+        return pool.getLeased();
+    }
+    
+    @ManagedAttribute(description = "The number of connections opened")
+    public long getCreated() {
+        return pool.getCreated();
+    }
+    
+    @ManagedAttribute(description = "The number of connections returned to the keep-alive cache")
+    public long getReleased() {
+        return pool.getReleased();
+    }
+    
+    @ManagedAttribute(description = "The number of connections closed without reuse")
+    public long getDiscarded() {
+        return pool.getDiscarded();
+    }
+    
+    @ManagedAttribute(description = "The number of requests which timed out waiting for a connection")
+    public long getLeaseTimeouts() {
+        return pool.getLeaseTimeouts();
+    }
+    
+    public ObjectName getObjectName() throws JMException {
+        String busId = bus == null ? Bus.DEFAULT_BUS_ID : bus.getId();
+        StringBuilder buffer = new StringBuilder();
+        buffer.append(ManagementConstants.DEFAULT_DOMAIN_NAME).append(':');
+        buffer.append(ManagementConstants.BUS_ID_PROP).append('=').append(busId).append(',');
+        buffer.append(ManagementConstants.TYPE_PROP).append('=').append(TYPE_VALUE).append(',');
+        buffer.append(ManagementConstants.NAME_PROP).append('=')
+            .append(ObjectName.quote(String.valueOf(conduitName))).append(',');
+        // Added the instance id to make the ObjectName unique
+        buffer.append(ManagementConstants.INSTANCE_ID_PROP).append('=').append(pool.hashCode());
+        return new ObjectName(buffer.toString());
+    }
+}
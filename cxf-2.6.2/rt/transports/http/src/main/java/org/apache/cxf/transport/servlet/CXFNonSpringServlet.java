@@ -18,6 +18,18 @@
  */
 package org.apache.cxf.transport.servlet;
 
+import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.DispatcherType;
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
@@ -29,6 +41,8 @@ import org.apache.cxf.BusException;
 import org.apache.cxf.BusFactory;
 import org.apache.cxf.common.classloader.ClassLoaderUtils;
 import org.apache.cxf.common.classloader.ClassLoaderUtils.ClassLoaderHolder;
+import org.apache.cxf.common.i18n.Message;
+import org.apache.cxf.common.logging.LogUtils;
 import org.apache.cxf.resource.ResourceManager;
 import org.apache.cxf.transport.DestinationFactory;
 import org.apache.cxf.transport.DestinationFactoryManager;
@@ -36,10 +50,20 @@ import org.apache.cxf.transport.http.AbstractHTTPDestination;
 import org.apache.cxf.transport.http.DestinationRegistry;
 import org.apache.cxf.transport.http.HTTPTransportFactory;
 import org.apache.cxf.transport.servlet.servicelist.ServiceListGeneratorServlet;
+import org.apache.cxf.workqueue.AutomaticWorkQueue;
+import org.apache.cxf.workqueue.AutomaticWorkQueueImpl;
+import org.apache.cxf.workqueue.WorkQueueManager;
 
 public class CXFNonSpringServlet extends AbstractHTTPServlet {
 
     private static final long serialVersionUID = -2437897227486327166L;
+    private static final Logger LOG = LogUtils.getL7dLogger(CXFNonSpringServlet.class);
+    
+    private static final String ASYNC_INVOCATION_PARAMETER = "async-invocation";
+    private static final String ASYNC_MAX_CONCURRENCY_PARAMETER = "async-max-concurrency";
+    private static final String ASYNC_TIMEOUT_PARAMETER = "async-timeout";
+    private static final String ASYNC_WORK_QUEUE = "servlet-async";
+    
     private DestinationRegistry destinationRegistry;
     private boolean globalRegistry;
     private Bus bus;
@@ -47,6 +71,13 @@ public class CXFNonSpringServlet extends AbstractHTTPServlet {
     private ClassLoader loader;
     private boolean loadBus = true;
     
+    private boolean asyncInvocation;
+    private AutomaticWorkQueue asyncWorkQueue;
+    private Semaphore asyncPermits;
+    private final AtomicInteger activeAsyncInvocations = new AtomicInteger();
+    private final AtomicInteger peakAsyncInvocations = new AtomicInteger();
+    private final AtomicLong synchronousFallbacks = new AtomicLong();
+    
     public CXFNonSpringServlet() {
     }
 
@@ -77,6 +108,57 @@ public class CXFNonSpringServlet extends AbstractHTTPServlet {
         }
 
         this.controller = createServletController(sc);
+        initAsyncInvocation(sc);
+    }
+
+    /**
+     * Async invocation is off by default and enabled with the "async-invocation" init parameter;
+     * "async-max-concurrency" bounds the number of requests handed over to the work queue at 
+     * the same time (the requests above the limit are processed synchronously).
+     * <p>
+     * The requests are processed on the "servlet-async" work queue, which is created with the 
+     * default settings unless the bus configures it, so that the blocking request I/O does not
+     * compete with the other users of the default work queue.
+     * <p>
+     * The AsyncContext does not time out: a container which has timed out a request may recycle 
+     * the request and response while the work queue thread is still using them, so async 
+     * invocation is not enabled if a positive "async-timeout" is configured.
+     * <p>
+     * The requests processed on the work queue can not be suspended, no ContinuationProvider 
+     * is available to them. The endpoints relying on continuations should be served by a servlet 
+     * which does not enable async invocation.
+     */
+    private void initAsyncInvocation(ServletConfig sc) {
+        if (!Boolean.valueOf(sc.getInitParameter(ASYNC_INVOCATION_PARAMETER))) {
+            return;
+        }
+        String reason = null;
+        try {
+            sc.getServletContext().getClass().getMethod("getEffectiveMajorVersion");
+        } catch (Throwable t) {
+            reason = "the container does not support Servlet 3.0";
+        }
+        if (reason == null && bus == null) {
+            reason = "no bus is available";
+        }
+        if (reason == null && bus.getExtension(WorkQueueManager.class) == null) {
+            reason = "no work queue manager is available";
+        }
+        String timeout = sc.getInitParameter(ASYNC_TIMEOUT_PARAMETER);
+        if (reason == null && timeout != null && Long.parseLong(timeout.trim()) > 0) {
+            reason = "an async-timeout is configured";
+        }
+        if (reason != null) {
+            LOG.log(Level.WARNING, "ASYNC_INVOCATION_NOT_SUPPORTED", reason);
+            return;
+        }
+        asyncWorkQueue = getAsyncWorkQueue();
+        asyncInvocation = true;
+        LOG.log(Level.INFO, "ASYNC_INVOCATION_ENABLED", ASYNC_WORK_QUEUE);
+        String maxConcurrency = sc.getInitParameter(ASYNC_MAX_CONCURRENCY_PARAMETER);
+        if (maxConcurrency != null && Integer.parseInt(maxConcurrency.trim()) > 0) {
+            asyncPermits = new Semaphore(Integer.parseInt(maxConcurrency.trim()));
+        }
     }
 
     private static DestinationRegistry getDestinationRegistryFromBus(Bus bus) {
@@ -98,7 +180,7 @@ public class CXFNonSpringServlet extends AbstractHTTPServlet {
         this.bus = BusFactory.newInstance().createBus();
     }
 
-    private ServletController createServletController(ServletConfig servletConfig) {
+    protected ServletController createServletController(ServletConfig servletConfig) {
         HttpServlet serviceListGeneratorServlet = 
             new ServiceListGeneratorServlet(destinationRegistry, bus);
         ServletController newController =
@@ -118,6 +200,25 @@ public class CXFNonSpringServlet extends AbstractHTTPServlet {
 
     @Override
     protected void invoke(HttpServletRequest request, HttpServletResponse response) throws ServletException {
+        if (asyncInvocation && isAsyncCandidate(request)) {
+            if (asyncPermits == null || asyncPermits.tryAcquire()) {
+                try {
+                    invokeAsync(request, response);
+                    return;
+                } catch (IllegalStateException ex) {
+                    // the async mode could not be started for this request
+                    if (asyncPermits != null) {
+                        asyncPermits.release();
+                    }
+                }
+            }
+            synchronousFallbacks.incrementAndGet();
+        }
+        invokeController(request, response);
+    }
+
+    private void invokeController(HttpServletRequest request, HttpServletResponse response) 
+        throws ServletException {
         ClassLoaderHolder origLoader = null;
         Bus origBus = null;
         try {
@@ -138,6 +239,118 @@ public class CXFNonSpringServlet extends AbstractHTTPServlet {
         }
     }
 
+    private boolean isAsyncCandidate(HttpServletRequest request) {
+        try {
+            // the requests redispatched by the continuations or already in the async mode 
+            // are left to the destination
+            return request.isAsyncSupported()
+                && !request.isAsyncStarted()
+                && request.getDispatcherType() == DispatcherType.REQUEST
+                && request.getAttribute(AbstractHTTPDestination.CXF_CONTINUATION_MESSAGE) == null;
+        } catch (Throwable t) {
+            // the request may not implement the Servlet3 API
+            return false;
+        }
+    }
+
+    /**
+     * Releases the container thread and lets a work queue thread do the (blocking) 
+     * reading of the request and writing of the response.
+     */
+    private void invokeAsync(HttpServletRequest request, HttpServletResponse response) {
+        final AsyncContext context = request.startAsync(request, response);
+        // the work queue thread owns the request and response until it completes the context
+        context.setTimeout(0);
+        context.addListener(new AsyncInvocationListener());
+        request.setAttribute(AbstractHTTPDestination.CXF_ASYNC_INVOCATION, Boolean.TRUE);
+        
+        int active = activeAsyncInvocations.incrementAndGet();
+        int peak = peakAsyncInvocations.get();
+        while (active > peak && !peakAsyncInvocations.compareAndSet(peak, active)) {
+            peak = peakAsyncInvocations.get();
+        }
+        
+        Runnable invocation = new Runnable() {
+            public void run() {
+                HttpServletRequest req = (HttpServletRequest)context.getRequest();
+                HttpServletResponse resp = (HttpServletResponse)context.getResponse();
+                try {
+                    invokeController(req, resp);
+                } catch (Throwable ex) {
+                    LOG.log(Level.WARNING, 
+                            new Message("ASYNC_INVOCATION_FAILED", LOG, req.getRequestURI()).toString(),
+                            ex);
+                    sendServerError(resp);
+                } finally {
+                    activeAsyncInvocations.decrementAndGet();
+                    if (asyncPermits != null) {
+                        asyncPermits.release();
+                    }
+                    try {
+                        context.complete();
+                    } catch (IllegalStateException ex) {
+                        // already completed or timed out
+                    }
+                }
+            }
+        };
+        
+        try {
+            asyncWorkQueue.execute(invocation);
+        } catch (RejectedExecutionException ex) {
+            // the work queue is full, use the container thread
+            synchronousFallbacks.incrementAndGet();
+            invocation.run();
+        }
+    }
+
+    private AutomaticWorkQueue getAsyncWorkQueue() {
+        WorkQueueManager mgr = bus.getExtension(WorkQueueManager.class);
+        synchronized (mgr) {
+            AutomaticWorkQueue queue = mgr.getNamedWorkQueue(ASYNC_WORK_QUEUE);
+            if (queue == null) {
+                // the default queue also runs the decoupled responses and client callbacks 
+                // which must not wait for the slow clients
+                queue = new AutomaticWorkQueueImpl(ASYNC_WORK_QUEUE);
+                mgr.addNamedWorkQueue(ASYNC_WORK_QUEUE, queue);
+            }
+            return queue;
+        }
+    }
+
+    private static void sendServerError(HttpServletResponse response) {
+        if (!response.isCommitted()) {
+            try {
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            } catch (IOException ex) {
+                // the client has gone
+            }
+        }
+    }
+
+    /**
+     * @return the number of the requests currently processed on the work queue threads
+     */
+    public int getActiveAsyncInvocations() {
+        return activeAsyncInvocations.get();
+    }
+
+    /**
+     * @return the highest number of the requests processed on the work queue threads 
+     * at the same time
+     */
+    public int getPeakAsyncInvocations() {
+        return peakAsyncInvocations.get();
+    }
+
+    /**
+     * @return the number of the async capable requests which had to be processed on 
+     * the container threads because of the concurrency limit or a full work queue
+     */
+    public long getSynchronousFallbacks() {
+        return synchronousFallbacks.get();
+    }
+
     public void destroy() {
         if (!globalRegistry) {
             for (String path : destinationRegistry.getDestinationsPaths()) {
@@ -160,4 +373,21 @@ public class CXFNonSpringServlet extends AbstractHTTPServlet {
             bus = null;
         }
     }
+    
+    private static class AsyncInvocationListener implements AsyncListener {
+        public void onTimeout(AsyncEvent event) throws IOException {
+            HttpServletRequest req = (HttpServletRequest)event.getSuppliedRequest();
+            LOG.log(Level.WARNING, "ASYNC_INVOCATION_TIMEOUT", req.getRequestURI());
+        }
+        public void onError(AsyncEvent event) throws IOException {
+            HttpServletRequest req = (HttpServletRequest)event.getSuppliedRequest();
+            LOG.log(Level.WARNING, 
+                    new Message("ASYNC_INVOCATION_FAILED", LOG, req.getRequestURI()).toString(),
+                    event.getThrowable());
+        }
+        public void onComplete(AsyncEvent event) throws IOException {
+        }
+        public void onStartAsync(AsyncEvent event) throws IOException {
+        }
+    }
 }
@@ -21,6 +21,8 @@ package org.apache.cxf.transport.servlet;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -35,11 +37,14 @@ import org.apache.cxf.common.classloader.ClassLoaderUtils;
 import org.apache.cxf.common.classloader.ClassLoaderUtils.ClassLoaderHolder;
 import org.apache.cxf.common.logging.LogUtils;
 import org.apache.cxf.common.util.StringUtils;
+import org.apache.cxf.io.CachedOutputStream;
 import org.apache.cxf.message.Message;
 import org.apache.cxf.resource.ResourceManager;
 import org.apache.cxf.service.model.EndpointInfo;
 import org.apache.cxf.transport.http.AbstractHTTPDestination;
 import org.apache.cxf.transport.http.DestinationRegistry;
+import org.apache.cxf.transport.http.Headers;
+import org.apache.cxf.transports.http.ConditionalQueryHandler;
 import org.apache.cxf.transports.http.QueryHandler;
 import org.apache.cxf.transports.http.QueryHandlerRegistry;
 
@@ -184,7 +189,7 @@ public class ServletController {
                             findQueryHandler(queryHandlerRegistry, ei, ctxUri, baseUri);
                         
                         if (selectedHandler != null) {
-                            respondUsingQueryHandler(selectedHandler, res, ei, ctxUri, baseUri);
+                            respondUsingQueryHandler(selectedHandler, request, res, ei, ctxUri, baseUri);
                             return;
                         }
                     } else {
@@ -236,6 +241,41 @@ public class ServletController {
         return null;
     }
 
+    protected void respondUsingQueryHandler(QueryHandler selectedHandler, HttpServletRequest req,
+                                            HttpServletResponse res, EndpointInfo ei, 
+                                            String ctxUri, String baseUri) 
+        throws IOException, ServletException {
+        if (req == null || !(selectedHandler instanceof ConditionalQueryHandler)) {
+            respondUsingQueryHandler(selectedHandler, res, ei, ctxUri, baseUri);
+            return;
+        }
+        Map<String, String> responseHeaders = new LinkedHashMap<String, String>();
+        CachedOutputStream out = new CachedOutputStream();
+        try {
+            int status = ((ConditionalQueryHandler)selectedHandler)
+                .writeResponse(baseUri, ctxUri, ei, Headers.getRequestHeaders(req), responseHeaders, out);
+            res.setStatus(status);
+            for (Map.Entry<String, String> entry : responseHeaders.entrySet()) {
+                res.setHeader(entry.getKey(), entry.getValue());
+            }
+            if (status != HttpServletResponse.SC_NOT_MODIFIED) {
+                res.setContentType(selectedHandler.getResponseContentType(baseUri, ctxUri));
+                OutputStream os = res.getOutputStream();
+                out.writeCacheTo(os);
+                os.flush();
+            }
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            LOG.warning(selectedHandler.getClass().getName()
+                + " Exception caught writing response: "
+                + e.getMessage());
+            throw new ServletException(e);
+        } finally {
+            out.close();
+        }
+    }
+
     protected void respondUsingQueryHandler(QueryHandler selectedHandler, HttpServletResponse res,
                                           EndpointInfo ei, String ctxUri, String baseUri) throws IOException,
         ServletException {
@@ -121,6 +121,41 @@ public class DestinationRegistryImplTest extends Assert {
         
     }
 
+    @Test
+    public void testCheckRestfulRequestLongestPrefix() throws Exception {
+        AbstractHTTPDestination root = createDestination("/");
+        AbstractHTTPDestination soap = createDestination("/soap/");
+        AbstractHTTPDestination deep = createDestination("/soap/a/b");
+        control.replay();
+        registry.addDestination(root);
+        registry.addDestination(soap);
+        registry.addDestination(deep);
+        
+        assertSame(root, registry.checkRestfulRequest("/other"));
+        assertSame(root, registry.checkRestfulRequest(""));
+        assertSame(soap, registry.checkRestfulRequest("/soap"));
+        assertSame(soap, registry.checkRestfulRequest("/soap/a"));
+        assertSame(soap, registry.checkRestfulRequest("/soap/a/bc"));
+        assertSame(deep, registry.checkRestfulRequest("/soap/a/b"));
+        assertSame(deep, registry.checkRestfulRequest("/soap/a/b/c/d"));
+        
+        registry.removeDestination("/soap/a/b");
+        assertSame(soap, registry.checkRestfulRequest("/soap/a/b/c"));
+        registry.removeDestination("/");
+        assertNull(registry.checkRestfulRequest("/other"));
+        assertSame(soap, registry.checkRestfulRequest("/soap/"));
+    }
+
+    private AbstractHTTPDestination createDestination(String address) {
+        AbstractHTTPDestination destination = control.createMock(AbstractHTTPDestination.class);
+        EndpointInfo endpoint = new EndpointInfo();
+        endpoint.setAddress(address);
+        endpoint.setName(QNAME);
+        EasyMock.expect(destination.getEndpointInfo()).andReturn(endpoint).anyTimes();
+        EasyMock.expect(destination.getMessageObserver()).andReturn(observer).anyTimes();
+        return destination;
+    }
+
     private void setUpDestinations() {
         for (int i = 0; i < REGISTERED_PATHS.length; i++) {
             AbstractHTTPDestination destination = control.createMock(AbstractHTTPDestination.class);
@@ -36,13 +36,16 @@ import java.util.TreeMap;
 
 import org.apache.cxf.Bus;
 import org.apache.cxf.bus.CXFBusImpl;
+import org.apache.cxf.bus.managers.PhaseManagerImpl;
 import org.apache.cxf.configuration.jsse.TLSClientParameters;
 import org.apache.cxf.configuration.security.AuthorizationPolicy;
 import org.apache.cxf.helpers.CastUtils;
+import org.apache.cxf.interceptor.Interceptor;
 import org.apache.cxf.io.AbstractThresholdOutputStream;
 import org.apache.cxf.message.Exchange;
 import org.apache.cxf.message.Message;
 import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.phase.PhaseInterceptorChain;
 import org.apache.cxf.service.model.EndpointInfo;
 import org.apache.cxf.transport.MessageObserver;
 import org.apache.cxf.transport.https.HttpsURLConnectionFactory;
@@ -260,6 +263,63 @@ public class HTTPConduitURLEasyMockTest extends Assert {
         finalVerify();
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFailedRequestBodyReleasesConnectionLease() throws Exception {
+        control = EasyMock.createNiceControl();
+        HTTPConduit conduit = setUpConduit(true, false);
+        HTTPConnectionPool pool = conduit.getConnectionPool();
+        pool.setMaxConnectionsPerHost(1);
+        pool.setLeaseTimeout(100);
+        Message message = new MessageImpl();
+        PhaseInterceptorChain chain = 
+            new PhaseInterceptorChain(new PhaseManagerImpl().getOutPhases());
+        message.setInterceptorChain(chain);
+        conduit.prepare(message);
+        control.verify();
+        control.reset();
+        
+        os = EasyMock.createMock(OutputStream.class);
+        os.write(EasyMock.<byte[]>anyObject(), EasyMock.anyInt(), EasyMock.anyInt());
+        EasyMock.expectLastCall().andThrow(new IOException("Connection reset"));
+        EasyMock.replay(os);
+        connection.getURL();
+        EasyMock.expectLastCall().andReturn(new URL(NOWHERE + "bar/foo")).anyTimes();
+        connection.getRequestMethod();
+        EasyMock.expectLastCall().andReturn("POST").anyTimes();
+        connection.getRequestProperties();
+        EasyMock.expectLastCall().andReturn(new HashMap<String, List<String>>()).anyTimes();
+        connection.getOutputStream();
+        EasyMock.expectLastCall().andReturn(os);
+        connection.disconnect();
+        EasyMock.expectLastCall();
+        control.replay();
+        
+        AbstractThresholdOutputStream wrappedOS 
+            = (AbstractThresholdOutputStream) message.getContent(OutputStream.class);
+        wrappedOS.write(PAYLOAD.getBytes());
+        try {
+            wrappedOS.unBuffer();
+            fail("expected the request body write to fail");
+        } catch (IOException ex) {
+            // expected
+        }
+        assertEquals(1, pool.getLeased());
+        
+        // what the chain does when it unwinds after the failure
+        for (Interceptor<? extends Message> i : chain) {
+            ((Interceptor<Message>)i).handleFault(message);
+        }
+        assertEquals(0, pool.getLeased());
+        assertEquals(1, pool.getDiscarded());
+        
+        HTTPConnectionPool.Lease lease = pool.lease(new URL(NOWHERE + "bar/foo"));
+        assertNotNull(lease);
+        assertEquals(0, pool.getLeaseTimeouts());
+        lease.release();
+        finalVerify();
+    }
+
     private void setUpHeaders(Message message) {
         Map<String, List<String>> headers = new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
         List<String> contentTypes = new ArrayList<String>();
@@ -0,0 +1,88 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.transport.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HTTPConnectionPoolTest extends Assert {
+    
+    @Test
+    public void testReleaseDrainsResponse() throws Exception {
+        HTTPConnectionPool pool = new HTTPConnectionPool();
+        HTTPConnectionPool.Lease lease = pool.lease(new URL("http://localhost:9000/foo"));
+        assertEquals(1, pool.getLeased());
+        
+        ByteArrayInputStream body = new ByteArrayInputStream(new byte[4096]);
+        InputStream in = lease.wrap(null, body);
+        assertSame("unbounded pools do not wrap the response", body, in);
+        assertEquals(0, in.read());
+        
+        assertTrue(lease.release());
+        assertFalse(lease.release());
+        assertEquals(0, body.available());
+        assertEquals(0, pool.getLeased());
+        assertEquals(1, pool.getReleased());
+        assertEquals(0, pool.getDiscarded());
+    }
+    
+    @Test
+    public void testLargeResponseIsDiscarded() throws Exception {
+        HTTPConnectionPool pool = new HTTPConnectionPool();
+        pool.setMaxDrainSize(1024);
+        HTTPConnectionPool.Lease lease = pool.lease(new URL("http://localhost:9000/foo"));
+        lease.wrap(null, new ByteArrayInputStream(new byte[8192]));
+        lease.release();
+        assertEquals(0, pool.getReleased());
+        assertEquals(1, pool.getDiscarded());
+    }
+    
+    @Test
+    public void testMaxConnectionsPerHost() throws Exception {
+        HTTPConnectionPool pool = new HTTPConnectionPool();
+        pool.setMaxConnectionsPerHost(1);
+        pool.setLeaseTimeout(50);
+        URL url = new URL("http://localhost:9000/foo");
+        
+        HTTPConnectionPool.Lease lease = pool.lease(url);
+        // a different port is a different host
+        pool.lease(new URL("http://localhost:9001/foo")).discard(null);
+        try {
+            pool.lease(new URL("http://localhost:9000/bar"));
+            fail("Expected the lease to time out");
+        } catch (IOException ex) {
+            assertEquals(1, pool.getLeaseTimeouts());
+        }
+        
+        InputStream in = lease.wrap(null, new ByteArrayInputStream(new byte[16]));
+        in.close();
+        assertEquals(0, pool.getLeased());
+        assertEquals(1, pool.getReleased());
+        assertEquals(1, pool.getDiscarded());
+        
+        pool.lease(url).release();
+        assertEquals(2, pool.getReleased());
+    }
+}
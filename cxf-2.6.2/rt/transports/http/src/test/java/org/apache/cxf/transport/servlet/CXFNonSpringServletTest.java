@@ -0,0 +1,402 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.transport.servlet;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncListener;
+import javax.servlet.DispatcherType;
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.cxf.bus.extension.ExtensionManagerBus;
+import org.apache.cxf.transport.http.AbstractHTTPDestination;
+import org.apache.cxf.transport.http.DestinationRegistry;
+import org.apache.cxf.workqueue.AutomaticWorkQueue;
+import org.apache.cxf.workqueue.WorkQueueManager;
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CXFNonSpringServletTest extends Assert {
+
+    private ExtensionManagerBus bus;
+    private RecordingController controller;
+    private TestServlet servlet;
+    
+    @Before
+    public void setUp() {
+        bus = new ExtensionManagerBus();
+    }
+    
+    @After
+    public void tearDown() {
+        if (servlet != null) {
+            servlet.destroy();
+        } else {
+            bus.shutdown(true);
+        }
+    }
+    
+    @Test
+    public void testAsyncInvocation() throws Exception {
+        initServlet("async-invocation", "true");
+        HttpServletResponse resp = createResponse();
+        CountDownLatch completed = new CountDownLatch(1);
+        AsyncContext context = createContext(resp, completed);
+        HttpServletRequest req = createAsyncRequest(resp, context);
+        
+        servlet.invoke(req, resp);
+        
+        assertTrue(completed.await(10, TimeUnit.SECONDS));
+        EasyMock.verify(req, context);
+        Thread worker = controller.getThread(req);
+        assertNotNull(worker);
+        assertNotSame(Thread.currentThread(), worker);
+        assertEquals(0, servlet.getSynchronousFallbacks());
+        assertEquals(0, servlet.getActiveAsyncInvocations());
+        assertEquals(1, servlet.getPeakAsyncInvocations());
+        
+        WorkQueueManager mgr = bus.getExtension(WorkQueueManager.class);
+        AutomaticWorkQueue queue = mgr.getNamedWorkQueue("servlet-async");
+        assertNotNull("a dedicated work queue is expected", queue);
+        assertNotSame(mgr.getAutomaticWorkQueue(), queue);
+    }
+    
+    @Test
+    public void testConcurrencyLimitFallsBackToContainerThread() throws Exception {
+        initServlet("async-invocation", "true", "async-max-concurrency", "1");
+        HttpServletResponse resp = createResponse();
+        CountDownLatch completed = new CountDownLatch(1);
+        AsyncContext context = createContext(resp, completed);
+        HttpServletRequest req = createAsyncRequest(resp, context);
+        CountDownLatch release = new CountDownLatch(1);
+        controller.block(release);
+        
+        servlet.invoke(req, resp);
+        assertTrue(controller.awaitEntered(1));
+        controller.block(null);
+        
+        // the only permit is held by the first request
+        HttpServletRequest req2 = createRequest();
+        EasyMock.replay(req2);
+        servlet.invoke(req2, resp);
+        assertSame(Thread.currentThread(), controller.getThread(req2));
+        assertEquals(1, servlet.getSynchronousFallbacks());
+        
+        release.countDown();
+        assertTrue(completed.await(10, TimeUnit.SECONDS));
+        
+        // the permit is available again
+        CountDownLatch completed3 = new CountDownLatch(1);
+        AsyncContext context3 = createContext(resp, completed3);
+        HttpServletRequest req3 = createAsyncRequest(resp, context3);
+        servlet.invoke(req3, resp);
+        assertTrue(completed3.await(10, TimeUnit.SECONDS));
+        assertNotSame(Thread.currentThread(), controller.getThread(req3));
+        assertEquals(1, servlet.getSynchronousFallbacks());
+    }
+    
+    @Test
+    public void testRejectedWorkRunsOnContainerThread() throws Exception {
+        AutomaticWorkQueue queue = EasyMock.createNiceMock(AutomaticWorkQueue.class);
+        queue.execute(EasyMock.isA(Runnable.class));
+        EasyMock.expectLastCall().andThrow(new RejectedExecutionException());
+        EasyMock.replay(queue);
+        bus.getExtension(WorkQueueManager.class).addNamedWorkQueue("servlet-async", queue);
+        initServlet("async-invocation", "true", "async-max-concurrency", "1");
+        
+        HttpServletResponse resp = createResponse();
+        CountDownLatch completed = new CountDownLatch(1);
+        AsyncContext context = createContext(resp, completed);
+        HttpServletRequest req = createAsyncRequest(resp, context);
+        
+        servlet.invoke(req, resp);
+        
+        EasyMock.verify(queue, context);
+        assertEquals(0, completed.getCount());
+        assertSame(Thread.currentThread(), controller.getThread(req));
+        assertEquals(1, servlet.getSynchronousFallbacks());
+        assertEquals(0, servlet.getActiveAsyncInvocations());
+    }
+    
+    @Test
+    public void testStartAsyncFailureFallsBackToContainerThread() throws Exception {
+        initServlet("async-invocation", "true", "async-max-concurrency", "1");
+        HttpServletResponse resp = createResponse();
+        HttpServletRequest req = createRequest();
+        req.startAsync(req, resp);
+        EasyMock.expectLastCall().andThrow(new IllegalStateException());
+        EasyMock.replay(req);
+        
+        servlet.invoke(req, resp);
+        
+        EasyMock.verify(req);
+        assertSame(Thread.currentThread(), controller.getThread(req));
+        assertEquals(1, servlet.getSynchronousFallbacks());
+        
+        // the permit has been given back
+        CountDownLatch completed = new CountDownLatch(1);
+        AsyncContext context = createContext(resp, completed);
+        HttpServletRequest req2 = createAsyncRequest(resp, context);
+        servlet.invoke(req2, resp);
+        assertTrue(completed.await(10, TimeUnit.SECONDS));
+        assertNotSame(Thread.currentThread(), controller.getThread(req2));
+    }
+    
+    @Test
+    public void testAsyncTimeoutDisablesAsyncInvocation() throws Exception {
+        initServlet("async-invocation", "true", "async-timeout", "30000");
+        HttpServletResponse resp = createResponse();
+        // no call is expected on the request as it is not put into the async mode
+        HttpServletRequest req = EasyMock.createMock(HttpServletRequest.class);
+        EasyMock.replay(req);
+        
+        servlet.invoke(req, resp);
+        
+        EasyMock.verify(req);
+        assertSame(Thread.currentThread(), controller.getThread(req));
+        assertEquals(0, servlet.getSynchronousFallbacks());
+        assertNull(bus.getExtension(WorkQueueManager.class).getNamedWorkQueue("servlet-async"));
+    }
+    
+    /**
+     * Measures the container thread use while slow clients hold their requests: 
+     * 20 requests which do not complete until the clients are released are 
+     * sent through 4 container threads.
+     */
+    @Test
+    public void testContainerThreadsUnderSlowClients() throws Exception {
+        int[] sync = measureContainerThreads(false, 4, 20);
+        // all the container threads are held and only as many requests are accepted
+        assertEquals(4, sync[0]);
+        assertEquals(0, sync[1]);
+        
+        int[] async = measureContainerThreads(true, 4, 20);
+        // no container thread is held and all the requests have been accepted
+        assertEquals(0, async[0]);
+        assertEquals(20, async[1]);
+    }
+    
+    /**
+     * @return the number of busy container threads and of the requests the container 
+     * threads have handed over while the slow requests are pending
+     */
+    private int[] measureContainerThreads(boolean async, int containerThreads, int requests) 
+        throws Exception {
+        if (servlet != null) {
+            servlet.destroy();
+            bus = new ExtensionManagerBus();
+        }
+        if (async) {
+            initServlet("async-invocation", "true");
+        } else {
+            initServlet();
+        }
+        CountDownLatch slowClients = new CountDownLatch(1);
+        controller.block(slowClients);
+        CountDownLatch completed = new CountDownLatch(requests);
+        final AtomicInteger busy = new AtomicInteger();
+        final AtomicInteger handedOver = new AtomicInteger();
+        ExecutorService container = Executors.newFixedThreadPool(containerThreads);
+        try {
+            for (int i = 0; i < requests; i++) {
+                final HttpServletResponse resp = createResponse();
+                AsyncContext context = createContext(resp, completed);
+                final HttpServletRequest req = createAsyncRequest(resp, context);
+                container.execute(new Runnable() {
+                    public void run() {
+                        busy.incrementAndGet();
+                        try {
+                            servlet.invoke(req, resp);
+                            handedOver.incrementAndGet();
+                        } catch (ServletException ex) {
+                            // counted as not handed over
+                        } finally {
+                            busy.decrementAndGet();
+                        }
+                    }
+                });
+            }
+            long deadline = System.currentTimeMillis() + 10000;
+            while (!(async ? handedOver.get() == requests && busy.get() == 0
+                           : controller.getEntered() == containerThreads)
+                && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            return new int[] {busy.get(), handedOver.get()};
+        } finally {
+            slowClients.countDown();
+            if (async) {
+                assertTrue(completed.await(10, TimeUnit.SECONDS));
+            }
+            container.shutdown();
+            assertTrue(container.awaitTermination(10, TimeUnit.SECONDS));
+        }
+    }
+    
+    private void initServlet(String... params) throws ServletException {
+        ServletContext sctx = EasyMock.createNiceMock(ServletContext.class);
+        ServletConfig config = EasyMock.createNiceMock(ServletConfig.class);
+        config.getServletContext();
+        EasyMock.expectLastCall().andReturn(sctx).anyTimes();
+        for (int i = 0; i < params.length; i += 2) {
+            config.getInitParameter(params[i]);
+            EasyMock.expectLastCall().andReturn(params[i + 1]).anyTimes();
+        }
+        EasyMock.replay(sctx, config);
+        
+        DestinationRegistry registry = EasyMock.createNiceMock(DestinationRegistry.class);
+        EasyMock.replay(registry);
+        controller = new RecordingController(registry, config);
+        servlet = new TestServlet(registry, controller);
+        servlet.setBus(bus);
+        servlet.init(config);
+    }
+    
+    private static HttpServletResponse createResponse() {
+        HttpServletResponse resp = EasyMock.createNiceMock(HttpServletResponse.class);
+        EasyMock.replay(resp);
+        return resp;
+    }
+    
+    private static HttpServletRequest createRequest() {
+        HttpServletRequest req = EasyMock.createNiceMock(HttpServletRequest.class);
+        req.isAsyncSupported();
+        EasyMock.expectLastCall().andReturn(true).anyTimes();
+        req.isAsyncStarted();
+        EasyMock.expectLastCall().andReturn(false).anyTimes();
+        req.getDispatcherType();
+        EasyMock.expectLastCall().andReturn(DispatcherType.REQUEST).anyTimes();
+        req.getRequestURI();
+        EasyMock.expectLastCall().andReturn("/test").anyTimes();
+        return req;
+    }
+    
+    private static HttpServletRequest createAsyncRequest(HttpServletResponse resp, AsyncContext context) {
+        HttpServletRequest req = createRequest();
+        req.startAsync(req, resp);
+        EasyMock.expectLastCall().andReturn(context);
+        req.setAttribute(AbstractHTTPDestination.CXF_ASYNC_INVOCATION, Boolean.TRUE);
+        EasyMock.expectLastCall();
+        EasyMock.replay(req);
+        
+        context.getRequest();
+        EasyMock.expectLastCall().andReturn(req).anyTimes();
+        EasyMock.replay(context);
+        return req;
+    }
+    
+    /**
+     * The returned context is replayed by createAsyncRequest once its request is known.
+     */
+    private static AsyncContext createContext(HttpServletResponse resp, final CountDownLatch completed) {
+        AsyncContext context = EasyMock.createMock(AsyncContext.class);
+        context.setTimeout(0);
+        EasyMock.expectLastCall();
+        context.addListener(EasyMock.isA(AsyncListener.class));
+        EasyMock.expectLastCall();
+        context.getResponse();
+        EasyMock.expectLastCall().andReturn(resp).anyTimes();
+        context.complete();
+        EasyMock.expectLastCall().andAnswer(new IAnswer<Object>() {
+            public Object answer() {
+                completed.countDown();
+                return null;
+            }
+        });
+        return context;
+    }
+    
+    private static class TestServlet extends CXFNonSpringServlet {
+        private static final long serialVersionUID = 1L;
+        private transient ServletController testController;
+        
+        TestServlet(DestinationRegistry registry, ServletController controller) {
+            super(registry, false);
+            this.testController = controller;
+        }
+        
+        @Override
+        protected ServletController createServletController(ServletConfig servletConfig) {
+            return testController;
+        }
+    }
+    
+    private static class RecordingController extends ServletController {
+        private final Map<HttpServletRequest, Thread> threads 
+            = new ConcurrentHashMap<HttpServletRequest, Thread>();
+        private final AtomicInteger entered = new AtomicInteger();
+        private volatile CountDownLatch blocker;
+        
+        RecordingController(DestinationRegistry registry, ServletConfig config) {
+            super(registry, config, null);
+        }
+        
+        void block(CountDownLatch latch) {
+            blocker = latch;
+        }
+        
+        int getEntered() {
+            return entered.get();
+        }
+        
+        boolean awaitEntered(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 10000;
+            while (entered.get() < count && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            return entered.get() >= count;
+        }
+        
+        Thread getThread(HttpServletRequest req) {
+            return threads.get(req);
+        }
+        
+        @Override
+        public void invoke(HttpServletRequest request, HttpServletResponse res) throws ServletException {
+            threads.put(request, Thread.currentThread());
+            entered.incrementAndGet();
+            CountDownLatch latch = blocker;
+            if (latch != null) {
+                try {
+                    latch.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
@@ -35,12 +35,16 @@ import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
 import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
 
 import org.w3c.dom.Attr;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 
+import org.apache.cxf.binding.soap.BufferedSoapHeader;
 import org.apache.cxf.binding.soap.SoapFault;
 import org.apache.cxf.binding.soap.SoapMessage;
 import org.apache.cxf.binding.soap.SoapVersion;
@@ -56,6 +60,8 @@ import org.apache.cxf.message.Exchange;
 import org.apache.cxf.message.Message;
 import org.apache.cxf.message.MessageUtils;
 import org.apache.cxf.phase.Phase;
+import org.apache.cxf.staxutils.W3CDOMStreamReader;
+import org.apache.cxf.staxutils.W3CDOMStreamWriter;
 import org.apache.cxf.ws.addressing.AddressingProperties;
 import org.apache.cxf.ws.addressing.AttributedURIType;
 import org.apache.cxf.ws.addressing.ContextUtils;
@@ -76,6 +82,13 @@ import org.apache.cxf.wsdl.EndpointReferenceUtils;
  */
 public class MAPCodec extends AbstractSoapInterceptor {
 
+    /**
+     * Contextual property that, when set to false, sends every 2005/08 header 
+     * through JAXB instead of the hand-coded StAX codec.
+     */
+    public static final String STREAMING_CODEC = 
+        "org.apache.cxf.ws.addressing.streaming_codec";
+
     private static final Logger LOG = LogUtils.getL7dLogger(MAPCodec.class);
     private static final String IS_REFERENCE_PARAM_ATTR_NAME = "IsReferenceParameter";
     private static final ResourceBundle BUNDLE = LOG.getResourceBundle();
@@ -203,19 +216,16 @@ public class MAPCodec extends AbstractSoapInterceptor {
                 discardMAPs(header, maps);
 
                 Element hdr = getHeaderFactory().getHeader(message.getVersion());                
-                JAXBContext jaxbContext = 
-                    VersionTransformer.getExposedJAXBContext(
-                                                     maps.getNamespaceURI());
-                Marshaller marshaller = jaxbContext.createMarshaller();
+                HeaderBinding binding = new HeaderBinding(maps.getNamespaceURI(),
+                                                          isStreaming(message));
                 QName duplicate = maps.getDuplicate();
-                marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
                 encodeAsExposed(maps,
                                 message,
                                 maps.getAction(), 
                                 Names.WSA_ACTION_QNAME,
                                 AttributedURIType.class, 
                                 hdr, 
-                                marshaller);
+                                binding);
                 if (Names.WSA_ACTION_QNAME.equals(duplicate)) {
                     encodeAsExposed(maps,
                                     message,
@@ -223,7 +233,7 @@ public class MAPCodec extends AbstractSoapInterceptor {
                                     Names.WSA_ACTION_QNAME,
                                     AttributedURIType.class, 
                                     hdr, 
-                                    marshaller);
+                                    binding);
                 }
                 encodeAsExposed(maps,
                                 message,
@@ -231,7 +241,7 @@ public class MAPCodec extends AbstractSoapInterceptor {
                                 Names.WSA_MESSAGEID_QNAME,
                                 AttributedURIType.class, 
                                 hdr, 
-                                marshaller);
+                                binding);
                 if (Names.WSA_MESSAGEID_QNAME.equals(duplicate)) {
                     encodeAsExposed(maps,
                                     message,
@@ -239,7 +249,7 @@ public class MAPCodec extends AbstractSoapInterceptor {
                                     Names.WSA_MESSAGEID_QNAME,
                                     AttributedURIType.class, 
                                     hdr, 
-                                    marshaller);
+                                    binding);
                 }
                 encodeAsExposed(maps,
                                 message,
@@ -247,7 +257,7 @@ public class MAPCodec extends AbstractSoapInterceptor {
                                 Names.WSA_TO_QNAME,
                                 AttributedURIType.class,  
                                 hdr, 
-                                marshaller);
+                                binding);
                 if (Names.WSA_TO_QNAME.equals(duplicate)) {
                     encodeAsExposed(maps,
                                     message,
@@ -255,7 +265,7 @@ public class MAPCodec extends AbstractSoapInterceptor {
                                     Names.WSA_TO_QNAME,
                                     AttributedURIType.class,  
                                     hdr, 
-                                    marshaller);
+                                    binding);
                 }
                 if (needsReplyTo(maps)) {
                     encodeAsExposed(maps,
@@ -264,7 +274,7 @@ public class MAPCodec extends AbstractSoapInterceptor {
                             Names.WSA_REPLYTO_QNAME, 
                             EndpointReferenceType.class,
                             hdr,
-                            marshaller);
+                            binding);
                     if (Names.WSA_REPLYTO_QNAME.equals(duplicate)) {
                         encodeAsExposed(maps,
                                         message,
@@ -272,7 +282,7 @@ public class MAPCodec extends AbstractSoapInterceptor {
                                         Names.WSA_REPLYTO_QNAME, 
                                         EndpointReferenceType.class,
                                         hdr,
-                                        marshaller);
+                                        binding);
                     }
                 }
 
@@ -282,7 +292,7 @@ public class MAPCodec extends AbstractSoapInterceptor {
                                 Names.WSA_RELATESTO_QNAME,
                                 RelatesToType.class,
                                 hdr,
-                                marshaller);
+                                binding);
                 if (Names.WSA_RELATESTO_QNAME.equals(duplicate)) {
                     encodeAsExposed(maps,
                                     message,
@@ -290,7 +300,7 @@ public class MAPCodec extends AbstractSoapInterceptor {
                                     Names.WSA_RELATESTO_QNAME,
                                     RelatesToType.class,
                                     hdr,
-                                    marshaller);
+                                    binding);
                 }
                 encodeAsExposed(maps,
                                 message,
@@ -298,7 +308,7 @@ public class MAPCodec extends AbstractSoapInterceptor {
                                 Names.WSA_FROM_QNAME,
                                 EndpointReferenceType.class,  
                                 hdr, 
-                                marshaller);
+                                binding);
                 if (Names.WSA_FROM_QNAME.equals(duplicate)) {
                     encodeAsExposed(maps,
                                     message,
@@ -306,7 +316,7 @@ public class MAPCodec extends AbstractSoapInterceptor {
                                     Names.WSA_FROM_QNAME,
                                     EndpointReferenceType.class,  
                                     hdr, 
-                                    marshaller);
+                                    binding);
                 }
                 if (needsFaultTo(maps)) {
                     encodeAsExposed(maps,
@@ -315,7 +325,7 @@ public class MAPCodec extends AbstractSoapInterceptor {
                                     Names.WSA_FAULTTO_QNAME, 
                                     EndpointReferenceType.class,
                                     hdr,
-                                    marshaller);
+                                    binding);
                     if (Names.WSA_FAULTTO_QNAME.equals(duplicate)) {
                         encodeAsExposed(maps,
                                         message,
@@ -323,10 +333,10 @@ public class MAPCodec extends AbstractSoapInterceptor {
                                         Names.WSA_FAULTTO_QNAME, 
                                         EndpointReferenceType.class,
                                         hdr,
-                                        marshaller);
+                                        binding);
                     }
                 }
-                encodeReferenceParameters(maps, hdr, marshaller);
+                encodeReferenceParameters(maps, hdr, binding);
                 
                 Node childNode = hdr.getFirstChild();
                 
@@ -366,7 +376,7 @@ public class MAPCodec extends AbstractSoapInterceptor {
     }
 
     private void encodeReferenceParameters(AddressingProperties maps, Element header, 
-                                           Marshaller marshaller) throws JAXBException {
+                                           HeaderBinding binding) throws JAXBException {
         EndpointReferenceType toEpr = maps.getToEndpointReference();
         if (null != toEpr) {
             ReferenceParametersType params = toEpr.getReferenceParameters();
@@ -380,7 +390,7 @@ public class MAPCodec extends AbstractSoapInterceptor {
                             header.appendChild(importedNode);                            
                         } else {
                             jaxbEl = (JAXBElement<?>) o;
-                            marshaller.marshal(jaxbEl, header);
+                            binding.getMarshaller().marshal(jaxbEl, header);
                         }
                                                
                         Element lastAdded = (Element)header.getLastChild();
@@ -462,7 +472,7 @@ public class MAPCodec extends AbstractSoapInterceptor {
      * @param name the QName for the header 
      * @param clz the class
      * @param header the SOAP header element
-     * @param marshaller the JAXB marshaller to use
+     * @param binding the codec or JAXB marshaller to use
      */
     private <T> void encodeAsExposed(AddressingProperties maps,
                                      SoapMessage message,
@@ -470,17 +480,12 @@ public class MAPCodec extends AbstractSoapInterceptor {
                                      QName name,
                                      Class<T> clz,
                                      Element header,
-                                     Marshaller marshaller) throws JAXBException {
+                                     HeaderBinding binding) throws JAXBException {
         if (value != null) {
             LOG.log(Level.FINE,
                     "{0} : {1}",
                     new Object[] {name.getLocalPart(), getLogText(value)});
-            transformer.encodeAsExposed(maps.getNamespaceURI(),
-                                        value,
-                                        name.getLocalPart(),
-                                        clz,
-                                        header,
-                                        marshaller);
+            binding.encode(value, name, clz, header);
         }
         addMustUnderstandAttribute(header,
                                    name,
@@ -503,92 +508,92 @@ public class MAPCodec extends AbstractSoapInterceptor {
             List<Header> header = message.getHeaders();
             if (header != null) {
                 LOG.log(Level.FINE, "Inbound WS-Addressing headers");
-                Unmarshaller unmarshaller = null;
+                HeaderBinding binding = null;
                 Set<Element> referenceParameterHeaders = null;
                 QName invalidCardinalityQName = null;
                 Iterator<Header> iter = header.iterator();
                 while (iter.hasNext()) {
                     Header hdr = iter.next();
-                    if (hdr.getObject() instanceof Element) {
-                        Element headerElement = (Element)hdr.getObject();
-                        String headerURI = headerElement.getNamespaceURI();
+                    // buffered headers are only parsed if they are WS-A headers
+                    // or reference parameters
+                    boolean buffered = hdr instanceof BufferedSoapHeader
+                        && !((BufferedSoapHeader)hdr).isMaterialized();
+                    if (buffered || hdr.getObject() instanceof Element) {
+                        Element headerElement = buffered ? null : (Element)hdr.getObject();
+                        String headerURI = buffered 
+                            ? hdr.getName().getNamespaceURI() : headerElement.getNamespaceURI();
                         // Need to check the uri before getting unmarshaller else
                         // would get wrong unmarshaller and fail to process required
                         // headers.
                         if (VersionTransformer.isSupported(headerURI)) {
-                            if (unmarshaller == null) {
-                                JAXBContext jaxbContext = 
-                                    VersionTransformer.getExposedJAXBContext(headerURI);
-                                unmarshaller = 
-                                    jaxbContext.createUnmarshaller();
+                            if (binding == null) {
+                                binding = new HeaderBinding(headerURI, isStreaming(message));
                             }
                             if (maps == null) {
                                 maps = new AddressingPropertiesImpl();
                                 maps.exposeAs(headerURI);
                             }
-                            String localName = headerElement.getLocalName();
+                            String localName = buffered 
+                                ? hdr.getName().getLocalPart() : headerElement.getLocalName();
                             if (Names.WSA_MESSAGEID_NAME.equals(localName)) {
                                 invalidCardinalityQName = maps.getMessageID() != null
                                     ? Names.WSA_MESSAGEID_QNAME : null;
-                                maps.setMessageID(decodeAsNative(
+                                maps.setMessageID(binding.decode(
                                                        headerURI,
                                                        AttributedURIType.class,
-                                                       headerElement, 
-                                                       unmarshaller));
+                                                       hdr));
                             } else if (Names.WSA_TO_NAME.equals(localName)) {
                                 invalidCardinalityQName = maps.getTo() != null ? Names.WSA_TO_QNAME : null;
-                                AttributedURIType addr = decodeAsNative(
+                                AttributedURIType addr = binding.decode(
                                                        headerURI,
                                                        AttributedURIType.class,
-                                                       headerElement, 
-                                                       unmarshaller);
+                                                       hdr);
                                 maps.setTo(EndpointReferenceUtils.getEndpointReference(addr));
                             } else if (Names.WSA_FROM_NAME.equals(localName)) {
                                 invalidCardinalityQName = maps.getFrom() != null
                                     ? Names.WSA_FROM_QNAME : null;
-                                maps.setFrom(decodeAsNative(
+                                maps.setFrom(binding.decode(
                                                        headerURI,
                                                        EndpointReferenceType.class,
-                                                       headerElement, 
-                                                       unmarshaller));
+                                                       hdr));
                             } else if (Names.WSA_REPLYTO_NAME.equals(localName)) {
                                 invalidCardinalityQName = maps.getReplyTo() != null
                                                                    ? Names.WSA_REPLYTO_QNAME : null;
 
-                                maps.setReplyTo(decodeAsNative(
+                                maps.setReplyTo(binding.decode(
                                                        headerURI,
                                                        EndpointReferenceType.class,
-                                                       headerElement, 
-                                                       unmarshaller));
+                                                       hdr));
                             } else if (Names.WSA_FAULTTO_NAME.equals(localName)) {
                                 invalidCardinalityQName = maps.getFaultTo() != null
                                     ? Names.WSA_FAULTTO_QNAME : null;
 
-                                maps.setFaultTo(decodeAsNative(
+                                maps.setFaultTo(binding.decode(
                                                        headerURI,
                                                        EndpointReferenceType.class,
-                                                       headerElement, 
-                                                       unmarshaller));
+                                                       hdr));
                             } else if (Names.WSA_RELATESTO_NAME.equals(localName)) {
-                                maps.setRelatesTo(decodeAsNative(
+                                maps.setRelatesTo(binding.decode(
                                                        headerURI,
                                                        RelatesToType.class,
-                                                       headerElement, 
-                                                       unmarshaller));
+                                                       hdr));
                             } else if (Names.WSA_ACTION_NAME.equals(localName)) {
                                 invalidCardinalityQName = maps.getAction() != null
                                     ? Names.WSA_ACTION_QNAME : null;
-                                maps.setAction(decodeAsNative(
+                                maps.setAction(binding.decode(
                                                        headerURI,
                                                        AttributedURIType.class,
-                                                       headerElement, 
-                                                       unmarshaller));
+                                                       hdr));
                             }
-                        } else if (null != headerElement.getAttribute(IS_REFERENCE_PARAM_ATTR_NAME)) {
+                        } else if (buffered ? isReferenceParameter((BufferedSoapHeader)hdr)
+                            : null != headerElement.getAttribute(IS_REFERENCE_PARAM_ATTR_NAME)) {
+                            // getAttribute returns "" for a missing attribute, so the DOM 
+                            // headers other than the WS-A ones are all taken as reference 
+                            // parameters, while the buffered headers are checked strictly
                             if (null == referenceParameterHeaders) {
                                 referenceParameterHeaders = new HashSet<Element>();
                             }
-                            referenceParameterHeaders.add(headerElement); 
+                            referenceParameterHeaders.add((Element)hdr.getObject()); 
                         } else if (headerURI.contains(Names.WSA_NAMESPACE_PATTERN)) {
                             LOG.log(Level.WARNING, 
                                     "UNSUPPORTED_VERSION_MSG",
@@ -597,7 +602,7 @@ public class MAPCodec extends AbstractSoapInterceptor {
                     }
                 }
                 if (null != referenceParameterHeaders && null != maps) {
-                    decodeReferenceParameters(referenceParameterHeaders, maps, unmarshaller);
+                    decodeReferenceParameters(referenceParameterHeaders, maps, binding.getUnmarshaller());
                 }
                 if (invalidCardinalityQName != null) {
                     storeInvalidCardinalityFault(message, invalidCardinalityQName);
@@ -610,6 +615,21 @@ public class MAPCodec extends AbstractSoapInterceptor {
         return maps;
     }
         
+    /**
+     * Checks a buffered header, only read with soap.lazy.headers, for wsa:IsReferenceParameter 
+     * in the WS-Addressing 1.0 namespace with the xs:boolean value true or 1 (so not "TRUE"). 
+     * Unlike the DOM headers, which are all taken as reference parameters, the buffered headers 
+     * without it are not parsed at all.
+     */
+    static boolean isReferenceParameter(BufferedSoapHeader hdr) {
+        String value = hdr.getAttributeValue(Names.WSA_NAMESPACE_NAME, IS_REFERENCE_PARAM_ATTR_NAME);
+        if (value == null) {
+            return false;
+        }
+        value = value.trim();
+        return "true".equals(value) || "1".equals(value);
+    }
+        
     private void storeInvalidCardinalityFault(SoapMessage message, QName wsaHeaderName) {
         LOG.log(Level.WARNING, "INVALID_CARDINALITY_MESSAGE", wsaHeaderName);
         String reason = BUNDLE.getString("INVALID_ADDRESSING_PROPERTY_MESSAGE");
@@ -903,6 +923,88 @@ public class MAPCodec extends AbstractSoapInterceptor {
     public interface HeaderFactory {
         Element getHeader(SoapVersion soapversion);
     }
+    
+    private boolean isStreaming(SoapMessage message) {
+        return MessageUtils.getContextualBoolean(message, STREAMING_CODEC, true);
+    }
+    
+    /**
+     * Encodes/decodes the headers of one message for one WS-Addressing version.
+     * The common 2005/08 shapes go through the {@link StaxHeaderCodec}, 
+     * everything else through a JAXB (un)marshaller created on first use.
+     */
+    private final class HeaderBinding {
+        private final String exposeAs;
+        private final boolean streaming;
+        private XMLStreamWriter writer;
+        private Marshaller marshaller;
+        private Unmarshaller unmarshaller;
+        
+        HeaderBinding(String exposeAs, boolean streaming) {
+            this.exposeAs = exposeAs;
+            this.streaming = streaming && Names.WSA_NAMESPACE_NAME.equals(exposeAs);
+        }
+        
+        Marshaller getMarshaller() throws JAXBException {
+            if (marshaller == null) {
+                JAXBContext jaxbContext = VersionTransformer.getExposedJAXBContext(exposeAs);
+                marshaller = jaxbContext.createMarshaller();
+                marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+            }
+            return marshaller;
+        }
+        
+        Unmarshaller getUnmarshaller() throws JAXBException {
+            if (unmarshaller == null) {
+                JAXBContext jaxbContext = VersionTransformer.getExposedJAXBContext(exposeAs);
+                unmarshaller = jaxbContext.createUnmarshaller();
+            }
+            return unmarshaller;
+        }
+        
+        <T> void encode(T value, QName name, Class<T> clz, Element header) throws JAXBException {
+            if (streaming && StaxHeaderCodec.canWrite(value)) {
+                if (writer == null) {
+                    writer = new W3CDOMStreamWriter(header);
+                }
+                try {
+                    StaxHeaderCodec.write(value, name.getLocalPart(), writer);
+                    return;
+                } catch (XMLStreamException ex) {
+                    throw new JAXBException(ex);
+                }
+            }
+            transformer.encodeAsExposed(exposeAs,
+                                        value,
+                                        name.getLocalPart(),
+                                        clz,
+                                        header,
+                                        getMarshaller());
+        }
+        
+        <T> T decode(String encodedAs, Class<T> clz, Header hdr) throws JAXBException {
+            if (streaming && exposeAs.equals(encodedAs)) {
+                T value = null;
+                try {
+                    XMLStreamReader reader = hdr instanceof BufferedSoapHeader
+                        ? ((BufferedSoapHeader)hdr).getXMLStreamReader()
+                        : new W3CDOMStreamReader((Element)hdr.getObject());
+                    if (reader != null) {
+                        value = StaxHeaderCodec.read(clz, reader);
+                    }
+                } catch (XMLStreamException ex) {
+                    LOG.log(Level.FINE, "Falling back to JAXB for " + hdr.getName(), ex);
+                }
+                if (value != null) {
+                    LOG.log(Level.FINE,
+                            "{0} : {1}",
+                            new Object[] {hdr.getName().getLocalPart(), getLogText(value)});
+                    return value;
+                }
+            }
+            return decodeAsNative(encodedAs, clz, (Element)hdr.getObject(), getUnmarshaller());
+        }
+    }
 }
 
 
@@ -0,0 +1,306 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.ws.addressing.soap;
+
+import java.util.Map;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.apache.cxf.common.util.StringUtils;
+import org.apache.cxf.ws.addressing.AttributedURIType;
+import org.apache.cxf.ws.addressing.EndpointReferenceType;
+import org.apache.cxf.ws.addressing.JAXWSAConstants;
+import org.apache.cxf.ws.addressing.Names;
+import org.apache.cxf.ws.addressing.RelatesToType;
+
+/**
+ * Hand-coded StAX reader/writer for the fixed 2005/08 WS-Addressing header 
+ * vocabulary (To, Action, MessageID, RelatesTo and the From/ReplyTo/FaultTo
+ * EPRs).  Only the shapes seen on practically every message are handled here: 
+ * an attributed URI, a RelatesTo, or an EPR carrying nothing but an Address.
+ * Anything else (reference parameters, metadata, extension elements, xsi 
+ * attributes, mixed content) is reported back to the caller, which then falls 
+ * back to the JAXB path in {@link MAPCodec}.
+ */
+final class StaxHeaderCodec {
+    
+    private StaxHeaderCodec() {
+        //utility class
+    }
+    
+    /**
+     * Decode a 2005/08 header value from the reader.
+     * 
+     * @param clz the expected value type
+     * @param reader positioned on, or before, the header element
+     * @return the decoded value, or null if the content needs the JAXB path 
+     */
+    static <T> T read(Class<T> clz, XMLStreamReader reader) throws XMLStreamException {
+        while (reader.getEventType() != XMLStreamConstants.START_ELEMENT) {
+            if (!reader.hasNext()) {
+                return null;
+            }
+            reader.next();
+        }
+        Object value = null;
+        if (AttributedURIType.class.equals(clz)) {
+            value = readAttributedURI(reader);
+        } else if (RelatesToType.class.equals(clz)) {
+            value = readRelatesTo(reader);
+        } else if (EndpointReferenceType.class.equals(clz)) {
+            value = readEndpointReference(reader);
+        }
+        return value == null ? null : clz.cast(value);
+    }
+    
+    /**
+     * @return true if the value can be written without JAXB
+     */
+    static boolean canWrite(Object value) {
+        if (value instanceof AttributedURIType) {
+            return ((AttributedURIType)value).getValue() != null;
+        } else if (value instanceof RelatesToType) {
+            return ((RelatesToType)value).getValue() != null;
+        } else if (value instanceof EndpointReferenceType) {
+            EndpointReferenceType epr = (EndpointReferenceType)value;
+            return epr.getAddress() != null
+                && epr.getAddress().getValue() != null
+                && epr.getReferenceParameters() == null
+                && epr.getMetadata() == null
+                && epr.getAny().isEmpty();
+        }
+        return false;
+    }
+    
+    /**
+     * Encode a 2005/08 header value, canWrite(value) must hold.
+     * 
+     * @param value the value to write
+     * @param localName the header local name
+     * @param writer the writer positioned inside the SOAP header
+     */
+    static void write(Object value, String localName, XMLStreamWriter writer) throws XMLStreamException {
+        String ns = Names.WSA_NAMESPACE_NAME;
+        String pfx = JAXWSAConstants.WSA_PREFIX;
+        writer.writeStartElement(pfx, localName, ns);
+        writer.writeNamespace(pfx, ns);
+        if (value instanceof AttributedURIType) {
+            AttributedURIType uri = (AttributedURIType)value;
+            writeAttributes(writer, uri.getOtherAttributes());
+            writer.writeCharacters(uri.getValue());
+        } else if (value instanceof RelatesToType) {
+            RelatesToType relatesTo = (RelatesToType)value;
+            writeAttributes(writer, relatesTo.getOtherAttributes());
+            // reply is the schema default for an absent attribute
+            String type = relatesTo.getRelationshipType();
+            if (type != null && !Names.WSA_RELATIONSHIP_REPLY.equals(type)) {
+                writer.writeAttribute(Names.WSA_RELATIONSHIPTYPE_NAME, type);
+            }
+            writer.writeCharacters(relatesTo.getValue());
+        } else {
+            EndpointReferenceType epr = (EndpointReferenceType)value;
+            writeAttributes(writer, epr.getOtherAttributes());
+            writer.writeStartElement(pfx, Names.WSA_ADDRESS_NAME, ns);
+            writeAttributes(writer, epr.getAddress().getOtherAttributes());
+            writer.writeCharacters(epr.getAddress().getValue());
+            writer.writeEndElement();
+        }
+        writer.writeEndElement();
+    }
+    
+    private static AttributedURIType readAttributedURI(XMLStreamReader reader) throws XMLStreamException {
+        AttributedURIType uri = new AttributedURIType();
+        if (!readAttributes(reader, uri.getOtherAttributes(), null)) {
+            return null;
+        }
+        String text = readText(reader);
+        if (text == null) {
+            return null;
+        }
+        uri.setValue(text);
+        return uri;
+    }
+    
+    private static RelatesToType readRelatesTo(XMLStreamReader reader) throws XMLStreamException {
+        RelatesToType relatesTo = new RelatesToType();
+        if (!readAttributes(reader, relatesTo.getOtherAttributes(), Names.WSA_RELATIONSHIPTYPE_NAME)) {
+            return null;
+        }
+        String type = reader.getAttributeValue(null, Names.WSA_RELATIONSHIPTYPE_NAME);
+        if (type != null) {
+            relatesTo.setRelationshipType(type);
+        }
+        String text = readText(reader);
+        if (text == null) {
+            return null;
+        }
+        relatesTo.setValue(text);
+        return relatesTo;
+    }
+    
+    private static EndpointReferenceType readEndpointReference(XMLStreamReader reader) 
+        throws XMLStreamException {
+        EndpointReferenceType epr = new EndpointReferenceType();
+        if (!readAttributes(reader, epr.getOtherAttributes(), null)) {
+            return null;
+        }
+        AttributedURIType address = null;
+        int event = nextTag(reader);
+        while (event == XMLStreamConstants.START_ELEMENT) {
+            if (address != null
+                || !Names.WSA_NAMESPACE_NAME.equals(reader.getNamespaceURI())
+                || !Names.WSA_ADDRESS_NAME.equals(reader.getLocalName())) {
+                return null;
+            }
+            address = readAttributedURI(reader);
+            if (address == null) {
+                return null;
+            }
+            event = nextTag(reader);
+        }
+        if (event != XMLStreamConstants.END_ELEMENT || address == null) {
+            return null;
+        }
+        epr.setAddress(address);
+        return epr;
+    }
+    
+    /**
+     * Move to the next START_ELEMENT or END_ELEMENT, skipping whitespace, 
+     * comments and processing instructions.
+     * 
+     * @return the event, or CHARACTERS if non-whitespace text was found
+     */
+    private static int nextTag(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            int event = reader.next();
+            switch (event) {
+            case XMLStreamConstants.START_ELEMENT:
+            case XMLStreamConstants.END_ELEMENT:
+                return event;
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.CDATA:
+            case XMLStreamConstants.SPACE:
+                if (reader.getText().trim().length() > 0) {
+                    return XMLStreamConstants.CHARACTERS;
+                }
+                break;
+            default:
+                break;
+            }
+        }
+        return XMLStreamConstants.END_DOCUMENT;
+    }
+    
+    /**
+     * Copy the attributes of the current element into the wildcard map the 
+     * same way the JAXB runtime would.
+     * 
+     * @return false if an attribute needs the JAXB path 
+     */
+    private static boolean readAttributes(XMLStreamReader reader, 
+                                          Map<QName, String> attributes,
+                                          String skip) {
+        int count = reader.getAttributeCount();
+        for (int i = 0; i < count; i++) {
+            String ns = reader.getAttributeNamespace(i);
+            String local = reader.getAttributeLocalName(i);
+            if (XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI.equals(ns)) {
+                return false;
+            }
+            if (StringUtils.isEmpty(ns)) {
+                if (local.equals(skip)) {
+                    continue;
+                }
+                ns = XMLConstants.NULL_NS_URI;
+            }
+            String pfx = reader.getAttributePrefix(i);
+            attributes.put(new QName(ns, local, pfx == null ? XMLConstants.DEFAULT_NS_PREFIX : pfx),
+                           reader.getAttributeValue(i));
+        }
+        return true;
+    }
+    
+    /**
+     * Read the simple content of the current element, leaving the reader on
+     * its END_ELEMENT.
+     * 
+     * @return the text, or null if the element has child elements
+     */
+    private static String readText(XMLStreamReader reader) throws XMLStreamException {
+        StringBuilder buf = null;
+        String text = "";
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.CDATA:
+            case XMLStreamConstants.SPACE:
+            case XMLStreamConstants.ENTITY_REFERENCE:
+                if (text.length() == 0) {
+                    text = reader.getText();
+                } else {
+                    if (buf == null) {
+                        buf = new StringBuilder(text);
+                    }
+                    buf.append(reader.getText());
+                }
+                break;
+            case XMLStreamConstants.END_ELEMENT:
+                return buf == null ? text : buf.toString();
+            case XMLStreamConstants.START_ELEMENT:
+                return null;
+            default:
+                break;
+            }
+        }
+        return null;
+    }
+    
+    private static void writeAttributes(XMLStreamWriter writer, Map<QName, String> attributes) 
+        throws XMLStreamException {
+        int count = 0;
+        for (Map.Entry<QName, String> entry : attributes.entrySet()) {
+            QName name = entry.getKey();
+            String ns = name.getNamespaceURI();
+            if (StringUtils.isEmpty(ns)) {
+                writer.writeAttribute(name.getLocalPart(), entry.getValue());
+                continue;
+            }
+            String pfx = writer.getPrefix(ns);
+            if (StringUtils.isEmpty(pfx)) {
+                pfx = name.getPrefix();
+                if (StringUtils.isEmpty(pfx) 
+                    || XMLConstants.XMLNS_ATTRIBUTE.equals(pfx)
+                    || writer.getNamespaceContext().getNamespaceURI(pfx) != null) {
+                    do {
+                        pfx = "ns" + (++count);
+                    } while (writer.getNamespaceContext().getNamespaceURI(pfx) != null);
+                }
+                writer.writeNamespace(pfx, ns);
+            }
+            writer.writeAttribute(pfx, ns, name.getLocalPart(), entry.getValue());
+        }
+    }
+}
@@ -19,6 +19,7 @@
 
 package org.apache.cxf.ws.addressing.soap;
 
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -30,19 +31,26 @@ import javax.xml.bind.JAXBElement;
 import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
 import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamReader;
 
+import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 
+import org.apache.cxf.binding.soap.BufferedSoapHeader;
 import org.apache.cxf.binding.soap.SoapBindingConstants;
 import org.apache.cxf.binding.soap.SoapFault;
 import org.apache.cxf.binding.soap.SoapMessage;
 import org.apache.cxf.binding.soap.SoapVersion;
 import org.apache.cxf.headers.Header;
+import org.apache.cxf.helpers.DOMUtils;
 import org.apache.cxf.message.Exchange;
 import org.apache.cxf.message.ExchangeImpl;
 import org.apache.cxf.message.Message;
 import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.staxutils.StaxUtils;
+import org.apache.cxf.staxutils.XMLStreamEventBuffer;
+import org.apache.cxf.ws.addressing.AddressingProperties;
 import org.apache.cxf.ws.addressing.AttributedURIType;
 import org.apache.cxf.ws.addressing.ContextUtils;
 import org.apache.cxf.ws.addressing.EndpointReferenceType;
@@ -101,6 +109,43 @@ public class MAPCodecTest extends Assert {
         nonReplyRelationship = null;
     }
 
+    @Test
+    public void testIsReferenceParameter() throws Exception {
+        assertFalse(MAPCodec.isReferenceParameter(createBufferedHeader("")));
+        
+        String wsa = " xmlns:wsa='" + Names.WSA_NAMESPACE_NAME + "'";
+        for (String value : new String[] {"true", "1", " true "}) {
+            assertTrue(MAPCodec.isReferenceParameter(
+                createBufferedHeader(wsa + " wsa:IsReferenceParameter='" + value + "'")));
+        }
+        for (String value : new String[] {"false", "0", "TRUE", ""}) {
+            assertFalse(MAPCodec.isReferenceParameter(
+                createBufferedHeader(wsa + " wsa:IsReferenceParameter='" + value + "'")));
+        }
+        // not in the WS-Addressing namespace
+        assertFalse(MAPCodec.isReferenceParameter(createBufferedHeader(" IsReferenceParameter='true'")));
+    }
+    
+    @Test
+    public void testDOMHeadersAreReferenceParameters() throws Exception {
+        SoapMessage message = new SoapMessage(new MessageImpl());
+        Document doc = DOMUtils.createDocument();
+        Element to = doc.createElementNS(Names.WSA_NAMESPACE_NAME, "wsa:To");
+        to.setTextContent("http://localhost:9000/test");
+        message.getHeaders().add(new Header(new QName(Names.WSA_NAMESPACE_NAME, "To"), to));
+        // the DOM headers are reference parameters with or without wsa:IsReferenceParameter
+        message.getHeaders().add(createDOMHeader(null, null));
+        message.getHeaders().add(createDOMHeader(Names.WSA_NAMESPACE_NAME, "false"));
+        
+        AddressingProperties maps = codec.unmarshalMAPs(message);
+        
+        assertNotNull(maps);
+        EndpointReferenceType toEpr = maps.getToEndpointReference();
+        assertEquals("http://localhost:9000/test", toEpr.getAddress().getValue());
+        assertNotNull(toEpr.getReferenceParameters());
+        assertEquals(2, toEpr.getReferenceParameters().getAny().size());
+    }
+    
     @Test
     public void testGetHeaders() throws Exception {
         Set<QName> headers = codec.getUnderstoodHeaders();
@@ -301,6 +346,8 @@ public class MAPCodecTest extends Assert {
                                      boolean preExistingSOAPAction, Boolean generateRelatesTo, 
                                      String exposeAs) throws Exception {
         SoapMessage message = new SoapMessage(new MessageImpl());
+        // the expectations below are set on the JAXB path
+        message.put(MAPCodec.STREAMING_CODEC, Boolean.FALSE);
         setUpOutbound(message, outbound);
         expectRelatesTo = generateRelatesTo != null ? generateRelatesTo 
             : (requestor && !outbound) || (!requestor && outbound);
@@ -748,4 +795,27 @@ public class MAPCodecTest extends Assert {
 
         return isReply;
     }
+    
+    private Header createDOMHeader(String attrNamespace, String attrValue) {
+        Document doc = DOMUtils.createDocument();
+        Element el = doc.createElementNS("urn:p", "p");
+        if (attrValue != null) {
+            el.setAttributeNS(attrNamespace, 
+                              attrNamespace == null ? "IsReferenceParameter" : "wsa:IsReferenceParameter",
+                              attrValue);
+        }
+        doc.appendChild(el);
+        return new Header(new QName("urn:p", "p"), el);
+    }
+    
+    private Header createBufferedHeader(String attributes) throws Exception {
+        Document doc = DOMUtils.createDocument();
+        Element parent = doc.createElementNS("http://schemas.xmlsoap.org/soap/envelope/", "soap:Header");
+        doc.appendChild(parent);
+        XMLStreamReader reader = StaxUtils.createXMLStreamReader(
+            new StringReader("<p xmlns='urn:p'" + attributes + ">1</p>"));
+        reader.nextTag();
+        return new BufferedSoapHeader(new XMLStreamEventBuffer(reader, null), parent, 
+                                      new ArrayList<BufferedSoapHeader>());
+    }
 }
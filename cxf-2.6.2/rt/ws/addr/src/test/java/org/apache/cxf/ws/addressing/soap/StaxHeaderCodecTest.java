@@ -0,0 +1,178 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.ws.addressing.soap;
+
+import java.io.StringReader;
+
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.namespace.QName;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import org.xml.sax.InputSource;
+
+import org.apache.cxf.helpers.DOMUtils;
+import org.apache.cxf.staxutils.StaxUtils;
+import org.apache.cxf.staxutils.W3CDOMStreamReader;
+import org.apache.cxf.staxutils.W3CDOMStreamWriter;
+import org.apache.cxf.ws.addressing.AttributedURIType;
+import org.apache.cxf.ws.addressing.ContextUtils;
+import org.apache.cxf.ws.addressing.EndpointReferenceType;
+import org.apache.cxf.ws.addressing.Names;
+import org.apache.cxf.ws.addressing.ReferenceParametersType;
+import org.apache.cxf.ws.addressing.RelatesToType;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StaxHeaderCodecTest extends Assert {
+    private static final String WSA = Names.WSA_NAMESPACE_NAME;
+    private static final QName EXT_ATTR = new QName("http://cxf.apache.org/ext", "id", "ext");
+    
+    @After
+    public void tearDown() {
+        ContextUtils.setJAXBContext(null);
+    }
+    
+    @Test
+    public void testReadMatchesJAXB() throws Exception {
+        Element action = parse("<wsa:Action xmlns:wsa='" + WSA + "' xmlns:ext='" 
+                               + EXT_ATTR.getNamespaceURI() + "' ext:id='a1'>urn:foo</wsa:Action>");
+        AttributedURIType uri = StaxHeaderCodec.read(AttributedURIType.class, new W3CDOMStreamReader(action));
+        AttributedURIType expected = unmarshal(action, AttributedURIType.class);
+        assertEquals(expected.getValue(), uri.getValue());
+        assertEquals(expected.getOtherAttributes(), uri.getOtherAttributes());
+        assertEquals("a1", uri.getOtherAttributes().get(EXT_ATTR));
+        
+        Element relatesTo = parse("<wsa:RelatesTo xmlns:wsa='" + WSA + "' RelationshipType='urn:rel'>"
+                                  + "urn:uuid:1</wsa:RelatesTo>");
+        RelatesToType rel = StaxHeaderCodec.read(RelatesToType.class, new W3CDOMStreamReader(relatesTo));
+        RelatesToType expectedRel = unmarshal(relatesTo, RelatesToType.class);
+        assertEquals(expectedRel.getValue(), rel.getValue());
+        assertEquals(expectedRel.getRelationshipType(), rel.getRelationshipType());
+        assertTrue(rel.getOtherAttributes().isEmpty());
+        
+        Element replyTo = parse("<wsa:ReplyTo xmlns:wsa='" + WSA + "'>\n  <!-- anon -->\n"
+                                + "  <wsa:Address>" + Names.WSA_ANONYMOUS_ADDRESS + "</wsa:Address>\n"
+                                + "</wsa:ReplyTo>");
+        EndpointReferenceType epr = StaxHeaderCodec.read(EndpointReferenceType.class, 
+                                                         new W3CDOMStreamReader(replyTo));
+        assertEquals(unmarshal(replyTo, EndpointReferenceType.class).getAddress().getValue(),
+                     epr.getAddress().getValue());
+    }
+    
+    @Test
+    public void testUnusualContentFallsBack() throws Exception {
+        String[] headers = {
+            "<wsa:Action xmlns:wsa='" + WSA + "'>urn:<b>foo</b></wsa:Action>",
+            "<wsa:Action xmlns:wsa='" + WSA + "' xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance'"
+                + " xsi:nil='true'/>",
+            "<wsa:ReplyTo xmlns:wsa='" + WSA + "'><wsa:Address>urn:a</wsa:Address>"
+                + "<wsa:ReferenceParameters><p xmlns='urn:p'>1</p></wsa:ReferenceParameters></wsa:ReplyTo>",
+            "<wsa:ReplyTo xmlns:wsa='" + WSA + "'><wsa:Address>urn:a</wsa:Address>"
+                + "<wsa:Address>urn:b</wsa:Address></wsa:ReplyTo>",
+            "<wsa:ReplyTo xmlns:wsa='" + WSA + "'>text<wsa:Address>urn:a</wsa:Address></wsa:ReplyTo>",
+        };
+        Class<?>[] types = {
+            AttributedURIType.class,
+            AttributedURIType.class,
+            EndpointReferenceType.class,
+            EndpointReferenceType.class,
+            EndpointReferenceType.class,
+        };
+        for (int i = 0; i < headers.length; i++) {
+            assertNull(headers[i], StaxHeaderCodec.read(types[i], new W3CDOMStreamReader(parse(headers[i]))));
+        }
+        
+        EndpointReferenceType epr = createEPR("urn:a");
+        assertTrue(StaxHeaderCodec.canWrite(epr));
+        epr.setReferenceParameters(new ReferenceParametersType());
+        assertFalse(StaxHeaderCodec.canWrite(epr));
+    }
+    
+    @Test
+    public void testWriteRoundTrip() throws Exception {
+        Document doc = DOMUtils.createDocument();
+        Element header = doc.createElementNS("http://schemas.xmlsoap.org/soap/envelope/", "soap:Header");
+        doc.appendChild(header);
+        W3CDOMStreamWriter writer = new W3CDOMStreamWriter(header);
+        
+        AttributedURIType action = ContextUtils.getAttributedURI("urn:foo");
+        action.getOtherAttributes().put(EXT_ATTR, "a1");
+        action.getOtherAttributes().put(new QName("plain"), "p");
+        StaxHeaderCodec.write(action, Names.WSA_ACTION_NAME, writer);
+        
+        RelatesToType relatesTo = new RelatesToType();
+        relatesTo.setValue("urn:uuid:1");
+        relatesTo.setRelationshipType("urn:rel");
+        StaxHeaderCodec.write(relatesTo, Names.WSA_RELATESTO_NAME, writer);
+        
+        EndpointReferenceType replyTo = createEPR(Names.WSA_ANONYMOUS_ADDRESS);
+        StaxHeaderCodec.write(replyTo, Names.WSA_REPLYTO_NAME, writer);
+        
+        Element el = DOMUtils.getFirstElement(header);
+        assertEquals(new QName(WSA, Names.WSA_ACTION_NAME), DOMUtils.getElementQName(el));
+        AttributedURIType readAction = unmarshal(el, AttributedURIType.class);
+        assertEquals("urn:foo", readAction.getValue());
+        assertEquals("a1", readAction.getOtherAttributes().get(EXT_ATTR));
+        assertEquals("p", readAction.getOtherAttributes().get(new QName("plain")));
+        
+        el = DOMUtils.getNextElement(el);
+        RelatesToType readRelatesTo = unmarshal(el, RelatesToType.class);
+        assertEquals("urn:uuid:1", readRelatesTo.getValue());
+        assertEquals("urn:rel", readRelatesTo.getRelationshipType());
+        
+        el = DOMUtils.getNextElement(el);
+        assertEquals(new QName(WSA, Names.WSA_REPLYTO_NAME), DOMUtils.getElementQName(el));
+        EndpointReferenceType readReplyTo = unmarshal(el, EndpointReferenceType.class);
+        assertEquals(Names.WSA_ANONYMOUS_ADDRESS, readReplyTo.getAddress().getValue());
+        assertNull(DOMUtils.getNextElement(el));
+        
+        // and what JAXB writes, the codec reads back the same
+        Marshaller marshaller = ContextUtils.getJAXBContext().createMarshaller();
+        marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+        Element jaxbHeader = doc.createElementNS(header.getNamespaceURI(), header.getNodeName());
+        marshaller.marshal(new JAXBElement<AttributedURIType>(Names.WSA_ACTION_QNAME, 
+                                                              AttributedURIType.class,
+                                                              action), jaxbHeader);
+        AttributedURIType fromJAXB = StaxHeaderCodec.read(AttributedURIType.class, 
+            new W3CDOMStreamReader(DOMUtils.getFirstElement(jaxbHeader)));
+        assertEquals("urn:foo", fromJAXB.getValue());
+        assertEquals(action.getOtherAttributes(), fromJAXB.getOtherAttributes());
+    }
+    
+    private static EndpointReferenceType createEPR(String address) {
+        EndpointReferenceType epr = new EndpointReferenceType();
+        epr.setAddress(ContextUtils.getAttributedURI(address));
+        return epr;
+    }
+    
+    private static Element parse(String xml) throws Exception {
+        return StaxUtils.read(new InputSource(new StringReader(xml))).getDocumentElement();
+    }
+    
+    private static <T> T unmarshal(Element el, Class<T> clz) throws Exception {
+        Unmarshaller unmarshaller = ContextUtils.getJAXBContext().createUnmarshaller();
+        return unmarshaller.unmarshal(el, clz).getValue();
+    }
+}
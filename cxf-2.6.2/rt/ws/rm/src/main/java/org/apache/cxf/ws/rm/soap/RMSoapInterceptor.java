@@ -39,6 +39,7 @@ import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 
 import org.apache.cxf.binding.Binding;
+import org.apache.cxf.binding.soap.BufferedSoapHeader;
 import org.apache.cxf.binding.soap.Soap11;
 import org.apache.cxf.binding.soap.SoapFault;
 import org.apache.cxf.binding.soap.SoapMessage;
@@ -260,7 +261,12 @@ public class RMSoapInterceptor extends AbstractSoapInterceptor {
             EncoderDecoder codec = null;
             Iterator<Header> iter = headers.iterator();
             while (iter.hasNext()) {
-                Object node = iter.next().getObject();
+                Header header = iter.next();
+                if (header instanceof BufferedSoapHeader && !isRMNamespace(header.getName())) {
+                    // leave the buffered headers of other specifications unparsed
+                    continue;
+                }
+                Object node = header.getObject();
                 if (node instanceof Element) {
                     Element elem = (Element) node;
                     if (Node.ELEMENT_NODE != elem.getNodeType()) {
@@ -313,6 +319,11 @@ public class RMSoapInterceptor extends AbstractSoapInterceptor {
         }
     }
 
+    private static boolean isRMNamespace(QName name) {
+        String ns = name == null ? null : name.getNamespaceURI();
+        return RM10Constants.NAMESPACE_URI.equals(ns) || RM11Constants.NAMESPACE_URI.equals(ns);
+    }
+
     /**
      * Discard any pre-existing RM headers - this may occur if the runtime
      * re-uses a SOAP message.
@@ -389,6 +389,14 @@ public final class SecurityConstants {
      */
     public static final String STS_TOKEN_ON_BEHALF_OF = "ws-security.sts.token.on-behalf-of";
     
+    /**
+     * The number of seconds before an issued or secure conversation token expires at which the 
+     * client starts renewing it in the background, while requests continue to use the current 
+     * token. The default value is "0", which means that a token is only renewed once it has 
+     * expired.
+     */
+    public static final String STS_TOKEN_RENEW_LEAD_TIME = "ws-security.sts.token.renew.lead.time";
+    
     //
     // Internal tags
     //
@@ -415,7 +423,7 @@ public final class SecurityConstants {
             STS_TOKEN_DO_CANCEL, CACHE_ISSUED_TOKEN_IN_ENDPOINT,
             DISABLE_STS_CLIENT_WSMEX_CALL_USING_EPR_ADDRESS, STS_TOKEN_CRYPTO,
             STS_TOKEN_PROPERTIES, STS_TOKEN_USERNAME, STS_TOKEN_ACT_AS, STS_TOKEN_ON_BEHALF_OF,
-            TOKEN, TOKEN_ID
+            STS_TOKEN_RENEW_LEAD_TIME, TOKEN, TOKEN_ID
         }));
         ALL_PROPERTIES = Collections.unmodifiableSet(s);
     }
@@ -26,6 +26,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Callable;
 
 import org.w3c.dom.Element;
 
@@ -51,6 +52,7 @@ import org.apache.cxf.ws.security.tokenstore.SecurityToken;
 import org.apache.cxf.ws.security.tokenstore.TokenStore;
 import org.apache.cxf.ws.security.tokenstore.TokenStoreFactory;
 import org.apache.cxf.ws.security.trust.STSClient;
+import org.apache.cxf.ws.security.trust.STSTokenCoordinator;
 import org.apache.cxf.ws.security.trust.STSUtils;
 import org.apache.cxf.ws.security.wss4j.PolicyBasedWSS4JInInterceptor;
 import org.apache.cxf.ws.security.wss4j.PolicyBasedWSS4JOutInterceptor;
@@ -146,63 +148,7 @@ public class IssuedTokenInterceptorProvider extends AbstractPolicyInterceptorPro
                     
                     SecurityToken tok = retrieveCachedToken(message);
                     if (tok == null) {
-                        STSClient client = STSUtils.getClient(message, "sts", itok);
-                        AddressingProperties maps =
-                            (AddressingProperties)message
-                                .get("javax.xml.ws.addressing.context.outbound");
-                        if (maps == null) {
-                            maps = (AddressingProperties)message
-                                .get("javax.xml.ws.addressing.context");
-                        }
-                        synchronized (client) {
-                            try {
-                                // Transpose ActAs/OnBehalfOf info from original request to the STS client.
-                                Object token = 
-                                    message.getContextualProperty(SecurityConstants.STS_TOKEN_ACT_AS);
-                                if (token != null) {
-                                    client.setActAs(token);
-                                }
-                                token = 
-                                    message.getContextualProperty(SecurityConstants.STS_TOKEN_ON_BEHALF_OF);
-                                if (token != null) {
-                                    client.setOnBehalfOf(token);
-                                }
-                                Map<String, Object> ctx = client.getRequestContext();
-                                mapSecurityProps(message, ctx);
-                            
-                                Object o = message.getContextualProperty(SecurityConstants.STS_APPLIES_TO);
-                                String appliesTo = o == null ? null : o.toString();
-                                appliesTo = appliesTo == null 
-                                    ? message.getContextualProperty(Message.ENDPOINT_ADDRESS).toString()
-                                        : appliesTo;
-                                boolean enableAppliesTo = client.isEnableAppliesTo();
-                                
-                                client.setMessage(message);
-                                Element onBehalfOfToken = client.getOnBehalfOfToken();
-                                Element actAsToken = client.getActAsToken();
-                                
-                                SecurityToken secToken = 
-                                    handleDelegation(
-                                        message, onBehalfOfToken, actAsToken, appliesTo, enableAppliesTo
-                                    );
-                                if (secToken == null) {
-                                    secToken = getTokenFromSTS(message, client, aim, maps, itok, appliesTo);
-                                }
-                                tok = secToken;
-                                storeDelegationTokens(
-                                    message, tok, onBehalfOfToken, actAsToken, appliesTo, enableAppliesTo
-                                );
-                            } catch (RuntimeException e) {
-                                throw e;
-                            } catch (Exception e) {
-                                throw new Fault(e);
-                            } finally {
-                                client.setTrust((Trust10)null);
-                                client.setTrust((Trust13)null);
-                                client.setTemplate(null);
-                                client.setAddressingNamespace(null);
-                            }
-                        }
+                        tok = issueToken(message, aim, itok);
                     } else {
                         tok = renewToken(message, aim, itok, tok);
                     }
@@ -234,6 +180,110 @@ public class IssuedTokenInterceptorProvider extends AbstractPolicyInterceptorPro
                 }
             }
         }
+        
+        /**
+         * Get a new token from the STS.  Requests on the same endpoint that need a token at the 
+         * same time share a single STS invocation, unless the token is specific to the message.
+         */
+        private SecurityToken issueToken(
+            final Message message,
+            final AssertionInfoMap aim,
+            final IssuedToken itok
+        ) {
+            boolean cacheIssuedToken = 
+                MessageUtils.getContextualBoolean(
+                    message, SecurityConstants.CACHE_ISSUED_TOKEN_IN_ENDPOINT, true
+                );
+            String key = null;
+            if (cacheIssuedToken
+                && message.getContextualProperty(SecurityConstants.STS_TOKEN_ACT_AS) == null
+                && message.getContextualProperty(SecurityConstants.STS_TOKEN_ON_BEHALF_OF) == null) {
+                key = "issue:" + getAppliesTo(message);
+            }
+            try {
+                return STSTokenCoordinator.getInstance(message).requestToken(
+                    key,
+                    new Callable<SecurityToken>() {
+                        public SecurityToken call() {
+                            return issueTokenFromSTS(message, aim, itok);
+                        }
+                    }
+                );
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new Fault(e);
+            }
+        }
+        
+        private SecurityToken issueTokenFromSTS(
+            Message message,
+            AssertionInfoMap aim,
+            IssuedToken itok
+        ) {
+            STSClient client = STSUtils.getClient(message, "sts", itok);
+            AddressingProperties maps =
+                (AddressingProperties)message
+                    .get("javax.xml.ws.addressing.context.outbound");
+            if (maps == null) {
+                maps = (AddressingProperties)message
+                    .get("javax.xml.ws.addressing.context");
+            }
+            synchronized (client) {
+                try {
+                    // Transpose ActAs/OnBehalfOf info from original request to the STS client.
+                    Object token = 
+                        message.getContextualProperty(SecurityConstants.STS_TOKEN_ACT_AS);
+                    if (token != null) {
+                        client.setActAs(token);
+                    }
+                    token = 
+                        message.getContextualProperty(SecurityConstants.STS_TOKEN_ON_BEHALF_OF);
+                    if (token != null) {
+                        client.setOnBehalfOf(token);
+                    }
+                    Map<String, Object> ctx = client.getRequestContext();
+                    mapSecurityProps(message, ctx);
+
+                    String appliesTo = getAppliesTo(message);
+                    boolean enableAppliesTo = client.isEnableAppliesTo();
+
+                    client.setMessage(message);
+                    Element onBehalfOfToken = client.getOnBehalfOfToken();
+                    Element actAsToken = client.getActAsToken();
+
+                    SecurityToken secToken = 
+                        handleDelegation(
+                            message, onBehalfOfToken, actAsToken, appliesTo, enableAppliesTo
+                        );
+                    if (secToken == null) {
+                        secToken = getTokenFromSTS(message, client, aim, maps, itok, appliesTo);
+                    }
+                    storeDelegationTokens(
+                        message, secToken, onBehalfOfToken, actAsToken, appliesTo, enableAppliesTo
+                    );
+                    return secToken;
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new Fault(e);
+                } finally {
+                    client.setTrust((Trust10)null);
+                    client.setTrust((Trust13)null);
+                    client.setTemplate(null);
+                    client.setAddressingNamespace(null);
+                }
+            }
+        }
+        
+        private String getAppliesTo(Message message) {
+            Object o = message.getContextualProperty(SecurityConstants.STS_APPLIES_TO);
+            String appliesTo = o == null ? null : o.toString();
+            return appliesTo == null 
+                ? message.getContextualProperty(Message.ENDPOINT_ADDRESS).toString()
+                    : appliesTo;
+        }
+        
         private Trust10 getTrust10(AssertionInfoMap aim) {
             Collection<AssertionInfo> ais = aim.get(SP11Constants.TRUST_10);
             if (ais == null || ais.isEmpty()) {
@@ -407,16 +457,61 @@ public class IssuedTokenInterceptorProvider extends AbstractPolicyInterceptorPro
             }
         }
         
+        /**
+         * Return the token if it is still valid, scheduling a background renewal if it is about
+         * to expire.  An expired token is renewed right away, with concurrent requests for the 
+         * same token sharing the STS invocation.
+         */
         private SecurityToken renewToken(
-            Message message, 
-            AssertionInfoMap aim,
-            IssuedToken itok,
-            SecurityToken tok
+            final Message message, 
+            final AssertionInfoMap aim,
+            final IssuedToken itok,
+            final SecurityToken tok
         ) {
+            STSTokenCoordinator coordinator = STSTokenCoordinator.getInstance(message);
+            String key = "renew:" + tok.getId();
             if (!tok.isExpired()) {
+                coordinator.recordCacheHit();
+                long leadTime = STSTokenCoordinator.getRenewLeadTime(message);
+                if (STSTokenCoordinator.isAboutToExpire(tok, leadTime) && !coordinator.isPending(key)
+                    && MessageUtils.getContextualBoolean(
+                        message, SecurityConstants.CACHE_ISSUED_TOKEN_IN_ENDPOINT, true)) {
+                    final Message snapshot = STSTokenCoordinator.createSnapshot(message);
+                    coordinator.renewInBackground(key, new Callable<SecurityToken>() {
+                        public SecurityToken call() {
+                            SecurityToken renewed = renewTokenFromSTS(snapshot, aim, itok, tok);
+                            if (renewed != null) {
+                                Endpoint ep = snapshot.getExchange().get(Endpoint.class);
+                                ep.put(SecurityConstants.TOKEN, renewed);
+                                ep.put(SecurityConstants.TOKEN_ID, renewed.getId());
+                                getTokenStore(snapshot).add(renewed);
+                            }
+                            return renewed;
+                        }
+                    }, STSTokenCoordinator.getExecutor(message));
+                }
                 return tok;
             }
             
+            try {
+                return coordinator.requestToken(key, new Callable<SecurityToken>() {
+                    public SecurityToken call() {
+                        return renewTokenFromSTS(message, aim, itok, tok);
+                    }
+                });
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new Fault(e);
+            }
+        }
+        
+        private SecurityToken renewTokenFromSTS(
+            Message message, 
+            AssertionInfoMap aim,
+            IssuedToken itok,
+            SecurityToken tok
+        ) {
             STSClient client = STSUtils.getClient(message, "sts", itok);
             AddressingProperties maps =
                 (AddressingProperties)message
@@ -21,6 +21,7 @@ package org.apache.cxf.ws.security.policy.interceptors;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 import org.apache.cxf.binding.soap.SoapMessage;
 import org.apache.cxf.endpoint.Endpoint;
@@ -38,6 +39,7 @@ import org.apache.cxf.ws.security.policy.model.Trust10;
 import org.apache.cxf.ws.security.policy.model.Trust13;
 import org.apache.cxf.ws.security.tokenstore.SecurityToken;
 import org.apache.cxf.ws.security.trust.STSClient;
+import org.apache.cxf.ws.security.trust.STSTokenCoordinator;
 import org.apache.cxf.ws.security.trust.STSUtils;
 import org.apache.ws.security.WSConstants;
 
@@ -91,14 +93,67 @@ class SecureConversationOutInterceptor extends AbstractPhaseInterceptor<SoapMess
     }
     
     
-    private SecurityToken renewToken(SoapMessage message,
-                            AssertionInfoMap aim, 
-                            SecurityToken tok,
-                            SecureConversationToken itok) {
+    /**
+     * Return the token if it is still valid, scheduling a background renewal if it is about
+     * to expire.  An expired token is renewed right away, with concurrent requests for the 
+     * same token sharing the STS invocation.
+     */
+    private SecurityToken renewToken(final SoapMessage message,
+                                     final AssertionInfoMap aim, 
+                                     final SecurityToken tok,
+                                     final SecureConversationToken itok) {
+        STSTokenCoordinator coordinator = STSTokenCoordinator.getInstance(message);
+        String key = "renew:" + tok.getId();
         if (!tok.isExpired()) {
+            coordinator.recordCacheHit();
+            long leadTime = STSTokenCoordinator.getRenewLeadTime(message);
+            if (STSTokenCoordinator.isAboutToExpire(tok, leadTime) && !coordinator.isPending(key)
+                && !isRenewRequest(message)) {
+                final SoapMessage snapshot = (SoapMessage)STSTokenCoordinator.createSnapshot(message);
+                coordinator.renewInBackground(key, new Callable<SecurityToken>() {
+                    public SecurityToken call() {
+                        SecurityToken renewed = renewTokenFromSTS(snapshot, aim, tok, itok);
+                        if (renewed != null) {
+                            Endpoint ep = snapshot.getExchange().get(Endpoint.class);
+                            ep.put(SecurityConstants.TOKEN, renewed);
+                            ep.put(SecurityConstants.TOKEN_ID, renewed.getId());
+                            NegotiationUtils.getTokenStore(snapshot).add(renewed);
+                        }
+                        return renewed;
+                    }
+                }, STSTokenCoordinator.getExecutor(message));
+            }
+            return tok;
+        }
+        if (isRenewRequest(message)) {
             return tok;
         }
         
+        try {
+            return coordinator.requestToken(key, new Callable<SecurityToken>() {
+                public SecurityToken call() {
+                    return renewTokenFromSTS(message, aim, tok, itok);
+                }
+            });
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new Fault(e);
+        }
+    }
+    
+    private static boolean isRenewRequest(SoapMessage message) {
+        AddressingProperties maps =
+            (AddressingProperties)message
+                .get("javax.xml.ws.addressing.context.outbound");
+        return maps != null && maps.getAction() != null && maps.getAction().getValue() != null
+            && maps.getAction().getValue().endsWith("Renew");
+    }
+    
+    private SecurityToken renewTokenFromSTS(SoapMessage message,
+                                            AssertionInfoMap aim, 
+                                            SecurityToken tok,
+                                            SecureConversationToken itok) {
         STSClient client = STSUtils.getClient(message, "sct");
         AddressingProperties maps =
             (AddressingProperties)message
@@ -106,8 +161,6 @@ class SecureConversationOutInterceptor extends AbstractPhaseInterceptor<SoapMess
         if (maps == null) {
             maps = (AddressingProperties)message
                 .get("javax.xml.ws.addressing.context");
-        } else if (maps.getAction().getValue().endsWith("Renew")) {
-            return tok;
         }
         synchronized (client) {
             try {
@@ -136,9 +189,30 @@ class SecureConversationOutInterceptor extends AbstractPhaseInterceptor<SoapMess
             }
         }            
     }
-    private SecurityToken issueToken(SoapMessage message,
-                                     AssertionInfoMap aim,
-                                     SecureConversationToken itok) {
+    /**
+     * Get a new token from the STS.  Requests on the same endpoint that need a token at the 
+     * same time share a single STS invocation.
+     */
+    private SecurityToken issueToken(final SoapMessage message,
+                                     final AssertionInfoMap aim,
+                                     final SecureConversationToken itok) {
+        String key = "issue:" + message.getContextualProperty(Message.ENDPOINT_ADDRESS);
+        try {
+            return STSTokenCoordinator.getInstance(message).requestToken(key, new Callable<SecurityToken>() {
+                public SecurityToken call() {
+                    return issueTokenFromSTS(message, aim, itok);
+                }
+            });
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new Fault(e);
+        }
+    }
+    
+    private SecurityToken issueTokenFromSTS(SoapMessage message,
+                                            AssertionInfoMap aim,
+                                            SecureConversationToken itok) {
         STSClient client = STSUtils.getClient(message, "sct");
         AddressingProperties maps =
             (AddressingProperties)message
@@ -0,0 +1,282 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.ws.security.trust;
+
+import java.util.Date;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.binding.Binding;
+import org.apache.cxf.binding.soap.SoapMessage;
+import org.apache.cxf.common.logging.LogUtils;
+import org.apache.cxf.endpoint.Endpoint;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.service.Service;
+import org.apache.cxf.service.model.BindingOperationInfo;
+import org.apache.cxf.service.model.EndpointInfo;
+import org.apache.cxf.workqueue.WorkQueueManager;
+import org.apache.cxf.ws.security.SecurityConstants;
+import org.apache.cxf.ws.security.tokenstore.SecurityToken;
+
+/**
+ * Coordinates the STS invocations a client endpoint makes to obtain and renew issued and 
+ * secure conversation tokens.  Concurrent requests for the same key share a single STS 
+ * invocation, tokens that are about to expire can be renewed in the background while they 
+ * are still in use, and the number of STS round trips and cache hits is recorded.
+ * 
+ * One instance is kept per client endpoint, see {@link #getInstance(Message)}.
+ */
+public class STSTokenCoordinator {
+    private static final Logger LOG = LogUtils.getL7dLogger(STSTokenCoordinator.class);
+    private static final String WORK_QUEUE_NAME = "ws-security-sts";
+    
+    private final ConcurrentMap<String, FutureTask<SecurityToken>> pending = 
+        new ConcurrentHashMap<String, FutureTask<SecurityToken>>();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong stsRequests = new AtomicLong();
+    private final AtomicLong coalescedRequests = new AtomicLong();
+    private final AtomicLong backgroundRenewals = new AtomicLong();
+    private final AtomicLong failedRequests = new AtomicLong();
+    
+    /**
+     * Get the coordinator of the client endpoint the message is sent through, creating it 
+     * the first time.
+     */
+    public static STSTokenCoordinator getInstance(Message message) {
+        EndpointInfo info = message.getExchange().get(Endpoint.class).getEndpointInfo();
+        synchronized (info) {
+            STSTokenCoordinator coordinator = 
+                info.getProperty(STSTokenCoordinator.class.getName(), STSTokenCoordinator.class);
+            if (coordinator == null) {
+                coordinator = new STSTokenCoordinator();
+                info.setProperty(STSTokenCoordinator.class.getName(), coordinator);
+            }
+            return coordinator;
+        }
+    }
+    
+    /**
+     * Get the number of seconds before expiry at which a token is renewed in the background, 
+     * as configured with {@link SecurityConstants#STS_TOKEN_RENEW_LEAD_TIME}.
+     */
+    public static long getRenewLeadTime(Message message) {
+        Object o = message.getContextualProperty(SecurityConstants.STS_TOKEN_RENEW_LEAD_TIME);
+        if (o instanceof Number) {
+            return ((Number)o).longValue();
+        } else if (o != null) {
+            try {
+                return Long.parseLong(o.toString().trim());
+            } catch (NumberFormatException ex) {
+                LOG.warning("Invalid " + SecurityConstants.STS_TOKEN_RENEW_LEAD_TIME + " value: " + o);
+            }
+        }
+        return 0;
+    }
+    
+    /**
+     * Return true if the token has an expiry date that falls within the next leadTime seconds.
+     */
+    public static boolean isAboutToExpire(SecurityToken token, long leadTime) {
+        Date expires = token.getExpires();
+        return leadTime > 0 && expires != null 
+            && expires.getTime() - System.currentTimeMillis() <= leadTime * 1000L;
+    }
+    
+    /**
+     * Create a copy of an outbound message that a background renewal can read the contextual 
+     * properties of while the original message continues through the interceptor chain.
+     */
+    public static Message createSnapshot(Message message) {
+        Exchange exchange = message.getExchange();
+        Exchange ex = new ExchangeImpl();
+        ex.putAll(exchange);
+        ex.put(Bus.class, exchange.getBus());
+        ex.put(Service.class, exchange.getService());
+        ex.put(Endpoint.class, exchange.getEndpoint());
+        ex.put(Binding.class, exchange.getBinding());
+        ex.put(BindingOperationInfo.class, exchange.getBindingOperationInfo());
+        
+        MessageImpl copy;
+        if (message instanceof SoapMessage) {
+            SoapMessage soapCopy = new SoapMessage(message);
+            soapCopy.setVersion(((SoapMessage)message).getVersion());
+            copy = soapCopy;
+        } else {
+            copy = new MessageImpl(message);
+        }
+        copy.setExchange(ex);
+        copy.resetContextCache();
+        // compute the contextual properties now rather than on the renewal thread
+        copy.getContextualProperty(SecurityConstants.TOKEN);
+        return copy;
+    }
+    
+    /**
+     * Get the executor used for background renewals of the given message's endpoint.
+     */
+    public static Executor getExecutor(Message message) {
+        Bus bus = message.getExchange().get(Bus.class);
+        WorkQueueManager manager = bus == null ? null : bus.getExtension(WorkQueueManager.class);
+        if (manager == null) {
+            return null;
+        }
+        Executor executor = manager.getNamedWorkQueue(WORK_QUEUE_NAME);
+        return executor != null ? executor : manager.getAutomaticWorkQueue();
+    }
+    
+    /**
+     * Obtain a token from the STS.  If a request with the same key is already in progress the 
+     * calling thread waits for and returns its result instead of invoking the STS again.  A 
+     * null key means that the token is specific to the calling request and is never shared.
+     */
+    public SecurityToken requestToken(String key, Callable<SecurityToken> request) throws Exception {
+        FutureTask<SecurityToken> task = createTask(key, request);
+        if (key != null) {
+            FutureTask<SecurityToken> existing = pending.putIfAbsent(key, task);
+            if (existing != null) {
+                coalescedRequests.incrementAndGet();
+                return getResult(existing);
+            }
+        }
+        stsRequests.incrementAndGet();
+        task.run();
+        return getResult(task);
+    }
+    
+    /**
+     * Run a renewal on the executor unless a request with the same key is already in progress.
+     * The renewal is responsible for publishing the renewed token.  Threads calling 
+     * {@link #requestToken(String, Callable)} with the same key meanwhile wait for its result.
+     * 
+     * @return true if the renewal was scheduled
+     */
+    public boolean renewInBackground(String key, Callable<SecurityToken> renewal, Executor executor) {
+        FutureTask<SecurityToken> task = createTask(key, renewal);
+        if (pending.putIfAbsent(key, task) != null) {
+            return false;
+        }
+        stsRequests.incrementAndGet();
+        backgroundRenewals.incrementAndGet();
+        try {
+            if (executor == null) {
+                task.run();
+            } else {
+                executor.execute(task);
+            }
+        } catch (RejectedExecutionException ex) {
+            LOG.fine("Background renewal of " + key + " was rejected, renewing on expiry instead");
+            stsRequests.decrementAndGet();
+            backgroundRenewals.decrementAndGet();
+            pending.remove(key, task);
+            return false;
+        }
+        return true;
+    }
+    
+    /**
+     * Return true if a request with the given key is in progress.
+     */
+    public boolean isPending(String key) {
+        return pending.containsKey(key);
+    }
+    
+    public void recordCacheHit() {
+        cacheHits.incrementAndGet();
+    }
+    
+    /**
+     * The number of requests served with a cached token without contacting the STS.
+     */
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+    
+    /**
+     * The number of issue and renew round trips made to the STS.
+     */
+    public long getSTSRequests() {
+        return stsRequests.get();
+    }
+    
+    /**
+     * The number of requests that waited for a round trip started by another request.
+     */
+    public long getCoalescedRequests() {
+        return coalescedRequests.get();
+    }
+    
+    /**
+     * The number of STS round trips that were background renewals.
+     */
+    public long getBackgroundRenewals() {
+        return backgroundRenewals.get();
+    }
+    
+    /**
+     * The number of STS round trips that failed.
+     */
+    public long getFailedRequests() {
+        return failedRequests.get();
+    }
+    
+    private FutureTask<SecurityToken> createTask(final String key, Callable<SecurityToken> call) {
+        return new FutureTask<SecurityToken>(call) {
+            protected void done() {
+                if (key != null) {
+                    pending.remove(key, this);
+                }
+                try {
+                    get();
+                } catch (ExecutionException ex) {
+                    failedRequests.incrementAndGet();
+                    LOG.log(Level.FINE, "STS request " + key + " failed", ex.getCause());
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+    }
+    
+    private static SecurityToken getResult(FutureTask<SecurityToken> task) throws Exception {
+        try {
+            return task.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception)cause;
+            } else if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.ws.security.trust;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.cxf.ws.security.tokenstore.SecurityToken;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class STSTokenCoordinatorTest extends Assert {
+    
+    @Test
+    public void testConcurrentRequestsShareOneInvocation() throws Exception {
+        final STSTokenCoordinator coordinator = new STSTokenCoordinator();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger invocations = new AtomicInteger();
+        final Callable<SecurityToken> issue = new Callable<SecurityToken>() {
+            public SecurityToken call() throws Exception {
+                invocations.incrementAndGet();
+                started.countDown();
+                release.await(10, TimeUnit.SECONDS);
+                return new SecurityToken("issued");
+            }
+        };
+        
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<SecurityToken> first = executor.submit(new Callable<SecurityToken>() {
+                public SecurityToken call() throws Exception {
+                    return coordinator.requestToken("issue:http://localhost/service", issue);
+                }
+            });
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            assertTrue(coordinator.isPending("issue:http://localhost/service"));
+            
+            Future<SecurityToken> second = executor.submit(new Callable<SecurityToken>() {
+                public SecurityToken call() throws Exception {
+                    return coordinator.requestToken("issue:http://localhost/service", issue);
+                }
+            });
+            while (coordinator.getCoalescedRequests() == 0) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+            
+            assertSame(first.get(10, TimeUnit.SECONDS), second.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, invocations.get());
+        assertEquals(1, coordinator.getSTSRequests());
+        assertEquals(1, coordinator.getCoalescedRequests());
+        assertFalse(coordinator.isPending("issue:http://localhost/service"));
+    }
+    
+    @Test
+    public void testFailureIsPropagatedAndNotCached() throws Exception {
+        STSTokenCoordinator coordinator = new STSTokenCoordinator();
+        try {
+            coordinator.requestToken("issue:a", new Callable<SecurityToken>() {
+                public SecurityToken call() throws Exception {
+                    throw new IOException("STS unavailable");
+                }
+            });
+            fail("Expected IOException");
+        } catch (IOException ex) {
+            // expected
+        }
+        assertEquals(1, coordinator.getFailedRequests());
+        
+        SecurityToken tok = coordinator.requestToken("issue:a", new Callable<SecurityToken>() {
+            public SecurityToken call() {
+                return new SecurityToken("issued");
+            }
+        });
+        assertEquals("issued", tok.getId());
+        assertEquals(2, coordinator.getSTSRequests());
+    }
+    
+    @Test
+    public void testRenewInBackground() throws Exception {
+        STSTokenCoordinator coordinator = new STSTokenCoordinator();
+        final CountDownLatch renewed = new CountDownLatch(1);
+        Callable<SecurityToken> renewal = new Callable<SecurityToken>() {
+            public SecurityToken call() {
+                renewed.countDown();
+                return new SecurityToken("renewed");
+            }
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            assertTrue(coordinator.renewInBackground("renew:tok", renewal, executor));
+            assertTrue(renewed.await(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        assertFalse(coordinator.isPending("renew:tok"));
+        assertEquals(1, coordinator.getBackgroundRenewals());
+        assertEquals(1, coordinator.getSTSRequests());
+    }
+    
+    @Test
+    public void testIsAboutToExpire() {
+        long now = System.currentTimeMillis();
+        SecurityToken tok = new SecurityToken("tok", new Date(now), new Date(now + 30000L));
+        assertFalse(STSTokenCoordinator.isAboutToExpire(tok, 0));
+        assertFalse(STSTokenCoordinator.isAboutToExpire(tok, 10));
+        assertTrue(STSTokenCoordinator.isAboutToExpire(tok, 60));
+        assertFalse(STSTokenCoordinator.isAboutToExpire(new SecurityToken("noexpiry"), 60));
+    }
+}
@@ -19,6 +19,7 @@
 
 package org.apache.cxf.systest.jaxws;
 
+import java.io.File;
 import java.net.URL;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -27,6 +28,8 @@ import java.util.List;
 
 import org.apache.cxf.endpoint.Client;
 import org.apache.cxf.endpoint.ClientCallback;
+import org.apache.cxf.endpoint.dynamic.DynamicClientCache;
+import org.apache.cxf.helpers.FileUtils;
 import org.apache.cxf.helpers.IOUtils;
 import org.apache.cxf.interceptor.LoggingInInterceptor;
 import org.apache.cxf.interceptor.LoggingOutInterceptor;
@@ -120,4 +123,38 @@ public class JaxWsDynamicClientTest extends AbstractBusClientServerTestBase {
         client.invoke("init", list);
     }
     
+    @Test
+    public void testCachedClasses() throws Exception {
+        File dir = FileUtils.createTempFile("dynamic-client-cache", "");
+        FileUtils.delete(dir);
+        String wsdl = "http://localhost:" + PORT1 + "/ArrayService?wsdl";
+        List<String> list = Arrays.asList("foobar", "something");
+        ClassLoader orig = Thread.currentThread().getContextClassLoader();
+        try {
+            JaxWsDynamicClientFactory dcf = JaxWsDynamicClientFactory.newInstance();
+            dcf.setCache(new DynamicClientCache(dir));
+            dcf.prewarm(Arrays.asList(wsdl), orig);
+            File[] entries = dir.listFiles();
+            assertEquals(1, entries.length);
+            assertTrue(new File(entries[0], "client.properties").isFile());
+            
+            Client client = dcf.createClient(new URL(wsdl));
+            ClassLoader generated = Thread.currentThread().getContextClassLoader();
+            client.invoke("init", list);
+            dcf.createClient(new URL(wsdl));
+            assertSame(generated, Thread.currentThread().getContextClassLoader());
+            
+            // a new cache only finds the classes stored in the directory
+            Thread.currentThread().setContextClassLoader(orig);
+            dcf = JaxWsDynamicClientFactory.newInstance();
+            dcf.setCache(new DynamicClientCache(dir));
+            client = dcf.createClient(new URL(wsdl));
+            assertNotSame(generated, Thread.currentThread().getContextClassLoader());
+            client.invoke("init", list);
+            assertEquals(1, dir.listFiles().length);
+        } finally {
+            Thread.currentThread().setContextClassLoader(orig);
+            FileUtils.removeDir(dir);
+        }
+    }
 }
@@ -186,7 +186,7 @@ public abstract class AbstractToolContainer implements ToolContainer {
     }
     
     public Bus getBus() {
-        Bus bus = BusFactory.getDefaultBus();
+        Bus bus = BusFactory.getThreadDefaultBus();
 
         OASISCatalogManager catalogManager = bus.getExtension(OASISCatalogManager.class);
         